@@ -3,6 +3,11 @@ package manager;
 import game_state.RailCard;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -13,7 +18,10 @@ import referee.GameEndReport;
 import referee.IReferee;
 import referee.TrainsReferee;
 import utils.CommunicationUtils;
+import utils.ITimingPolicy;
 import utils.InitializationUtils;
+import utils.InteractionScheduler;
+import utils.TimingPolicy;
 
 /**
  * This KnockOutTournamentManager runs a tournament of Trains on a list of players, constructed through the
@@ -25,21 +33,29 @@ import utils.InitializationUtils;
  *  of every game of round n move on to round n+1, and so on.
  */
 public class KnockOutTournamentManager implements ITournamentManager {
-  private static final int TIME_OUT_IN_SECONDS = 2;
   public static final int MAX_NUMBER_OF_USELESS_ROUNDS = 1;
 
   private final List<IPlayer> initialPlayersInOrder;
   private final Function<ITrainMap, List<Destination>> destinationProvider;
   private final Supplier<List<RailCard>> deckSupplier;
+  private final InteractionScheduler interactionScheduler;
+  private final ITimingPolicy timingPolicy;
+  private final int roundParallelism;
 
   /** Constructor defensively copies list of IPlayer. */
   private KnockOutTournamentManager(
       List<IPlayer> initialPlayersInOrder,
       Function<ITrainMap, List<Destination>> destinationProvider,
-      Supplier<List<RailCard>> deckSupplier) {
+      Supplier<List<RailCard>> deckSupplier,
+      InteractionScheduler interactionScheduler,
+      ITimingPolicy timingPolicy,
+      int roundParallelism) {
     this.initialPlayersInOrder = new ArrayList<>(initialPlayersInOrder);
     this.destinationProvider = destinationProvider;
     this.deckSupplier = deckSupplier;
+    this.interactionScheduler = interactionScheduler;
+    this.timingPolicy = timingPolicy;
+    this.roundParallelism = roundParallelism;
   }
 
   /**
@@ -53,6 +69,9 @@ public class KnockOutTournamentManager implements ITournamentManager {
     private final List<IPlayer> playersInOrder;
     private Function<ITrainMap, List<Destination>> destinationProvider;
     private Supplier<List<RailCard>> deckSupplier;
+    private InteractionScheduler interactionScheduler;
+    private ITimingPolicy timingPolicy;
+    private int roundParallelism;
 
     /**
      * Constructs this builder from the required map and players.
@@ -69,6 +88,10 @@ public class KnockOutTournamentManager implements ITournamentManager {
       this.playersInOrder = playersInOrder;
       this.destinationProvider = InitializationUtils::defaultDestinationProvider;
       this.deckSupplier = () -> InitializationUtils.defaultDeckSupplier(NUM_CARDS_IN_DECK);
+      this.interactionScheduler = InteractionScheduler.shared();
+      this.timingPolicy =
+          TimingPolicy.perCall(TrainsReferee.TIME_OUT_IN_SECONDS, TimeUnit.SECONDS);
+      this.roundParallelism = 1;
     }
 
     /**
@@ -94,6 +117,46 @@ public class KnockOutTournamentManager implements ITournamentManager {
       return this;
     }
 
+    /**
+     * Updates the scheduler that player calls are run on, shared with every referee of the
+     * tournament.
+     *
+     * @param interactionScheduler new interaction scheduler.
+     * @return the updated builder for chaining.
+     */
+    public ManagerBuilder interactionScheduler(InteractionScheduler interactionScheduler) {
+      this.interactionScheduler = interactionScheduler;
+      return this;
+    }
+
+    /**
+     * Updates the policy deciding how long players may take to respond, used by every referee of
+     * the tournament. The manager's own calls to players are held to the policy's per-call limit.
+     *
+     * @param timingPolicy new timing policy.
+     * @return the updated builder for chaining.
+     */
+    public ManagerBuilder timingPolicy(ITimingPolicy timingPolicy) {
+      this.timingPolicy = timingPolicy;
+      return this;
+    }
+
+    /**
+     * Updates the number of games of a single round that may be played at the same time. A value
+     * of 1 (the default) plays the games of a round one after another.
+     *
+     * @param roundParallelism the maximum number of games of a round running at once.
+     * @return the updated builder for chaining.
+     * @throws IllegalArgumentException if roundParallelism is not positive.
+     */
+    public ManagerBuilder roundParallelism(int roundParallelism) {
+      if (roundParallelism < 1) {
+        throw new IllegalArgumentException("At least one game must be run at a time");
+      }
+      this.roundParallelism = roundParallelism;
+      return this;
+    }
+
     /**
      * Builds the referee, throwing exceptions if any inputs are null.
      *
@@ -102,8 +165,11 @@ public class KnockOutTournamentManager implements ITournamentManager {
     public KnockOutTournamentManager build() {
       Objects.requireNonNull(this.deckSupplier);
       Objects.requireNonNull(this.destinationProvider);
+      Objects.requireNonNull(this.interactionScheduler);
+      Objects.requireNonNull(this.timingPolicy);
       return new KnockOutTournamentManager(
-          this.playersInOrder, this.destinationProvider, this.deckSupplier);
+          this.playersInOrder, this.destinationProvider, this.deckSupplier,
+          this.interactionScheduler, this.timingPolicy, this.roundParallelism);
     }
   }
 
@@ -135,7 +201,8 @@ public class KnockOutTournamentManager implements ITournamentManager {
         (p) -> {
           p.tournamentResult(true);
           return true;
-        }, player, TIME_OUT_IN_SECONDS);
+        }, player, this.timingPolicy.getCallLimitNanos(), TimeUnit.NANOSECONDS,
+          this.interactionScheduler);
     }
 
     List<IPlayer> onlyLosers = new ArrayList<IPlayer>(this.initialPlayersInOrder){{
@@ -148,7 +215,8 @@ public class KnockOutTournamentManager implements ITournamentManager {
         (p) -> {
           p.tournamentResult(false);
           return true;
-        }, player, TIME_OUT_IN_SECONDS);
+        }, player, this.timingPolicy.getCallLimitNanos(), TimeUnit.NANOSECONDS,
+          this.interactionScheduler);
     }
   }
 
@@ -161,21 +229,35 @@ public class KnockOutTournamentManager implements ITournamentManager {
   public TournamentState initializeTournament() {
     List<IPlayer> survivedSetup = new ArrayList<>();
     List<IPlayer> misbehavedInSetup = new ArrayList<>();
-    List<ITrainMap> submittedMaps = new ArrayList<>();
-
-    for (IPlayer player : this.initialPlayersInOrder) {
-      Optional<ITrainMap> submittedMap =
-          CommunicationUtils.tryPlayerInteraction(
-              IPlayer::tournamentStart, player, TIME_OUT_IN_SECONDS);
-      if (submittedMap.isPresent()) {
+    List<ITrainMap> receivedMaps = new ArrayList<>();
+
+    // Every player is asked at once, so setup takes as long as the slowest player, not all of them.
+    // Players past the scheduler's free workers wait for one without it counting against them
+    List<Optional<ITrainMap>> submissions =
+        CommunicationUtils.tryPlayerInteractions(
+            IPlayer::tournamentStart,
+            this.initialPlayersInOrder,
+            this.timingPolicy.getCallLimitNanos(),
+            TimeUnit.NANOSECONDS,
+            this.interactionScheduler);
+    for (int index = 0; index < submissions.size(); index += 1) {
+      IPlayer player = this.initialPlayersInOrder.get(index);
+      if (submissions.get(index).isPresent()) {
         survivedSetup.add(player);
-        if(!InitializationUtils.notEnoughDestinations(submittedMap.get().getAllPossibleDestinations().size(), initialPlayersInOrder.size(), 5, 2)) {
-          submittedMaps.add(submittedMap.get());
-        }
+        receivedMaps.add(submissions.get(index).get());
       } else {
         misbehavedInSetup.add(player);
       }
     }
+
+    // Index the destinations of every map in parallel; each map caches its index, so choosing the
+    // tournament map below only reads the counts
+    long minDestinations =
+        InitializationUtils.minDestinationsToPlay(initialPlayersInOrder.size(), 5, 2);
+    List<ITrainMap> submittedMaps =
+        receivedMaps.parallelStream()
+            .filter((map) -> map.getDestinationIndex().getNumDestinations() >= minDestinations)
+            .collect(Collectors.toList());
     return new TournamentState(
         chooseTournamentMap(submittedMaps), survivedSetup, new HashSet<>(misbehavedInSetup));
   }
@@ -194,7 +276,7 @@ public class KnockOutTournamentManager implements ITournamentManager {
 
     List<ITrainMap> feasibleMaps =
         mapSubmissions.stream()
-            .filter((map) -> map.getAllPossibleDestinations().size() >= minDestPerMap)
+            .filter((map) -> map.getDestinationIndex().getNumDestinations() >= minDestPerMap)
             .collect(Collectors.toList());
 
     if (feasibleMaps.isEmpty()) {
@@ -219,13 +301,56 @@ public class KnockOutTournamentManager implements ITournamentManager {
     List<IPlayer> survivedThisRound = new ArrayList<>();
     List<IPlayer> cheatedThisRound = new ArrayList<>();
 
-    for (List<IPlayer> singleGamePlayers : initPlayers) {
-      runAGame(tournamentState.tournamentMap, singleGamePlayers, survivedThisRound, cheatedThisRound);
+    if (this.roundParallelism > 1 && initPlayers.size() > 1) {
+      runGamesInParallel(tournamentState.tournamentMap, initPlayers, survivedThisRound, cheatedThisRound);
+    } else {
+      for (List<IPlayer> singleGamePlayers : initPlayers) {
+        runAGame(tournamentState.tournamentMap, singleGamePlayers, survivedThisRound, cheatedThisRound);
+      }
     }
     tournamentState.updateOnRoundEnd(survivedThisRound, new HashSet<>(cheatedThisRound),
             survivedThisRound.equals(tournamentState.stillAlive));
   }
 
+  /**
+   * Runs the games of a round at the same time, each on its own worker, and merges their results in
+   * the order of the groups so that the outcome is the same as running them one after another.
+   * @param tournamentMap an ITrainMap for the tournament.
+   * @param groups the players of each game of the round, in order.
+   * @param survivedThisRound the List of ITournamentPlayer that got the highest score in their game.
+   * @param cheatedThisRound the List of ITournamentPlayer that cheated during their game.
+   */
+  private void runGamesInParallel(ITrainMap tournamentMap, List<List<IPlayer>> groups,
+                                  List<IPlayer> survivedThisRound,
+                                  List<IPlayer> cheatedThisRound) {
+    ExecutorService gameRunner =
+        Executors.newFixedThreadPool(Math.min(this.roundParallelism, groups.size()));
+    try {
+      List<Future<List<List<IPlayer>>>> gameResults = new ArrayList<>();
+      for (List<IPlayer> singleGamePlayers : groups) {
+        gameResults.add(gameRunner.submit(() -> {
+          List<IPlayer> survivedThisGame = new ArrayList<>();
+          List<IPlayer> cheatedThisGame = new ArrayList<>();
+          runAGame(tournamentMap, singleGamePlayers, survivedThisGame, cheatedThisGame);
+          return Arrays.asList(survivedThisGame, cheatedThisGame);
+        }));
+      }
+
+      for (Future<List<List<IPlayer>>> gameResult : gameResults) {
+        List<List<IPlayer>> survivedAndCheated = gameResult.get();
+        survivedThisRound.addAll(survivedAndCheated.get(0));
+        cheatedThisRound.addAll(survivedAndCheated.get(1));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while running a tournament round.", e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException("A game of the tournament round failed.", e.getCause());
+    } finally {
+      gameRunner.shutdownNow();
+    }
+  }
+
   /**
    * Runs a game of Trains for the tournament.
    * @param tournamentState the current state of the tournament.
@@ -253,7 +378,8 @@ public class KnockOutTournamentManager implements ITournamentManager {
                         List<IPlayer> cheatedThisRound) {
     // Run a game
     IReferee ref = new TrainsReferee.RefereeBuilder(tournamentMap, new ArrayList<>(singleGamePlayers)).
-            deckProvider(this.deckSupplier).destinationProvider(this.destinationProvider).build();
+            deckProvider(this.deckSupplier).destinationProvider(this.destinationProvider).
+            interactionScheduler(this.interactionScheduler).timingPolicy(this.timingPolicy).build();
     GameEndReport gameResult = ref.playGame();
           
     if (gameResult.playerRanking.size() > 0) {
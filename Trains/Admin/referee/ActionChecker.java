@@ -2,8 +2,6 @@ package referee;
 
 import game_state.IPlayerGameState;
 import game_state.RailCard;
-import java.util.Map;
-import java.util.Optional;
 import map.IRailConnection;
 import map.ITrainMap;
 import utils.RailCardUtils;
@@ -44,12 +42,9 @@ public class ActionChecker implements IActionChecker {
      * @return Whether the connection exists in the map.
      */
     private static boolean connectionExists(ITrainMap map, IRailConnection desiredConnection) {
-        Optional<IRailConnection> desiredConnectionInMap =
-            map.getRailConnections().stream()
-                .filter((connection) -> connection.sameRailConnection(desiredConnection))
-                .findFirst();
-        return desiredConnectionInMap.isPresent()
-            && desiredConnectionInMap.get().getLength() == desiredConnection.getLength();
+        int connectionId = map.getConnectionId(desiredConnection);
+        return connectionId >= 0
+            && map.getConnectionById(connectionId).getLength() == desiredConnection.getLength();
     }
 
     /**
@@ -62,7 +57,7 @@ public class ActionChecker implements IActionChecker {
      */
     private static boolean connectionAvailable(
         IPlayerGameState gameStateForPlayer, IRailConnection desiredConnection, ITrainMap map) {
-        return gameStateForPlayer.calculateUnoccupiedConnections(map).contains(desiredConnection);
+        return gameStateForPlayer.isConnectionUnoccupied(desiredConnection, map);
     }
 
     /**
@@ -90,9 +85,7 @@ public class ActionChecker implements IActionChecker {
     private static boolean hasEnoughCards(
         IPlayerGameState gameStateForPlayer, IRailConnection desiredConnection) {
         RailCard cardForConnection = RailCardUtils.railCardFromColor(desiredConnection.getColor());
-        Map<RailCard, Integer> playerHand = gameStateForPlayer.getCardsInHand();
-
-        return playerHand.containsKey(cardForConnection)
-            && playerHand.get(cardForConnection) >= desiredConnection.getLength();
+        return gameStateForPlayer.getNumCardsOfType(cardForConnection)
+            >= desiredConnection.getLength();
     }
 }
@@ -0,0 +1,119 @@
+package referee;
+
+import game_state.RailCard;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The central deck of RailCards that players draw from, drawn from the top in order.
+ *
+ * <p>The cards are copied once into an array and a cursor marks the top of the deck, so drawing a
+ * card never shifts the remaining ones. Cards are never removed from the array, which means the
+ * position of the cursor is a complete snapshot of the deck: a deck rewound to an earlier position
+ * deals the same cards again, in the same order.
+ */
+public class Deck {
+  private final RailCard[] cards;
+  private int position; // Index of the top card, every card before it has been drawn
+
+  /**
+   * Constructs a deck of the given cards, with the first card of the list on top.
+   *
+   * @param cards the cards of the deck, copied so that later changes to the list have no effect.
+   */
+  public Deck(List<RailCard> cards) {
+    Objects.requireNonNull(cards);
+    this.cards = cards.toArray(new RailCard[0]);
+    for (RailCard card : this.cards) {
+      Objects.requireNonNull(card);
+    }
+    this.position = 0;
+  }
+
+  /**
+   * Gets the number of cards that have not been drawn yet.
+   *
+   * @return the number of cards remaining in the deck.
+   */
+  public int size() {
+    return this.cards.length - this.position;
+  }
+
+  /**
+   * Determines whether every card has been drawn.
+   *
+   * @return true if no cards remain, false otherwise.
+   */
+  public boolean isEmpty() {
+    return this.position == this.cards.length;
+  }
+
+  /**
+   * Draws the top card of the deck.
+   *
+   * @return the card drawn.
+   * @throws IllegalStateException if the deck is empty.
+   */
+  public RailCard draw() throws IllegalStateException {
+    if (this.isEmpty()) {
+      throw new IllegalStateException("Cannot draw from an empty deck.");
+    }
+    RailCard card = this.cards[this.position];
+    this.position += 1;
+    return card;
+  }
+
+  /**
+   * Draws up to the given number of cards from the top of the deck, drawing every remaining card if
+   * there are fewer than that.
+   *
+   * @param numCards the most cards to draw.
+   * @return the cards drawn, in the order they were drawn.
+   * @throws IllegalArgumentException if numCards is negative.
+   */
+  public List<RailCard> draw(int numCards) throws IllegalArgumentException {
+    if (numCards < 0) {
+      throw new IllegalArgumentException("Cannot draw a negative number of cards.");
+    }
+    int end = this.position + Math.min(numCards, this.size());
+    List<RailCard> drawn = Arrays.asList(Arrays.copyOfRange(this.cards, this.position, end));
+    this.position = end;
+    return drawn;
+  }
+
+  /**
+   * Gets the remaining cards, top card first, without drawing them.
+   *
+   * @return an unmodifiable copy of the cards remaining in the deck.
+   */
+  public List<RailCard> getRemainingCards() {
+    return Collections.unmodifiableList(
+        Arrays.asList(Arrays.copyOfRange(this.cards, this.position, this.cards.length)));
+  }
+
+  /**
+   * Gets the position of the deck, which is the number of cards drawn so far. Passing it to
+   * rewindTo() restores the deck to this point.
+   *
+   * @return the number of cards drawn from the deck.
+   */
+  public int getPosition() {
+    return this.position;
+  }
+
+  /**
+   * Restores the deck to an earlier position, so that the cards drawn since then are dealt again.
+   *
+   * @param position a position previously returned by getPosition().
+   * @throws IllegalArgumentException if the position is negative or later than the current one.
+   */
+  public void rewindTo(int position) throws IllegalArgumentException {
+    if (position < 0 || position > this.position) {
+      throw new IllegalArgumentException(
+          "Cannot rewind to position " + position + " from position " + this.position + ".");
+    }
+    this.position = position;
+  }
+}
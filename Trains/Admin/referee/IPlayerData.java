@@ -44,9 +44,34 @@ public interface IPlayerData {
   Set<Destination> getDestinations();
 
   /**
-   * Retrieves a mutable set of this player's owned rail connections.
+   * Retrieves this player's owned rail connections. Connections are added through
+   * addOwnedConnection so that the player's connectivity is kept up to date.
    *
-   * @return the mutable set of owned connections.
+   * @return an unmodifiable view of the owned connections.
    */
   Set<IRailConnection> getOwnedConnections();
+
+  /**
+   * Adds the given connection to this player's owned rail connections.
+   *
+   * @param connection the newly acquired connection.
+   */
+  void addOwnedConnection(IRailConnection connection);
+
+  /**
+   * Determines whether the given destination is connected by this player's owned connections.
+   *
+   * @param destination the destination to check.
+   * @return true if the destination's cities are connected by this player's connections.
+   */
+  boolean isDestinationConnected(Destination destination);
+
+  /**
+   * Counts how many of this player's destinations are connected by their owned connections.
+   *
+   * @return an integer in the range [0, getDestinations().size()].
+   */
+  default int getNumDestinationsConnected() {
+    return (int) this.getDestinations().stream().filter(this::isDestinationConnected).count();
+  }
 }
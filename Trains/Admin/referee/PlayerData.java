@@ -1,15 +1,19 @@
 package referee;
 
 import game_state.RailCard;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 import map.Destination;
 import map.IRailConnection;
+import utils.CityUnionFind;
 
 /**
  * A direct implementation of the IPlayerData interface where fields are copied defensively in
- * constructor but returned as mutable references through getters.
+ * constructor but returned as mutable references through getters, except for the owned connections.
+ * Those only change through addOwnedConnection, which also joins the connection's cities in a
+ * union-find so that checking a destination never needs a graph of the connections.
  */
 public class PlayerData implements IPlayerData {
 
@@ -17,6 +21,8 @@ public class PlayerData implements IPlayerData {
   private int numRails;
   private final Set<Destination> destinations;
   private final Set<IRailConnection> ownedConnections;
+  private final Set<IRailConnection> ownedConnectionsView;
+  private final CityUnionFind connectedCities;
 
   /**
    * Initializes this from the given fields directly, making defensive copies for all mutable types.
@@ -37,10 +43,15 @@ public class PlayerData implements IPlayerData {
     Objects.requireNonNull(destinations);
     Objects.requireNonNull(ownedConnections);
 
-    this.hand = new TrainsPlayerHand(hand.getHand());
+    this.hand = TrainsPlayerHand.copyOf(hand);
     this.numRails = numRails;
     this.destinations = new HashSet<>(destinations);
-    this.ownedConnections = new HashSet<>(ownedConnections);
+    this.ownedConnections = new HashSet<>();
+    this.ownedConnectionsView = Collections.unmodifiableSet(this.ownedConnections);
+    this.connectedCities = new CityUnionFind();
+    for (IRailConnection connection : ownedConnections) {
+      this.addOwnedConnection(connection);
+    }
   }
 
   /**
@@ -80,6 +91,17 @@ public class PlayerData implements IPlayerData {
 
   @Override
   public Set<IRailConnection> getOwnedConnections() {
-    return this.ownedConnections;
+    return this.ownedConnectionsView;
+  }
+
+  @Override
+  public void addOwnedConnection(IRailConnection connection) {
+    this.ownedConnections.add(Objects.requireNonNull(connection));
+    this.connectedCities.union(connection.getCities().first, connection.getCities().second);
+  }
+
+  @Override
+  public boolean isDestinationConnected(Destination destination) {
+    return this.connectedCities.areConnected(destination.first, destination.second);
   }
 }
@@ -1,17 +1,23 @@
 package referee;
 
+import game_state.ConnectionOccupancy;
 import game_state.IOpponentInfo;
 import game_state.IPlayerGameState;
 import game_state.OpponentInfo;
 import game_state.PlayerGameState;
 import game_state.RailCard;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import map.Destination;
 import map.IRailConnection;
 import map.ITrainMap;
 import player.IPlayer;
@@ -37,8 +43,18 @@ class RefereeGameState {
   private final Set<IPlayer> removedPlayers;
   private int numConsecutiveInsignificantTurns;
   private int indexOfCurrentPlayer;
-  private final List<RailCard> deck;
+  private final Deck deck;
   private final ITrainMap map;
+  // Every connection owned by a player still in the game, updated as connections are acquired
+  private final ConnectionOccupancy occupancy;
+  // Incremented by every change to this state, so a player game state can be reused until then
+  private long version;
+  private IPlayerGameState activePlayerState;
+  private long activePlayerStateVersion;
+  // Unmodifiable copies of each player's connections and destinations, shared by the player game
+  // states of every turn until the player acquires another connection
+  private final Map<PlayerInfoPair, OpponentInfo> connectionSnapshots;
+  private final Map<PlayerInfoPair, Set<Destination>> destinationSnapshots;
 
   /**
    * Constructs this RefereeGameState with defensive copies where appropriate.
@@ -55,10 +71,20 @@ class RefereeGameState {
       ITrainMap map) {
     this.playersInTurnOrder = new ArrayList<>(playersInTurnOrder);
     this.removedPlayers = new HashSet<>(removedPlayers);
-    this.deck = new ArrayList<>(deck);
+    this.deck = new Deck(deck);
     this.indexOfCurrentPlayer = 0;
     this.numConsecutiveInsignificantTurns = 0;
     this.map = map;
+    this.occupancy = new ConnectionOccupancy(map);
+    for (PlayerInfoPair player : this.playersInTurnOrder) {
+      for (IRailConnection connection : player.playerData.getOwnedConnections()) {
+        this.occupancy.occupy(connection);
+      }
+    }
+    this.version = 0;
+    this.activePlayerStateVersion = -1;
+    this.connectionSnapshots = new IdentityHashMap<>();
+    this.destinationSnapshots = new IdentityHashMap<>();
   }
 
   //region Getters
@@ -82,6 +108,17 @@ class RefereeGameState {
     return this.playersInTurnOrder.get(this.indexOfCurrentPlayer);
   }
 
+  /**
+   * Returns the playerData of the player whose turn is after the active player's, which is the
+   * active player if they are the only one.
+   *
+   * @return player data of the next player
+   */
+  PlayerInfoPair getNextPlayer() {
+    return this.playersInTurnOrder.get(
+        (this.indexOfCurrentPlayer + 1) % this.playersInTurnOrder.size());
+  }
+
   /**
    * Returns active players in turn order, defensively copied.
    *
@@ -100,6 +137,15 @@ class RefereeGameState {
     return new HashSet<>(this.removedPlayers);
   }
 
+  /**
+   * Gets the cards that have not been drawn yet.
+   *
+   * @return an unmodifiable list of the remaining cards, top card first.
+   */
+  List<RailCard> getRemainingDeck() {
+    return this.deck.getRemainingCards();
+  }
+
   /**
    * Gets the number of consecutive insignificant turns tracked by this game state.
    *
@@ -118,6 +164,7 @@ class RefereeGameState {
    *     increment by 1.
    */
   void advanceTurn(boolean significant) {
+    this.version += 1;
     this.indexOfCurrentPlayer = (this.indexOfCurrentPlayer + 1) % this.playersInTurnOrder.size();
     if (significant) {
       this.numConsecutiveInsignificantTurns = 0;
@@ -133,8 +180,14 @@ class RefereeGameState {
   void removeActivePlayer() {
     // Because a player's rails, cards, destinations, and connections are calculated
     // from the playerData, this removal automatically discards/removes those things as well
+    this.version += 1;
     PlayerInfoPair removed = this.playersInTurnOrder.remove(this.indexOfCurrentPlayer);
     this.removedPlayers.add(removed.playerCommunication);
+    this.connectionSnapshots.remove(removed);
+    this.destinationSnapshots.remove(removed);
+    for (IRailConnection connection : removed.playerData.getOwnedConnections()) {
+      this.occupancy.release(connection);
+    }
     this.numConsecutiveInsignificantTurns = 0;
 
     if (this.playersInTurnOrder.size() != 0) {
@@ -147,22 +200,78 @@ class RefereeGameState {
    * the active player's private information, and public information about each other player in the
    * game.
    *
+   * <p>The returned state is an unmodifiable snapshot. The same snapshot is returned until this
+   * game state changes, and snapshots share the unchanged parts of each player's information.
+   *
    * @return The game state that is visible to the currently active player.
    */
   IPlayerGameState getActivePlayerState() {
-    return new PlayerGameState(this.getActivePlayer().playerData, this.calculateOpponentInfo());
+    if (this.activePlayerStateVersion != this.version) {
+      this.activePlayerState = this.playerStateOf(this.indexOfCurrentPlayer);
+      this.activePlayerStateVersion = this.version;
+    }
+    return this.activePlayerState;
   }
 
-  /** Calculates opponent info for creating the active player game state. */
-  private List<IOpponentInfo> calculateOpponentInfo() {
+  /**
+   * Captures the state of the game as it is now, from the perspective of the player whose turn is
+   * next. It matches the state that player will receive on their turn except for whatever the
+   * active player changes during this turn, shares the same snapshots of the other players'
+   * information, and has no index of occupied connections.
+   *
+   * <p>Capturing only looks up the snapshots and copies the next player's hand; the returned
+   * supplier builds the state, and may be called on any thread while the game goes on.
+   *
+   * @return a supplier of the state visible to the next player, or empty if the active player is
+   *     the only one.
+   */
+  Optional<Supplier<IPlayerGameState>> getNextPlayerStatePreview() {
+    if (this.playersInTurnOrder.size() < 2) {
+      return Optional.empty();
+    }
+    int playerIndex = (this.indexOfCurrentPlayer + 1) % this.playersInTurnOrder.size();
+    PlayerInfoPair player = this.playersInTurnOrder.get(playerIndex);
+    TrainsPlayerHand cardsInHand = TrainsPlayerHand.copyOf(player.playerData.getPlayerHand());
+    int numRails = player.playerData.getNumRails();
+    Set<IRailConnection> ownedConnections = this.connectionSnapshotOf(player).getOwnedConnections();
+    Set<Destination> destinations = this.destinationSnapshotOf(player);
+    List<IOpponentInfo> opponentInfo = this.calculateOpponentInfo(playerIndex);
+    return Optional.of(() -> PlayerGameState.fromSharedSnapshots(
+        cardsInHand, numRails, ownedConnections, destinations, opponentInfo));
+  }
+
+  /** Creates the state visible to the player at the given index in turn order. */
+  private IPlayerGameState playerStateOf(int playerIndex) {
+    PlayerInfoPair player = this.playersInTurnOrder.get(playerIndex);
+    return PlayerGameState.fromSharedSnapshots(
+        player.playerData,
+        this.connectionSnapshotOf(player).getOwnedConnections(),
+        this.destinationSnapshotOf(player),
+        this.calculateOpponentInfo(playerIndex),
+        this.occupancy);
+  }
+
+  /** Gets the unmodifiable snapshot of the given player's destinations, making it if necessary. */
+  private Set<Destination> destinationSnapshotOf(PlayerInfoPair player) {
+    return this.destinationSnapshots.computeIfAbsent(
+        player, (p) -> Collections.unmodifiableSet(new HashSet<>(p.playerData.getDestinations())));
+  }
+
+  /** Calculates opponent info for creating the game state of the player at the given index. */
+  private List<IOpponentInfo> calculateOpponentInfo(int playerIndex) {
     List<IOpponentInfo> result = new ArrayList<>();
     for (int index = 0; index < this.playersInTurnOrder.size(); index += 1) {
-      if (index != this.indexOfCurrentPlayer) {
-        result.add(
-            new OpponentInfo(this.playersInTurnOrder.get(index).playerData.getOwnedConnections()));
+      if (index != playerIndex) {
+        result.add(this.connectionSnapshotOf(this.playersInTurnOrder.get(index)));
       }
     }
-    return result;
+    return Collections.unmodifiableList(result);
+  }
+
+  /** Gets the unmodifiable snapshot of the given player's connections, making it if necessary. */
+  private OpponentInfo connectionSnapshotOf(PlayerInfoPair player) {
+    return this.connectionSnapshots.computeIfAbsent(
+        player, (p) -> new OpponentInfo(p.playerData.getOwnedConnections()));
   }
 
   /**
@@ -174,20 +283,14 @@ class RefereeGameState {
    * @return a copy of the cards given to the player.
    */
   List<RailCard> drawCardsForActivePlayer() {
-    int numCards = PLAYER_NUM_CARDS_PER_DRAW;
-    if (numCards > this.deck.size()) {
-      numCards = this.deck.size();
-    }
-
+    this.version += 1;
     IPlayerHand<RailCard> activePlayerHand = getActivePlayer().playerData.getPlayerHand();
-    List<RailCard> drawnCards = new ArrayList<>();
-    for (int ii = 0; ii < numCards; ii++) {
-      RailCard oneCard = this.deck.remove(0);
-      drawnCards.add(oneCard);
+    List<RailCard> drawnCards = this.deck.draw(PLAYER_NUM_CARDS_PER_DRAW);
+    for (RailCard oneCard : drawnCards) {
       activePlayerHand.addCardsToHand(oneCard, 1);
     }
 
-    return drawnCards;
+    return new ArrayList<>(drawnCards);
   }
 
   /**
@@ -207,6 +310,7 @@ class RefereeGameState {
         .canAcquireConnection(this.getActivePlayerState(), map, desiredConnection)) {
       return false;
     } else {
+      this.version += 1;
       IPlayerData playerData = this.getActivePlayer().playerData;
       // Remove rails and cards from player's hand
       playerData.setNumRails(playerData.getNumRails() - desiredConnection.getLength());
@@ -216,7 +320,9 @@ class RefereeGameState {
               RailCardUtils.railCardFromColor(desiredConnection.getColor()),
               desiredConnection.getLength());
       // Add connection to player's list of connections
-      playerData.getOwnedConnections().add(desiredConnection);
+      playerData.addOwnedConnection(desiredConnection);
+      this.occupancy.occupy(desiredConnection);
+      this.connectionSnapshots.remove(this.getActivePlayer());
       return true;
     }
   }
@@ -239,17 +345,20 @@ class RefereeGameState {
   /**
    * Calculate scores for each player remaining in the game.
    *
+   * @param sequentialScoring whether to score every player on the calling thread.
    * @return a mapping from IPlayer (hashed by reference hashing) to their score. Only players that
    *     made it to the end of the game are present - cheating players can be accessed from this'
    *     maintained set.
    */
-  Map<IPlayer, Integer> calculatePlayerScores() {
+  Map<IPlayer, Integer> calculatePlayerScores(boolean sequentialScoring) {
     List<Integer> scoresInOrder =
         ScoreCalculator.scorePlayers(
             new ArrayList<>(
                 this.playersInTurnOrder.stream()
                     .map((p) -> p.playerData)
-                    .collect(Collectors.toList())));
+                    .collect(Collectors.toList())),
+            this.map,
+            sequentialScoring);
 
     Map<IPlayer, Integer> result = new HashMap<>();
     for (int index = 0; index < scoresInOrder.size(); index += 1) {
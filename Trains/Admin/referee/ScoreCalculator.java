@@ -3,10 +3,11 @@ package referee;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 import map.IRailConnection;
-import org.jgrapht.Graph;
-import org.jgrapht.graph.DefaultWeightedEdge;
+import map.ITrainMap;
 import utils.ScoreGraphUtils;
 
 /**
@@ -21,56 +22,147 @@ public class ScoreCalculator {
 
     /**
      * Calculates the scores of each player, accounting for each segment, destinations
-     * completed/failed, and longest path ownership.
+     * completed/failed, and longest path ownership. Each player's graph work is done as a separate
+     * task on the common fork-join pool.
      *
      * @param playerDataInOrder the player data in turn order.
      * @return a List of Integer of the scores of the players in the same order as the given list.
      */
     public static List<Integer> scorePlayers(List<IPlayerData> playerDataInOrder) {
-        List<Integer> scoresInTurnOrder = new ArrayList<>();
+        return scorePlayers(playerDataInOrder, false);
+    }
+
+    /**
+     * Calculates the scores of each player, accounting for each segment, destinations
+     * completed/failed, and longest path ownership. The result is the same whether or not players
+     * are scored in parallel.
+     *
+     * @param playerDataInOrder the player data in turn order.
+     * @param sequential        whether to score every player on the calling thread instead of on
+     *                          the common fork-join pool.
+     * @return a List of Integer of the scores of the players in the same order as the given list.
+     */
+    public static List<Integer> scorePlayers(List<IPlayerData> playerDataInOrder,
+        boolean sequential) {
+        return scorePlayers(playerDataInOrder, sequential, (owned) ->
+            ScoreGraphUtils.calculateLongestPathLength(
+                ScoreGraphUtils.occupiedConnectionsToGraph(owned)));
+    }
+
+    /**
+     * Calculates the scores of each player like {@link #scorePlayers(List)}, finding longest paths
+     * over the map's city ids rather than a graph of city names. The scores are the same.
+     *
+     * @param playerDataInOrder the player data in turn order.
+     * @param map               the map the players' connections are on.
+     * @return a List of Integer of the scores of the players in the same order as the given list.
+     */
+    public static List<Integer> scorePlayers(List<IPlayerData> playerDataInOrder, ITrainMap map) {
+        return scorePlayers(playerDataInOrder, map, false);
+    }
+
+    /**
+     * Calculates the scores of each player like {@link #scorePlayers(List, boolean)}, finding
+     * longest paths over the map's city ids rather than a graph of city names. The scores are the
+     * same.
+     *
+     * @param playerDataInOrder the player data in turn order.
+     * @param map               the map the players' connections are on.
+     * @param sequential        whether to score every player on the calling thread instead of on
+     *                          the common fork-join pool.
+     * @return a List of Integer of the scores of the players in the same order as the given list.
+     */
+    public static List<Integer> scorePlayers(List<IPlayerData> playerDataInOrder, ITrainMap map,
+        boolean sequential) {
+        return scorePlayers(playerDataInOrder, sequential,
+            (owned) -> ScoreGraphUtils.calculateLongestPathLength(owned, map));
+    }
 
-        // Construct graph of player's occupied connections
-        List<Graph<String, DefaultWeightedEdge>> playerConnectionGraphs =
-            playerDataInOrder.stream()
-                .map(
-                    (player) ->
-                        ScoreGraphUtils.occupiedConnectionsToGraph(player.getOwnedConnections()))
+    /**
+     * Calculates the scores of each player, finding the length of each player's longest path with
+     * the given function.
+     *
+     * @param playerDataInOrder the player data in turn order.
+     * @param sequential        whether to score every player on the calling thread.
+     * @param longestPathLength gives the length of the longest path through a player's connections.
+     * @return a List of Integer of the scores of the players in the same order as the given list.
+     */
+    private static List<Integer> scorePlayers(List<IPlayerData> playerDataInOrder,
+        boolean sequential, ToIntFunction<Set<IRailConnection>> longestPathLength) {
+        List<PartialScore> partialScores;
+        if (sequential || playerDataInOrder.size() < 2) {
+            partialScores = playerDataInOrder.stream()
+                .map((player) -> calculatePartialScore(player, longestPathLength))
+                .collect(Collectors.toList());
+        } else {
+            List<ForkJoinTask<PartialScore>> tasks = playerDataInOrder.stream()
+                .map((player) -> ForkJoinTask.adapt(
+                    () -> calculatePartialScore(player, longestPathLength)))
                 .collect(Collectors.toList());
+            partialScores = ForkJoinTask.invokeAll(tasks).stream()
+                .map(ForkJoinTask::join)
+                .collect(Collectors.toList());
+        }
 
-        // Calculate players with the longest path
-        Set<Integer> playersWithLongestPath =
-            ScoreGraphUtils.calculatePlayersWithLongestPath(playerConnectionGraphs);
+        // Calculate players with the longest path, in turn order so that ties are found the same way
+        Set<Integer> playersWithLongestPath = ScoreGraphUtils.playersWithLongestPath(
+            partialScores.stream().map((score) -> score.longestPathLength)
+                .collect(Collectors.toList()));
 
-        // For each player, calculate individual score using above info
-        for (int index = 0; index < playerConnectionGraphs.size(); index += 1) {
+        List<Integer> scoresInTurnOrder = new ArrayList<>();
+        for (int index = 0; index < partialScores.size(); index += 1) {
             scoresInTurnOrder.add(
-                calculatePlayerScore(
-                    playerDataInOrder.get(index),
-                    playerConnectionGraphs.get(index),
-                    playersWithLongestPath.contains(index)));
+                partialScores.get(index).withLongestPath(playersWithLongestPath.contains(index)));
         }
-
         return scoresInTurnOrder;
     }
 
+    /**
+     * The parts of a player's score that do not depend on the other players.
+     */
+    private static class PartialScore {
+        private final int pointsWithoutLongestPath;
+        private final int longestPathLength;
+
+        private PartialScore(int pointsWithoutLongestPath, int longestPathLength) {
+            this.pointsWithoutLongestPath = pointsWithoutLongestPath;
+            this.longestPathLength = longestPathLength;
+        }
+
+        private int withLongestPath(boolean hasLongestPath) {
+            return this.pointsWithoutLongestPath + (hasLongestPath ? POINTS_FOR_LONGEST_PATH : 0);
+        }
+    }
+
+    /**
+     * Scores everything but the longest path bonus for the given player, and finds the length of
+     * their longest path.
+     *
+     * @param playerData        the data for the player.
+     * @param longestPathLength gives the length of the longest path through the connections.
+     * @return the player's partial score.
+     */
+    private static PartialScore calculatePartialScore(IPlayerData playerData,
+        ToIntFunction<Set<IRailConnection>> longestPathLength) {
+        return new PartialScore(
+            calculatePlayerScore(playerData, false),
+            longestPathLength.applyAsInt(playerData.getOwnedConnections()));
+    }
+
     /**
      * Computers the score for the given player accounting for whether they own a longest path.
      *
-     * @param playerData            the data for the player.
-     * @param playerConnectionGraph the graph representing the player's best occupied connections
-     *                              (to avoid recomputing it).
+     * @param playerData            the data for the player, which tracks the destinations its
+     *                              connections complete.
      * @param hasLongestPath        whether the player owns a longest path.
      * @return the score of the player as an integer.
      */
     private static int calculatePlayerScore(
         IPlayerData playerData,
-        Graph<String, DefaultWeightedEdge> playerConnectionGraph,
         boolean hasLongestPath) {
         int totalNumSegments = calculateTotalNumSegments(playerData);
 
-        int numDestinationsConnected =
-            ScoreGraphUtils.calculateNumDestinationsConnected(
-                playerConnectionGraph, playerData.getDestinations());
+        int numDestinationsConnected = playerData.getNumDestinationsConnected();
         return assignPoints(
             totalNumSegments,
             numDestinationsConnected,
@@ -1,21 +1,30 @@
 package referee;
 
 import game_state.RailCard;
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Set;
 
+/**
+ * A hand of RailCards, stored as a count per card type indexed by the type's ordinal along with a
+ * running total, so that counting cards never boxes or iterates over the hand.
+ */
 public class TrainsPlayerHand implements IPlayerHand<RailCard> {
+  private static final RailCard[] CARD_TYPES = RailCard.values();
 
-  Map<RailCard, Integer> playerHand; // All card types are represented as keys (possibly with 0 cards)
+  private final int[] counts; // Indexed by RailCard ordinal, every card type has a (possibly 0) count
+  private int total;
 
   public TrainsPlayerHand(List<RailCard> initialHand) {
     Objects.requireNonNull(initialHand);
-    this.playerHand = new HashMap<>();
-    for (RailCard card : RailCard.values()) {
-      this.playerHand.put(card, 0);
-    }
+    this.counts = new int[CARD_TYPES.length];
+    this.total = 0;
     for (RailCard card : initialHand) {
       this.addCardsToHand(card, 1);
     }
@@ -23,33 +32,55 @@ public class TrainsPlayerHand implements IPlayerHand<RailCard> {
 
   public TrainsPlayerHand(Map<RailCard, Integer> initialHand) throws IllegalArgumentException {
     Objects.requireNonNull(initialHand);
-    this.playerHand = new HashMap<>();
-    for (RailCard card : RailCard.values()) {
+    this.counts = new int[CARD_TYPES.length];
+    this.total = 0;
+    for (RailCard card : CARD_TYPES) {
       int numInitialCards = initialHand.getOrDefault(card, 0);
       if (numInitialCards < 0) {
         throw new IllegalArgumentException("Cannot have negative cards.");
       }
-      this.playerHand.put(card, numInitialCards);
+      this.counts[card.ordinal()] = numInitialCards;
+      this.total += numInitialCards;
     }
   }
 
+  /** Constructs a copy of the given hand. */
+  private TrainsPlayerHand(TrainsPlayerHand toCopy) {
+    this.counts = toCopy.counts.clone();
+    this.total = toCopy.total;
+  }
+
+  /**
+   * Copies the given hand, without going through a Map when it is a TrainsPlayerHand.
+   *
+   * @param hand the hand to copy.
+   * @return a new hand with the same cards, which changes independently of the given one.
+   */
+  public static TrainsPlayerHand copyOf(IPlayerHand<RailCard> hand) {
+    Objects.requireNonNull(hand);
+    if (hand instanceof TrainsPlayerHand) {
+      return new TrainsPlayerHand((TrainsPlayerHand) hand);
+    }
+    return new TrainsPlayerHand(hand.getHand());
+  }
 
   @Override
   public void addCardsToHand(RailCard cardType, int amount) throws IllegalArgumentException {
     if (amount <= 0) {
       throw new IllegalArgumentException("Must add positive number of cards.");
     }
-    this.playerHand.put(cardType, this.playerHand.get(cardType) + amount);
+    this.counts[cardType.ordinal()] += amount;
+    this.total += amount;
   }
 
   @Override
   public int getNumCardsOfType(RailCard cardType) {
-    return this.playerHand.get(cardType);
+    return this.counts[cardType.ordinal()];
   }
 
   @Override
   public int getTotalNumCards() {
-    return this.playerHand.values().stream().mapToInt(Integer::intValue).sum();
+    return this.total;
   }
 
   @Override
@@ -58,15 +89,80 @@ public class TrainsPlayerHand implements IPlayerHand<RailCard> {
     if (amount <= 0) {
       throw new IllegalArgumentException("Must remove positive number of cards.");
     }
-    int currentNumCards = this.playerHand.get(cardType);
+    int currentNumCards = this.counts[cardType.ordinal()];
     if (amount > currentNumCards) {
       throw new IllegalStateException("Cannot remove more cards than available.");
     }
-    this.playerHand.put(cardType, currentNumCards - amount);
+    this.counts[cardType.ordinal()] = currentNumCards - amount;
+    this.total -= amount;
   }
 
   @Override
   public Map<RailCard, Integer> getHand() {
-    return new HashMap<>(this.playerHand);
+    Map<RailCard, Integer> hand = new EnumMap<>(RailCard.class);
+    for (RailCard card : CARD_TYPES) {
+      hand.put(card, this.counts[card.ordinal()]);
+    }
+    return hand;
+  }
+
+  /**
+   * Gets a read-only view of this hand as a map from every card type to its count. The view is not
+   * a copy, so it reflects later changes to this hand.
+   *
+   * @return an unmodifiable map backed by this hand.
+   */
+  public Map<RailCard, Integer> asMapView() {
+    return new HandView();
+  }
+
+  /** A read-only Map backed by the counts of this hand. */
+  private class HandView extends AbstractMap<RailCard, Integer> {
+    @Override
+    public Integer get(Object key) {
+      return key instanceof RailCard ? counts[((RailCard) key).ordinal()] : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return key instanceof RailCard;
+    }
+
+    @Override
+    public int size() {
+      return CARD_TYPES.length;
+    }
+
+    @Override
+    public Set<Entry<RailCard, Integer>> entrySet() {
+      return new AbstractSet<Entry<RailCard, Integer>>() {
+        @Override
+        public Iterator<Entry<RailCard, Integer>> iterator() {
+          return new Iterator<Entry<RailCard, Integer>>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+              return this.next < CARD_TYPES.length;
+            }
+
+            @Override
+            public Entry<RailCard, Integer> next() {
+              if (!this.hasNext()) {
+                throw new NoSuchElementException();
+              }
+              RailCard card = CARD_TYPES[this.next];
+              this.next += 1;
+              return new SimpleImmutableEntry<>(card, counts[card.ordinal()]);
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return CARD_TYPES.length;
+        }
+      };
+    }
   }
 }
@@ -1,19 +1,25 @@
 package referee;
 
+import game_state.IPlayerGameState;
 import game_state.RailCard;
 
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 import map.Destination;
 import map.ITrainMap;
 import player.IPlayer;
 import referee.GameEndReport.PlayerScore;
 import strategy.TurnAction;
 import utils.CommunicationUtils;
+import utils.IGameClock;
+import utils.ITimingPolicy;
 import utils.InitializationUtils;
+import utils.InteractionScheduler;
+import utils.TimingPolicy;
 
 /**
  * This Referee runs games of Trains on a given map and list of players, constructed through the
@@ -41,6 +47,10 @@ import utils.InitializationUtils;
  *   <li>A TimeOutException thrown by the component communicating with the player
  *   <li>An exception thrown for receiving a non-well-formed message as response from the player
  * </ul>
+ *
+ * <p>How long players may take to respond is decided by the referee's {@link ITimingPolicy}. A
+ * player who does not respond in time, or who uses up their time bank, is removed. A game whose
+ * deadline passes ends as it stands, without removing the player whose turn it was.
  */
 public class TrainsReferee implements IReferee {
   public static final int MAX_PLAYERS_PER_GAME = 8;
@@ -57,6 +67,9 @@ public class TrainsReferee implements IReferee {
   private final List<IPlayer> initialPlayersInOrder;
   private final Function<ITrainMap, List<Destination>> destinationProvider;
   private final Supplier<List<RailCard>> deckSupplier;
+  private final InteractionScheduler interactionScheduler;
+  private final ITimingPolicy timingPolicy;
+  private final boolean sequentialScoring;
 
   // region Construction
 
@@ -65,11 +78,17 @@ public class TrainsReferee implements IReferee {
       ITrainMap map,
       List<IPlayer> initialPlayersInOrder,
       Function<ITrainMap, List<Destination>> destinationProvider,
-      Supplier<List<RailCard>> deckSupplier) {
+      Supplier<List<RailCard>> deckSupplier,
+      InteractionScheduler interactionScheduler,
+      ITimingPolicy timingPolicy,
+      boolean sequentialScoring) {
     this.map = map;
     this.initialPlayersInOrder = new ArrayList<>(initialPlayersInOrder);
     this.destinationProvider = destinationProvider;
     this.deckSupplier = deckSupplier;
+    this.interactionScheduler = interactionScheduler;
+    this.timingPolicy = timingPolicy;
+    this.sequentialScoring = sequentialScoring;
   }
 
   /**
@@ -84,6 +103,9 @@ public class TrainsReferee implements IReferee {
     private final List<IPlayer> playersInOrder;
     private Function<ITrainMap, List<Destination>> destinationProvider;
     private Supplier<List<RailCard>> deckSupplier;
+    private InteractionScheduler interactionScheduler;
+    private ITimingPolicy timingPolicy;
+    private boolean sequentialScoring;
 
     /**
      * Constructs this builder from the required map and players.
@@ -104,7 +126,8 @@ public class TrainsReferee implements IReferee {
                 + " and "
                 + MAX_PLAYERS_PER_GAME);
       }
-      if (InitializationUtils.notEnoughDestinations(map.getAllPossibleDestinations().size(),
+      if (InitializationUtils.notEnoughDestinations(
+              map.getDestinationIndex().getNumDestinations(),
               playersInOrder.size(),
               PLAYER_NUM_DEST_OPTIONS,
               PLAYER_NUM_DEST_OPTIONS - PLAYER_NUM_DEST_TO_REJECT)) {
@@ -119,6 +142,9 @@ public class TrainsReferee implements IReferee {
       this.playersInOrder = playersInOrder;
       this.destinationProvider = InitializationUtils::defaultDestinationProvider;
       this.deckSupplier = () -> InitializationUtils.defaultDeckSupplier(NUM_CARDS_IN_DECK);
+      this.interactionScheduler = InteractionScheduler.shared();
+      this.timingPolicy = TimingPolicy.perCall(TIME_OUT_IN_SECONDS, TimeUnit.SECONDS);
+      this.sequentialScoring = false;
     }
 
     /**
@@ -144,6 +170,41 @@ public class TrainsReferee implements IReferee {
       return this;
     }
 
+    /**
+     * Updates the scheduler that player calls are run on.
+     *
+     * @param interactionScheduler new interaction scheduler.
+     * @return the updated builder for chaining.
+     */
+    public RefereeBuilder interactionScheduler(InteractionScheduler interactionScheduler) {
+      this.interactionScheduler = interactionScheduler;
+      return this;
+    }
+
+    /**
+     * Updates the policy deciding how long players may take to respond. By default every call may
+     * take TIME_OUT_IN_SECONDS, with no time bank and no deadline for the game.
+     *
+     * @param timingPolicy new timing policy.
+     * @return the updated builder for chaining.
+     */
+    public RefereeBuilder timingPolicy(ITimingPolicy timingPolicy) {
+      this.timingPolicy = timingPolicy;
+      return this;
+    }
+
+    /**
+     * Updates whether players are scored one after another on the referee's thread, rather than in
+     * parallel. Scores are the same either way.
+     *
+     * @param sequentialScoring whether to score players sequentially.
+     * @return the updated builder for chaining.
+     */
+    public RefereeBuilder sequentialScoring(boolean sequentialScoring) {
+      this.sequentialScoring = sequentialScoring;
+      return this;
+    }
+
     /**
      * Builds the referee, throwing exceptions if any inputs are null.
      *
@@ -152,35 +213,45 @@ public class TrainsReferee implements IReferee {
     public TrainsReferee build() {
       Objects.requireNonNull(this.deckSupplier);
       Objects.requireNonNull(this.destinationProvider);
+      Objects.requireNonNull(this.interactionScheduler);
+      Objects.requireNonNull(this.timingPolicy);
 
       return new TrainsReferee(
-          this.map, this.playersInOrder, this.destinationProvider, this.deckSupplier);
+          this.map,
+          this.playersInOrder,
+          this.destinationProvider,
+          this.deckSupplier,
+          this.interactionScheduler,
+          this.timingPolicy,
+          this.sequentialScoring);
     }
   }
   // endregion
 
   @Override
   public GameEndReport playGame() {
-    RefereeGameState refereeGameState = this.initializeGame(this.initialPlayersInOrder);
-    return this.runGame(refereeGameState);
+    IGameClock<IPlayer> clock = this.timingPolicy.startGame(this.initialPlayersInOrder);
+    RefereeGameState refereeGameState = this.initializeGame(this.initialPlayersInOrder, clock);
+    return this.runGame(refereeGameState, clock);
   }
 
   // region Running the Game
 
   /**
    * Runs the game starting from the given, newly-created RefereeGameState until completion,
-   * returning the scores/ranking.
+   * returning the scores/ranking. The game also ends, as it stands, once the clock has expired.
    *
    * @param refereeGameState the newly created RefereeGameState, ready for the first player to take
    *     the first turn.
+   * @param clock the clock of the game.
    * @return a GameEndReport detailing which players were removed and the ranking/scores of
    *     remaining players.
    */
-  private GameEndReport runGame(RefereeGameState refereeGameState) {
-    while (!refereeGameState.isGameOver()) {
+  private GameEndReport runGame(RefereeGameState refereeGameState, IGameClock<IPlayer> clock) {
+    while (!refereeGameState.isGameOver() && !clock.isExpired()) {
       // this performs communication and actual action of turn-taking
       // (mutating game state to draw cards, etc.)
-      TurnResult turnResult = this.takePlayerTurn(refereeGameState);
+      TurnResult turnResult = this.takePlayerTurn(refereeGameState, clock);
 
       // this deals with transitioning to the next turn
       this.processTurnResult(turnResult, refereeGameState);
@@ -215,33 +286,106 @@ public class TrainsReferee implements IReferee {
    * <p>For example: SIGNIFICANT - legally occupying a connection INSIGNIFICANT - drawing cards when
    * there are none left (nothing changes) INVALID - attempting to occupy an already occupied
    * connection, or throwing an exception
+   *
+   * <p>A turn is unfinished if the game ran out of time before the player responded, in which case
+   * nothing changes and the game ends.
    */
   private enum TurnResult {
     SIGNIFICANT,
     INSIGNIFICANT,
-    INVALID
+    INVALID,
+    UNFINISHED
   }
 
   /**
    * Takes a single turn for the active player and returns the result of that turn.
    *
    * @param gameState the state of the game just before the player takes their turn.
-   * @return TurnResult indicating whether turn was significant, insignificant, or invalid.
+   * @param clock the clock of the game.
+   * @return TurnResult indicating whether turn was significant, insignificant, invalid or
+   *     unfinished.
    */
-  private TurnResult takePlayerTurn(RefereeGameState gameState) {
+  private TurnResult takePlayerTurn(RefereeGameState gameState, IGameClock<IPlayer> clock) {
     IPlayer activePlayer = gameState.getActivePlayer().playerCommunication;
+    Optional<Future<?>> preparation = this.prepareNextPlayer(gameState, clock);
 
+    // Built here rather than in the call, since building it updates the game state's cached
+    // snapshots, which this thread goes on to change if the call times out, and so that the
+    // player is not charged for it
+    IPlayerGameState state = gameState.getActivePlayerState();
     Optional<TurnAction> playerTurnRequest =
-            CommunicationUtils.tryPlayerInteraction((p) -> p.takeTurn(gameState.getActivePlayerState()),
-                    activePlayer, TIME_OUT_IN_SECONDS);
+        this.timedInteraction((p) -> p.takeTurn(state), activePlayer, clock);
+    // A preparation that has not started by now would only overlap the next player's turn
+    preparation.ifPresent((call) -> call.cancel(false));
 
     if (playerTurnRequest.isPresent()) {
       return applyActionToActivePlayer(playerTurnRequest.get(), gameState);
+    } else if (clock.isExpired()) {
+      return TurnResult.UNFINISHED;
     } else {
       return TurnResult.INVALID;
     }
   }
 
+  /**
+   * Lets the player after the active one prepare for their turn while the active player takes
+   * theirs, such as a remote player encoding most of their next state ahead of time. Only players
+   * that use the preview get one, and it is built on the worker rather than on this thread. The
+   * preparation is given as long as the active player is allowed for their turn, since it is of no
+   * use after that.
+   *
+   * @param gameState the state of the game just before the active player takes their turn.
+   * @param clock the clock of the game.
+   * @return the pending preparation, or empty if the next player gets no preview.
+   */
+  private Optional<Future<?>> prepareNextPlayer(
+      RefereeGameState gameState, IGameClock<IPlayer> clock) {
+    IPlayer nextPlayer = gameState.getNextPlayer().playerCommunication;
+    if (!nextPlayer.usesTurnPreview()) {
+      return Optional.empty();
+    }
+    Optional<Supplier<IPlayerGameState>> preview = gameState.getNextPlayerStatePreview();
+    if (preview.isEmpty()) {
+      return Optional.empty();
+    }
+    long timeAllowed = clock.getTimeAllowedNanos(gameState.getActivePlayer().playerCommunication);
+    return Optional.of(this.interactionScheduler.runInBackground(
+        (p) -> p.prepareTurn(preview.get().get()), nextPlayer, timeAllowed, TimeUnit.NANOSECONDS));
+  }
+
+  /**
+   * Calls the given action on the given player, allowing the call the time the clock allows and
+   * charging the player for the time it took once a worker started it, as the scheduler's timeout
+   * does, or for all of the time allowed if it did not respond in time.
+   *
+   * @param action the action to attempt on the player.
+   * @param player the player to call.
+   * @param clock the clock of the game.
+   * @param <U> the type of response for the interaction.
+   * @return an optional containing the player's response, or empty if the player failed to respond
+   *     in time or has used up their time.
+   */
+  private <U> Optional<U> timedInteraction(
+      Function<IPlayer, U> action, IPlayer player, IGameClock<IPlayer> clock) {
+    long timeAllowed = clock.getTimeAllowedNanos(player);
+    // Written by the worker once the player returns or throws, so that waiting for a worker is
+    // not charged
+    long[] elapsed = {timeAllowed};
+    Optional<U> response = CommunicationUtils.tryPlayerInteraction(
+        (IPlayer p) -> {
+          long start = System.nanoTime();
+          try {
+            return action.apply(p);
+          } finally {
+            elapsed[0] = System.nanoTime() - start;
+          }
+        },
+        player, timeAllowed, TimeUnit.NANOSECONDS, this.interactionScheduler);
+    // A late player is charged everything they were allowed, whatever the worker writes later
+    boolean timeLeft = clock.charge(player, response.isPresent() ? elapsed[0] : timeAllowed);
+    return timeLeft ? response : Optional.empty();
+  }
+
   /**
    * Applies the specified turn action to the active player.
    *
@@ -257,7 +401,8 @@ public class TrainsReferee implements IReferee {
         CommunicationUtils.tryPlayerInteraction((p) -> {
               p.receiveCards(new ArrayList<>(drawnCards));
               return true;
-            }, gameState.getActivePlayer().playerCommunication, TIME_OUT_IN_SECONDS);
+            }, gameState.getActivePlayer().playerCommunication,
+            this.timingPolicy.getCallLimitNanos(), TimeUnit.NANOSECONDS, this.interactionScheduler);
         return drawnCards.isEmpty() ? TurnResult.INSIGNIFICANT : TurnResult.SIGNIFICANT;
       case ACQUIRE_CONNECTION:
         boolean connectionAcquired =
@@ -289,6 +434,8 @@ public class TrainsReferee implements IReferee {
       case INVALID:
         gameState.removeActivePlayer();
         break;
+      case UNFINISHED:
+        break;
     }
   }
 
@@ -299,7 +446,7 @@ public class TrainsReferee implements IReferee {
    * @return the GameEndReport for the finished game.
    */
   private GameEndReport calculateGameEndReport(RefereeGameState gameState) {
-    Map<IPlayer, Integer> nonCheaterScores = gameState.calculatePlayerScores();
+    Map<IPlayer, Integer> nonCheaterScores = gameState.calculatePlayerScores(this.sequentialScoring);
 
     List<PlayerScore> gameReportScores = new ArrayList<>();
     for (PlayerInfoPair player : gameState.getPlayersInTurnOrder()) {
@@ -319,93 +466,159 @@ public class TrainsReferee implements IReferee {
    * deck providers for initial setup, and communicating with players for setup and destination
    * selection. Players removed during setup will be reflected in the constructed RefereeGameState.
    *
+   * <p>Every player is set up at once, with the cards they are dealt when no player before them is
+   * removed. Destinations are then chosen in turn order, since the options offered to a player
+   * depend on the choices of the players before them, and hands are dealt from the top of the deck
+   * in that order to the players who stay, as if each player were set up and asked in turn. A
+   * player removed before a later player's turn leaves their cards in the deck, so a later player
+   * whose hand then differs from the one they were set up with is set up again with their real
+   * hand before choosing destinations.
+   *
+   * <p>Setup and destination choices are charged to each player's time on the clock.
+   *
    * @param playersInOrder the players to communicate with in turn order.
+   * @param clock the clock of the game.
    * @return a RefereeGameState for just before the first player takes their first turn.
    */
-  private RefereeGameState initializeGame(List<IPlayer> playersInOrder) {
+  private RefereeGameState initializeGame(
+      List<IPlayer> playersInOrder, IGameClock<IPlayer> clock) {
     // accumulators tracking remaining destinations and deck
     List<Destination> activeDestinationList =
         new ArrayList<>(this.destinationProvider.apply(this.map));
     List<RailCard> deck = this.deckSupplier.get();
+    List<List<RailCard>> expectedHandsBySeat = new ArrayList<>();
+    for (int seat = 0; seat < playersInOrder.size(); seat += 1) {
+      // A deck only needs enough cards for the players who stay, as when dealing in turn
+      int firstCard = Math.min(seat * PLAYER_NUM_CARDS_START, deck.size());
+      int lastCard = Math.min(firstCard + PLAYER_NUM_CARDS_START, deck.size());
+      expectedHandsBySeat.add(new ArrayList<>(deck.subList(firstCard, lastCard)));
+    }
+    List<Boolean> setupResults = this.setupPlayers(playersInOrder, expectedHandsBySeat, clock);
+
     // accumulators for results of player setup
     List<PlayerInfoPair> playerInfoPairInOrder = new ArrayList<>();
     Set<IPlayer> playersRemovedInSetup = new HashSet<>();
-
-    // process each player, either resulting in successful IPlayerData or removal of player
-    for (IPlayer player : playersInOrder) {
-      // Communication for setup and choosing destinations occurs here
+    int numCardsDealt = 0;
+
+    // process each player in turn order, either resulting in successful IPlayerData or removal
+    for (int seat = 0; seat < playersInOrder.size(); seat += 1) {
+      IPlayer player = playersInOrder.get(seat);
+      List<RailCard> hand =
+          new ArrayList<>(deck.subList(numCardsDealt, numCardsDealt + PLAYER_NUM_CARDS_START));
+      boolean setUp = setupResults.get(seat)
+          && (hand.equals(expectedHandsBySeat.get(seat)) || this.setupPlayer(player, hand, clock));
+      // Communication for choosing destinations occurs here
       Optional<IPlayerData> startingPlayerData =
-          this.createSinglePlayerData(player, activeDestinationList, deck);
+          setUp
+              ? this.createSinglePlayerData(player, activeDestinationList, hand, clock)
+              : Optional.empty();
 
       // Interpret result of communication
       if (startingPlayerData.isPresent()) {
         playerInfoPairInOrder.add(new PlayerInfoPair(player, startingPlayerData.get()));
         // remove chosen destinations and given cards
         activeDestinationList.removeAll(startingPlayerData.get().getDestinations());
-        deck =
-            deck.stream()
-                .skip(startingPlayerData.get().getPlayerHand().getTotalNumCards())
-                .collect(Collectors.toList());
+        numCardsDealt += PLAYER_NUM_CARDS_START;
       } else {
         playersRemovedInSetup.add(player);
       }
     }
+    List<RailCard> remainingDeck = new ArrayList<>(deck.subList(numCardsDealt, deck.size()));
 
-    return new RefereeGameState(playerInfoPairInOrder, playersRemovedInSetup, deck, this.map);
+    return new RefereeGameState(
+        playerInfoPairInOrder, playersRemovedInSetup, remainingDeck, this.map);
   }
 
   /**
-   * Communicates with the player to set up and choose destinations in order to generate the
-   * IPlayerData to start the game.
+   * Asks the player to choose destinations from the top of the remaining destinations in order to
+   * generate the IPlayerData to start the game, after the player was set up with the given cards.
    *
    * @param player the player to communicate with.
    * @param activeDestinationList the list of destinations handed to players in order, from which
    *     destination options will be picked from the top.
-   * @param deck the deck of cards, from which the top cards will be drawn and given to the player.
+   * @param cards the cards the player was given in setup.
+   * @param clock the clock of the game.
    * @return an optional containing IPlayerData if it was successfully created or empty if something
    *     went wrong and the player needs to be removed.
    */
   private Optional<IPlayerData> createSinglePlayerData(
-          IPlayer player, List<Destination> activeDestinationList, List<RailCard> deck) {
+          IPlayer player,
+          List<Destination> activeDestinationList,
+          List<RailCard> cards,
+          IGameClock<IPlayer> clock) {
     // Given to player
-    List<RailCard> nextCards = new ArrayList<>(deck.subList(0, PLAYER_NUM_CARDS_START));
     List<Destination> nextDestinationsOptions =
         new ArrayList<>(activeDestinationList.subList(0, PLAYER_NUM_DEST_OPTIONS));
 
-    // Try setup, then try destination selection
-    boolean setupResult = this.setupPlayer(player, nextCards);
-    if (setupResult) {
-      Optional<Set<Destination>> chosenDestinations =
-          this.playerChooseDestinations(player, nextDestinationsOptions);
-      if (chosenDestinations.isPresent()) {
-        IPlayerData startingPlayerData =
-            new PlayerData(
-                new TrainsPlayerHand(nextCards),
-                PLAYER_NUM_RAILS_START,
-                chosenDestinations.get(),
-                new HashSet<>());
-        return Optional.of(startingPlayerData);
-      }
+    Optional<Set<Destination>> chosenDestinations =
+        this.playerChooseDestinations(player, nextDestinationsOptions, clock);
+    if (chosenDestinations.isPresent()) {
+      IPlayerData startingPlayerData =
+          new PlayerData(
+              new TrainsPlayerHand(cards),
+              PLAYER_NUM_RAILS_START,
+              chosenDestinations.get(),
+              new HashSet<>());
+      return Optional.of(startingPlayerData);
     }
     return Optional.empty();
   }
 
   /**
-   * Communicates with the player to set up, giving information about map, starting hand, and num
-   * rails.
+   * Communicates with every player at once to set up, giving information about map, starting hand,
+   * and num rails. Each player is charged for the time their own setup took.
+   *
+   * @param playersInOrder the players to set up.
+   * @param handsBySeat the hand each player is set up with, in the same order as the players.
+   * @param clock the clock of the game.
+   * @return whether each player was set up without error, in the same order as the players; false
+   *     if some error occurred during setup resulting in that player's removal.
+   */
+  private List<Boolean> setupPlayers(
+      List<IPlayer> playersInOrder, List<List<RailCard>> handsBySeat, IGameClock<IPlayer> clock) {
+    // Seats are called instead of players, so that each call can find the player's own hand
+    List<Integer> seats = new ArrayList<>();
+    long timeOut = 0;
+    for (int seat = 0; seat < playersInOrder.size(); seat += 1) {
+      seats.add(seat);
+      timeOut = Math.max(timeOut, clock.getTimeAllowedNanos(playersInOrder.get(seat)));
+    }
+    long[] elapsedBySeat = new long[playersInOrder.size()];
+    List<Optional<Boolean>> responses = CommunicationUtils.tryPlayerInteractions(
+        (Integer seat) -> {
+          long start = System.nanoTime();
+          playersInOrder.get(seat).setup(
+              this.map, PLAYER_NUM_RAILS_START, new ArrayList<>(handsBySeat.get(seat)));
+          elapsedBySeat[seat] = System.nanoTime() - start;
+          return true;
+        },
+        seats, timeOut, TimeUnit.NANOSECONDS, this.interactionScheduler);
+
+    List<Boolean> results = new ArrayList<>();
+    for (int seat = 0; seat < playersInOrder.size(); seat += 1) {
+      results.add(responses.get(seat).isPresent()
+          && clock.charge(playersInOrder.get(seat), elapsedBySeat[seat]));
+    }
+    return results;
+  }
+
+  /**
+   * Communicates with the player to set up again with the given cards, giving information about
+   * map, starting hand, and num rails.
    *
    * @param player the player to set up.
-   * @param cardsForPlayer the hand the player will start with.
+   * @param cards the hand the player will start with.
+   * @param clock the clock of the game.
    * @return true if the setup occurred without error, false if some error occurred during setup
    *     resulting in player's removal.
    */
-  private boolean setupPlayer(IPlayer player, List<RailCard> cardsForPlayer) {
-    return CommunicationUtils.tryPlayerInteraction(
+  private boolean setupPlayer(IPlayer player, List<RailCard> cards, IGameClock<IPlayer> clock) {
+    return this.timedInteraction(
             (p) -> {
-              p.setup(this.map, PLAYER_NUM_RAILS_START, new ArrayList<>(cardsForPlayer));
+              p.setup(this.map, PLAYER_NUM_RAILS_START, new ArrayList<>(cards));
               return true;
             },
-            player, TIME_OUT_IN_SECONDS)
+            player, clock)
         .isPresent();
   }
 
@@ -414,15 +627,15 @@ public class TrainsReferee implements IReferee {
    *
    * @param player the player choosing destinations.
    * @param playerDestinationOptions the options for the destinations (defensively copied).
+   * @param clock the clock of the game.
    * @return An optional containing the chosen destinations or empty if player chose improperly.
    */
   private Optional<Set<Destination>> playerChooseDestinations(
-          IPlayer player, List<Destination> playerDestinationOptions) {
+          IPlayer player, List<Destination> playerDestinationOptions, IGameClock<IPlayer> clock) {
 
     Optional<Set<Destination>> rejectedDestinations =
-            CommunicationUtils.tryPlayerInteraction(
-            (p) -> p.chooseDestinations(new HashSet<>(playerDestinationOptions)),
-            player, TIME_OUT_IN_SECONDS);
+        this.timedInteraction(
+            (p) -> p.chooseDestinations(new HashSet<>(playerDestinationOptions)), player, clock);
 
     if (rejectedDestinations.isPresent()
         && validDestinationChoice(
@@ -0,0 +1,49 @@
+package simulation;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The aggregate results of a batch of simulated games, with statistics for every strategy in the
+ * order the strategies were given to the simulator.
+ */
+public class SimulationReport {
+  private final int numGames;
+  private final Map<String, StrategyStatistics> statisticsByStrategy;
+
+  /**
+   * Constructs this report from the per-strategy statistics of the games.
+   *
+   * @param numGames the number of games simulated.
+   * @param statisticsByStrategy the statistics of each strategy by name, in strategy order.
+   */
+  SimulationReport(int numGames, LinkedHashMap<String, StrategyStatistics> statisticsByStrategy) {
+    this.numGames = numGames;
+    this.statisticsByStrategy = Collections.unmodifiableMap(statisticsByStrategy);
+  }
+
+  /**
+   * @return the number of games simulated.
+   */
+  public int getNumGames() {
+    return this.numGames;
+  }
+
+  /**
+   * @return an unmodifiable mapping from each strategy's name to its statistics, in the order the
+   *     strategies were given to the simulator.
+   */
+  public Map<String, StrategyStatistics> getStatisticsByStrategy() {
+    return this.statisticsByStrategy;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder(this.numGames + " games\n");
+    for (Map.Entry<String, StrategyStatistics> entry : this.statisticsByStrategy.entrySet()) {
+      result.append(entry.getKey()).append(": ").append(entry.getValue()).append("\n");
+    }
+    return result.toString();
+  }
+}
@@ -0,0 +1,219 @@
+package simulation;
+
+import game_state.RailCard;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import map.Destination;
+import map.ITrainMap;
+import player.IPlayer;
+import player.Player;
+import referee.GameEndReport;
+import referee.GameEndReport.PlayerScore;
+import referee.TrainsReferee;
+import strategy.IStrategy;
+import utils.InitializationUtils;
+import utils.InteractionScheduler;
+
+/**
+ * Runs many games of Trains in-process between trusted, local strategies to compare how well they
+ * play, and reports each strategy's win rate and score distribution.
+ *
+ * <p>Players are called directly on the thread running their game, with no timeout, so a strategy
+ * that never returns hangs the simulation; only use strategies that are known to terminate. Games
+ * run in parallel, one per worker, with as many workers as there are processors by default.
+ *
+ * <p>Every game is reproducible from the seed and its index: the seed of game n decides the deck
+ * and the order destinations are offered in. Seats rotate by one each game, so no strategy always
+ * moves first. Results are merged in game order, so equal seeds give equal reports regardless of
+ * the number of workers.
+ *
+ * <p>Each worker keeps one deck, one destination list and one random source, and refills them for
+ * every game it plays. The referee copies the deck and destinations it is given before the game
+ * starts, so refilling them for the next game cannot change a game that is running.
+ */
+public class StrategySimulator {
+  private static final int NUM_CARDS_IN_DECK = 250;
+
+  private final ITrainMap map;
+  private final LinkedHashMap<String, IStrategy> strategies;
+  private final int parallelism;
+
+  /**
+   * Constructs this simulator using every available processor.
+   *
+   * @param map the map every game is played on.
+   * @param strategies the strategies to compare by name, one seat per strategy in every game.
+   * @throws IllegalArgumentException if the number of strategies is not a valid number of players.
+   */
+  public StrategySimulator(ITrainMap map, LinkedHashMap<String, IStrategy> strategies) {
+    this(map, strategies, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Constructs this simulator.
+   *
+   * @param map the map every game is played on.
+   * @param strategies the strategies to compare by name, one seat per strategy in every game.
+   * @param parallelism the maximum number of games running at once.
+   * @throws IllegalArgumentException if the number of strategies is not a valid number of players,
+   *     or parallelism is not positive.
+   */
+  public StrategySimulator(
+      ITrainMap map, LinkedHashMap<String, IStrategy> strategies, int parallelism) {
+    Objects.requireNonNull(map);
+    Objects.requireNonNull(strategies);
+    if (strategies.size() < TrainsReferee.MIN_PLAYERS_PER_GAME
+        || strategies.size() > TrainsReferee.MAX_PLAYERS_PER_GAME) {
+      throw new IllegalArgumentException(
+          "Number of strategies must be between "
+              + TrainsReferee.MIN_PLAYERS_PER_GAME
+              + " and "
+              + TrainsReferee.MAX_PLAYERS_PER_GAME);
+    }
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("At least one game must be run at a time");
+    }
+
+    this.map = map;
+    this.strategies = new LinkedHashMap<>(strategies);
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Simulates the given number of games.
+   *
+   * @param numGames the number of games to play.
+   * @param seed the seed deciding the deck and destinations of every game.
+   * @return the statistics of every strategy over all the games.
+   * @throws IllegalArgumentException if numGames is negative.
+   */
+  public SimulationReport simulate(int numGames, long seed) {
+    if (numGames < 0) {
+      throw new IllegalArgumentException("Cannot simulate a negative number of games");
+    }
+
+    LinkedHashMap<String, StrategyStatistics> statistics = new LinkedHashMap<>();
+    for (String name : this.strategies.keySet()) {
+      statistics.put(name, new StrategyStatistics());
+    }
+
+    InteractionScheduler scheduler = InteractionScheduler.inline();
+    ThreadLocal<GameBuffers> buffers = ThreadLocal.withInitial(GameBuffers::new);
+    ExecutorService gameRunner = Executors.newFixedThreadPool(this.parallelism);
+    try {
+      List<Future<Map<String, Optional<Integer>>>> gameResults = new ArrayList<>();
+      for (int gameIndex = 0; gameIndex < numGames; gameIndex += 1) {
+        int thisGame = gameIndex;
+        gameResults.add(gameRunner.submit(() -> this.playGame(thisGame, seed, scheduler, buffers.get())));
+      }
+
+      for (Future<Map<String, Optional<Integer>>> gameResult : gameResults) {
+        recordGame(gameResult.get(), statistics);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while simulating games.", e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException("A simulated game failed.", e.getCause());
+    } finally {
+      gameRunner.shutdownNow();
+    }
+    return new SimulationReport(numGames, statistics);
+  }
+
+  /**
+   * Plays one game between every strategy.
+   *
+   * @param gameIndex the index of the game, which decides the seating and the game's seed.
+   * @param seed the seed of the whole simulation.
+   * @param scheduler the scheduler the referee calls players on.
+   * @param buffers the buffers of the worker playing the game.
+   * @return a mapping from each strategy's name to its score, or empty if it was removed.
+   */
+  private Map<String, Optional<Integer>> playGame(
+      int gameIndex, long seed, InteractionScheduler scheduler, GameBuffers buffers) {
+    Random random = buffers.random;
+    random.setSeed(seed + gameIndex);
+    List<RailCard> deck = buffers.deck;
+    fillRandomDeck(random, deck);
+    List<Destination> destinations = buffers.destinations;
+    InitializationUtils.sampleDestinationsForGame(this.map, random, destinations);
+
+    List<String> seating = new ArrayList<>(this.strategies.keySet());
+    Collections.rotate(seating, -(gameIndex % seating.size()));
+    Map<IPlayer, String> strategyOfPlayer = new HashMap<>();
+    List<IPlayer> players = new ArrayList<>();
+    for (String name : seating) {
+      IPlayer player = new Player(this.strategies.get(name), this.map);
+      strategyOfPlayer.put(player, name);
+      players.add(player);
+    }
+
+    GameEndReport report =
+        new TrainsReferee.RefereeBuilder(this.map, players)
+            .deckProvider(() -> deck)
+            .destinationProvider((m) -> destinations)
+            .interactionScheduler(scheduler)
+            // The games already use every worker, so scoring in parallel would only oversubscribe
+            .sequentialScoring(true)
+            .build()
+            .playGame();
+
+    Map<String, Optional<Integer>> result = new HashMap<>();
+    for (PlayerScore playerScore : report.playerRanking) {
+      result.put(strategyOfPlayer.get(playerScore.player), Optional.of(playerScore.score));
+    }
+    for (IPlayer removed : report.removedPlayers) {
+      result.put(strategyOfPlayer.get(removed), Optional.empty());
+    }
+    return result;
+  }
+
+  /**
+   * Adds the result of one game to the statistics of every strategy.
+   *
+   * @param scores a mapping from each strategy's name to its score, or empty if it was removed.
+   * @param statistics the statistics of every strategy so far.
+   */
+  private static void recordGame(
+      Map<String, Optional<Integer>> scores, Map<String, StrategyStatistics> statistics) {
+    int winningScore =
+        scores.values().stream().flatMap(Optional::stream).max(Integer::compare).orElse(0);
+    for (Map.Entry<String, Optional<Integer>> entry : scores.entrySet()) {
+      StrategyStatistics strategyStatistics = statistics.get(entry.getKey());
+      if (entry.getValue().isPresent()) {
+        int score = entry.getValue().get();
+        strategyStatistics.recordFinishedGame(score, score == winningScore);
+      } else {
+        strategyStatistics.recordRemovedGame();
+      }
+    }
+  }
+
+  /** Replaces the given deck with uniformly random cards from the given random source. */
+  private static void fillRandomDeck(Random random, List<RailCard> deck) {
+    RailCard[] railCardOptions = RailCard.values();
+    deck.clear();
+    for (int cardNumber = 0; cardNumber < NUM_CARDS_IN_DECK; cardNumber += 1) {
+      deck.add(railCardOptions[random.nextInt(railCardOptions.length)]);
+    }
+  }
+
+  /** The deck, destinations and random source one worker refills for each game it plays. */
+  private static class GameBuffers {
+    private final Random random = new Random();
+    private final List<RailCard> deck = new ArrayList<>(NUM_CARDS_IN_DECK);
+    private final List<Destination> destinations = new ArrayList<>();
+  }
+}
@@ -0,0 +1,94 @@
+package simulation;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The results of every simulated game for one strategy: how often it won or was removed, and how
+ * its scores were distributed over the games it finished.
+ */
+public class StrategyStatistics {
+  private int gamesPlayed;
+  private int wins;
+  private int removals;
+  private long totalScore;
+  private final Map<Integer, Integer> scoreDistribution;
+
+  /** Constructs statistics for a strategy that has not played any games. */
+  StrategyStatistics() {
+    this.scoreDistribution = new TreeMap<>();
+  }
+
+  /**
+   * Records one game that the strategy finished.
+   *
+   * @param score the strategy's score in the game.
+   * @param won whether the score was the highest of the game, including ties.
+   */
+  void recordFinishedGame(int score, boolean won) {
+    this.gamesPlayed += 1;
+    this.totalScore += score;
+    this.scoreDistribution.merge(score, 1, Integer::sum);
+    if (won) {
+      this.wins += 1;
+    }
+  }
+
+  /** Records one game in which the strategy was removed for misbehaving. */
+  void recordRemovedGame() {
+    this.gamesPlayed += 1;
+    this.removals += 1;
+  }
+
+  /**
+   * @return the number of games the strategy played.
+   */
+  public int getGamesPlayed() {
+    return this.gamesPlayed;
+  }
+
+  /**
+   * @return the number of games in which the strategy had the highest score, including ties.
+   */
+  public int getWins() {
+    return this.wins;
+  }
+
+  /**
+   * @return the number of games in which the strategy was removed for misbehaving.
+   */
+  public int getRemovals() {
+    return this.removals;
+  }
+
+  /**
+   * @return the fraction of games played that the strategy won, or 0 if it played none.
+   */
+  public double getWinRate() {
+    return this.gamesPlayed == 0 ? 0 : (double) this.wins / this.gamesPlayed;
+  }
+
+  /**
+   * @return the mean score over the games the strategy finished, or 0 if it finished none.
+   */
+  public double getMeanScore() {
+    int finished = this.gamesPlayed - this.removals;
+    return finished == 0 ? 0 : (double) this.totalScore / finished;
+  }
+
+  /**
+   * @return an unmodifiable mapping from each score, in ascending order, to the number of finished
+   *     games in which the strategy had that score.
+   */
+  public Map<Integer, Integer> getScoreDistribution() {
+    return Collections.unmodifiableMap(this.scoreDistribution);
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "played %d, won %d (%.1f%%), removed %d, mean score %.2f",
+        this.gamesPlayed, this.wins, 100 * this.getWinRate(), this.removals, this.getMeanScore());
+  }
+}
@@ -1,10 +1,7 @@
 package utils;
 
+import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
@@ -13,7 +10,8 @@ public class CommunicationUtils {
   /**
    * A single point of functionality for calling a player's functions/methods an action on a given
    * player. Returns Optional.empty() if there's an exception or timeout. This method has no
-   * side-effects on anything about this referee.
+   * side-effects on anything about this referee. The call runs on the shared
+   * {@link InteractionScheduler}.
    *
    * @param action the action to attempt on a player
    * @param player the given player
@@ -22,18 +20,77 @@ public class CommunicationUtils {
    * be removed if empty.
    */
   public static <T, U> Optional<U> tryPlayerInteraction(Function<T, U> action, T player, int timeOutInSeconds) {
-    ExecutorService executor = Executors.newCachedThreadPool();
-    Callable<U> task = () -> action.apply(player);
-    Future<U> future = executor.submit(task);
-    try {
-      U result = future.get(timeOutInSeconds, TimeUnit.SECONDS);
-      executor.shutdownNow();
-      return Optional.of(result);
-    } catch (Exception e) {
-      future.cancel(true);
-      executor.shutdownNow();
-      return Optional.empty();
-    }
+    return tryPlayerInteraction(action, player, timeOutInSeconds, InteractionScheduler.shared());
   }
-}
 
+  /**
+   * Same as {@link #tryPlayerInteraction(Function, Object, int)}, but runs the call on the given
+   * scheduler.
+   *
+   * @param action    the action to attempt on a player
+   * @param player    the given player
+   * @param scheduler the scheduler providing the thread the call runs on
+   * @param <T>       the type of response for the interaction
+   * @return An optional containing the player's response if present or indicating player ought to
+   * be removed if empty.
+   */
+  public static <T, U> Optional<U> tryPlayerInteraction(Function<T, U> action, T player,
+      int timeOutInSeconds, InteractionScheduler scheduler) {
+    return scheduler.tryInteraction(action, player, timeOutInSeconds, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Same as {@link #tryPlayerInteraction(Function, Object, int, InteractionScheduler)}, but with a
+   * time out in any unit, such as the time a {@link IGameClock} allows.
+   *
+   * @param action    the action to attempt on a player
+   * @param player    the given player
+   * @param timeOut   the maximum time to wait for the response
+   * @param unit      the unit of timeOut
+   * @param scheduler the scheduler providing the thread the call runs on
+   * @param <T>       the type of response for the interaction
+   * @return An optional containing the player's response if present or indicating player ought to
+   * be removed if empty.
+   */
+  public static <T, U> Optional<U> tryPlayerInteraction(Function<T, U> action, T player,
+      long timeOut, TimeUnit unit, InteractionScheduler scheduler) {
+    return scheduler.tryInteraction(action, player, timeOut, unit);
+  }
+
+  /**
+   * Same as {@link #tryPlayerInteraction(Function, Object, int, InteractionScheduler)}, but calls
+   * every given player at once. Each call gets the whole timeout to itself, counted from when a
+   * worker starts it, so a call that waits for a free worker is not charged for the wait. See
+   * {@link InteractionScheduler#tryInteractions(Function, List, long, TimeUnit)}.
+   *
+   * @param action    the action to attempt on every player
+   * @param players   the players to call
+   * @param timeOutInSeconds the maximum time to wait for each response, in seconds
+   * @param scheduler the scheduler providing the threads the calls run on
+   * @param <T>       the type of the players
+   * @return the response of each player in the order of the given players, each empty if that
+   * player ought to be removed.
+   */
+  public static <T, U> List<Optional<U>> tryPlayerInteractions(Function<T, U> action,
+      List<T> players, int timeOutInSeconds, InteractionScheduler scheduler) {
+    return scheduler.tryInteractions(action, players, timeOutInSeconds, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Same as {@link #tryPlayerInteractions(Function, List, int, InteractionScheduler)}, but with a
+   * time out in any unit.
+   *
+   * @param action    the action to attempt on every player
+   * @param players   the players to call
+   * @param timeOut   the maximum time to wait for each response, from when its call starts
+   * @param unit      the unit of timeOut
+   * @param scheduler the scheduler providing the threads the calls run on
+   * @param <T>       the type of the players
+   * @return the response of each player in the order of the given players, each empty if that
+   * player ought to be removed.
+   */
+  public static <T, U> List<Optional<U>> tryPlayerInteractions(Function<T, U> action,
+      List<T> players, long timeOut, TimeUnit unit, InteractionScheduler scheduler) {
+    return scheduler.tryInteractions(action, players, timeOut, unit);
+  }
+}
@@ -0,0 +1,40 @@
+package utils;
+
+/**
+ * Tracks the time that each player of one game has used and the time the game has left, as
+ * decided by an {@link ITimingPolicy}.
+ *
+ * <p>A clock is used by the thread running its game and is not safe for use by several threads at
+ * once.
+ *
+ * @param <P> the type of the players.
+ */
+public interface IGameClock<P> {
+
+  /**
+   * Gets the longest the next call to the given player may take, which is the least of the
+   * per-call limit, the time the player has left, and the time the game has left.
+   *
+   * @param player a player of the game.
+   * @return the time allowed for the call in nanoseconds, 0 if the player or game is out of time.
+   * @throws IllegalArgumentException if the player is not in the game.
+   */
+  long getTimeAllowedNanos(P player) throws IllegalArgumentException;
+
+  /**
+   * Charges the given player for a call that took the given time.
+   *
+   * @param player a player of the game.
+   * @param elapsedNanos the time the call took in nanoseconds.
+   * @return false if the player has used up all of their time, true otherwise.
+   * @throws IllegalArgumentException if the player is not in the game or the time is negative.
+   */
+  boolean charge(P player, long elapsedNanos) throws IllegalArgumentException;
+
+  /**
+   * Determines whether the game has run out of time, after which it should end as it stands.
+   *
+   * @return true if the game's deadline has passed, false otherwise.
+   */
+  boolean isExpired();
+}
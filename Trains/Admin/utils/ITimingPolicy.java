@@ -0,0 +1,28 @@
+package utils;
+
+import java.util.List;
+
+/**
+ * Decides how long players may take to respond to the referee and tournament manager. A policy is
+ * a description shared by any number of games; the time each player has used in a game is tracked
+ * by the {@link IGameClock} the policy starts for that game.
+ */
+public interface ITimingPolicy {
+
+  /**
+   * Gets the hard limit on any single call to a player, including calls that are not charged to a
+   * player's time in a game, such as notifications.
+   *
+   * @return the longest any one call may take, in nanoseconds.
+   */
+  long getCallLimitNanos();
+
+  /**
+   * Starts the clock for a new game between the given players, from now.
+   *
+   * @param players the players of the game.
+   * @param <P> the type of the players.
+   * @return a clock tracking the time used by each of the players in the game.
+   */
+  <P> IGameClock<P> startGame(List<P> players);
+}
@@ -2,12 +2,12 @@ package utils;
 
 import game_state.RailCard;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Random;
-import java.util.stream.Collectors;
 import map.Destination;
+import map.DestinationIndex;
 import map.ITrainMap;
+import referee.TrainsReferee;
 
 /** Utility class for initialization related to referees and managers. */
 public class InitializationUtils {
@@ -36,7 +36,7 @@ public class InitializationUtils {
    * @param numDestKeptPerPlayer the number of destinations chosen for each player
    * @return true if the total number of destinations is less than the minimum number of destinations needed to play.
    */
-  public static boolean notEnoughDestinations(int totalNumDestinations, int numPlayers,
+  public static boolean notEnoughDestinations(long totalNumDestinations, int numPlayers,
                                               int numDestOptionsPerPlayer, int numDestKeptPerPlayer) {
     return totalNumDestinations < minDestinationsToPlay(numPlayers, numDestOptionsPerPlayer, numDestKeptPerPlayer);
 
@@ -46,17 +46,69 @@ public class InitializationUtils {
    * Provides a new List of Destinations given a TrainsMap.
    *
    * @param map a TrainsMap of the game
-   * @return a shuffled list of all feasible destinations formed from the rail connections in a map
+   * @return a shuffled list of feasible destinations formed from the rail connections in a map
    */
   public static List<Destination> defaultDestinationProvider(ITrainMap map) {
-    List<Destination> result =
-        map.getAllPossibleDestinations().stream()
-            .map((pair) -> new Destination(pair))
-            .collect(Collectors.toList());
-    Collections.shuffle(result);
+    return sampleDestinationsForGame(map, new Random());
+  }
+
+  /**
+   * Picks as many destinations at random as a game with the most players can hand out, or every
+   * destination of the map if it has fewer. A game only ever offers destinations from the front of
+   * its list, so this is the same as shuffling every destination and keeping the front of the
+   * list, but without creating the rest.
+   *
+   * @param map a TrainsMap of the game
+   * @param random the source of randomness for picking and ordering the destinations
+   * @return a shuffled list of feasible destinations formed from the rail connections in a map
+   */
+  public static List<Destination> sampleDestinationsForGame(ITrainMap map, Random random) {
+    DestinationIndex destinations = map.getDestinationIndex();
+    return destinations.sampleDestinations(numDestinationsForGame(destinations), random);
+  }
+
+  /**
+   * Picks destinations like {@link #sampleDestinationsForGame(ITrainMap, Random)}, but into the
+   * given list, replacing its contents.
+   *
+   * @param map a TrainsMap of the game
+   * @param random the source of randomness for picking and ordering the destinations
+   * @param into the list to clear and then fill with the shuffled feasible destinations
+   */
+  public static void sampleDestinationsForGame(
+      ITrainMap map, Random random, List<Destination> into) {
+    DestinationIndex destinations = map.getDestinationIndex();
+    destinations.sampleDestinations(numDestinationsForGame(destinations), random, into);
+  }
+
+  /**
+   * Gets the first destinations of a map in sorted order, as many as a game with the most players
+   * can hand out, or every destination of the map if it has fewer.
+   *
+   * @param map a TrainsMap of the game
+   * @return the sorted list of the first feasible destinations formed from the rail connections in
+   *     a map
+   */
+  public static List<Destination> sortedDestinationsForGame(ITrainMap map) {
+    DestinationIndex destinations = map.getDestinationIndex();
+    int count = numDestinationsForGame(destinations);
+    List<Destination> result = new ArrayList<>(count);
+    for (int index = 0; index < count; index += 1) {
+      result.add(destinations.getDestination(index));
+    }
     return result;
   }
 
+  /** Gets the number of destinations a game with the most players needs, capped at the total. */
+  private static int numDestinationsForGame(DestinationIndex destinations) {
+    int maxDestinationsNeeded =
+        minDestinationsToPlay(
+            TrainsReferee.MAX_PLAYERS_PER_GAME,
+            TrainsReferee.PLAYER_NUM_DEST_OPTIONS,
+            TrainsReferee.PLAYER_NUM_DEST_OPTIONS - TrainsReferee.PLAYER_NUM_DEST_TO_REJECT);
+    return (int) Math.min(maxDestinationsNeeded, destinations.getNumDestinations());
+  }
+
   /**
    * Creates a new list of randomly generally RailCard that represents a deck of cards.
    *
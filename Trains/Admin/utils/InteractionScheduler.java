@@ -0,0 +1,481 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A long-lived, bounded pool of worker threads on which player interactions are run with a
+ * timeout, so that referees and tournament managers can share threads instead of creating a new
+ * one for every call to a player.
+ *
+ * <p>At most maxThreads worker threads run live calls at once; idle workers die off after
+ * IDLE_SECONDS. Calls made while every worker is busy wait in a queue, and a call's timeout only
+ * starts once a worker starts it, so a busy pool does not make a player late. A call that times
+ * out is cancelled by interrupting its worker.
+ *
+ * <p>A player that ignores the interrupt, such as one blocked on socket I/O, keeps its worker until
+ * it returns. Such an abandoned call does not count against maxThreads: the pool gets a
+ * replacement worker for as long as the call holds its own, so one stuck player does not slow down
+ * the players of other games. At most maxThreads replacements exist at once; beyond that, calls
+ * wait in the queue until an abandoned call returns, which for a remote player is bounded by its
+ * socket timeout.
+ *
+ * <p>Workers are daemon threads, so a player that never returns cannot keep the JVM alive.
+ *
+ * <p>A scheduler made with {@link #inline()} has no workers: it calls players directly on the
+ * calling thread with no timeout, which is only safe for trusted, local players.
+ */
+public class InteractionScheduler {
+  public static final int DEFAULT_MAX_THREADS = 64;
+  private static final int IDLE_SECONDS = 30;
+
+  private static final InteractionScheduler SHARED = new InteractionScheduler(DEFAULT_MAX_THREADS);
+  // Abandons background calls that outlive their timeout, since nobody waits on them to do so
+  private static final ScheduledThreadPoolExecutor WATCHDOG = createWatchdog();
+  // The System.nanoTime() by which the call running on a worker must respond
+  private static final ThreadLocal<Long> CALL_DEADLINE = new ThreadLocal<>();
+
+  // Empty for a scheduler that calls players on the calling thread
+  private final Optional<ThreadPoolExecutor> executor;
+  private final int maxThreads;
+  // The workers added to replace ones held by abandoned calls, at most maxThreads
+  private int replacementThreads = 0;
+
+  // Latency statistics, in nanoseconds, over every call made through this scheduler
+  private final AtomicLong completedCalls = new AtomicLong();
+  private final AtomicLong failedCalls = new AtomicLong();
+  private final AtomicLong totalLatencyNanos = new AtomicLong();
+  private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+  /**
+   * Constructs a scheduler that runs at most the given number of player interactions at once.
+   *
+   * @param maxThreads the maximum number of live worker threads.
+   * @throws IllegalArgumentException if maxThreads is not positive.
+   */
+  public InteractionScheduler(int maxThreads) {
+    if (maxThreads < 1) {
+      throw new IllegalArgumentException("An interaction scheduler needs at least one thread");
+    }
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            maxThreads,
+            maxThreads,
+            IDLE_SECONDS,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            daemonThreadFactory());
+    executor.allowCoreThreadTimeOut(true);
+    this.executor = Optional.of(executor);
+    this.maxThreads = maxThreads;
+  }
+
+  /** Constructs a scheduler that calls players on the calling thread. */
+  private InteractionScheduler() {
+    this.executor = Optional.empty();
+    this.maxThreads = 0;
+  }
+
+  /**
+   * Creates a scheduler that calls players directly on the calling thread, without any timeout.
+   * A call still fails if the player throws. Only use this for trusted, local players, since a
+   * player that never returns blocks the caller forever.
+   *
+   * @return a new scheduler without worker threads.
+   */
+  public static InteractionScheduler inline() {
+    return new InteractionScheduler();
+  }
+
+  /**
+   * The scheduler used by any referee or tournament manager that is not given one explicitly.
+   *
+   * @return the process-wide shared scheduler.
+   */
+  public static InteractionScheduler shared() {
+    return SHARED;
+  }
+
+  /**
+   * Gets the time left before the call running on this thread times out, so that a player that
+   * blocks, such as on a socket, can give up when the scheduler does instead of holding its worker
+   * for longer.
+   *
+   * @return the time left in nanoseconds, at most 0 once the call has timed out, or empty if this
+   *     thread is not running a call of some scheduler's tryInteraction or tryInteractions.
+   */
+  public static Optional<Long> getTimeLeftInCallNanos() {
+    Long deadline = CALL_DEADLINE.get();
+    return deadline == null ? Optional.empty() : Optional.of(deadline - System.nanoTime());
+  }
+
+  /**
+   * Calls the given action on the given player on a worker thread, waiting at most the given time
+   * from when a worker starts the call for the response. Returns Optional.empty() if the action
+   * throws or times out.
+   *
+   * @param action the action to attempt on a player
+   * @param player the given player
+   * @param timeOut the maximum time to wait for the response
+   * @param unit the unit of timeOut
+   * @param <T> the type of the player
+   * @param <U> the type of response for the interaction
+   * @return An optional containing the player's response if present or indicating player ought to
+   *     be removed if empty.
+   */
+  public <T, U> Optional<U> tryInteraction(
+      Function<T, U> action, T player, long timeOut, TimeUnit unit) {
+    long start = System.nanoTime();
+    if (this.executor.isEmpty()) {
+      return this.tryInteractionInline(action, player, start);
+    }
+    PlayerCall<U> call = this.submit(() -> action.apply(player), unit.toNanos(timeOut));
+    return this.awaitStartedResponse(call, start);
+  }
+
+  /**
+   * Calls the given action on every given player at once, each on its own worker thread, waiting
+   * at most the given time from when a worker starts each call for its response. A player that
+   * throws or times out does not affect the others. When there are more players than free
+   * workers, the calls that wait for a worker are not charged for the wait, so the whole batch
+   * takes longer but no player is late because of it.
+   *
+   * <p>A scheduler made with {@link #inline()} calls the players one after another instead.
+   *
+   * @param action the action to attempt on every player
+   * @param players the players to call
+   * @param timeOut the maximum time to wait for each response
+   * @param unit the unit of timeOut
+   * @param <T> the type of the players
+   * @param <U> the type of response for the interaction
+   * @return the response of each player in the order of the given players, each empty if that
+   *     player ought to be removed.
+   */
+  public <T, U> List<Optional<U>> tryInteractions(
+      Function<T, U> action, List<T> players, long timeOut, TimeUnit unit) {
+    List<Optional<U>> results = new ArrayList<>(players.size());
+    if (this.executor.isEmpty()) {
+      for (T player : players) {
+        results.add(this.tryInteractionInline(action, player, System.nanoTime()));
+      }
+      return results;
+    }
+    long start = System.nanoTime();
+    List<PlayerCall<U>> calls = new ArrayList<>(players.size());
+    for (T player : players) {
+      calls.add(this.submit(() -> action.apply(player), unit.toNanos(timeOut)));
+    }
+    for (PlayerCall<U> call : calls) {
+      results.add(this.awaitStartedResponse(call, start));
+    }
+    return results;
+  }
+
+  /**
+   * Calls the given action on the given player on a worker thread without waiting for it, for work
+   * that only prepares the player for a later interaction. Anything the action throws is ignored,
+   * and the call is not counted in this scheduler's latency statistics.
+   *
+   * <p>The call is abandoned the given time after a worker starts it, the same as a call that
+   * times out, so a player that never returns does not keep a worker from other calls. Cancelling
+   * the returned future before a worker starts the call means it never runs, such as once what it
+   * prepares for has already happened.
+   *
+   * <p>A scheduler made with {@link #inline()} calls the player before returning instead.
+   *
+   * @param action the action to run on the player
+   * @param player the given player
+   * @param timeOut the maximum time to let the call run
+   * @param unit the unit of timeOut
+   * @param <T> the type of the player
+   * @return the pending call, already done for a scheduler made with {@link #inline()}.
+   */
+  public <T> Future<?> runInBackground(
+      Consumer<T> action, T player, long timeOut, TimeUnit unit) {
+    Callable<Void> task = () -> {
+      action.accept(player);
+      return null;
+    };
+    if (this.executor.isEmpty()) {
+      try {
+        task.call();
+      } catch (Exception e) {
+        // The player only misses out on preparing; any real problem shows up in a later call
+      }
+      return CompletableFuture.completedFuture(null);
+    }
+    PlayerCall<Void> call = new PlayerCall<>(task, unit.toNanos(timeOut), true);
+    this.executor.get().execute(call);
+    return call;
+  }
+
+  /**
+   * Waits for a worker to start the given call, then for its response until its deadline.
+   *
+   * @param call the pending call.
+   * @param start the System.nanoTime() at which the call was submitted.
+   * @return the response, or empty if the call threw, timed out, or this thread was interrupted.
+   */
+  private <U> Optional<U> awaitStartedResponse(PlayerCall<U> call, long start) {
+    try {
+      call.started.await();
+    } catch (InterruptedException e) {
+      return this.giveUp(call, start, e);
+    }
+    return this.awaitResponse(call, start, call.deadlineNanos);
+  }
+
+  /**
+   * Waits for the response of a call submitted at the given time until the given deadline,
+   * abandoning the call if it fails or is late.
+   *
+   * @param call the pending call.
+   * @param start the System.nanoTime() at which the call was submitted.
+   * @param deadline the System.nanoTime() after which the call has timed out.
+   * @return the response, or empty if the call threw, timed out, or this thread was interrupted.
+   */
+  private <U> Optional<U> awaitResponse(PlayerCall<U> call, long start, long deadline) {
+    try {
+      U result = call.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+      this.recordCall(start, true);
+      return Optional.of(result);
+    } catch (InterruptedException | ExecutionException | TimeoutException | RuntimeException e) {
+      return this.giveUp(call, start, e);
+    }
+  }
+
+  /**
+   * Cancels the given call and records it as failed, keeping this thread's interrupt if that is
+   * why the call was given up on.
+   */
+  private <U> Optional<U> giveUp(PlayerCall<U> call, long start, Exception reason) {
+    call.abandon();
+    this.recordCall(start, false);
+    if (reason instanceof InterruptedException) {
+      Thread.currentThread().interrupt();
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Queues the given call to a player on the workers, to time out the given time after it starts.
+   */
+  private <U> PlayerCall<U> submit(Callable<U> task, long timeOutNanos) {
+    PlayerCall<U> call = new PlayerCall<>(task, timeOutNanos, false);
+    this.executor.get().execute(call);
+    return call;
+  }
+
+  /**
+   * Adds a worker in place of one held by an abandoned call, unless there are already maxThreads
+   * replacements.
+   *
+   * @return whether a worker was added.
+   */
+  private synchronized boolean addReplacementThread() {
+    if (this.replacementThreads >= this.maxThreads) {
+      return false;
+    }
+    this.replacementThreads += 1;
+    ThreadPoolExecutor executor = this.executor.get();
+    // Raising the maximum first keeps it at least the core size
+    executor.setMaximumPoolSize(this.maxThreads + this.replacementThreads);
+    executor.setCorePoolSize(this.maxThreads + this.replacementThreads);
+    return true;
+  }
+
+  /** Removes a worker added by addReplacementThread, once the abandoned call returns. */
+  private synchronized void removeReplacementThread() {
+    this.replacementThreads -= 1;
+    ThreadPoolExecutor executor = this.executor.get();
+    executor.setCorePoolSize(this.maxThreads + this.replacementThreads);
+    executor.setMaximumPoolSize(this.maxThreads + this.replacementThreads);
+  }
+
+  /**
+   * A call to a player that records when a worker starts it, so that its timeout can be measured
+   * from then rather than from when it was queued.
+   */
+  private class PlayerCall<U> extends FutureTask<U> {
+    // Counted down once a worker starts the call, or once it is cancelled before starting
+    final CountDownLatch started = new CountDownLatch(1);
+    private final long timeOutNanos;
+    // Whether the call is abandoned by the watchdog, as nobody waits on it to time it out
+    private final boolean background;
+    // The System.nanoTime() after which the call has timed out, set when it starts
+    volatile long deadlineNanos;
+    private boolean running = false;
+    private boolean replaced = false;
+
+    PlayerCall(Callable<U> task, long timeOutNanos, boolean background) {
+      super(task);
+      this.timeOutNanos = timeOutNanos;
+      this.background = background;
+    }
+
+    @Override
+    public void run() {
+      synchronized (this) {
+        if (this.isDone()) {
+          return;
+        }
+        this.running = true;
+      }
+      this.deadlineNanos = System.nanoTime() + this.timeOutNanos;
+      CALL_DEADLINE.set(this.deadlineNanos);
+      this.started.countDown();
+      ScheduledFuture<?> timeOut = this.background
+          ? WATCHDOG.schedule(this::abandon, this.timeOutNanos, TimeUnit.NANOSECONDS)
+          : null;
+      try {
+        super.run();
+      } finally {
+        if (timeOut != null) {
+          timeOut.cancel(false);
+        }
+        CALL_DEADLINE.remove();
+        synchronized (this) {
+          this.running = false;
+          if (this.replaced) {
+            removeReplacementThread();
+          }
+        }
+      }
+    }
+
+    @Override
+    protected void done() {
+      this.started.countDown();
+    }
+
+    /**
+     * Cancels this call, interrupting its worker, and replaces the worker while this call still
+     * holds it.
+     */
+    synchronized void abandon() {
+      this.cancel(true);
+      if (this.running && !this.replaced) {
+        this.replaced = addReplacementThread();
+      }
+    }
+  }
+
+  /** Calls the given action on the given player on this thread, catching anything it throws. */
+  private <T, U> Optional<U> tryInteractionInline(Function<T, U> action, T player, long start) {
+    try {
+      U result = action.apply(player);
+      this.recordCall(start, true);
+      return Optional.of(result);
+    } catch (RuntimeException e) {
+      this.recordCall(start, false);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Records the latency of a call that started at the given time.
+   *
+   * @param start the System.nanoTime() at which the call started.
+   * @param succeeded whether the player responded in time without throwing.
+   */
+  private void recordCall(long start, boolean succeeded) {
+    long latency = System.nanoTime() - start;
+    (succeeded ? this.completedCalls : this.failedCalls).incrementAndGet();
+    this.totalLatencyNanos.addAndGet(latency);
+    this.maxLatencyNanos.accumulateAndGet(latency, Math::max);
+  }
+
+  /**
+   * @return the number of calls whose player responded in time without throwing.
+   */
+  public long getCompletedCalls() {
+    return this.completedCalls.get();
+  }
+
+  /**
+   * @return the number of calls whose player threw or timed out.
+   */
+  public long getFailedCalls() {
+    return this.failedCalls.get();
+  }
+
+  /**
+   * @return the mean time in nanoseconds from making a call to receiving its result or giving up,
+   *     or 0 if no calls have been made.
+   */
+  public long getAverageLatencyNanos() {
+    long calls = this.completedCalls.get() + this.failedCalls.get();
+    return calls == 0 ? 0 : this.totalLatencyNanos.get() / calls;
+  }
+
+  /**
+   * @return the longest time in nanoseconds any single call took, or 0 if no calls have been made.
+   */
+  public long getMaxLatencyNanos() {
+    return this.maxLatencyNanos.get();
+  }
+
+  /**
+   * @return the number of worker threads currently alive.
+   */
+  public int getLiveThreads() {
+    return this.executor.map(ThreadPoolExecutor::getPoolSize).orElse(0);
+  }
+
+  /**
+   * Interrupts every running interaction and stops accepting new ones. The shared scheduler should
+   * never be shut down.
+   */
+  public void shutdown() {
+    this.executor.ifPresent((executor) -> {
+      for (Runnable queued : executor.shutdownNow()) {
+        // Calls that never started are cancelled, so that whoever waits on them gives up
+        if (queued instanceof FutureTask) {
+          ((FutureTask<?>) queued).cancel(false);
+        }
+      }
+    });
+  }
+
+  /** Creates the single daemon thread that abandons late background calls. */
+  private static ScheduledThreadPoolExecutor createWatchdog() {
+    ScheduledThreadPoolExecutor watchdog = new ScheduledThreadPoolExecutor(1, (runnable) -> {
+      Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+      thread.setName("player-interaction-watchdog");
+      thread.setDaemon(true);
+      return thread;
+    });
+    // Most background calls finish in time, so their cancelled time outs are dropped right away
+    watchdog.setRemoveOnCancelPolicy(true);
+    return watchdog;
+  }
+
+  /** Creates numbered daemon worker threads. */
+  private static ThreadFactory daemonThreadFactory() {
+    AtomicInteger threadCount = new AtomicInteger();
+    return (runnable) -> {
+      Thread thread = new Thread(runnable, "player-interaction-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
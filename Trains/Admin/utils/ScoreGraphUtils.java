@@ -1,19 +1,16 @@
 package utils;
 
-import com.google.common.collect.Iterators;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
-import java.util.OptionalInt;
 import java.util.Set;
 import java.util.function.Predicate;
-import java.util.function.ToIntFunction;
 import map.Destination;
 import map.IRailConnection;
+import map.ITrainMap;
 import org.jgrapht.Graph;
-import org.jgrapht.GraphPath;
 import org.jgrapht.alg.connectivity.ConnectivityInspector;
-import org.jgrapht.alg.shortestpath.YenShortestPathIterator;
 import org.jgrapht.graph.DefaultWeightedEdge;
 import org.jgrapht.graph.SimpleWeightedGraph;
 
@@ -32,10 +29,27 @@ public class ScoreGraphUtils {
    */
   public static Set<Integer> calculatePlayersWithLongestPath(
       List<Graph<String, DefaultWeightedEdge>> playerConnectionGraphs) {
+    List<Integer> longestPathLengths = new ArrayList<>();
+    for (Graph<String, DefaultWeightedEdge> playerConnectionGraph : playerConnectionGraphs) {
+      longestPathLengths.add(calculateLongestPathLength(playerConnectionGraph));
+    }
+    return playersWithLongestPath(longestPathLengths);
+  }
+
+  /**
+   * Determines the set of players who have the longest path (ties allowed) from the length of each
+   * player's longest path. If all players have a longest path of length 0, then all players have
+   * that longest path.
+   *
+   * @param longestPathLengths the length of each player's longest path.
+   * @return a Set of Integer where each Integer is the index of a length in the given list that is
+   *     or ties for the longest. The set will be empty iff the given list is empty.
+   */
+  public static Set<Integer> playersWithLongestPath(List<Integer> longestPathLengths) {
     int overallLongestPathLength = 0;
     Set<Integer> result = new HashSet<>();
-    for (int index = 0; index < playerConnectionGraphs.size(); index += 1) {
-      int longestPathLength = calculateLongestPathLength(playerConnectionGraphs.get(index));
+    for (int index = 0; index < longestPathLengths.size(); index += 1) {
+      int longestPathLength = longestPathLengths.get(index);
       // If new record for longest path, clear previous records and add new one
       // If tied for record, add to other records
       // If below record, continue on
@@ -58,39 +72,55 @@ public class ScoreGraphUtils {
    *     between the two cities.
    * @return an integer >= 0 of the longest simple path that exists in the given graph.
    */
-  private static int calculateLongestPathLength(
+  public static int calculateLongestPathLength(
       Graph<String, DefaultWeightedEdge> occupiedConnectionsGraph) {
-
-    Set<UnorderedPair<String>> allVertexPairs =
-        GraphUtility.calculateAllPairs(occupiedConnectionsGraph.vertexSet());
-
-    ToIntFunction<UnorderedPair<String>> longestLengthCalculator =
-        (pair) -> longestPathLengthBetweenCities(pair.first, pair.second, occupiedConnectionsGraph);
-
-    OptionalInt maxPathLength = allVertexPairs.stream().mapToInt(longestLengthCalculator).max();
-    return maxPathLength.orElse(0);
+    return LongestPathCalculator.longestPathLength(occupiedConnectionsGraph);
   }
 
   /**
-   * Calculates the length of the longest path between two cities in the graph using YenShortestPath
-   * - this operation is brute force, running at Omega(k) where k is the number of paths between two
-   * vertices.
+   * Calculates the length of the longest simple path through the given connections, using the
+   * map's city ids as the vertices instead of building a graph of city names. Between two cities
+   * only the longest connection counts, since no longest simple path uses the shorter ones.
    *
-   * @param vertex1 first vertex
-   * @param vertex2 second vertex (order doesn't matter, should be distinct from first).
-   * @param occupiedConnectionsGraph graph containing the vertices.
-   * @return integer of the weight of the longest simple path connecting the cities, or 0 if no path
-   *     exists.
+   * @param ownedConnections the connections to find the longest path through.
+   * @param map the map the connections are on.
+   * @return an integer >= 0 of the longest simple path through the given connections.
+   * @throws IllegalArgumentException if a connection is not between cities of the map.
    */
-  private static int longestPathLengthBetweenCities(
-      String vertex1, String vertex2, Graph<String, DefaultWeightedEdge> occupiedConnectionsGraph) {
-    Iterator<GraphPath<String, DefaultWeightedEdge>> pathIterator =
-        new YenShortestPathIterator<>(occupiedConnectionsGraph, vertex1, vertex2);
-    if (pathIterator.hasNext()) {
-      return (int) Iterators.getLast(pathIterator).getWeight();
-    } else {
-      return 0;
+  public static int calculateLongestPathLength(
+      Set<IRailConnection> ownedConnections, ITrainMap map) throws IllegalArgumentException {
+    int numCities = map.getNumCities();
+    // Each edge packed as (endpoint pair) << 32 | length, so that sorting puts the connections
+    // between the same cities next to each other with the longest last
+    long[] packedEdges = new long[ownedConnections.size()];
+    int numPacked = 0;
+    for (IRailConnection connection : ownedConnections) {
+      int city1 = map.getCityId(connection.getCities().first);
+      int city2 = map.getCityId(connection.getCities().second);
+      if (city1 < 0 || city2 < 0) {
+        throw new IllegalArgumentException("Every connection must be between cities of the map");
+      }
+      long pair = (long) Math.min(city1, city2) * numCities + Math.max(city1, city2);
+      packedEdges[numPacked] = (pair << 32) | connection.getLength();
+      numPacked += 1;
+    }
+    Arrays.sort(packedEdges);
+
+    int[][] endpoints = new int[numPacked][];
+    int[] weights = new int[numPacked];
+    int numEdges = 0;
+    for (int index = 0; index < numPacked; index += 1) {
+      long pair = packedEdges[index] >>> 32;
+      if (index + 1 < numPacked && packedEdges[index + 1] >>> 32 == pair) {
+        continue;
+      }
+      endpoints[numEdges] = new int[] {(int) (pair / numCities), (int) (pair % numCities)};
+      weights[numEdges] = (int) packedEdges[index];
+      numEdges += 1;
     }
+    return new LongestPathCalculator(
+            numCities, Arrays.copyOf(endpoints, numEdges), Arrays.copyOf(weights, numEdges))
+        .longestPathLength();
   }
 
   /**
@@ -0,0 +1,212 @@
+package utils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A timing policy made of up to three limits, constructed through the {@link TimingPolicyBuilder}:
+ *
+ * <ul>
+ *   <li>A hard limit on every single call to a player, which every policy has.
+ *   <li>Optionally, a chess clock: each player starts a game with a bank of time, every call they
+ *       make is charged to it, and an increment is added back after each call they finish in
+ *       time. A player whose bank runs out is out of the game.
+ *   <li>Optionally, a deadline for the whole game, after which the game ends as it stands.
+ * </ul>
+ *
+ * <p>{@link #perCall(long, TimeUnit)} makes a policy with only the per-call limit, which is how
+ * players have always been timed.
+ */
+public class TimingPolicy implements ITimingPolicy {
+  private static final long UNLIMITED = Long.MAX_VALUE;
+
+  private final long callLimitNanos;
+  private final long timeBankNanos;
+  private final long incrementNanos;
+  private final long gameDeadlineNanos;
+
+  private TimingPolicy(
+      long callLimitNanos, long timeBankNanos, long incrementNanos, long gameDeadlineNanos) {
+    this.callLimitNanos = callLimitNanos;
+    this.timeBankNanos = timeBankNanos;
+    this.incrementNanos = incrementNanos;
+    this.gameDeadlineNanos = gameDeadlineNanos;
+  }
+
+  /**
+   * Creates a policy that gives every call to a player the same time, with no time bank and no
+   * deadline for the game.
+   *
+   * @param timeOut the longest any one call may take.
+   * @param unit the unit of timeOut.
+   * @return the policy.
+   * @throws IllegalArgumentException if the time out is not positive.
+   */
+  public static TimingPolicy perCall(long timeOut, TimeUnit unit) throws IllegalArgumentException {
+    return new TimingPolicyBuilder(timeOut, unit).build();
+  }
+
+  /**
+   * To construct timing policies, requiring the per-call limit and optionally a time bank with
+   * increments and a deadline for each game.
+   */
+  public static class TimingPolicyBuilder {
+    private final long callLimitNanos;
+    private long timeBankNanos;
+    private long incrementNanos;
+    private long gameDeadlineNanos;
+
+    /**
+     * Constructs this builder from the required per-call limit.
+     *
+     * @param callLimit the longest any one call may take.
+     * @param unit the unit of callLimit.
+     * @throws IllegalArgumentException if the limit is not positive.
+     */
+    public TimingPolicyBuilder(long callLimit, TimeUnit unit) throws IllegalArgumentException {
+      this.callLimitNanos = positiveNanos(callLimit, unit);
+      this.timeBankNanos = UNLIMITED;
+      this.incrementNanos = 0;
+      this.gameDeadlineNanos = UNLIMITED;
+    }
+
+    /**
+     * Gives every player a bank of time at the start of each game, which each of their calls is
+     * charged to.
+     *
+     * @param timeBank the time each player starts a game with.
+     * @param unit the unit of timeBank.
+     * @return the updated builder for chaining.
+     * @throws IllegalArgumentException if the time bank is not positive.
+     */
+    public TimingPolicyBuilder timeBank(long timeBank, TimeUnit unit)
+        throws IllegalArgumentException {
+      this.timeBankNanos = positiveNanos(timeBank, unit);
+      return this;
+    }
+
+    /**
+     * Updates the time added to a player's bank after each call they finish in time. Has no effect
+     * without a time bank.
+     *
+     * @param increment the time added after each call.
+     * @param unit the unit of increment.
+     * @return the updated builder for chaining.
+     * @throws IllegalArgumentException if the increment is negative.
+     */
+    public TimingPolicyBuilder increment(long increment, TimeUnit unit)
+        throws IllegalArgumentException {
+      if (increment < 0) {
+        throw new IllegalArgumentException("The increment cannot be negative.");
+      }
+      this.incrementNanos = unit.toNanos(increment);
+      return this;
+    }
+
+    /**
+     * Gives each game a deadline, measured from when the game starts.
+     *
+     * @param gameDeadline the longest a game may run.
+     * @param unit the unit of gameDeadline.
+     * @return the updated builder for chaining.
+     * @throws IllegalArgumentException if the deadline is not positive.
+     */
+    public TimingPolicyBuilder gameDeadline(long gameDeadline, TimeUnit unit)
+        throws IllegalArgumentException {
+      this.gameDeadlineNanos = positiveNanos(gameDeadline, unit);
+      return this;
+    }
+
+    /**
+     * Builds the policy.
+     *
+     * @return the constructed timing policy.
+     */
+    public TimingPolicy build() {
+      return new TimingPolicy(
+          this.callLimitNanos, this.timeBankNanos, this.incrementNanos, this.gameDeadlineNanos);
+    }
+
+    /** Converts a positive amount of time to nanoseconds. */
+    private static long positiveNanos(long amount, TimeUnit unit) throws IllegalArgumentException {
+      Objects.requireNonNull(unit);
+      if (amount <= 0) {
+        throw new IllegalArgumentException("Time limits must be positive.");
+      }
+      return unit.toNanos(amount);
+    }
+  }
+
+  @Override
+  public long getCallLimitNanos() {
+    return this.callLimitNanos;
+  }
+
+  @Override
+  public <P> IGameClock<P> startGame(List<P> players) {
+    return new GameClock<>(players, System.nanoTime());
+  }
+
+  /** The clock of one game, timed with System.nanoTime(). */
+  private class GameClock<P> implements IGameClock<P> {
+    private final Map<P, Long> remainingNanos; // Time left in each player's bank
+    private final long startNanos;
+
+    GameClock(List<P> players, long startNanos) {
+      this.remainingNanos = new HashMap<>();
+      for (P player : players) {
+        this.remainingNanos.put(Objects.requireNonNull(player), timeBankNanos);
+      }
+      this.startNanos = startNanos;
+    }
+
+    @Override
+    public long getTimeAllowedNanos(P player) throws IllegalArgumentException {
+      return Math.min(
+          Math.min(callLimitNanos, this.remainingOf(player)), this.remainingInGame());
+    }
+
+    @Override
+    public boolean charge(P player, long elapsedNanos) throws IllegalArgumentException {
+      if (elapsedNanos < 0) {
+        throw new IllegalArgumentException("Cannot charge a negative amount of time.");
+      }
+      long remaining = this.remainingOf(player);
+      if (remaining == UNLIMITED) {
+        return true;
+      }
+      remaining -= elapsedNanos;
+      if (remaining <= 0) {
+        this.remainingNanos.put(player, 0L);
+        return false;
+      }
+      this.remainingNanos.put(player, remaining + incrementNanos);
+      return true;
+    }
+
+    @Override
+    public boolean isExpired() {
+      return this.remainingInGame() == 0;
+    }
+
+    /** Gets the time left in the given player's bank. */
+    private long remainingOf(P player) throws IllegalArgumentException {
+      Long remaining = this.remainingNanos.get(player);
+      if (remaining == null) {
+        throw new IllegalArgumentException("The player is not in this game.");
+      }
+      return remaining;
+    }
+
+    /** Gets the time until the game's deadline, or UNLIMITED if there is none. */
+    private long remainingInGame() {
+      if (gameDeadlineNanos == UNLIMITED) {
+        return UNLIMITED;
+      }
+      return Math.max(0, gameDeadlineNanos - (System.nanoTime() - this.startNanos));
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package game_state;
+
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.Set;
+import map.ConnectionIdSet;
+import map.IRailConnection;
+import map.ITrainMap;
+
+/**
+ * Tracks which rail connections of a single map are occupied by some player, as a bitset over the
+ * map's connection ids. Checking or changing whether one connection is occupied takes constant
+ * time.
+ *
+ * <p>Copies made with {@link #snapshot()} only copy the bitset, so they are cheap to hand out with
+ * every player game state.
+ */
+public class ConnectionOccupancy {
+  private final ITrainMap map;
+  private final BitSet occupied;
+
+  /**
+   * Constructs an occupancy index for the given map in which every connection is unoccupied.
+   *
+   * @param map the map whose connections are tracked.
+   */
+  public ConnectionOccupancy(ITrainMap map) {
+    this.map = Objects.requireNonNull(map);
+    this.occupied = new BitSet(map.getNumConnections());
+  }
+
+  /** Constructs a copy of the given occupancy index. */
+  private ConnectionOccupancy(ConnectionOccupancy toCopy) {
+    this.map = toCopy.map;
+    this.occupied = (BitSet) toCopy.occupied.clone();
+  }
+
+  /**
+   * Gets the map whose connections this tracks.
+   *
+   * @return the map given on construction.
+   */
+  public ITrainMap getMap() {
+    return this.map;
+  }
+
+  /**
+   * Determines whether the given connection is in the map and is not occupied.
+   *
+   * @param connection the connection to query.
+   * @return true if the connection exists in the map and no player occupies it, false otherwise.
+   */
+  public boolean isUnoccupied(IRailConnection connection) {
+    int id = this.map.getConnectionId(connection);
+    return id >= 0 && !this.occupied.get(id);
+  }
+
+  /**
+   * Marks the given connection as occupied. Connections that are not in the map are ignored.
+   *
+   * @param connection the connection that a player acquired.
+   */
+  public void occupy(IRailConnection connection) {
+    int id = this.map.getConnectionId(connection);
+    if (id >= 0) {
+      this.occupied.set(id);
+    }
+  }
+
+  /**
+   * Marks the given connection as unoccupied. Connections that are not in the map are ignored.
+   *
+   * @param connection the connection that no player occupies anymore.
+   */
+  public void release(IRailConnection connection) {
+    int id = this.map.getConnectionId(connection);
+    if (id >= 0) {
+      this.occupied.clear(id);
+    }
+  }
+
+  /**
+   * Calculates the ids of all connections of the map that are not occupied.
+   *
+   * @return a new bitset of the ids of the unoccupied connections.
+   */
+  public BitSet getUnoccupiedIds() {
+    BitSet unoccupied = new BitSet(this.map.getNumConnections());
+    unoccupied.set(0, this.map.getNumConnections());
+    unoccupied.andNot(this.occupied);
+    return unoccupied;
+  }
+
+  /**
+   * Calculates all connections of the map that are not occupied.
+   *
+   * @return a new set of the unoccupied connections, backed by their ids.
+   */
+  public Set<IRailConnection> getUnoccupiedConnections() {
+    return new ConnectionIdSet(this.map, this.getUnoccupiedIds());
+  }
+
+  /**
+   * Copies this occupancy index, so that later changes to either one do not affect the other.
+   *
+   * @return a copy of this occupancy index.
+   */
+  public ConnectionOccupancy snapshot() {
+    return new ConnectionOccupancy(this);
+  }
+}
@@ -1,5 +1,6 @@
 package game_state;
 
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -38,14 +39,55 @@ public interface IPlayerGameState {
      */
     Set<IRailConnection> calculateUnoccupiedConnections(ITrainMap map);
 
+    /**
+     * Calculates the ids of all connections in the given map that are not occupied by any player
+     * in the game, see {@link ITrainMap#getConnectionId(IRailConnection)}.
+     *
+     * @param map The map for this game of Trains.
+     * @return A new bitset of the ids of the connections in the given map that are not owned by
+     *     any player in this game.
+     */
+    BitSet calculateUnoccupiedConnectionIds(ITrainMap map);
+
+    /**
+     * Determines whether the given connection is in the given map and is not occupied by any
+     * player in the game.
+     *
+     * @param connection The connection to query.
+     * @param map The map for this game of Trains.
+     * @return Whether the connection exists in the map and is not owned by any player in this game.
+     */
+    boolean isConnectionUnoccupied(IRailConnection connection, ITrainMap map);
+
     /**
      * Gets the cards that are in the hand of the player that this IPlayerGameState corresponds to.
      *
-     * @return A map of RailCard to the number of cards of that color in this player's hand. An
-     * entry is present for every type of RailCard.
+     * @return A read-only map of RailCard to the number of cards of that color in this player's
+     * hand. An entry is present for every type of RailCard.
      */
     Map<RailCard, Integer> getCardsInHand();
 
+    /**
+     * Gets the number of cards of the given color in the hand of the player that this
+     * IPlayerGameState corresponds to.
+     *
+     * @param cardType The color of card to count.
+     * @return The number of cards of that color in this player's hand.
+     */
+    default int getNumCardsOfType(RailCard cardType) {
+        return this.getCardsInHand().getOrDefault(cardType, 0);
+    }
+
+    /**
+     * Gets the total number of cards in the hand of the player that this IPlayerGameState
+     * corresponds to.
+     *
+     * @return The number of cards in this player's hand.
+     */
+    default int getTotalNumCards() {
+        return this.getCardsInHand().values().stream().mapToInt(Integer::intValue).sum();
+    }
+
     Set<Destination> getDestinations();
 
     /**
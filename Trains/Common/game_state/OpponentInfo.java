@@ -1,25 +1,31 @@
 package game_state;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 import map.IRailConnection;
 
 /**
- * Represents information about an opponent that should be visible to other players
+ * Represents information about an opponent that should be visible to other players. It never
+ * changes once constructed, so one OpponentInfo can be shared between many player game states.
  */
 public class OpponentInfo implements IOpponentInfo {
-  private Set<IRailConnection> ownedConnections;
+  private final Set<IRailConnection> ownedConnections;
 
   /**
    * Constructs an OpponentInfo from a given set of owned rail connections.
    * @param ownedConnections the own connections for the opponent
    */
   public OpponentInfo(Set<IRailConnection> ownedConnections) {
-    this.ownedConnections = new HashSet<>(ownedConnections);
+    this.ownedConnections = Collections.unmodifiableSet(new HashSet<>(ownedConnections));
   }
 
+  /**
+   * Gets the opponent's owned connections.
+   * @return an unmodifiable set of the owned connections
+   */
   @Override
   public Set<IRailConnection> getOwnedConnections() {
-    return new HashSet<>(this.ownedConnections);
+    return this.ownedConnections;
   }
 }
@@ -1,27 +1,36 @@
 package game_state;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
+import map.ConnectionIdSet;
 import map.Destination;
 import map.IRailConnection;
 import map.ITrainMap;
 import referee.IPlayerData;
+import referee.TrainsPlayerHand;
 
 /**
  * Represents a read-only view of the current state of the game for a player of the game Trains.
+ *
+ * <p>Every collection returned by this class is unmodifiable and never changes, so that one state
+ * can be handed to any number of callers without copying it.
  */
 public class PlayerGameState implements IPlayerGameState {
   private final Set<IRailConnection> ownedConnections;
-  private final Map<RailCard, Integer> cardsInHand;
+  private final TrainsPlayerHand cardsInHand;
+  private final Map<RailCard, Integer> cardsInHandView;
   private final int numRails;
   private final List<IOpponentInfo> opponentInfo;
   private final Set<Destination> destinations;
+  // Null unless the state was made by a referee tracking which connections are occupied
+  private final ConnectionOccupancy occupancy;
 
   /**
    * Constructs this PlayerGameState from the corresponding player data and the opponent information.
@@ -29,36 +38,153 @@ public class PlayerGameState implements IPlayerGameState {
    * @param opponentInfo a List of IOpponentInformation representing the information about other players
    */
   public PlayerGameState(IPlayerData playerData, List<IOpponentInfo> opponentInfo) {
-    Objects.requireNonNull(playerData);
+    this(
+        Collections.unmodifiableSet(new HashSet<>(playerData.getOwnedConnections())),
+        TrainsPlayerHand.copyOf(playerData.getPlayerHand()),
+        playerData.getNumRails(),
+        Collections.unmodifiableSet(new HashSet<>(playerData.getDestinations())),
+        Collections.unmodifiableList(new ArrayList<>(opponentInfo)),
+        null);
+  }
+
+  /**
+   * Constructs this PlayerGameState from the corresponding player data, the opponent information,
+   * and an index of the connections occupied by every player in the game. The index is copied, so
+   * this state is not updated as the game progresses.
+   * @param playerData an IPlayerData representing the resources of a player
+   * @param opponentInfo a List of IOpponentInformation representing the information about other players
+   * @param occupancy the connections occupied by this player and every opponent
+   */
+  public PlayerGameState(IPlayerData playerData, List<IOpponentInfo> opponentInfo,
+      ConnectionOccupancy occupancy) {
+    this(
+        Collections.unmodifiableSet(new HashSet<>(playerData.getOwnedConnections())),
+        TrainsPlayerHand.copyOf(playerData.getPlayerHand()),
+        playerData.getNumRails(),
+        Collections.unmodifiableSet(new HashSet<>(playerData.getDestinations())),
+        Collections.unmodifiableList(new ArrayList<>(opponentInfo)),
+        occupancy.snapshot());
+  }
+
+  /**
+   * Constructs this PlayerGameState from collections that it takes ownership of. The occupancy is
+   * null for a state that was not made by a referee tracking occupied connections.
+   */
+  private PlayerGameState(Set<IRailConnection> ownedConnections, TrainsPlayerHand cardsInHand,
+      int numRails, Set<Destination> destinations, List<IOpponentInfo> opponentInfo,
+      ConnectionOccupancy occupancy) {
+    Objects.requireNonNull(ownedConnections);
+    Objects.requireNonNull(cardsInHand);
+    Objects.requireNonNull(destinations);
     Objects.requireNonNull(opponentInfo);
+    this.occupancy = occupancy;
+
+    this.ownedConnections = ownedConnections;
+    this.cardsInHand = cardsInHand;
+    this.cardsInHandView = this.cardsInHand.asMapView();
+    this.numRails = numRails;
+    this.opponentInfo = opponentInfo;
+    this.destinations = destinations;
+  }
 
-    this.ownedConnections = new HashSet<>(playerData.getOwnedConnections());
-    this.cardsInHand = new HashMap<>(playerData.getPlayerHand().getHand());
-    this.numRails = playerData.getNumRails();
-    this.opponentInfo = new ArrayList<>(opponentInfo);
-    this.destinations = new HashSet<>(playerData.getDestinations());
+  /**
+   * Constructs a PlayerGameState that shares the given collections rather than copying them, so
+   * that the same collections can back the states of many turns. Only the hand, rails and
+   * occupancy are copied out of the player's data.
+   *
+   * @param playerData the resources of the player, from which the hand and rails are copied
+   * @param ownedConnections an unmodifiable set of the player's connections that never changes
+   * @param destinations an unmodifiable set of the player's destinations that never changes
+   * @param opponentInfo an unmodifiable list of opponent information that never changes
+   * @param occupancy the connections occupied by this player and every opponent
+   * @return the new PlayerGameState
+   */
+  public static PlayerGameState fromSharedSnapshots(IPlayerData playerData,
+      Set<IRailConnection> ownedConnections, Set<Destination> destinations,
+      List<IOpponentInfo> opponentInfo, ConnectionOccupancy occupancy) {
+    return new PlayerGameState(ownedConnections,
+        TrainsPlayerHand.copyOf(playerData.getPlayerHand()), playerData.getNumRails(), destinations,
+        opponentInfo, occupancy.snapshot());
+  }
+
+  /**
+   * Constructs a PlayerGameState that shares the given collections like
+   * {@link #fromSharedSnapshots(IPlayerData, Set, Set, List, ConnectionOccupancy)}, but without an
+   * index of occupied connections, so that it is cheap enough to build for a preview.
+   *
+   * @param cardsInHand the player's hand, which the state takes ownership of
+   * @param numRails the player's number of rails
+   * @param ownedConnections an unmodifiable set of the player's connections that never changes
+   * @param destinations an unmodifiable set of the player's destinations that never changes
+   * @param opponentInfo an unmodifiable list of opponent information that never changes
+   * @return the new PlayerGameState
+   */
+  public static PlayerGameState fromSharedSnapshots(TrainsPlayerHand cardsInHand, int numRails,
+      Set<IRailConnection> ownedConnections, Set<Destination> destinations,
+      List<IOpponentInfo> opponentInfo) {
+    return new PlayerGameState(ownedConnections, cardsInHand, numRails, destinations, opponentInfo,
+        null);
   }
 
   @Override
   public Set<IRailConnection> getOwnedConnections() {
-    return new HashSet<>(this.ownedConnections);
+    return this.ownedConnections;
   }
 
   @Override
   public Set<IRailConnection> calculateUnoccupiedConnections(ITrainMap map) {
-    Set<IRailConnection> unoccupiedConnections = map.getRailConnections();
+    return new ConnectionIdSet(map, this.calculateUnoccupiedConnectionIds(map));
+  }
 
-    unoccupiedConnections.removeAll(this.ownedConnections);
+  @Override
+  public BitSet calculateUnoccupiedConnectionIds(ITrainMap map) {
+    if (this.hasOccupancyFor(map)) {
+      return this.occupancy.getUnoccupiedIds();
+    }
+    ConnectionOccupancy occupancy = new ConnectionOccupancy(map);
+    this.ownedConnections.forEach(occupancy::occupy);
     for (IOpponentInfo oneOpponentInfo : this.opponentInfo) {
-      unoccupiedConnections.removeAll(oneOpponentInfo.getOwnedConnections());
+      oneOpponentInfo.getOwnedConnections().forEach(occupancy::occupy);
     }
 
-    return unoccupiedConnections;
+    return occupancy.getUnoccupiedIds();
+  }
+
+  @Override
+  public boolean isConnectionUnoccupied(IRailConnection connection, ITrainMap map) {
+    if (this.hasOccupancyFor(map)) {
+      return this.occupancy.isUnoccupied(connection);
+    }
+    return this.calculateUnoccupiedConnections(map).contains(connection);
+  }
+
+  /**
+   * Determines whether this state's occupancy index, if any, tracks the given map. The map is
+   * compared by identity: equal maps do give the same connection ids, but comparing them checks
+   * every city and connection, which costs about as much as rebuilding the occupancy. A player is
+   * normally given the referee's own map instance, and the codecs hand out one shared instance for
+   * equal maps, so this usually holds. A map that is equal but a different instance still gets the
+   * right answer, only through the slower path that rebuilds the occupancy from the owned
+   * connections.
+   */
+  private boolean hasOccupancyFor(ITrainMap map) {
+    return this.occupancy != null && this.occupancy.getMap() == map;
   }
 
   @Override
   public Map<RailCard, Integer> getCardsInHand() {
-    return new HashMap<>(this.cardsInHand);
+    // This state's copy of the hand never changes, so a read-only view of it is safe to share
+    return this.cardsInHandView;
+  }
+
+  @Override
+  public int getNumCardsOfType(RailCard cardType) {
+    return this.cardsInHand.getNumCardsOfType(cardType);
+  }
+
+  @Override
+  public int getTotalNumCards() {
+    return this.cardsInHand.getTotalNumCards();
   }
 
   @Override
@@ -68,7 +194,7 @@ public class PlayerGameState implements IPlayerGameState {
 
   @Override
   public List<IOpponentInfo> getOpponentInfo() {
-    return new ArrayList<>(this.opponentInfo);
+    return this.opponentInfo;
   }
 
   @Override
@@ -0,0 +1,72 @@
+package map;
+
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * An unmodifiable set of connections of a single map, held as a bitset over the map's connection
+ * ids. Building the set and iterating over it never hash a connection: iteration goes through the
+ * connections in id order by looking each one up by its id, and the size is a bit count. Only
+ * {@link #contains(Object)} looks up the id of the given connection.
+ */
+public class ConnectionIdSet extends AbstractSet<IRailConnection> {
+  private final ITrainMap map;
+  private final BitSet ids;
+  private final int size;
+
+  /**
+   * Constructs the set of the connections of the given map whose ids are set in the given bitset.
+   * The set takes over the bitset, which must not be changed afterwards.
+   *
+   * @param map the map whose connection ids the bitset holds.
+   * @param ids the ids of the connections in the set, each less than map.getNumConnections().
+   * @throws IllegalArgumentException if an id is not a connection of the map.
+   */
+  public ConnectionIdSet(ITrainMap map, BitSet ids) throws IllegalArgumentException {
+    this.map = Objects.requireNonNull(map);
+    this.ids = Objects.requireNonNull(ids);
+    if (ids.length() > map.getNumConnections()) {
+      throw new IllegalArgumentException("Every id must be a connection of the map");
+    }
+    this.size = ids.cardinality();
+  }
+
+  @Override
+  public int size() {
+    return this.size;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    if (!(o instanceof IRailConnection)) {
+      return false;
+    }
+    int id = this.map.getConnectionId((IRailConnection) o);
+    return id >= 0 && this.ids.get(id);
+  }
+
+  @Override
+  public Iterator<IRailConnection> iterator() {
+    return new Iterator<>() {
+      private int nextId = ids.nextSetBit(0);
+
+      @Override
+      public boolean hasNext() {
+        return this.nextId >= 0;
+      }
+
+      @Override
+      public IRailConnection next() {
+        if (this.nextId < 0) {
+          throw new NoSuchElementException();
+        }
+        IRailConnection connection = map.getConnectionById(this.nextId);
+        this.nextId = ids.nextSetBit(this.nextId + 1);
+        return connection;
+      }
+    };
+  }
+}
@@ -0,0 +1,234 @@
+package map;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Indexes the possible destinations of a map, which are the pairs of distinct cities connected by
+ * some series of rail connections, without creating them.
+ *
+ * <p>Every city is labelled with its connected component on construction, so whether two cities
+ * form a destination is answered in constant time, and the number of destinations is counted from
+ * the sizes of the components. Destinations are numbered in their sorted order, so that a single
+ * destination can be found from its number and any number of them can be sampled at random without
+ * materializing the rest.
+ */
+public class DestinationIndex {
+  private final ITrainMap map;
+  private final int[] componentOf; // Indexed by city id
+  private final int[] rankInComponent; // Indexed by city id, position in the component's members
+  private final int[][] members; // City ids of each component, in increasing order
+  private final long[] destinationsBefore; // Indexed by city id, number of destinations with a
+                                           // lesser city whose id is smaller
+  private final long numDestinations;
+
+  /**
+   * Constructs the destination index of the given map.
+   *
+   * @param map the map whose destinations to index.
+   */
+  public DestinationIndex(ITrainMap map) {
+    this.map = Objects.requireNonNull(map);
+    int numCities = map.getNumCities();
+    this.componentOf = new int[numCities];
+    this.rankInComponent = new int[numCities];
+    Arrays.fill(this.componentOf, -1);
+
+    // Label components with a breadth-first walk from each city that is not labelled yet
+    List<int[]> components = new ArrayList<>();
+    Deque<Integer> toVisit = new ArrayDeque<>();
+    for (int start = 0; start < numCities; start += 1) {
+      if (this.componentOf[start] >= 0) {
+        continue;
+      }
+      int component = components.size();
+      List<Integer> found = new ArrayList<>();
+      this.componentOf[start] = component;
+      toVisit.add(start);
+      while (!toVisit.isEmpty()) {
+        int cityId = toVisit.poll();
+        found.add(cityId);
+        for (IRailConnection rail : map.getRailConnectionsOf(map.getCityById(cityId))) {
+          int neighborId = map.getCityId(rail.getCities().first) == cityId
+              ? map.getCityId(rail.getCities().second)
+              : map.getCityId(rail.getCities().first);
+          if (this.componentOf[neighborId] < 0) {
+            this.componentOf[neighborId] = component;
+            toVisit.add(neighborId);
+          }
+        }
+      }
+      int[] memberIds = found.stream().mapToInt(Integer::intValue).sorted().toArray();
+      for (int rank = 0; rank < memberIds.length; rank += 1) {
+        this.rankInComponent[memberIds[rank]] = rank;
+      }
+      components.add(memberIds);
+    }
+    this.members = components.toArray(new int[0][]);
+
+    this.destinationsBefore = new long[numCities + 1];
+    for (int cityId = 0; cityId < numCities; cityId += 1) {
+      this.destinationsBefore[cityId + 1] =
+          this.destinationsBefore[cityId] + this.numGreaterInComponent(cityId);
+    }
+    this.numDestinations = this.destinationsBefore[numCities];
+  }
+
+  /**
+   * Determines whether the given cities form a destination, meaning that they are distinct cities
+   * of the map connected by some series of rail connections.
+   *
+   * @param city1 one city.
+   * @param city2 another city.
+   * @return true if the cities form a destination, false otherwise.
+   */
+  public boolean isPossibleDestination(ICity city1, ICity city2) {
+    int id1 = this.map.getCityId(city1);
+    int id2 = this.map.getCityId(city2);
+    return id1 >= 0 && id2 >= 0 && id1 != id2 && this.componentOf[id1] == this.componentOf[id2];
+  }
+
+  /**
+   * Gets the number of possible destinations of the map.
+   *
+   * @return the number of pairs of distinct cities that are connected.
+   */
+  public long getNumDestinations() {
+    return this.numDestinations;
+  }
+
+  /**
+   * Gets the number of connected components of the map, counting every city without connections as
+   * its own component.
+   *
+   * @return the number of components.
+   */
+  public int getNumComponents() {
+    return this.members.length;
+  }
+
+  /**
+   * Gets the component of the given city. Components are numbered in the order of the lowest city
+   * id in each.
+   *
+   * @param city the city to query.
+   * @return the component of the city in [0, getNumComponents()), or -1 if the city is not in the
+   *     map.
+   */
+  public int getComponentOf(ICity city) {
+    int cityId = this.map.getCityId(city);
+    return cityId < 0 ? -1 : this.componentOf[cityId];
+  }
+
+  /**
+   * Gets the number of possible destinations among the cities of the given component.
+   *
+   * @param component the component to query.
+   * @return the number of pairs of distinct cities in the component.
+   * @throws IndexOutOfBoundsException if there is no such component.
+   */
+  public long getNumDestinationsInComponent(int component) throws IndexOutOfBoundsException {
+    long size = this.members[component].length;
+    return size * (size - 1) / 2;
+  }
+
+  /**
+   * Gets the destination with the given position in the sorted order of all destinations, without
+   * creating any of the others.
+   *
+   * @param index the position of the destination.
+   * @return the destination at that position.
+   * @throws IndexOutOfBoundsException if the index is not in [0, getNumDestinations()).
+   */
+  public Destination getDestination(long index) throws IndexOutOfBoundsException {
+    if (index < 0 || index >= this.numDestinations) {
+      throw new IndexOutOfBoundsException("No destination at index " + index);
+    }
+    // Find the lesser city, the last one whose destinations start at or before the index
+    int low = 0;
+    int high = this.destinationsBefore.length - 1;
+    while (high - low > 1) {
+      int middle = (low + high) >>> 1;
+      if (this.destinationsBefore[middle] <= index) {
+        low = middle;
+      } else {
+        high = middle;
+      }
+    }
+    int lesserId = low;
+    int offset = (int) (index - this.destinationsBefore[lesserId]);
+    int greaterId =
+        this.members[this.componentOf[lesserId]][this.rankInComponent[lesserId] + 1 + offset];
+    return new Destination(this.map.getCityById(lesserId), this.map.getCityById(greaterId));
+  }
+
+  /**
+   * Picks the given number of distinct destinations uniformly at random, in random order. This
+   * takes time proportional to the number picked rather than to the number of destinations.
+   *
+   * @param count the number of destinations to pick.
+   * @param random the source of randomness.
+   * @return the picked destinations.
+   * @throws IllegalArgumentException if count is negative or more than the number of destinations.
+   */
+  public List<Destination> sampleDestinations(int count, Random random)
+      throws IllegalArgumentException {
+    List<Destination> result = new ArrayList<>(count);
+    this.sampleDestinations(count, random, result);
+    return result;
+  }
+
+  /**
+   * Picks destinations like {@link #sampleDestinations(int, Random)}, but into the given list,
+   * replacing its contents, so that a caller picking destinations for many games can reuse it.
+   *
+   * @param count the number of destinations to pick.
+   * @param random the source of randomness.
+   * @param into the list to clear and then fill with the picked destinations.
+   * @throws IllegalArgumentException if count is negative or more than the number of destinations.
+   */
+  public void sampleDestinations(int count, Random random, List<Destination> into)
+      throws IllegalArgumentException {
+    Objects.requireNonNull(random);
+    Objects.requireNonNull(into);
+    if (count < 0 || count > this.numDestinations) {
+      throw new IllegalArgumentException(
+          "Cannot pick " + count + " of " + this.numDestinations + " destinations.");
+    }
+    into.clear();
+    // A Fisher-Yates shuffle of the first count positions, recording only the swapped positions
+    Map<Long, Long> swapped = new HashMap<>();
+    for (long position = 0; position < count; position += 1) {
+      long chosen = position + randomBelow(random, this.numDestinations - position);
+      long chosenIndex = swapped.getOrDefault(chosen, chosen);
+      swapped.put(chosen, swapped.getOrDefault(position, position));
+      into.add(this.getDestination(chosenIndex));
+    }
+  }
+
+  /** Gets the number of cities in the same component as the given city with a greater id. */
+  private int numGreaterInComponent(int cityId) {
+    return this.members[this.componentOf[cityId]].length - this.rankInComponent[cityId] - 1;
+  }
+
+  /** Picks a long uniformly at random in [0, bound), for a positive bound. */
+  private static long randomBelow(Random random, long bound) {
+    if (bound <= Integer.MAX_VALUE) {
+      return random.nextInt((int) bound);
+    }
+    long bits;
+    long value;
+    do {
+      bits = random.nextLong() >>> 1;
+      value = bits % bound;
+    } while (bits - value + (bound - 1) < 0);
+    return value;
+  }
+}
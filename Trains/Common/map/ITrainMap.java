@@ -11,27 +11,32 @@ import utils.UnorderedPair;
  * not be any duplicate city names or more than one connection of the same color between two cities.
  *
  * <p>An ITrainMap should be immutable.
+ *
+ * <p>Every city and connection of the map has a dense integer id, from 0 up to the number of
+ * cities or connections. Ids are assigned from the names and colors alone, so two maps with equal
+ * cities and connections give them the same ids. Code that tracks many cities or connections can
+ * use the ids to index arrays or bitsets instead of hashing the objects themselves.
  */
 public interface ITrainMap {
 
   /**
    * All of the cities in the map.
    *
-   * @return a defensively-copied set of all the cities.
+   * @return an unmodifiable set of all the cities.
    */
   Set<ICity> getCities();
 
   /**
    * All of the connections that exist among the cities in the map.
    *
-   * @return a defensively-copied set of all the rail connections.
+   * @return an unmodifiable set of all the rail connections.
    */
   Set<IRailConnection> getRailConnections();
 
   /**
    * The names of all of the cities in the map.
    *
-   * @return a set of all the city names.
+   * @return an unmodifiable set of all the city names.
    */
   Set<String> getCityNames();
 
@@ -39,15 +44,97 @@ public interface ITrainMap {
    * Calculates every possible pair of cities that can be connected by any series of rail
    * connections on this map.
    *
-   * @return a set of destinations, which are unordered pairs indicating the two endpoint cities.
+   * @return an unmodifiable set of destinations, which are unordered pairs indicating the two
+   *     endpoint cities.
    */
   Set<UnorderedPair<ICity>> getAllPossibleDestinations();
 
+  /**
+   * An index over every possible destination, which can test and count destinations and sample
+   * them without creating the set returned by getAllPossibleDestinations().
+   *
+   * @return the destination index of this map.
+   */
+  DestinationIndex getDestinationIndex();
+
     /**
      * Get teh dimensions of this map in pixels.
      * @return a MapDimensions object, an ordered pair representing the width and height of this map in pixels.
      */
   MapDimensions getMapDimension();
 
+  /**
+   * Finds the city with the given name.
+   *
+   * @param name the name of the city.
+   * @return the city with the given name, or empty if there is none in this map.
+   */
   Optional<ICity> getCityFromName(String name);
+
+  /**
+   * All of the connections that have the given city as one of their endpoints.
+   *
+   * @param city the city to query.
+   * @return an unmodifiable set of the connections touching the city, empty if the city is not in
+   *     the map.
+   */
+  Set<IRailConnection> getRailConnectionsOf(ICity city);
+
+  /**
+   * The connection of the given color between the given cities, if one exists in the map.
+   *
+   * @param cities the endpoints of the connection.
+   * @param color the color of the connection.
+   * @return the connection, or empty if there is no such connection.
+   */
+  Optional<IRailConnection> getRailConnection(UnorderedPair<ICity> cities, RailColor color);
+
+  /**
+   * The number of cities in the map, which is one more than the largest city id.
+   *
+   * @return the number of cities.
+   */
+  int getNumCities();
+
+  /**
+   * The dense id of the given city.
+   *
+   * @param city the city to query.
+   * @return the id of the city in [0, getNumCities()), or -1 if the city is not in the map.
+   */
+  int getCityId(ICity city);
+
+  /**
+   * The city with the given id.
+   *
+   * @param cityId the id of the city.
+   * @return the city whose id is cityId.
+   * @throws IndexOutOfBoundsException if there is no city with the given id.
+   */
+  ICity getCityById(int cityId) throws IndexOutOfBoundsException;
+
+  /**
+   * The number of connections in the map, which is one more than the largest connection id.
+   *
+   * @return the number of connections.
+   */
+  int getNumConnections();
+
+  /**
+   * The dense id of the given connection.
+   *
+   * @param connection the connection to query.
+   * @return the id of the connection in [0, getNumConnections()), or -1 if the connection is not
+   *     in the map.
+   */
+  int getConnectionId(IRailConnection connection);
+
+  /**
+   * The connection with the given id.
+   *
+   * @param connectionId the id of the connection.
+   * @return the connection whose id is connectionId.
+   * @throws IndexOutOfBoundsException if there is no connection with the given id.
+   */
+  IRailConnection getConnectionById(int connectionId) throws IndexOutOfBoundsException;
 }
@@ -6,11 +6,15 @@ import utils.UnorderedPair;
 
 /**
  * Represents one connection between two distinct cities on the game board in a game of Trains.
+ *
+ * <p>The endpoints are stored in the lexicographic order of their names and the hash code is
+ * computed once on construction, so comparing and hashing connections never allocates.
  */
 public class RailConnection implements IRailConnection {
     private final UnorderedPair<ICity> cities;
     private final int length;
     private final RailColor color;
+    private final int hash;
 
     /**
      * Constructs a map.RailConnection from the distinct cities at its end points, its length, and its Color.
@@ -27,18 +31,22 @@ public class RailConnection implements IRailConnection {
         ensureValidCities(cities);
         ensureValidLength(length);
 
-        this.cities = new UnorderedPair<>(cities);
+        this.cities = cities.first.getName().compareTo(cities.second.getName()) <= 0
+            ? new UnorderedPair<>(cities.first, cities.second)
+            : new UnorderedPair<>(cities.second, cities.first);
         this.length = length;
-        this.color = color;
+        this.color = Objects.requireNonNull(color);
+        this.hash = 31 * this.cities.hashCode() + color.hashCode();
     }
 
     /**
-     * Gets the utils.UnorderedPair of cities that this map.RailConnection connects.
+     * Gets the utils.UnorderedPair of cities that this map.RailConnection connects. The pair is
+     * immutable, so it is shared rather than copied, and its first city has the lesser name.
      *
      * @return The utils.UnorderedPair of cities that this map.RailConnection connects.
      */
     public UnorderedPair<ICity> getCities() {
-        return new UnorderedPair<>(this.cities);
+        return this.cities;
     }
 
   /**
@@ -48,8 +56,16 @@ public class RailConnection implements IRailConnection {
    * @return true if the pair of cities are the same, false if not.
    */
   public boolean sameRailConnection(IRailConnection other) {
-        return this.cities.equals(other.getCities())
-            && this.color.equals(other.getColor());
+        if (this.color != other.getColor()) {
+            return false;
+        }
+        if (other instanceof RailConnection) {
+            // Both pairs are in name order, so the endpoints line up
+            UnorderedPair<ICity> otherCities = ((RailConnection) other).cities;
+            return this.cities.first.sameName(otherCities.first)
+                && this.cities.second.sameName(otherCities.second);
+        }
+        return this.cities.equals(other.getCities());
     }
 
     /**
@@ -103,7 +119,7 @@ public class RailConnection implements IRailConnection {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(this.cities, this.color);
+        return this.hash;
     }
 
     /**
@@ -123,6 +139,7 @@ public class RailConnection implements IRailConnection {
         }
 
         RailConnection otherRailConnection = (RailConnection) obj;
-        return this.sameRailConnection(otherRailConnection);
+        return this.hash == otherRailConnection.hash
+            && this.sameRailConnection(otherRailConnection);
     }
 }
\ No newline at end of file
@@ -1,11 +1,16 @@
 package map;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 import utils.GraphUtility;
 import utils.UnorderedPair;
 
@@ -16,6 +21,14 @@ import utils.UnorderedPair;
  *
  * <p>Cities must have unique names, at most one rail connection of the same color can connect two
  * cities, and rail connections cannot connect a city to itself.
+ *
+ * <p>All lookups are indexed when the map is constructed, and every returned collection is an
+ * unmodifiable view of this map's own data rather than a copy. The set of all possible destinations
+ * and the destination index are each computed on first request and cached.
+ *
+ * <p>City ids follow the order of the city names, and connection ids follow the order of the
+ * names of their endpoints and then their colors, so ids do not depend on the iteration order of
+ * the sets this map was constructed from.
  */
 public class TrainMap implements ITrainMap {
 
@@ -23,6 +36,20 @@ public class TrainMap implements ITrainMap {
     private final Set<IRailConnection> railConnections;
     private final MapDimensions dimensions;
 
+    // Indices over the cities and rail connections, built on construction
+    private final Set<String> cityNames;
+    private final Map<String, ICity> citiesByName;
+    private final Map<ICity, Set<IRailConnection>> connectionsByCity;
+    private final Map<UnorderedPair<ICity>, Map<RailColor, IRailConnection>> connectionsByEndpoints;
+    private final List<ICity> citiesById;
+    private final Map<ICity, Integer> cityIds;
+    private final List<IRailConnection> connectionsById;
+    private final Map<IRailConnection, Integer> connectionIds;
+
+    // Calculated lazily, since most maps never have their destinations requested
+    private volatile Set<UnorderedPair<ICity>> allPossibleDestinations;
+    private volatile DestinationIndex destinationIndex;
+
     /**
      * Constructs this TrainMap from the given set of cities, defaults to a map size of 400 pixels
      * by 400 pixels.
@@ -55,9 +82,69 @@ public class TrainMap implements ITrainMap {
                 "Rail connections contains paths to non-existent cities or self-connections.");
         }
 
-        this.cities = new HashSet<>(cities);
-        this.railConnections = new HashSet<>(rails);
+        this.cities = Collections.unmodifiableSet(new HashSet<>(cities));
+        this.railConnections = Collections.unmodifiableSet(new HashSet<>(rails));
         this.dimensions = dimensions;
+
+        Map<String, ICity> citiesByName = new HashMap<>();
+        Map<ICity, Set<IRailConnection>> connectionsByCity = new HashMap<>();
+        for (ICity city : this.cities) {
+            citiesByName.put(city.getName(), city);
+            connectionsByCity.put(city, new HashSet<>());
+        }
+
+        Map<UnorderedPair<ICity>, Map<RailColor, IRailConnection>> connectionsByEndpoints =
+            new HashMap<>();
+        for (IRailConnection rail : this.railConnections) {
+            UnorderedPair<ICity> endpoints = rail.getCities();
+            connectionsByCity.get(endpoints.first).add(rail);
+            connectionsByCity.get(endpoints.second).add(rail);
+            connectionsByEndpoints
+                .computeIfAbsent(endpoints, (pair) -> new EnumMap<>(RailColor.class))
+                .put(rail.getColor(), rail);
+        }
+        connectionsByCity.replaceAll((city, touching) -> Collections.unmodifiableSet(touching));
+
+        this.cityNames = Collections.unmodifiableSet(citiesByName.keySet());
+        this.citiesByName = citiesByName;
+        this.connectionsByCity = connectionsByCity;
+        this.connectionsByEndpoints = connectionsByEndpoints;
+
+        List<ICity> citiesById = new ArrayList<>(this.cities);
+        citiesById.sort(Comparator.comparing(ICity::getName));
+        this.citiesById = Collections.unmodifiableList(citiesById);
+        this.cityIds = indexById(citiesById);
+
+        List<IRailConnection> connectionsById = new ArrayList<>(this.railConnections);
+        connectionsById.sort(
+            Comparator.comparing((IRailConnection rail) -> lesserName(rail.getCities()))
+                .thenComparing((IRailConnection rail) -> greaterName(rail.getCities()))
+                .thenComparing(IRailConnection::getColor));
+        this.connectionsById = Collections.unmodifiableList(connectionsById);
+        this.connectionIds = indexById(connectionsById);
+    }
+
+    /** Maps every element of the given list to its index in the list. */
+    private static <T> Map<T, Integer> indexById(List<T> elementsById) {
+        Map<T, Integer> ids = new HashMap<>();
+        for (int id = 0; id < elementsById.size(); id += 1) {
+            ids.put(elementsById.get(id), id);
+        }
+        return ids;
+    }
+
+    /** Gets the alphabetically first name of the given cities. */
+    private static String lesserName(UnorderedPair<ICity> cities) {
+        String first = cities.first.getName();
+        String second = cities.second.getName();
+        return first.compareTo(second) <= 0 ? first : second;
+    }
+
+    /** Gets the alphabetically last name of the given cities. */
+    private static String greaterName(UnorderedPair<ICity> cities) {
+        String first = cities.first.getName();
+        String second = cities.second.getName();
+        return first.compareTo(second) <= 0 ? second : first;
     }
 
     /**
@@ -85,57 +172,158 @@ public class TrainMap implements ITrainMap {
     /**
      * Gets the set of cities.
      *
-     * @return a defensive copy of this map's cities.
+     * @return an unmodifiable view of this map's cities.
      */
     public Set<ICity> getCities() {
-        return new HashSet<>(this.cities);
+        return this.cities;
     }
 
     /**
      * Gets the set of rail connections.
      *
-     * @return a defensive copy of this map's rail connections.
+     * @return an unmodifiable view of this map's rail connections.
      */
     public Set<IRailConnection> getRailConnections() {
-        return new HashSet<>(this.railConnections);
+        return this.railConnections;
     }
 
     /**
      * Gets the names of all the cities.
      *
-     * @return a set of the names of all the cities in this map.
+     * @return an unmodifiable set of the names of all the cities in this map.
      */
     public Set<String> getCityNames() {
-        // Don't reuse getCities() in case a subclass overwrites that
-        return new HashSet<>(this.cities).stream().map((ICity::getName))
-            .collect(Collectors.toSet());
+        return this.cityNames;
     }
 
     /**
      * Return the city from the name
-     * @param name
-     * @return
+     * @param name the name of the city.
+     * @return the city with the given name, or empty if there is none in this map.
      */
     public Optional<ICity> getCityFromName(String name) {
-        for(ICity city : cities) {
-            if(city.getName().equals(name)) {
-                return Optional.of(city);
-            }
-        }
-        return Optional.empty();
+        return Optional.ofNullable(this.citiesByName.get(name));
+    }
+
+    /**
+     * Gets the rail connections that have the given city as an endpoint.
+     *
+     * @param city the city to query.
+     * @return an unmodifiable set of the connections touching the city, empty if the city is not
+     *     in this map.
+     */
+    public Set<IRailConnection> getRailConnectionsOf(ICity city) {
+        return this.connectionsByCity.getOrDefault(city, Collections.emptySet());
+    }
+
+    /**
+     * Gets the rail connection of the given color between the given cities.
+     *
+     * @param cities the endpoints of the connection.
+     * @param color the color of the connection.
+     * @return the connection, or empty if this map has no such connection.
+     */
+    public Optional<IRailConnection> getRailConnection(UnorderedPair<ICity> cities, RailColor color) {
+        Map<RailColor, IRailConnection> connectionsByColor =
+            this.connectionsByEndpoints.get(cities);
+        return connectionsByColor == null
+            ? Optional.empty()
+            : Optional.ofNullable(connectionsByColor.get(color));
     }
 
     /**
      * Calculates every possible pair of cities that can be connected by any series of rail
-     * connections on this map.
+     * connections on this map. The result is calculated once and cached.
      *
-     * @return a set of destinations, which are unordered pairs indicating the two endpoint cities.
+     * @return an unmodifiable set of destinations, which are unordered pairs indicating the two
+     *     endpoint cities.
      */
     public Set<UnorderedPair<ICity>> getAllPossibleDestinations() {
-        Map<ICity, Set<ICity>> adjacencyList =
-            GraphUtility.constructAdjacencyList(
-                this.cities, this.railConnections, IRailConnection::getCities);
-        return GraphUtility.getConnectedPairs(adjacencyList);
+        Set<UnorderedPair<ICity>> destinations = this.allPossibleDestinations;
+        if (destinations == null) {
+            Map<ICity, Set<ICity>> adjacencyList =
+                GraphUtility.constructAdjacencyList(
+                    this.cities, this.railConnections, IRailConnection::getCities);
+            destinations =
+                Collections.unmodifiableSet(GraphUtility.getConnectedPairs(adjacencyList));
+            this.allPossibleDestinations = destinations;
+        }
+        return destinations;
+    }
+
+    /**
+     * Gets the index over every possible destination of this map. The index is built once and
+     * cached.
+     *
+     * @return the destination index of this map.
+     */
+    public DestinationIndex getDestinationIndex() {
+        DestinationIndex index = this.destinationIndex;
+        if (index == null) {
+            index = new DestinationIndex(this);
+            this.destinationIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Gets the number of cities.
+     *
+     * @return the number of cities, which is one more than the largest city id.
+     */
+    public int getNumCities() {
+        return this.citiesById.size();
+    }
+
+    /**
+     * Gets the id of the given city.
+     *
+     * @param city the city to query.
+     * @return the id of the city, or -1 if it is not in this map.
+     */
+    public int getCityId(ICity city) {
+        return this.cityIds.getOrDefault(city, -1);
+    }
+
+    /**
+     * Gets the city with the given id.
+     *
+     * @param cityId the id of the city.
+     * @return the city with that id.
+     * @throws IndexOutOfBoundsException if no city has the given id.
+     */
+    public ICity getCityById(int cityId) throws IndexOutOfBoundsException {
+        return this.citiesById.get(cityId);
+    }
+
+    /**
+     * Gets the number of rail connections.
+     *
+     * @return the number of connections, which is one more than the largest connection id.
+     */
+    public int getNumConnections() {
+        return this.connectionsById.size();
+    }
+
+    /**
+     * Gets the id of the given rail connection.
+     *
+     * @param connection the connection to query.
+     * @return the id of the connection, or -1 if it is not in this map.
+     */
+    public int getConnectionId(IRailConnection connection) {
+        return this.connectionIds.getOrDefault(connection, -1);
+    }
+
+    /**
+     * Gets the rail connection with the given id.
+     *
+     * @param connectionId the id of the connection.
+     * @return the connection with that id.
+     * @throws IndexOutOfBoundsException if no connection has the given id.
+     */
+    public IRailConnection getConnectionById(int connectionId) throws IndexOutOfBoundsException {
+        return this.connectionsById.get(connectionId);
     }
 
     /**
@@ -0,0 +1,107 @@
+package utils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import map.ICity;
+
+/**
+ * A union-find (disjoint set forest) over cities, used to track which cities are connected by a
+ * growing set of connections. Cities are given dense ids in the order they are first seen. Joining
+ * two cities and checking whether two cities are connected both take near-constant amortized time.
+ */
+public class CityUnionFind {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final Map<ICity, Integer> idOfCity;
+  private int[] parent;
+  private int[] rank;
+
+  /** Constructs a union-find in which no cities are connected. */
+  public CityUnionFind() {
+    this.idOfCity = new HashMap<>();
+    this.parent = new int[INITIAL_CAPACITY];
+    this.rank = new int[INITIAL_CAPACITY];
+  }
+
+  /** Constructs a copy of the given union-find. */
+  private CityUnionFind(CityUnionFind toCopy) {
+    this.idOfCity = new HashMap<>(toCopy.idOfCity);
+    this.parent = toCopy.parent.clone();
+    this.rank = toCopy.rank.clone();
+  }
+
+  /**
+   * Copies this union-find, so that later changes to either one do not affect the other.
+   *
+   * @return a copy of this union-find.
+   */
+  public CityUnionFind copy() {
+    return new CityUnionFind(this);
+  }
+
+  /**
+   * Records that the two given cities are connected.
+   *
+   * @param city1 one city.
+   * @param city2 another city.
+   */
+  public void union(ICity city1, ICity city2) {
+    int root1 = this.find(this.idOf(Objects.requireNonNull(city1)));
+    int root2 = this.find(this.idOf(Objects.requireNonNull(city2)));
+    if (root1 == root2) {
+      return;
+    }
+    if (this.rank[root1] < this.rank[root2]) {
+      this.parent[root1] = root2;
+    } else if (this.rank[root1] > this.rank[root2]) {
+      this.parent[root2] = root1;
+    } else {
+      this.parent[root2] = root1;
+      this.rank[root1] += 1;
+    }
+  }
+
+  /**
+   * Determines whether the two given cities are connected by the unions made so far. A city that
+   * has never been part of a union is only connected to itself.
+   *
+   * @param city1 one city.
+   * @param city2 another city.
+   * @return true if the cities are the same or are connected, false otherwise.
+   */
+  public boolean areConnected(ICity city1, ICity city2) {
+    if (city1.equals(city2)) {
+      return true;
+    }
+    Integer id1 = this.idOfCity.get(city1);
+    Integer id2 = this.idOfCity.get(city2);
+    return id1 != null && id2 != null && this.find(id1) == this.find(id2);
+  }
+
+  /** Gets the id of the given city, giving it a new id in its own set if it has none yet. */
+  private int idOf(ICity city) {
+    Integer id = this.idOfCity.get(city);
+    if (id != null) {
+      return id;
+    }
+    int newId = this.idOfCity.size();
+    if (newId == this.parent.length) {
+      this.parent = Arrays.copyOf(this.parent, newId * 2);
+      this.rank = Arrays.copyOf(this.rank, newId * 2);
+    }
+    this.parent[newId] = newId;
+    this.idOfCity.put(city, newId);
+    return newId;
+  }
+
+  /** Finds the root of the set containing the given id, halving the path along the way. */
+  private int find(int id) {
+    while (this.parent[id] != id) {
+      this.parent[id] = this.parent[this.parent[id]];
+      id = this.parent[id];
+    }
+    return id;
+  }
+}
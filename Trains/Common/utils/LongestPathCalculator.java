@@ -0,0 +1,226 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.jgrapht.Graph;
+
+/**
+ * Computes the length of the longest simple path in a simple, undirected, weighted graph by a
+ * depth-first search over an int-indexed adjacency structure. The search is still exponential in
+ * the worst case (the problem is NP-hard), but unlike enumerating every path between every pair of
+ * vertices it visits each simple path at most twice, and it prunes any branch whose length plus
+ * the weight of every edge not yet explored cannot beat the best path found so far.
+ */
+public class LongestPathCalculator {
+
+    // adjacency[v] holds the neighbors of vertex v, edgeIds[v] the matching edge indices
+    private final int[][] adjacency;
+    private final int[][] edgeIds;
+    private final int[] edgeWeights;
+    private final int[] component;
+    private final int[] componentWeights;
+
+    // DFS accumulators
+    private final boolean[] visited;
+    private final boolean[] closedEdges;
+    private int unexploredWeight;
+    private int best;
+
+    /**
+     * Constructs the calculator over the given edge list.
+     *
+     * @param numVertices  the number of vertices, identified by the integers [0, numVertices).
+     * @param edgeEndpoints the endpoints of each edge, where edge i connects
+     *                      edgeEndpoints[i][0] and edgeEndpoints[i][1]. There must be at most one
+     *                      edge between any two vertices and no self-loops.
+     * @param edgeWeights  the non-negative weight of each edge, in the same order as the endpoints.
+     */
+    public LongestPathCalculator(int numVertices, int[][] edgeEndpoints, int[] edgeWeights) {
+        if (edgeEndpoints.length != edgeWeights.length) {
+            throw new IllegalArgumentException("Every edge must have exactly one weight");
+        }
+        this.edgeWeights = Arrays.copyOf(edgeWeights, edgeWeights.length);
+        int[] degrees = new int[numVertices];
+        for (int[] endpoints : edgeEndpoints) {
+            degrees[endpoints[0]] += 1;
+            degrees[endpoints[1]] += 1;
+        }
+        this.adjacency = new int[numVertices][];
+        this.edgeIds = new int[numVertices][];
+        for (int vertex = 0; vertex < numVertices; vertex += 1) {
+            this.adjacency[vertex] = new int[degrees[vertex]];
+            this.edgeIds[vertex] = new int[degrees[vertex]];
+        }
+        int[] filled = new int[numVertices];
+        for (int edge = 0; edge < edgeEndpoints.length; edge += 1) {
+            int first = edgeEndpoints[edge][0];
+            int second = edgeEndpoints[edge][1];
+            this.adjacency[first][filled[first]] = second;
+            this.edgeIds[first][filled[first]] = edge;
+            filled[first] += 1;
+            this.adjacency[second][filled[second]] = first;
+            this.edgeIds[second][filled[second]] = edge;
+            filled[second] += 1;
+        }
+
+        this.component = labelComponents();
+        this.componentWeights = new int[numVertices];
+        for (int edge = 0; edge < edgeEndpoints.length; edge += 1) {
+            this.componentWeights[this.component[edgeEndpoints[edge][0]]] += edgeWeights[edge];
+        }
+
+        this.visited = new boolean[numVertices];
+        this.closedEdges = new boolean[edgeWeights.length];
+    }
+
+    /**
+     * Calculates the length of the longest simple path in the given graph.
+     *
+     * @param graph the simple, undirected graph whose edge weights are path lengths.
+     * @param <V>   the type of the vertices.
+     * @param <E>   the type of the edges.
+     * @return an integer >= 0 of the weight of the longest simple path in the graph.
+     */
+    public static <V, E> int longestPathLength(Graph<V, E> graph) {
+        Map<V, Integer> vertexIds = new HashMap<>();
+        for (V vertex : graph.vertexSet()) {
+            vertexIds.put(vertex, vertexIds.size());
+        }
+        List<E> edges = new ArrayList<>(graph.edgeSet());
+        int[][] endpoints = new int[edges.size()][];
+        int[] weights = new int[edges.size()];
+        for (int index = 0; index < edges.size(); index += 1) {
+            E edge = edges.get(index);
+            endpoints[index] =
+                new int[] {
+                    vertexIds.get(graph.getEdgeSource(edge)), vertexIds.get(graph.getEdgeTarget(edge))
+                };
+            weights[index] = (int) graph.getEdgeWeight(edge);
+        }
+        return new LongestPathCalculator(vertexIds.size(), endpoints, weights).longestPathLength();
+    }
+
+    /**
+     * Calculates the length of the longest simple path in this calculator's graph.
+     *
+     * @return an integer >= 0 of the weight of the longest simple path.
+     */
+    public int longestPathLength() {
+        this.best = 0;
+        for (int start : startOrder()) {
+            int componentWeight = this.componentWeights[this.component[start]];
+            // No path can be longer than every edge in its component combined
+            if (componentWeight <= this.best) {
+                continue;
+            }
+            this.unexploredWeight = componentWeight;
+            this.visited[start] = true;
+            search(start, 0);
+            this.visited[start] = false;
+        }
+        return this.best;
+    }
+
+    /**
+     * Extends the current path from the given vertex along every unvisited neighbor, recording the
+     * best path length seen.
+     *
+     * @param vertex the current end of the path.
+     * @param length the weight of the path so far.
+     */
+    private void search(int vertex, int length) {
+        if (length > this.best) {
+            this.best = length;
+        }
+        // The rest of the path can only use edges that do not touch a vertex already left behind,
+        // so their total weight bounds how much longer this path can get
+        if (length + this.unexploredWeight <= this.best) {
+            return;
+        }
+        int[] neighbors = this.adjacency[vertex];
+        int[] edges = this.edgeIds[vertex];
+        // Leaving this vertex closes every edge incident to it that is not already closed
+        for (int edge : edges) {
+            if (!this.closedEdges[edge]) {
+                this.closedEdges[edge] = true;
+                this.unexploredWeight -= this.edgeWeights[edge];
+            }
+        }
+        for (int index = 0; index < neighbors.length; index += 1) {
+            int neighbor = neighbors[index];
+            if (!this.visited[neighbor]) {
+                this.visited[neighbor] = true;
+                search(neighbor, length + this.edgeWeights[edges[index]]);
+                this.visited[neighbor] = false;
+            }
+        }
+        // Edges to visited neighbors were closed by those earlier vertices on the path
+        for (int index = 0; index < neighbors.length; index += 1) {
+            if (!this.visited[neighbors[index]]) {
+                this.closedEdges[edges[index]] = false;
+                this.unexploredWeight += this.edgeWeights[edges[index]];
+            }
+        }
+    }
+
+    /**
+     * Orders the possible start vertices so that leaves come first, then odd-degree vertices, then
+     * the rest. Long paths tend to end at such vertices, so trying them first raises the best
+     * length early and lets the bound prune more of the later searches.
+     *
+     * @return every vertex with at least one edge, in search order.
+     */
+    private List<Integer> startOrder() {
+        List<Integer> order = new ArrayList<>();
+        for (int vertex = 0; vertex < this.adjacency.length; vertex += 1) {
+            if (this.adjacency[vertex].length == 1) {
+                order.add(vertex);
+            }
+        }
+        for (int vertex = 0; vertex < this.adjacency.length; vertex += 1) {
+            int degree = this.adjacency[vertex].length;
+            if (degree > 1 && degree % 2 == 1) {
+                order.add(vertex);
+            }
+        }
+        for (int vertex = 0; vertex < this.adjacency.length; vertex += 1) {
+            int degree = this.adjacency[vertex].length;
+            if (degree > 1 && degree % 2 == 0) {
+                order.add(vertex);
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Labels every vertex with the index of a representative of its connected component.
+     *
+     * @return an array mapping each vertex to its component label.
+     */
+    private int[] labelComponents() {
+        int[] labels = new int[this.adjacency.length];
+        Arrays.fill(labels, -1);
+        int[] stack = new int[this.adjacency.length];
+        for (int root = 0; root < this.adjacency.length; root += 1) {
+            if (labels[root] != -1) {
+                continue;
+            }
+            int size = 0;
+            stack[size++] = root;
+            labels[root] = root;
+            while (size > 0) {
+                int vertex = stack[--size];
+                for (int neighbor : this.adjacency[vertex]) {
+                    if (labels[neighbor] == -1) {
+                        labels[neighbor] = root;
+                        stack[size++] = neighbor;
+                    }
+                }
+            }
+        }
+        return labels;
+    }
+}
@@ -70,11 +70,11 @@ public class UnorderedPair<T> extends APair<T> {
       return false;
     }
 
+    // Compares the elements in place in either order, without building any intermediate pairs
     UnorderedPair<?> otherUnorderedPair = (UnorderedPair<?>) other;
-    OrderedPair<?> otherOrderedPair = otherUnorderedPair.toOrdered();
-    OrderedPair<T> thisOrderedPair = this.toOrdered();
-
-    return thisOrderedPair.equals(otherOrderedPair) ||
-            thisOrderedPair.equals(otherOrderedPair.reverse());
+    return (this.first.equals(otherUnorderedPair.first)
+            && this.second.equals(otherUnorderedPair.second))
+        || (this.first.equals(otherUnorderedPair.second)
+            && this.second.equals(otherUnorderedPair.first));
   }
 }
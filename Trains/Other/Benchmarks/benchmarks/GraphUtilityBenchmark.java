@@ -0,0 +1,50 @@
+package benchmarks;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import map.ICity;
+import map.IRailConnection;
+import map.ITrainMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.GraphUtility;
+import utils.UnorderedPair;
+
+/** Measures calculating every connected pair of cities of a map. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphUtilityBenchmark {
+  private static final long SEED = 4500;
+
+  @Param({"100", "500", "1000"})
+  public int numCities;
+
+  private Map<ICity, Set<ICity>> adjacencyList;
+
+  @Setup
+  public void setup() {
+    ITrainMap map = new SyntheticMapGenerator(SEED).generateMap(this.numCities, this.numCities * 2);
+    this.adjacencyList =
+        GraphUtility.constructAdjacencyList(
+            map.getCities(), map.getRailConnections(), IRailConnection::getCities);
+  }
+
+  @Benchmark
+  public Set<UnorderedPair<ICity>> getConnectedPairs() {
+    return GraphUtility.getConnectedPairs(this.adjacencyList);
+  }
+}
@@ -0,0 +1,55 @@
+package benchmarks;
+
+import com.google.gson.JsonObject;
+import java.util.concurrent.TimeUnit;
+import json.MapJson;
+import map.ITrainMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures converting maps to and from their JSON representation. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapJsonBenchmark {
+  private static final long SEED = 4500;
+
+  @Param({"100", "1000", "5000"})
+  public int numCities;
+
+  private ITrainMap map;
+  private JsonObject mapJson;
+
+  @Setup
+  public void setup() {
+    this.map = new SyntheticMapGenerator(SEED).generateMap(this.numCities, this.numCities * 3);
+    this.mapJson = MapJson.mapToJson(this.map);
+  }
+
+  @Benchmark
+  public JsonObject mapToJson() {
+    return MapJson.mapToJson(this.map);
+  }
+
+  @Benchmark
+  public ITrainMap mapFromJson() {
+    return MapJson.mapFromJson(this.mapJson);
+  }
+
+  @Benchmark
+  public ITrainMap roundTrip() {
+    return MapJson.mapFromJson(MapJson.mapToJson(this.map));
+  }
+}
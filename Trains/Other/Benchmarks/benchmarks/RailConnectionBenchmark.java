@@ -0,0 +1,90 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import map.ICity;
+import map.IRailConnection;
+import map.ITrainMap;
+import map.RailConnection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import utils.UnorderedPair;
+
+/**
+ * Measures comparing, hashing and looking up rail connections that are equal to, but not the same
+ * instances as, the connections of a map, as happens with every connection read from JSON.
+ *
+ * <p>None of these should allocate. Run with {@code -prof gc} and check that gc.alloc.rate.norm is
+ * 0 B/op.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RailConnectionBenchmark {
+  private static final long SEED = 4500;
+  private static final int NUM_CITIES = 500;
+
+  private Set<IRailConnection> connections;
+  private List<IRailConnection> originals;
+  private List<IRailConnection> copies;
+
+  @Setup
+  public void setup() {
+    ITrainMap map = new SyntheticMapGenerator(SEED).generateMap(NUM_CITIES, NUM_CITIES * 2);
+    this.connections = new HashSet<>(map.getRailConnections());
+    this.originals = new ArrayList<>(map.getRailConnections());
+    this.copies = new ArrayList<>();
+    for (IRailConnection connection : this.originals) {
+      // Swap the endpoints, so that equality cannot rely on the order they were given in
+      UnorderedPair<ICity> cities = connection.getCities();
+      this.copies.add(new RailConnection(
+          new UnorderedPair<>(cities.second, cities.first),
+          connection.getLength(),
+          connection.getColor()));
+    }
+  }
+
+  @Benchmark
+  public void equalConnections(Blackhole blackhole) {
+    for (int index = 0; index < this.originals.size(); index += 1) {
+      blackhole.consume(this.originals.get(index).equals(this.copies.get(index)));
+    }
+  }
+
+  @Benchmark
+  public void hashConnections(Blackhole blackhole) {
+    for (int index = 0; index < this.copies.size(); index += 1) {
+      blackhole.consume(this.copies.get(index).hashCode());
+    }
+  }
+
+  @Benchmark
+  public void containsConnections(Blackhole blackhole) {
+    for (int index = 0; index < this.copies.size(); index += 1) {
+      blackhole.consume(this.connections.contains(this.copies.get(index)));
+    }
+  }
+
+  @Benchmark
+  public void equalEndpoints(Blackhole blackhole) {
+    for (int index = 0; index < this.originals.size(); index += 1) {
+      blackhole.consume(
+          this.originals.get(index).getCities().equals(this.copies.get(index).getCities()));
+    }
+  }
+}
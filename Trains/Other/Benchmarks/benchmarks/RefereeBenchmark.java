@@ -0,0 +1,68 @@
+package benchmarks;
+
+import game_state.RailCard;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import map.Destination;
+import map.ITrainMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import player.IPlayer;
+import player.Player;
+import referee.GameEndReport;
+import referee.TrainsReferee;
+import strategy.BuyNow;
+import strategy.Hold10;
+
+/** Measures a whole game of Trains between local players, from setup to scoring. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RefereeBenchmark {
+  private static final long SEED = 4500;
+  private static final int NUM_CARDS_IN_DECK = 250;
+
+  @Param({"30", "100", "300"})
+  public int numCities;
+
+  @Param({"2", "8"})
+  public int numPlayers;
+
+  private ITrainMap map;
+  private List<RailCard> deck;
+  private List<Destination> destinations;
+
+  @Setup
+  public void setup() {
+    SyntheticMapGenerator generator = new SyntheticMapGenerator(SEED);
+    this.map = generator.generateMap(this.numCities, this.numCities * 2);
+    this.deck = generator.generateDeck(NUM_CARDS_IN_DECK);
+    this.destinations = generator.generateDestinations(this.map);
+  }
+
+  @Benchmark
+  public GameEndReport playGame() {
+    List<IPlayer> players = new ArrayList<>();
+    for (int index = 0; index < this.numPlayers; index += 1) {
+      players.add(new Player(index % 2 == 0 ? new BuyNow() : new Hold10(), this.map));
+    }
+    return new TrainsReferee.RefereeBuilder(this.map, players)
+        .deckProvider(() -> new ArrayList<>(this.deck))
+        .destinationProvider((m) -> new ArrayList<>(this.destinations))
+        .build()
+        .playGame();
+  }
+}
@@ -0,0 +1,74 @@
+package benchmarks;
+
+import game_state.RailCard;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import map.Destination;
+import map.ITrainMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import referee.IPlayerData;
+import referee.PlayerData;
+import referee.ScoreCalculator;
+import referee.TrainsPlayerHand;
+
+/**
+ * Measures end-of-game scoring as players own more connections. Every player owns the same
+ * connected network, which is the worst case for the longest path search.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScoringBenchmark {
+  private static final long SEED = 4500;
+  private static final int NUM_PLAYERS = 8;
+
+  @Param({"5", "10", "15", "20", "30"})
+  public int numOwnedConnections;
+
+  private ITrainMap map;
+  private List<IPlayerData> players;
+
+  @Setup
+  public void setup() {
+    SyntheticMapGenerator generator = new SyntheticMapGenerator(SEED);
+    this.map = generator.generateMap(40, 120);
+    List<Destination> destinations = generator.generateDestinations(this.map);
+
+    Map<RailCard, Integer> emptyHand = new HashMap<>();
+    for (RailCard card : RailCard.values()) {
+      emptyHand.put(card, 0);
+    }
+
+    this.players = new ArrayList<>();
+    for (int index = 0; index < NUM_PLAYERS; index += 1) {
+      this.players.add(
+          new PlayerData(
+              new TrainsPlayerHand(emptyHand),
+              0,
+              new HashSet<>(destinations.subList(2 * index, 2 * index + 2)),
+              SyntheticMapGenerator.connectedConnections(this.map, this.numOwnedConnections)));
+    }
+  }
+
+  @Benchmark
+  public List<Integer> scorePlayers() {
+    return ScoreCalculator.scorePlayers(this.players, this.map);
+  }
+}
@@ -0,0 +1,104 @@
+package benchmarks;
+
+import game_state.IOpponentInfo;
+import game_state.IPlayerGameState;
+import game_state.OpponentInfo;
+import game_state.PlayerGameState;
+import game_state.RailCard;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import map.Destination;
+import map.IRailConnection;
+import map.ITrainMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import referee.PlayerData;
+import referee.TrainsPlayerHand;
+import strategy.BuyNow;
+import strategy.Hold10;
+import strategy.IStrategy;
+import strategy.TurnAction;
+
+/**
+ * Measures a strategy choosing its action for one turn in the middle of a game, where the player
+ * and each of its opponents already own some connections.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StrategyBenchmark {
+  private static final long SEED = 4500;
+  private static final int NUM_OPPONENTS = 7;
+  private static final int CONNECTIONS_PER_PLAYER = 10;
+
+  @Param({"100", "1000"})
+  public int numCities;
+
+  private final IStrategy buyNow = new BuyNow();
+  private final IStrategy hold10 = new Hold10();
+  private ITrainMap map;
+  private IPlayerGameState state;
+  private Set<Destination> destinations;
+
+  @Setup
+  public void setup() {
+    SyntheticMapGenerator generator = new SyntheticMapGenerator(SEED);
+    this.map = generator.generateMap(this.numCities, this.numCities * 3);
+    List<Destination> allDestinations = generator.generateDestinations(this.map);
+    this.destinations = new HashSet<>(allDestinations.subList(0, 2));
+
+    // Hand out disjoint slices of one connected network to the player and its opponents
+    List<IRailConnection> owned =
+        new ArrayList<>(
+            SyntheticMapGenerator.connectedConnections(
+                this.map, CONNECTIONS_PER_PLAYER * (NUM_OPPONENTS + 1)));
+    List<IOpponentInfo> opponents = new ArrayList<>();
+    for (int index = 1; index <= NUM_OPPONENTS; index += 1) {
+      opponents.add(
+          new OpponentInfo(
+              new HashSet<>(
+                  owned.subList(
+                      CONNECTIONS_PER_PLAYER * index, CONNECTIONS_PER_PLAYER * (index + 1)))));
+    }
+
+    Map<RailCard, Integer> hand = new HashMap<>();
+    for (RailCard card : RailCard.values()) {
+      hand.put(card, 6);
+    }
+    this.state =
+        new PlayerGameState(
+            new PlayerData(
+                new TrainsPlayerHand(hand),
+                30,
+                this.destinations,
+                new HashSet<>(owned.subList(0, CONNECTIONS_PER_PLAYER))),
+            opponents);
+  }
+
+  @Benchmark
+  public TurnAction buyNowTakeTurn() {
+    return this.buyNow.takeTurn(this.state, this.map, this.destinations);
+  }
+
+  @Benchmark
+  public TurnAction hold10TakeTurn() {
+    return this.hold10.takeTurn(this.state, this.map, this.destinations);
+  }
+}
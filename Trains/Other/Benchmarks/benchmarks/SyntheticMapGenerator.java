@@ -0,0 +1,163 @@
+package benchmarks;
+
+import game_state.RailCard;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import map.City;
+import map.Destination;
+import map.ICity;
+import map.IRailConnection;
+import map.ITrainMap;
+import map.MapDimensions;
+import map.RailColor;
+import map.RailConnection;
+import map.TrainMap;
+import utils.ComparatorUtils;
+import utils.UnorderedPair;
+
+/**
+ * Generates reproducible game maps, decks, and destination lists of any size from a seed, so that
+ * benchmarks can run offline and compare the same inputs between runs.
+ *
+ * <p>Every generated map is connected: the first numCities - 1 connections form a random spanning
+ * tree, and the rest are random extra connections between distinct pairs of cities. City positions
+ * are whole pixels on an 800 by 800 board, so generated maps survive a round trip through JSON.
+ */
+public class SyntheticMapGenerator {
+  private static final int MAP_SIZE = 800;
+  private static final int MIN_LENGTH = 3;
+  private static final int MAX_LENGTH = 5;
+
+  private final Random random;
+
+  /**
+   * Constructs this generator from the seed of its random source.
+   *
+   * @param seed the seed; equal seeds generate equal maps.
+   */
+  public SyntheticMapGenerator(long seed) {
+    this.random = new Random(seed);
+  }
+
+  /**
+   * Generates a connected map with the given number of cities and connections.
+   *
+   * @param numCities the number of cities, at least 2.
+   * @param numConnections the number of connections, at least numCities - 1 and at most one of
+   *     each color between every pair of cities.
+   * @return the generated map.
+   * @throws IllegalArgumentException if the numbers of cities and connections are not possible.
+   */
+  public ITrainMap generateMap(int numCities, int numConnections) {
+    long maxConnections =
+        (long) numCities * (numCities - 1) / 2 * RailColor.values().length;
+    if (numCities < 2 || numConnections < numCities - 1 || numConnections > maxConnections) {
+      throw new IllegalArgumentException("Cannot generate a connected map of that size");
+    }
+
+    List<ICity> cities = new ArrayList<>();
+    for (int index = 0; index < numCities; index += 1) {
+      double x = (double) this.random.nextInt(MAP_SIZE + 1) / MAP_SIZE;
+      double y = (double) this.random.nextInt(MAP_SIZE + 1) / MAP_SIZE;
+      cities.add(new City("c" + index, x, y));
+    }
+
+    Set<IRailConnection> rails = new HashSet<>();
+    for (int index = 1; index < numCities; index += 1) {
+      rails.add(this.randomConnection(cities.get(index), cities.get(this.random.nextInt(index))));
+    }
+    while (rails.size() < numConnections) {
+      int first = this.random.nextInt(numCities);
+      int second = this.random.nextInt(numCities);
+      if (first != second) {
+        // Duplicates of an existing connection are absorbed by the set
+        rails.add(this.randomConnection(cities.get(first), cities.get(second)));
+      }
+    }
+
+    return new TrainMap(new HashSet<>(cities), rails, new MapDimensions(MAP_SIZE, MAP_SIZE));
+  }
+
+  /**
+   * Generates a deck of uniformly random cards.
+   *
+   * @param numCards the number of cards in the deck.
+   * @return the generated deck.
+   */
+  public List<RailCard> generateDeck(int numCards) {
+    RailCard[] railCardOptions = RailCard.values();
+    List<RailCard> result = new ArrayList<>();
+    for (int cardNumber = 0; cardNumber < numCards; cardNumber += 1) {
+      result.add(railCardOptions[this.random.nextInt(railCardOptions.length)]);
+    }
+    return result;
+  }
+
+  /**
+   * Orders every possible destination of the given map, first sorted and then shuffled by this
+   * generator's random source, so the order only depends on the seed.
+   *
+   * @param map the map to take destinations from.
+   * @return the shuffled destinations.
+   */
+  public List<Destination> generateDestinations(ITrainMap map) {
+    List<Destination> result =
+        map.getAllPossibleDestinations().stream()
+            .map(Destination::new)
+            .sorted()
+            .collect(Collectors.toList());
+    Collections.shuffle(result, this.random);
+    return result;
+  }
+
+  /**
+   * Picks the given number of connections that form one connected network, by a breadth-first
+   * walk over the map from its lexicographically first city.
+   *
+   * @param map the map to pick connections from.
+   * @param numConnections the number of connections to pick.
+   * @return the picked connections, fewer if the map does not have that many.
+   */
+  public static Set<IRailConnection> connectedConnections(ITrainMap map, int numConnections) {
+    List<ICity> frontier =
+        map.getCities().stream()
+            .sorted(ComparatorUtils::lexicographicCompareCity)
+            .limit(1)
+            .collect(Collectors.toList());
+    Set<ICity> visited = new HashSet<>(frontier);
+    Set<IRailConnection> result = new HashSet<>();
+    for (int next = 0; next < frontier.size() && result.size() < numConnections; next += 1) {
+      List<IRailConnection> touching =
+          map.getRailConnectionsOf(frontier.get(next)).stream()
+              .sorted(ComparatorUtils::lexicographicCompareConnection)
+              .collect(Collectors.toList());
+      for (IRailConnection connection : touching) {
+        if (result.size() == numConnections) {
+          break;
+        }
+        result.add(connection);
+        UnorderedPair<ICity> endpoints = connection.getCities();
+        for (ICity endpoint : List.of(endpoints.first, endpoints.second)) {
+          if (visited.add(endpoint)) {
+            frontier.add(endpoint);
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  /** Creates a connection of random length and color between the given cities. */
+  private IRailConnection randomConnection(ICity first, ICity second) {
+    RailColor[] colors = RailColor.values();
+    return new RailConnection(
+        new UnorderedPair<>(first, second),
+        MIN_LENGTH + this.random.nextInt(MAX_LENGTH - MIN_LENGTH + 1),
+        colors[this.random.nextInt(colors.length)]);
+  }
+}
@@ -0,0 +1,229 @@
+package benchmarks;
+
+import game_state.IOpponentInfo;
+import game_state.IPlayerGameState;
+import game_state.OpponentInfo;
+import game_state.PlayerGameState;
+import game_state.RailCard;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import map.Destination;
+import map.IRailConnection;
+import map.ITrainMap;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import referee.PlayerData;
+import referee.TrainsPlayerHand;
+import remote.BinaryWireCodec;
+import remote.IWireCodec;
+import remote.JsonMessageCodec;
+import remote.JsonWireCodec;
+import strategy.TurnAction;
+
+/**
+ * Compares the wire formats of the remote protocol on the messages one player exchanges over a
+ * game of four players: setup, pick, a "play" state and turn action on each of their turns, and
+ * the win notification. exchangeGame encodes and decodes every message of the game in memory and
+ * reports the bytes sent each way as counters; dividing its time by the number of messages gives
+ * the CPU cost per message. encodePlay measures writing a single "play" state. Both codecs cache
+ * maps across connections, so after the first game "setup" reuses the encoded and decoded map, as
+ * every game of a tournament after the first does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireCodecBenchmark {
+  private static final long SEED = 4500;
+  private static final int NUM_PLAYERS = 4;
+  private static final int NUM_RAILS = 45;
+  private static final int NUM_DESTINATION_OPTIONS = 5;
+
+  @Param({"json", "json-delta", "binary"})
+  public String format;
+
+  @Param({"30", "300"})
+  public int numCities;
+
+  private ITrainMap map;
+  private List<RailCard> setupCards;
+  private Set<Destination> destinationOptions;
+  // The states the first player receives on their turns, and the connection they then acquire
+  private final List<IPlayerGameState> states = new ArrayList<>();
+  private final List<TurnAction> actions = new ArrayList<>();
+
+  private IWireCodec playWriter;
+  private int nextState;
+
+  /** The bytes each side writes over one game, reported by exchangeGame. */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class GameBytes {
+    // Assigned rather than added to, so each counter reads as the bytes of one game
+    public long bytesToPlayer;
+    public long bytesToAdmin;
+  }
+
+  @Setup
+  public void setup() throws IOException {
+    SyntheticMapGenerator generator = new SyntheticMapGenerator(SEED);
+    this.map = generator.generateMap(this.numCities, this.numCities * 2);
+    List<RailCard> deck = generator.generateDeck(this.numCities * 4);
+    this.setupCards = deck.subList(0, 4);
+    this.destinationOptions =
+        new HashSet<>(generator.generateDestinations(this.map).subList(0, NUM_DESTINATION_OPTIONS));
+    Set<Destination> chosen = new HashSet<>(
+        new ArrayList<>(this.destinationOptions).subList(0, 2));
+
+    List<IRailConnection> acquisitions =
+        new ArrayList<>(SyntheticMapGenerator.connectedConnections(this.map, this.numCities));
+    List<Set<IRailConnection>> owned = new ArrayList<>();
+    for (int player = 0; player < NUM_PLAYERS; player += 1) {
+      owned.add(new HashSet<>());
+    }
+    int rails = NUM_RAILS;
+    for (int turn = 0; turn < acquisitions.size(); turn += 1) {
+      int player = turn % NUM_PLAYERS;
+      IRailConnection acquired = acquisitions.get(turn);
+      if (player == 0) {
+        List<IOpponentInfo> opponents = new ArrayList<>();
+        for (int opponent = 1; opponent < NUM_PLAYERS; opponent += 1) {
+          opponents.add(new OpponentInfo(owned.get(opponent)));
+        }
+        List<RailCard> hand = deck.subList(turn, turn + 8);
+        this.states.add(new PlayerGameState(
+            new PlayerData(new TrainsPlayerHand(hand), rails, chosen, owned.get(0)), opponents));
+        this.actions.add(TurnAction.createAcquireConnection(acquired));
+        rails = Math.max(0, rails - acquired.getLength());
+      }
+      // A new set for whoever acquired, the others are shared with the previous state as the
+      // referee does
+      Set<IRailConnection> updated = new HashSet<>(owned.get(player));
+      updated.add(acquired);
+      owned.set(player, updated);
+    }
+
+    this.playWriter = this.codec(InputStream.nullInputStream(), OutputStream.nullOutputStream());
+    this.playWriter.writeSetup(this.map, NUM_RAILS, this.setupCards);
+    this.nextState = 0;
+  }
+
+  @Benchmark
+  public GameBytes exchangeGame(GameBytes bytes) throws IOException {
+    InMemoryPipe toPlayer = new InMemoryPipe();
+    InMemoryPipe toAdmin = new InMemoryPipe();
+    IWireCodec admin = this.codec(toAdmin.input, toPlayer.output);
+    IWireCodec player = this.codec(toPlayer.input, toAdmin.output);
+
+    admin.writeSetup(this.map, NUM_RAILS, this.setupCards);
+    player.readMessage();
+    player.writeVoid();
+    admin.readVoid();
+
+    admin.writePick(this.destinationOptions);
+    List<Destination> options = new ArrayList<>(player.readMessage().destinations);
+    player.writeDestinations(new HashSet<>(options.subList(2, options.size())));
+    admin.readDestinations();
+
+    for (int turn = 0; turn < this.states.size(); turn += 1) {
+      admin.writePlay(this.states.get(turn));
+      player.readMessage();
+      player.writeTurnAction(this.actions.get(turn));
+      admin.readTurnAction();
+    }
+
+    admin.writeResult("win", true);
+    player.readMessage();
+    player.writeVoid();
+    admin.readVoid();
+
+    bytes.bytesToPlayer = toPlayer.size;
+    bytes.bytesToAdmin = toAdmin.size;
+    return bytes;
+  }
+
+  @Benchmark
+  public int encodePlay() throws IOException {
+    this.playWriter.writePlay(this.states.get(this.nextState));
+    this.nextState = (this.nextState + 1) % this.states.size();
+    return this.nextState;
+  }
+
+  /** Creates a codec of the benchmarked format over the given streams. */
+  private IWireCodec codec(InputStream input, OutputStream output) {
+    if (this.format.equals("binary")) {
+      return new BinaryWireCodec(input, output);
+    }
+    JsonWireCodec codec = new JsonWireCodec(new JsonMessageCodec(input, output));
+    if (this.format.equals("json-delta")) {
+      codec.enableDeltaPlay();
+    }
+    return codec;
+  }
+
+  /**
+   * A single-threaded in-memory connection: everything written to the output can then be read
+   * from the input, which reports the end of the stream when it has caught up.
+   */
+  private static class InMemoryPipe {
+    private byte[] buffer = new byte[1024];
+    private int size = 0;
+    private int readPosition = 0;
+
+    final OutputStream output = new OutputStream() {
+      @Override
+      public void write(int b) {
+        this.write(new byte[] {(byte) b}, 0, 1);
+      }
+
+      @Override
+      public void write(byte[] bytes, int offset, int length) {
+        if (size + length > buffer.length) {
+          buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + length));
+        }
+        System.arraycopy(bytes, offset, buffer, size, length);
+        size += length;
+      }
+    };
+
+    final InputStream input = new InputStream() {
+      @Override
+      public int read() {
+        return readPosition < size ? buffer[readPosition++] & 0xFF : -1;
+      }
+
+      @Override
+      public int read(byte[] bytes, int offset, int length) {
+        if (length == 0) {
+          return 0;
+        }
+        if (readPosition == size) {
+          return -1;
+        }
+        int count = Math.min(length, size - readPosition);
+        System.arraycopy(buffer, readPosition, bytes, offset, count);
+        readPosition += count;
+        return count;
+      }
+    };
+  }
+}
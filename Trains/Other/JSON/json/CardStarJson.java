@@ -3,7 +3,9 @@ package json;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
@@ -54,4 +56,33 @@ public class CardStarJson {
 
         return ret;
     }
+
+    /**
+     * Writes the strings representing a list of colors (RailCard) as a JSON array.
+     * @param out the writer to write to
+     * @param cards a List of RailCard representing cards
+     * @throws IOException if writing fails
+     */
+    public static void writeCards(JsonWriter out, List<RailCard> cards) throws IOException {
+        out.beginArray();
+        for (RailCard card : cards) {
+            out.value(card.toString());
+        }
+        out.endArray();
+    }
+
+    /**
+     * Writes the given "hand" of cards as a JSON object, the same as handToJsonDictionary.
+     * @param out the writer to write to
+     * @param hand a Map where the value is a natural number representing the count of the RailCard
+     * @throws IOException if writing fails
+     */
+    public static void writeHand(JsonWriter out, Map<RailCard, Integer> hand) throws IOException {
+        out.beginObject();
+        out.name("white").value(hand.get(RailCard.WHITE));
+        out.name("red").value(hand.get(RailCard.RED));
+        out.name("green").value(hand.get(RailCard.GREEN));
+        out.name("blue").value(hand.get(RailCard.BLUE));
+        out.endObject();
+    }
 }
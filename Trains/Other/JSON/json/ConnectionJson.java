@@ -19,6 +19,9 @@ import utils.ComparatorUtils;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 
 /** Utility class for serializing and deserializing Json related to IRailConnection. */
 public class ConnectionJson {
@@ -140,6 +143,22 @@ public class ConnectionJson {
         return ret;
     }
 
+    /**
+     * Writes an 'Acquired' representing a given IRailConnection, the same as connectionToAcquiredJson
+     * @param out the writer to write to
+     * @param connection an IRailConnection to be written
+     * @throws IOException if writing fails
+     */
+    public static void writeAcquired(JsonWriter out, IRailConnection connection) throws IOException {
+        OrderedPair<ICity> orderedCities = getOrderedCity(connection);
+        out.beginArray();
+        out.value(orderedCities.first.getName());
+        out.value(orderedCities.second.getName());
+        out.value(connection.getColor().toString());
+        out.value(connection.getLength());
+        out.endArray();
+    }
+
     /**
      * Creates a connection from an 'Acquired' Json, given an ITrainMap.
      * @param acquired a JsonArray representing an Acquired
@@ -3,6 +3,9 @@ package json;
 import java.lang.IllegalArgumentException;
 
 import com.google.gson.JsonArray;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 
 import java.util.Optional;
 
@@ -25,6 +28,19 @@ public class DestinationJson {
         return dest;
     }
 
+    /**
+     * Writes a given destination as a JSON array, the same as destinationToJson
+     * @param out the writer to write to
+     * @param destination the Destination to be written
+     * @throws IOException if writing fails
+     */
+    public static void writeDestination(JsonWriter out, Destination destination) throws IOException {
+        out.beginArray();
+        out.value(destination.first.getName());
+        out.value(destination.second.getName());
+        out.endArray();
+    }
+
     /**
      * Creates a Destination given a JsonArray representing a destination and a map
      * @param destinationJson a JsonArray for a destination
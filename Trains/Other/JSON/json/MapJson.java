@@ -1,10 +1,13 @@
 package json;
 
+import java.io.IOException;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.List;
+import java.util.ArrayList;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
@@ -12,6 +15,7 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
 import com.google.gson.GsonBuilder;
 import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 
 import map.ICity;
 import map.City;
@@ -74,6 +78,56 @@ public class MapJson {
         return mapJson;
     }
 
+    /**
+     * Writes the given map as JSON, the same as mapToJson.
+     * @param out the writer to write to
+     * @param map the map to write
+     * @throws IOException if writing fails
+     */
+    public static void writeMap(JsonWriter out, ITrainMap map) throws IOException {
+        MapDimensions dimensions = map.getMapDimension();
+        out.beginObject();
+        out.name("width").value(dimensions.getWidth());
+        out.name("height").value(dimensions.getHeight());
+
+        out.name("cities").beginArray();
+        for(ICity c : map.getCities()) {
+            out.beginArray();
+            out.value(c.getName());
+            out.beginArray();
+            out.value((int)(c.getRelativePosition().first * dimensions.getWidth()));
+            out.value((int)(c.getRelativePosition().second * dimensions.getHeight()));
+            out.endArray();
+            out.endArray();
+        }
+        out.endArray();
+
+        // Group connections by their first and then second city, in the order mapToJson adds them
+        Map<String, Map<String, List<IRailConnection>>> connections = new LinkedHashMap<>();
+        for(IRailConnection con : map.getRailConnections()) {
+            OrderedPair<ICity> connectionCitiesOrdered = ConnectionJson.getOrderedCity(con);
+            connections
+                .computeIfAbsent(connectionCitiesOrdered.first.getName(), (name) -> new LinkedHashMap<>())
+                .computeIfAbsent(connectionCitiesOrdered.second.getName(), (name) -> new ArrayList<>())
+                .add(con);
+        }
+        out.name("connections").beginObject();
+        for(Map.Entry<String, Map<String, List<IRailConnection>>> from : connections.entrySet()) {
+            out.name(from.getKey()).beginObject();
+            for(Map.Entry<String, List<IRailConnection>> to : from.getValue().entrySet()) {
+                out.name(to.getKey()).beginObject();
+                for(IRailConnection con : to.getValue()) {
+                    out.name(con.getColor().toString()).value(con.getLength());
+                }
+                out.endObject();
+            }
+            out.endObject();
+        }
+        out.endObject();
+
+        out.endObject();
+    }
+
     /**
      * Creates a JsonArray from a given ICity and MapDimensions
      * @param city city to encode
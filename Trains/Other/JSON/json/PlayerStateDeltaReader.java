@@ -0,0 +1,110 @@
+package json;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import game_state.IPlayerGameState;
+import game_state.RailCard;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import map.IRailConnection;
+import utils.RailCardUtils;
+
+/**
+ * Rebuilds the player game states written by a PlayerStateDeltaWriter, keeping the last state
+ * received so that each delta can be applied to it. The states built are the same as
+ * PlayerStateJson.playerStateFromJson builds from the full JSON.
+ *
+ * <p>{@link #reset()} must be called at the start of every game, on both sides.
+ */
+public class PlayerStateDeltaReader {
+    private final Map<RailCard, Integer> cardsInHand = new EnumMap<>(RailCard.class);
+    private int numRails;
+    private final Set<IRailConnection> ownedConnections = new HashSet<>();
+    private final List<Set<IRailConnection>> opponentConnections = new ArrayList<>();
+    private boolean hasState = false;
+
+    /**
+     * Forgets the last state, so that the next state must be a full one.
+     */
+    public void reset() {
+        this.hasState = false;
+    }
+
+    /**
+     * Reads a state written in full or as a delta from the last state read.
+     * @param playerStateJson the JSON of the state
+     * @return the state
+     * @throws IllegalArgumentException if the JSON is a delta but there is no state to apply it to
+     */
+    public IPlayerGameState readPlayerState(JsonElement playerStateJson)
+        throws IllegalArgumentException {
+        JsonObject stateObject = playerStateJson.getAsJsonObject();
+        if (stateObject.has("this")) {
+            this.readFullState(stateObject);
+        } else if (this.hasState) {
+            this.applyDelta(stateObject);
+        } else {
+            throw new IllegalArgumentException("Received a delta without a state to apply it to.");
+        }
+
+        Set<IRailConnection> occupiedConnections = new HashSet<>(this.ownedConnections);
+        this.opponentConnections.forEach(occupiedConnections::addAll);
+        return PlayerStateJson.playerStateFromParts(
+            this.cardsInHand, this.numRails, occupiedConnections);
+    }
+
+    /**
+     * Replaces the last state with the given state in the usual format.
+     */
+    private void readFullState(JsonObject stateObject) {
+        JsonObject thisPlayer = stateObject.getAsJsonObject("this");
+        this.cardsInHand.clear();
+        this.cardsInHand.putAll(
+            PlayerStateJson.cardsInHandFromJson(thisPlayer.getAsJsonObject("cards")));
+        this.numRails = thisPlayer.get("rails").getAsInt();
+        this.ownedConnections.clear();
+        this.ownedConnections.addAll(
+            PlayerStateJson.occupiedConnectionForPlayer(thisPlayer.get("acquired")));
+        this.opponentConnections.clear();
+        for (JsonElement opponent : stateObject.getAsJsonArray("acquired")) {
+            this.opponentConnections.add(PlayerStateJson.occupiedConnectionForPlayer(opponent));
+        }
+        this.hasState = true;
+    }
+
+    /**
+     * Applies a delta to the last state.
+     */
+    private void applyDelta(JsonObject delta) {
+        this.numRails = delta.get("rails").getAsInt();
+        JsonObject changedCards = delta.getAsJsonObject("cards");
+        for (String card : changedCards.keySet()) {
+            this.cardsInHand.put(
+                RailCardUtils.railCardFromLowercaseCard(card), changedCards.get(card).getAsInt());
+        }
+        this.ownedConnections.addAll(
+            PlayerStateJson.occupiedConnectionForPlayer(delta.get("acquired")));
+
+        // Removed in descending order, so that each index still refers to the previous list
+        List<Integer> removed = new ArrayList<>();
+        delta.getAsJsonArray("removed").forEach((index) -> removed.add(index.getAsInt()));
+        removed.sort(null);
+        for (int position = removed.size() - 1; position >= 0; position -= 1) {
+            this.opponentConnections.remove((int) removed.get(position));
+        }
+
+        List<JsonElement> newConnections = new ArrayList<>();
+        delta.getAsJsonArray("opponents").forEach(newConnections::add);
+        if (newConnections.size() != this.opponentConnections.size()) {
+            throw new IllegalArgumentException("The delta does not match the last state.");
+        }
+        for (int index = 0; index < newConnections.size(); index += 1) {
+            this.opponentConnections.get(index).addAll(
+                PlayerStateJson.occupiedConnectionForPlayer(newConnections.get(index)));
+        }
+    }
+}
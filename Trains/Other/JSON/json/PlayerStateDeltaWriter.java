@@ -0,0 +1,164 @@
+package json;
+
+import com.google.gson.stream.JsonWriter;
+import game_state.IOpponentInfo;
+import game_state.IPlayerGameState;
+import game_state.RailCard;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import map.IRailConnection;
+
+/**
+ * Writes the player game states sent to one player over a game as deltas from the state sent
+ * before, for connections that negotiated the delta "play" extension. PlayerStateDeltaReader
+ * rebuilds the full states on the other side.
+ *
+ * <p>The first state of a game is written in full, in the usual format. Every later state is
+ * written as an object of the form
+ *
+ * <pre>
+ * {"rails": N, "cards": {changed counts}, "acquired": [new Acquired],
+ *  "removed": [indices], "opponents": [[new Acquired], ...]}
+ * </pre>
+ *
+ * where "cards" holds only the colors whose count changed, "acquired" holds only the player's new
+ * connections, "removed" holds the positions in the previous state's opponent list of the
+ * opponents who have left the game, and "opponents" holds the new connections of each remaining
+ * opponent, in order. A state that is not a continuation of the previous one, such as after a
+ * connection was lost, is written in full again.
+ *
+ * <p>{@link #reset()} must be called at the start of every game, on both sides.
+ */
+public class PlayerStateDeltaWriter {
+    private final PlayerStateEncoder fullStateEncoder;
+    private Optional<IPlayerGameState> lastSent = Optional.empty();
+
+    /**
+     * Constructs this writer, writing full states with the given encoder.
+     * @param fullStateEncoder the encoder for states that are written in full
+     */
+    public PlayerStateDeltaWriter(PlayerStateEncoder fullStateEncoder) {
+        this.fullStateEncoder = fullStateEncoder;
+    }
+
+    /**
+     * Forgets the previous state, so that the next state is written in full.
+     */
+    public synchronized void reset() {
+        this.lastSent = Optional.empty();
+    }
+
+    /**
+     * Writes the given state as a delta from the previous state written, or in full if there is no
+     * previous state it continues from.
+     * @param out the writer to write to
+     * @param gamestate the state to write
+     * @throws IOException if writing fails
+     */
+    public synchronized void writePlayerState(JsonWriter out, IPlayerGameState gamestate)
+        throws IOException {
+        Optional<IPlayerGameState> previous = this.lastSent;
+        // Cleared first, so that the next state is written in full if this one is cut off
+        this.lastSent = Optional.empty();
+        Optional<List<Integer>> alignment = previous.flatMap((p) -> alignOpponents(p, gamestate));
+        if (alignment.isPresent()
+            && gamestate.getOwnedConnections().containsAll(previous.get().getOwnedConnections())) {
+            writeDelta(out, previous.get(), gamestate, alignment.get());
+        } else {
+            this.fullStateEncoder.writePlayerState(out, gamestate);
+        }
+        this.lastSent = Optional.of(gamestate);
+    }
+
+    /**
+     * Writes the delta from the previous to the current state.
+     */
+    private static void writeDelta(JsonWriter out, IPlayerGameState previous,
+        IPlayerGameState current, List<Integer> alignment) throws IOException {
+        out.beginObject();
+        out.name("rails").value(current.getNumRails());
+
+        out.name("cards").beginObject();
+        for (RailCard card : RailCard.values()) {
+            int count = current.getNumCardsOfType(card);
+            if (count != previous.getNumCardsOfType(card)) {
+                out.name(card.toString()).value(count);
+            }
+        }
+        out.endObject();
+
+        out.name("acquired");
+        writeNewConnections(out, previous.getOwnedConnections(), current.getOwnedConnections());
+
+        List<IOpponentInfo> previousOpponents = previous.getOpponentInfo();
+        List<IOpponentInfo> currentOpponents = current.getOpponentInfo();
+        out.name("removed").beginArray();
+        for (int index = 0; index < previousOpponents.size(); index += 1) {
+            if (!alignment.contains(index)) {
+                out.value(index);
+            }
+        }
+        out.endArray();
+
+        out.name("opponents").beginArray();
+        for (int index = 0; index < currentOpponents.size(); index += 1) {
+            writeNewConnections(out,
+                previousOpponents.get(alignment.get(index)).getOwnedConnections(),
+                currentOpponents.get(index).getOwnedConnections());
+        }
+        out.endArray();
+
+        out.endObject();
+    }
+
+    /**
+     * Writes the connections in current but not in previous as a JSON array of 'Acquired'.
+     */
+    private static void writeNewConnections(JsonWriter out, Set<IRailConnection> previous,
+        Set<IRailConnection> current) throws IOException {
+        out.beginArray();
+        if (previous != current) {
+            for (IRailConnection connection : current) {
+                if (!previous.contains(connection)) {
+                    ConnectionJson.writeAcquired(out, connection);
+                }
+            }
+        }
+        out.endArray();
+    }
+
+    /**
+     * Matches every opponent of the current state with an opponent of the previous state, in
+     * order, such that each current opponent owns every connection of their match. Opponents only
+     * ever acquire connections or leave the game, so this recovers who left.
+     * @return the index in the previous opponents of the match of each current opponent, or empty
+     *         if the current state does not follow on from the previous one
+     */
+    private static Optional<List<Integer>> alignOpponents(IPlayerGameState previous,
+        IPlayerGameState current) {
+        List<IOpponentInfo> previousOpponents = previous.getOpponentInfo();
+        List<IOpponentInfo> currentOpponents = current.getOpponentInfo();
+        List<Integer> alignment = new ArrayList<>(currentOpponents.size());
+        int candidate = 0;
+        for (IOpponentInfo opponent : currentOpponents) {
+            Set<IRailConnection> owned = opponent.getOwnedConnections();
+            while (candidate < previousOpponents.size()) {
+                Set<IRailConnection> previouslyOwned =
+                    previousOpponents.get(candidate).getOwnedConnections();
+                if (owned == previouslyOwned || owned.containsAll(previouslyOwned)) {
+                    break;
+                }
+                candidate += 1;
+            }
+            if (candidate == previousOpponents.size()) {
+                return Optional.empty();
+            }
+            alignment.add(candidate);
+            candidate += 1;
+        }
+        return Optional.of(alignment);
+    }
+}
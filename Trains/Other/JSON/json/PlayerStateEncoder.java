@@ -0,0 +1,131 @@
+package json;
+
+import com.google.gson.stream.JsonWriter;
+import game_state.IOpponentInfo;
+import game_state.IPlayerGameState;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import map.Destination;
+import map.IRailConnection;
+
+/**
+ * Writes the player game states sent to one player, producing the same JSON as
+ * PlayerStateJson.writePlayerState but reusing the encoding of every set of acquired connections
+ * it has already written.
+ *
+ * <p>The referee shares each player's set of connections between the states of every turn until
+ * that player acquires another connection, so from one turn to the next only the sets of the
+ * players who acquired a connection are new. The encoding of each set is kept by identity and
+ * pasted in as raw JSON, and only the new sets are encoded.
+ *
+ * <p>{@link #prepare(IPlayerGameState)} encodes the sets of a state ahead of time, such as a
+ * preview of the player's next state while another player takes their turn; the state written
+ * later then only needs whatever changed since the preview. Only the encodings used by the most
+ * recent state are kept. A state can be prepared on one thread while another is written on a
+ * different one: preparing encodes without holding this encoder's lock, so writing a state never
+ * waits for it, and a preparation that a write overlaps is dropped, since that write has already
+ * encoded what it needed.
+ */
+public class PlayerStateEncoder {
+    // Replaced rather than changed, so a preparation can read it once and encode without the lock
+    private Map<Set<IRailConnection>, String> encodedConnections = new IdentityHashMap<>();
+    // The number of states written, so that a preparation can tell whether one overlapped it
+    private int statesWritten = 0;
+
+    /**
+     * Encodes the sets of acquired connections of the given state, so that a later state sharing
+     * them is written without encoding them again.
+     * @param preview a state sharing most of its connections with the next state to write
+     */
+    public void prepare(IPlayerGameState preview) {
+        Map<Set<IRailConnection>, String> previous;
+        int writtenBefore;
+        synchronized (this) {
+            previous = this.encodedConnections;
+            writtenBefore = this.statesWritten;
+        }
+        Map<Set<IRailConnection>, String> encoded = new IdentityHashMap<>();
+        encodeOnce(previous, encoded, preview.getOwnedConnections());
+        for (IOpponentInfo opponent : preview.getOpponentInfo()) {
+            encodeOnce(previous, encoded, opponent.getOwnedConnections());
+        }
+        synchronized (this) {
+            if (this.statesWritten == writtenBefore) {
+                this.encodedConnections = encoded;
+            }
+        }
+    }
+
+    /**
+     * Writes the given state as JSON, the same as PlayerStateJson.writePlayerState.
+     * @param out the writer to write to
+     * @param gamestate the state to write
+     * @throws IOException if writing fails
+     */
+    public synchronized void writePlayerState(JsonWriter out, IPlayerGameState gamestate)
+        throws IOException {
+        this.statesWritten += 1;
+        Map<Set<IRailConnection>, String> previous = this.encodedConnections;
+        Map<Set<IRailConnection>, String> encoded = new IdentityHashMap<>();
+
+        out.beginObject();
+
+        out.name("this").beginObject();
+        Iterator<Destination> destinationIterator = gamestate.getDestinations().iterator();
+        out.name("destination1");
+        DestinationJson.writeDestination(out, destinationIterator.next());
+        out.name("destination2");
+        DestinationJson.writeDestination(out, destinationIterator.next());
+        out.name("rails").value(gamestate.getNumRails());
+        out.name("cards");
+        CardStarJson.writeHand(out, gamestate.getCardsInHand());
+        out.name("acquired").jsonValue(encodeOnce(previous, encoded, gamestate.getOwnedConnections()));
+        out.endObject();
+
+        out.name("acquired").beginArray();
+        for (IOpponentInfo opponent : gamestate.getOpponentInfo()) {
+            out.jsonValue(encodeOnce(previous, encoded, opponent.getOwnedConnections()));
+        }
+        out.endArray();
+
+        out.endObject();
+        this.encodedConnections = encoded;
+    }
+
+    /**
+     * Gets the encoding of the given connections, reusing the one in the previous encodings for the
+     * same set if there is one, and records it in the given map.
+     */
+    private static String encodeOnce(Map<Set<IRailConnection>, String> previous,
+        Map<Set<IRailConnection>, String> encoded, Set<IRailConnection> connections) {
+        String json = previous.get(connections);
+        if (json == null) {
+            json = encode(connections);
+        }
+        encoded.put(connections, json);
+        return json;
+    }
+
+    /** Encodes the given connections as a JSON array of 'Acquired'. */
+    private static String encode(Set<IRailConnection> connections) {
+        StringWriter buffer = new StringWriter();
+        try {
+            JsonWriter out = new JsonWriter(buffer);
+            out.beginArray();
+            for (IRailConnection connection : connections) {
+                ConnectionJson.writeAcquired(out, connection);
+            }
+            out.endArray();
+            out.flush();
+        } catch (IOException e) {
+            // A StringWriter never fails
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toString();
+    }
+}
@@ -30,6 +30,9 @@ import utils.UnorderedPair;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonArray;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 
 import json.DestinationJson;
 import json.CardStarJson;
@@ -78,6 +81,49 @@ public class PlayerStateJson {
         return playerStateJson;
     }
 
+    /**
+     * Writes the given IPlayerGameState as JSON, the same as playerStateToJson
+     * @param out the writer to write to
+     * @param gamestate the state to write
+     * @throws IOException if writing fails
+     */
+    public static void writePlayerState(JsonWriter out, IPlayerGameState gamestate) throws IOException {
+        out.beginObject();
+
+        out.name("this").beginObject();
+        Iterator<Destination> destinationIterator = gamestate.getDestinations().iterator();
+        out.name("destination1");
+        DestinationJson.writeDestination(out, destinationIterator.next());
+        out.name("destination2");
+        DestinationJson.writeDestination(out, destinationIterator.next());
+        out.name("rails").value(gamestate.getNumRails());
+        out.name("cards");
+        CardStarJson.writeHand(out, gamestate.getCardsInHand());
+        out.name("acquired");
+        writeAcquiredConnections(out, gamestate.getOwnedConnections());
+        out.endObject();
+
+        out.name("acquired").beginArray();
+        for(IOpponentInfo opponent : gamestate.getOpponentInfo()) {
+            writeAcquiredConnections(out, opponent.getOwnedConnections());
+        }
+        out.endArray();
+
+        out.endObject();
+    }
+
+    /**
+     * Writes the given connections as a JSON array of 'Acquired'
+     */
+    private static void writeAcquiredConnections(JsonWriter out, Set<IRailConnection> connections)
+        throws IOException {
+        out.beginArray();
+        for (IRailConnection connection : connections) {
+            ConnectionJson.writeAcquired(out, connection);
+        }
+        out.endArray();
+    }
+
     /**
    * Constructs a single IPlayerGameState from the given JSON
    */
@@ -89,10 +135,23 @@ public class PlayerStateJson {
 
     Set<IRailConnection> occupiedConnections = occupiedConnectionsFromJson(playerObject);
 
+    return playerStateFromParts(
+        cardsInHand, thisPlayersData.get("rails").getAsInt(), occupiedConnections);
+  }
+
+  /**
+   * Constructs the IPlayerGameState a player receives from the given parts of a state, the same as
+   * playerStateFromJson does from JSON.
+   * @param cardsInHand the player's hand
+   * @param numRails the player's number of rails
+   * @param occupiedConnections the connections acquired by the player and every opponent
+   */
+  public static IPlayerGameState playerStateFromParts(Map<RailCard, Integer> cardsInHand,
+      int numRails, Set<IRailConnection> occupiedConnections) {
     return new PlayerGameState(
         new PlayerData(
             new TrainsPlayerHand(cardsInHand),
-            thisPlayersData.get("rails").getAsInt(),
+            numRails,
             new HashSet<>(),
             occupiedConnections),
         new ArrayList<>());
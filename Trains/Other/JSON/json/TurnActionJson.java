@@ -4,6 +4,7 @@ import com.google.gson.JsonPrimitive;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
 
 import utils.OrderedPair;
 import map.ICity;
@@ -13,6 +14,7 @@ import map.ITrainMap;
 import strategy.TurnAction;
 import strategy.Action;
 
+import java.io.IOException;
 import java.util.stream.Collectors;
 
 import static utils.ComparatorUtils.fromUnordered;
@@ -54,6 +56,29 @@ public class TurnActionJson {
         return acquired;
     }
 
+    /**
+     * Writes a given TurnAction as JSON, the same as turnActionToJSON.
+     *
+     * @param out the writer to write to
+     * @param turnAction a strategy.TurnAction representing this strategy's choice of action
+     * @throws IOException if writing fails
+     */
+    public static void writeTurnAction(JsonWriter out, TurnAction turnAction) throws IOException {
+        if (turnAction.getActionType() == Action.DRAW_CARDS) {
+            out.value("more cards");
+        } else if (turnAction.getActionType() == Action.ACQUIRE_CONNECTION) {
+            OrderedPair<ICity> orderedCities = fromUnordered(turnAction.getRailConnection().getCities());
+            out.beginArray();
+            out.value(orderedCities.first.getName());
+            out.value(orderedCities.second.getName());
+            out.value(turnAction.getRailConnection().getColor().name().toLowerCase());
+            out.value(turnAction.getRailConnection().getLength());
+            out.endArray();
+        } else {
+            out.value("");
+        }
+    }
+
     public static TurnAction turnActionFromJson(JsonElement turnActionJson, ITrainMap map) {
         if(turnActionJson.isJsonPrimitive() && turnActionJson.getAsJsonPrimitive().isString() && turnActionJson.getAsString().equals("more cards")) {
             return TurnAction.createDrawCards(); 
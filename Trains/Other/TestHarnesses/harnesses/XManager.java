@@ -69,10 +69,10 @@ public class XManager {
 
             List<RailCard> cards = CardStarJson.cardsFromJson(colors);
 
-            Function<ITrainMap, List<Destination>> orderedDestinationProvider = (m) -> m.getAllPossibleDestinations()
-                    .stream().map((up) -> new Destination(up)).sorted().collect(Collectors.toList());
+            Function<ITrainMap, List<Destination>> orderedDestinationProvider =
+                    InitializationUtils::sortedDestinationsForGame;
 
-            if (InitializationUtils.notEnoughDestinations(map.getAllPossibleDestinations().size(),
+            if (InitializationUtils.notEnoughDestinations(map.getDestinationIndex().getNumDestinations(),
                     players.size(), 5, 2)) {
                 output.println(new JsonPrimitive("error: not enough destinations"));
             } else {
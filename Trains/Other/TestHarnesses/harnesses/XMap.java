@@ -15,7 +15,6 @@ import map.*;
 
 import json.MapJson;
 import json.ConnectionJson;
-import utils.UnorderedPair;
 
 /**
  * Performs an integration test on the map for a game of trains by consuming a specification for a Trains game map, and
@@ -63,10 +62,10 @@ public class XMap {
             JsonElement mapSpecification = parser.next();
             String startName = startCity.getAsString();
             String endName = endCity.getAsString();
-            UnorderedPair<ICity> destination =
-                new UnorderedPair<>(new City(startName, 0, 0), new City(endName, 0, 0));
+            ICity start = new City(startName, 0, 0);
+            ICity end = new City(endName, 0, 0);
             ITrainMap map = MapJson.mapFromJson(mapSpecification);
-            boolean result = map.getAllPossibleDestinations().contains(destination);
+            boolean result = map.getDestinationIndex().isPossibleDestination(start, end);
             output.println(result);
         } catch (JsonIOException | IOException ignored) {
         }
@@ -28,6 +28,7 @@ import manager.ITournamentManager;
 import manager.TournamentResult;
 import manager.KnockOutTournamentManager;
 
+import remote.TournamentServer;
 import remote.TrainsServer;
 
 
@@ -39,11 +40,42 @@ public class XServer {
     static int port;
 
     /**
-     * Performs the integration test given a port.
+     * Performs the integration test given a port. If a second argument is given, keeps running
+     * tournaments with up to that many at the same time instead of exiting after the first.
      */
     public static void main(String[] args) {
         port = Integer.parseInt(args[0]);
-        RunTest(new InputStreamReader(System.in), System.out);
+        if(args.length > 1) {
+            RunContinuous(new InputStreamReader(System.in), System.out, Integer.parseInt(args[1]));
+        } else {
+            RunTest(new InputStreamReader(System.in), System.out);
+        }
+    }
+
+    /**
+     * Creates a server that keeps signing up players and running their tournaments, printing the
+     * result of each tournament on its own line as it finishes.
+     * @param input the JsonInput to run the server.
+     * @param output the stream to write the result of each tournament to
+     * @param maxConcurrentTournaments the most tournaments to run at the same time
+     */
+    public static void RunContinuous(Reader input, PrintStream output, int maxConcurrentTournaments) {
+        JsonStreamParser parser = new JsonStreamParser(input);
+        try {
+            // Parse JSON
+            JsonElement mapJson = parser.next();
+            JsonElement playerInstances = parser.next();
+            JsonElement colors = parser.next();
+
+            List<RailCard> cards = CardStarJson.cardsFromJson(colors);
+
+            TournamentServer server = new TournamentServer(new TrainsServer(port), maxConcurrentTournaments,
+                (players) -> new KnockOutTournamentManager.ManagerBuilder(players)
+                    .destinationProvider(orderedDestinationProvider).deckProvider(() -> cards).build(),
+                TournamentServer.printTo(output));
+            server.serve();
+        } catch (JsonIOException ignored) {
+        }
     }
 
     /**
@@ -82,6 +114,10 @@ public class XServer {
                 output.println(new JsonPrimitive("error: not enough destinations"));
             }
         } catch (JsonIOException ignored) {
+        } catch (IOException signupFailed) {
+            // A single run has nothing to retry the sign up for
+            signupFailed.printStackTrace();
+            System.exit(1);
         }
     }
 
@@ -0,0 +1,76 @@
+package game_state;
+
+import java.util.HashSet;
+import java.util.Set;
+import map.City;
+import map.ICity;
+import map.IRailConnection;
+import map.ITrainMap;
+import map.RailColor;
+import map.RailConnection;
+import map.TrainMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import utils.UnorderedPair;
+
+/** A Set of unit tests for the ConnectionOccupancy class. */
+public class TestConnectionOccupancy {
+  ICity cityA;
+  ICity cityB;
+  ICity cityC;
+  IRailConnection blueAB;
+  IRailConnection redBC;
+  ITrainMap map;
+
+  @BeforeEach
+  public void init() {
+    cityA = new City("A", 0.5, 0.5);
+    cityB = new City("B", 0.2, 0.7);
+    cityC = new City("C", 0.0, 0.0);
+    Set<ICity> cities = new HashSet<>();
+    cities.add(cityA);
+    cities.add(cityB);
+    cities.add(cityC);
+
+    blueAB = new RailConnection(new UnorderedPair<>(cityA, cityB), 4, RailColor.BLUE);
+    redBC = new RailConnection(new UnorderedPair<>(cityB, cityC), 3, RailColor.RED);
+    Set<IRailConnection> rails = new HashSet<>();
+    rails.add(blueAB);
+    rails.add(redBC);
+
+    map = new TrainMap(cities, rails);
+  }
+
+  @Test
+  public void testOccupyAndRelease() {
+    ConnectionOccupancy occupancy = new ConnectionOccupancy(map);
+    Assertions.assertEquals(map.getRailConnections(), occupancy.getUnoccupiedConnections());
+
+    occupancy.occupy(new RailConnection(new UnorderedPair<>(cityB, cityA), 4, RailColor.BLUE));
+    Assertions.assertFalse(occupancy.isUnoccupied(blueAB));
+    Assertions.assertTrue(occupancy.isUnoccupied(redBC));
+    Assertions.assertEquals(Set.of(redBC), occupancy.getUnoccupiedConnections());
+
+    occupancy.release(blueAB);
+    Assertions.assertTrue(occupancy.isUnoccupied(blueAB));
+  }
+
+  @Test
+  public void testConnectionNotInMapIsNeverUnoccupied() {
+    ConnectionOccupancy occupancy = new ConnectionOccupancy(map);
+    IRailConnection missing = new RailConnection(new UnorderedPair<>(cityA, cityC), 5, RailColor.GREEN);
+    occupancy.occupy(missing);
+    Assertions.assertFalse(occupancy.isUnoccupied(missing));
+    Assertions.assertEquals(map.getRailConnections(), occupancy.getUnoccupiedConnections());
+  }
+
+  @Test
+  public void testSnapshotIsIndependent() {
+    ConnectionOccupancy occupancy = new ConnectionOccupancy(map);
+    ConnectionOccupancy snapshot = occupancy.snapshot();
+    occupancy.occupy(redBC);
+    Assertions.assertFalse(occupancy.isUnoccupied(redBC));
+    Assertions.assertTrue(snapshot.isUnoccupied(redBC));
+  }
+}
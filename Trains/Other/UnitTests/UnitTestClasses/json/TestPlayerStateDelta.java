@@ -0,0 +1,122 @@
+package json;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+import game_state.IOpponentInfo;
+import game_state.IPlayerGameState;
+import game_state.OpponentInfo;
+import game_state.PlayerGameState;
+import game_state.RailCard;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import map.City;
+import map.Destination;
+import map.ICity;
+import map.IRailConnection;
+import map.RailColor;
+import map.RailConnection;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import referee.PlayerData;
+import referee.TrainsPlayerHand;
+import utils.UnorderedPair;
+
+public class TestPlayerStateDelta {
+    ICity boston = new City("Boston", 0, 1);
+    ICity seattle = new City("Seattle", 0, 0);
+    ICity texas = new City("Texas", 1, 0);
+    ICity austin = new City("Austin", 1, 1);
+
+    IRailConnection blue = new RailConnection(new UnorderedPair<>(boston, seattle), 4, RailColor.BLUE);
+    IRailConnection white = new RailConnection(new UnorderedPair<>(boston, texas), 5, RailColor.WHITE);
+    IRailConnection green = new RailConnection(new UnorderedPair<>(seattle, texas), 3, RailColor.GREEN);
+    IRailConnection red = new RailConnection(new UnorderedPair<>(austin, texas), 3, RailColor.RED);
+
+    private IPlayerGameState state(List<RailCard> cards, int rails, Set<IRailConnection> owned,
+        List<IOpponentInfo> opponents) {
+        PlayerData data = new PlayerData(new TrainsPlayerHand(cards), rails,
+            new HashSet<>(List.of(new Destination(boston, seattle), new Destination(seattle, texas))),
+            new HashSet<>(owned));
+        return new PlayerGameState(data, opponents);
+    }
+
+    private static JsonElement write(PlayerStateDeltaWriter writer, IPlayerGameState state)
+        throws IOException {
+        StringWriter buffer = new StringWriter();
+        writer.writePlayerState(new JsonWriter(buffer), state);
+        return JsonParser.parseString(buffer.toString());
+    }
+
+    private static void assertSameState(IPlayerGameState expected, IPlayerGameState actual) {
+        Assertions.assertEquals(expected.getNumRails(), actual.getNumRails());
+        Assertions.assertEquals(expected.getCardsInHand(), actual.getCardsInHand());
+        Assertions.assertEquals(expected.getOwnedConnections(), actual.getOwnedConnections());
+    }
+
+    /** Reads the full JSON of the given state the way a client without the extension does. */
+    private static IPlayerGameState readFull(IPlayerGameState state) throws IOException {
+        StringWriter buffer = new StringWriter();
+        PlayerStateJson.writePlayerState(new JsonWriter(buffer), state);
+        return PlayerStateJson.playerStateFromJson(JsonParser.parseString(buffer.toString()));
+    }
+
+    @Test
+    public void testDeltasRebuildFullStates() throws IOException {
+        IOpponentInfo first = new OpponentInfo(Set.of(this.white));
+        IOpponentInfo second = new OpponentInfo(Set.of());
+        IOpponentInfo third = new OpponentInfo(Set.of(this.red));
+        List<IPlayerGameState> states = List.of(
+            this.state(List.of(RailCard.RED, RailCard.RED), 10, Set.of(),
+                List.of(first, second, third)),
+            // The player acquired a connection and an opponent acquired another
+            this.state(List.of(RailCard.WHITE), 7, Set.of(this.blue),
+                List.of(first, new OpponentInfo(Set.of(this.green)), third)),
+            // The first opponent left the game
+            this.state(List.of(RailCard.WHITE, RailCard.BLUE, RailCard.BLUE), 7, Set.of(this.blue),
+                List.of(new OpponentInfo(Set.of(this.green)), third)));
+
+        PlayerStateDeltaWriter writer = new PlayerStateDeltaWriter(new PlayerStateEncoder());
+        PlayerStateDeltaReader reader = new PlayerStateDeltaReader();
+        for (int index = 0; index < states.size(); index += 1) {
+            JsonElement json = write(writer, states.get(index));
+            Assertions.assertEquals(index == 0, json.getAsJsonObject().has("this"));
+            IPlayerGameState read = reader.readPlayerState(json);
+            IPlayerGameState expected = readFull(states.get(index));
+            assertSameState(expected, read);
+        }
+    }
+
+    @Test
+    public void testOnlyChangesAreSent() throws IOException {
+        IOpponentInfo opponent = new OpponentInfo(Set.of(this.white));
+        PlayerStateDeltaWriter writer = new PlayerStateDeltaWriter(new PlayerStateEncoder());
+        write(writer, this.state(List.of(RailCard.RED), 10, Set.of(), List.of(opponent)));
+        JsonElement delta = write(writer,
+            this.state(List.of(RailCard.RED, RailCard.BLUE), 10, Set.of(), List.of(opponent)));
+
+        Assertions.assertEquals(JsonParser.parseString(
+            "{\"rails\":10,\"cards\":{\"blue\":1},\"acquired\":[],\"removed\":[],"
+                + "\"opponents\":[[]]}"), delta);
+    }
+
+    @Test
+    public void testFullStateAfterResetOrUnrelatedState() throws IOException {
+        PlayerStateDeltaWriter writer = new PlayerStateDeltaWriter(new PlayerStateEncoder());
+        write(writer, this.state(List.of(RailCard.RED), 10, Set.of(this.blue), List.of()));
+        // Losing a connection cannot be expressed as a delta
+        Assertions.assertTrue(write(writer,
+            this.state(List.of(RailCard.RED), 10, Set.of(), List.of())).getAsJsonObject().has("this"));
+        writer.reset();
+        Assertions.assertTrue(write(writer,
+            this.state(List.of(RailCard.RED), 10, Set.of(), List.of())).getAsJsonObject().has("this"));
+
+        PlayerStateDeltaReader reader = new PlayerStateDeltaReader();
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> reader.readPlayerState(JsonParser.parseString(
+                "{\"rails\":10,\"cards\":{},\"acquired\":[],\"removed\":[],\"opponents\":[]}")));
+    }
+}
@@ -0,0 +1,159 @@
+package json;
+
+import com.google.gson.stream.JsonWriter;
+import game_state.IOpponentInfo;
+import game_state.IPlayerGameState;
+import game_state.OpponentInfo;
+import game_state.PlayerGameState;
+import game_state.RailCard;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.AbstractSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import map.City;
+import map.Destination;
+import map.ICity;
+import map.IRailConnection;
+import map.RailColor;
+import map.RailConnection;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import referee.PlayerData;
+import referee.TrainsPlayerHand;
+import utils.UnorderedPair;
+
+public class TestPlayerStateEncoder {
+    ICity boston = new City("Boston", 0, 1);
+    ICity seattle = new City("Seattle", 0, 0);
+    ICity texas = new City("Texas", 1, 0);
+
+    IRailConnection blue = new RailConnection(new UnorderedPair<>(boston, seattle), 4, RailColor.BLUE);
+    IRailConnection white = new RailConnection(new UnorderedPair<>(boston, texas), 5, RailColor.WHITE);
+    IRailConnection green = new RailConnection(new UnorderedPair<>(seattle, texas), 3, RailColor.GREEN);
+
+    /** A set of connections that counts how many times it is iterated over. */
+    private static class CountingSet extends AbstractSet<IRailConnection> {
+        private final Set<IRailConnection> connections;
+        int iterations = 0;
+
+        CountingSet(Set<IRailConnection> connections) {
+            this.connections = connections;
+        }
+
+        @Override
+        public Iterator<IRailConnection> iterator() {
+            this.iterations += 1;
+            return this.connections.iterator();
+        }
+
+        @Override
+        public int size() {
+            return this.connections.size();
+        }
+    }
+
+    /** A set of connections whose first iteration waits until it is released. */
+    private static class GatedSet extends CountingSet {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch released = new CountDownLatch(1);
+
+        GatedSet(Set<IRailConnection> connections) {
+            super(connections);
+        }
+
+        @Override
+        public Iterator<IRailConnection> iterator() {
+            if (this.iterations == 0) {
+                this.entered.countDown();
+                try {
+                    this.released.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return super.iterator();
+        }
+    }
+
+    private IPlayerGameState state(List<IOpponentInfo> opponents) {
+        PlayerData data = new PlayerData(
+            new TrainsPlayerHand(List.of(RailCard.RED, RailCard.WHITE)), 3,
+            new HashSet<>(List.of(new Destination(boston, seattle), new Destination(seattle, texas))),
+            new HashSet<>(Set.of(this.blue)));
+        return new PlayerGameState(data, opponents);
+    }
+
+    private static String plainJson(IPlayerGameState state) throws IOException {
+        StringWriter buffer = new StringWriter();
+        PlayerStateJson.writePlayerState(new JsonWriter(buffer), state);
+        return buffer.toString();
+    }
+
+    private static String encodedJson(PlayerStateEncoder encoder, IPlayerGameState state)
+        throws IOException {
+        StringWriter buffer = new StringWriter();
+        encoder.writePlayerState(new JsonWriter(buffer), state);
+        return buffer.toString();
+    }
+
+    @Test
+    public void testSameJsonAsPlayerStateJson() throws IOException {
+        PlayerStateEncoder encoder = new PlayerStateEncoder();
+        IPlayerGameState state = this.state(List.of(
+            new OpponentInfo(Set.of(this.white)), new OpponentInfo(Set.of())));
+        Assertions.assertEquals(plainJson(state), encodedJson(encoder, state));
+        // Written again from the cached encodings
+        Assertions.assertEquals(plainJson(state), encodedJson(encoder, state));
+    }
+
+    @Test
+    public void testOnlyChangedConnectionsAreEncoded() throws IOException {
+        CountingSet unchanged = new CountingSet(Set.of(this.white));
+        IOpponentInfo unchangedOpponent = () -> unchanged;
+        IPlayerGameState preview = this.state(List.of(
+            unchangedOpponent, new OpponentInfo(Set.of())));
+        IPlayerGameState next = this.state(List.of(
+            unchangedOpponent, new OpponentInfo(Set.of(this.green))));
+
+        PlayerStateEncoder encoder = new PlayerStateEncoder();
+        encoder.prepare(preview);
+        Assertions.assertEquals(1, unchanged.iterations);
+        String encoded = encodedJson(encoder, next);
+        Assertions.assertEquals(1, unchanged.iterations);
+        Assertions.assertEquals(plainJson(next), encoded);
+    }
+
+    @Test
+    public void testWriteDoesNotWaitForOverlappingPreparation() throws Exception {
+        GatedSet gated = new GatedSet(Set.of(this.white));
+        IOpponentInfo gatedOpponent = () -> gated;
+        IPlayerGameState preview = this.state(List.of(gatedOpponent));
+        IPlayerGameState written = this.state(List.of(new OpponentInfo(Set.of(this.green))));
+
+        PlayerStateEncoder encoder = new PlayerStateEncoder();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> preparing = executor.submit(() -> encoder.prepare(preview));
+            Assertions.assertTrue(gated.entered.await(1, TimeUnit.SECONDS));
+            // Written while the preparation is still encoding
+            Assertions.assertEquals(plainJson(written), encodedJson(encoder, written));
+            gated.released.countDown();
+            preparing.get(1, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // The write overlapped the preparation, so its encodings were dropped
+        String encoded = encodedJson(encoder, preview);
+        Assertions.assertEquals(2, gated.iterations);
+        Assertions.assertEquals(plainJson(preview), encoded);
+    }
+}
@@ -10,9 +10,12 @@ import player.*;
 import strategy.BuyNow;
 import strategy.Cheat;
 import strategy.Hold10;
+import utils.InteractionScheduler;
+import utils.TimingPolicy;
 import utils.UnorderedPair;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -123,6 +126,15 @@ public class TestTournament {
         return result;
     }
 
+    /** Enough cards for every player of a full game, repeating the ten card deck. */
+    public static List<RailCard> LargeDeckSupplier() {
+        List<RailCard> result = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            result.addAll(TenCardDeckSupplier());
+        }
+        return result;
+    }
+
     @Test
     public void testSimpleTournament() {
         // This is a normal tournament between 2 non-cheating players and 1 game
@@ -181,5 +193,58 @@ public class TestTournament {
         Assertions.assertEquals(result, new KnockOutTournamentManager.ManagerBuilder(cheaters).build().runTournament());
     }
 
+    @Test
+    public void testParallelRoundsMatchSequentialRounds() {
+        // 16 players are split into two games in the first round
+        for (int i = 0; i < 7; i++) {
+            this.initialPlayers.add(new Player(new Hold10(), biggerMap));
+            this.initialPlayers.add(new Player(new BuyNow(), biggerMap));
+        }
+
+        TournamentResult sequentialResult = new KnockOutTournamentManager.ManagerBuilder(initialPlayers).
+                deckProvider(TestTournament::LargeDeckSupplier).destinationProvider(TestTournament::destinationProvider).
+                build().runTournament();
+        TournamentResult parallelResult = new KnockOutTournamentManager.ManagerBuilder(initialPlayers).
+                deckProvider(TestTournament::LargeDeckSupplier).destinationProvider(TestTournament::destinationProvider).
+                roundParallelism(4).build().runTournament();
+
+        Assertions.assertEquals(sequentialResult, parallelResult);
+    }
+
+    @Test
+    public void testInvalidRoundParallelism() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new KnockOutTournamentManager.ManagerBuilder(initialPlayers).roundParallelism(0));
+    }
+
+    @Test
+    public void testSetupWithMorePlayersThanWorkers() {
+        // Four players on one worker each take most of the time limit to submit a map, so all but
+        // the first would be late if the time they wait for the worker counted
+        List<IPlayer> slowPlayers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            slowPlayers.add(new Player(new Hold10(), map) {
+                @Override
+                public ITrainMap tournamentStart() {
+                    try {
+                        Thread.sleep(200);
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                    return super.tournamentStart();
+                }
+            });
+        }
+        InteractionScheduler scheduler = new InteractionScheduler(1);
+        KnockOutTournamentManager slowManager = new KnockOutTournamentManager.ManagerBuilder(slowPlayers).
+                interactionScheduler(scheduler).timingPolicy(TimingPolicy.perCall(400, TimeUnit.MILLISECONDS)).
+                build();
+
+        TournamentState state = slowManager.initializeTournament();
+        Assertions.assertEquals(slowPlayers, state.stillAlive);
+        Assertions.assertTrue(state.cheaters.isEmpty());
+        scheduler.shutdown();
+    }
+
     // TODO: more testing: timeouts, bigger tournaments, etc.
 }
@@ -0,0 +1,88 @@
+package map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import utils.UnorderedPair;
+
+/** A Set of unit tests for the ConnectionIdSet class. */
+public class TestConnectionIdSet {
+  ITrainMap map;
+
+  private static ICity city(String name) {
+    return new City(name, 0, 0);
+  }
+
+  private static IRailConnection rail(String city1, String city2, RailColor color) {
+    return new RailConnection(new UnorderedPair<>(city(city1), city(city2)), 3, color);
+  }
+
+  @BeforeEach
+  public void init() {
+    Set<ICity> cities =
+        Stream.of("A", "B", "C").map(TestConnectionIdSet::city).collect(Collectors.toSet());
+    Set<IRailConnection> rails =
+        new HashSet<>(
+            List.of(
+                rail("A", "B", RailColor.BLUE),
+                rail("A", "B", RailColor.RED),
+                rail("B", "C", RailColor.BLUE),
+                rail("A", "C", RailColor.GREEN)));
+    this.map = new TrainMap(cities, rails);
+  }
+
+  @Test
+  public void testHoldsConnectionsOfSetIds() {
+    int blueAB = this.map.getConnectionId(rail("A", "B", RailColor.BLUE));
+    int blueBC = this.map.getConnectionId(rail("B", "C", RailColor.BLUE));
+    BitSet ids = new BitSet();
+    ids.set(blueAB);
+    ids.set(blueBC);
+    Set<IRailConnection> connections = new ConnectionIdSet(this.map, ids);
+
+    assertEquals(2, connections.size());
+    assertTrue(connections.contains(rail("B", "C", RailColor.BLUE)));
+    assertFalse(connections.contains(rail("A", "B", RailColor.RED)));
+    assertFalse(connections.contains(rail("A", "D", RailColor.RED)));
+    assertFalse(connections.contains("B-C"));
+    assertEquals(
+        Set.of(rail("A", "B", RailColor.BLUE), rail("B", "C", RailColor.BLUE)), connections);
+  }
+
+  @Test
+  public void testIteratesInIdOrder() {
+    BitSet ids = new BitSet();
+    ids.set(0, this.map.getNumConnections());
+    List<IRailConnection> inOrder = new ArrayList<>(new ConnectionIdSet(this.map, ids));
+    for (int id = 0; id < this.map.getNumConnections(); id += 1) {
+      assertEquals(this.map.getConnectionById(id), inOrder.get(id));
+    }
+    assertTrue(new ConnectionIdSet(this.map, new BitSet()).isEmpty());
+  }
+
+  @Test
+  public void testIsUnmodifiable() {
+    Set<IRailConnection> connections = new ConnectionIdSet(this.map, new BitSet());
+    assertThrows(
+        UnsupportedOperationException.class,
+        () -> connections.add(rail("A", "B", RailColor.BLUE)));
+  }
+
+  @Test
+  public void testIdsOutsideMapAreRejected() {
+    BitSet ids = new BitSet();
+    ids.set(this.map.getNumConnections());
+    assertThrows(IllegalArgumentException.class, () -> new ConnectionIdSet(this.map, ids));
+  }
+}
@@ -0,0 +1,89 @@
+package map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import utils.UnorderedPair;
+
+/** A Set of unit tests for the DestinationIndex class. */
+public class TestDestinationIndex {
+  ITrainMap map;
+  DestinationIndex index;
+
+  private static ICity city(String name) {
+    return new City(name, 0, 0);
+  }
+
+  private static IRailConnection rail(String city1, String city2) {
+    return new RailConnection(new UnorderedPair<>(city(city1), city(city2)), 3, RailColor.BLUE);
+  }
+
+  @BeforeEach
+  public void init() {
+    // A, B, C and D are connected, E and F are connected, and G is on its own
+    Set<ICity> cities =
+        Stream.of("A", "B", "C", "D", "E", "F", "G").map(TestDestinationIndex::city)
+            .collect(Collectors.toSet());
+    Set<IRailConnection> rails =
+        new HashSet<>(List.of(rail("A", "B"), rail("C", "B"), rail("D", "C"), rail("F", "E")));
+    this.map = new TrainMap(cities, rails);
+    this.index = this.map.getDestinationIndex();
+  }
+
+  @Test
+  public void testCounts() {
+    assertEquals(7, this.index.getNumDestinations());
+    assertEquals(3, this.index.getNumComponents());
+    assertEquals(6, this.index.getNumDestinationsInComponent(this.index.getComponentOf(city("D"))));
+    assertEquals(1, this.index.getNumDestinationsInComponent(this.index.getComponentOf(city("E"))));
+    assertEquals(0, this.index.getNumDestinationsInComponent(this.index.getComponentOf(city("G"))));
+    assertEquals(-1, this.index.getComponentOf(city("H")));
+  }
+
+  @Test
+  public void testIsPossibleDestination() {
+    assertTrue(this.index.isPossibleDestination(city("D"), city("A")));
+    assertTrue(this.index.isPossibleDestination(city("E"), city("F")));
+    assertFalse(this.index.isPossibleDestination(city("A"), city("E")));
+    assertFalse(this.index.isPossibleDestination(city("A"), city("A")));
+    assertFalse(this.index.isPossibleDestination(city("G"), city("H")));
+  }
+
+  @Test
+  public void testDestinationsInSortedOrder() {
+    List<Destination> expected =
+        this.map.getAllPossibleDestinations().stream()
+            .map(Destination::new)
+            .sorted()
+            .collect(Collectors.toList());
+    for (int position = 0; position < expected.size(); position += 1) {
+      assertEquals(expected.get(position), this.index.getDestination(position));
+    }
+    assertThrows(IndexOutOfBoundsException.class, () -> this.index.getDestination(7));
+  }
+
+  @Test
+  public void testSampleDestinations() {
+    List<Destination> sample = this.index.sampleDestinations(4, new Random(4500));
+    assertEquals(4, sample.size());
+    assertEquals(4, new HashSet<>(sample).size());
+    for (Destination destination : sample) {
+      assertTrue(this.map.getAllPossibleDestinations().contains(destination));
+    }
+
+    Set<Destination> all = new HashSet<>(this.index.sampleDestinations(7, new Random(4500)));
+    assertEquals(this.map.getAllPossibleDestinations(), all);
+    assertThrows(IllegalArgumentException.class,
+        () -> this.index.sampleDestinations(8, new Random(4500)));
+  }
+}
@@ -125,4 +125,22 @@ public class TestRailConnection {
         assertFalse(rail2.sameRailConnection(rail1));
         assertFalse(rail1.sameRailConnection(rail2));
     }
+
+    @Test
+    public void testEndpointsInNameOrder() {
+        City city1 = new City("Boston", 0.5, 0.5);
+        City city2 = new City("New York", 0.2, 0.6);
+
+        RailConnection rail1 = new RailConnection(
+            new UnorderedPair<>(city2, city1), 3, RailColor.BLUE);
+        RailConnection rail2 = new RailConnection(
+            new UnorderedPair<>(city1, city2), 4, RailColor.BLUE);
+
+        assertEquals(city1, rail1.getCities().first);
+        assertEquals(city2, rail1.getCities().second);
+        assertEquals(rail1, rail2);
+        assertEquals(rail1.hashCode(), rail2.hashCode());
+        assertNotEquals(rail1, new RailConnection(
+            new UnorderedPair<>(city1, city2), 3, RailColor.RED));
+    }
 }
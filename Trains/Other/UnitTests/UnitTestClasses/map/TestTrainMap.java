@@ -2,6 +2,7 @@ package map;
 
 import static org.junit.Assert.fail;
 import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -86,10 +87,11 @@ public class TestTrainMap {
     Set<ICity> returnedCities = m.getCities();
     assertEquals(m.getCities(), cities);
 
-    // Test defensive copies, both for input set and output set
-    returnedCities.clear();
+    // Test the input set is copied and the output set cannot modify the map
+    assertThrows(UnsupportedOperationException.class, returnedCities::clear);
+    assertFalse(m.getCities().isEmpty());
+    cities.clear();
     assertFalse(m.getCities().isEmpty());
-    assertFalse(cities.isEmpty());
   }
 
   @Test
@@ -113,10 +115,31 @@ public class TestTrainMap {
     assertEquals(map.getRailConnections(), rails);
     assertEquals(map.getRailConnections().size(), 2);
 
-    // Test defensive copies, both for input set and output set
-    returnedRails.clear();
+    // Test the input set is copied and the output set cannot modify the map
+    assertThrows(UnsupportedOperationException.class, returnedRails::clear);
+    assertFalse(map.getRailConnections().isEmpty());
+    rails.clear();
     assertFalse(map.getRailConnections().isEmpty());
-    assertFalse(rails.isEmpty());
+  }
+
+  @Test
+  public void TestGetCityFromName() {
+    ITrainMap m = new TrainMap(cities, new HashSet<>());
+    assertEquals(nyc, m.getCityFromName("NYC").get());
+    assertFalse(m.getCityFromName("Chicago").isPresent());
+  }
+
+  @Test
+  public void TestGetRailConnectionLookups() {
+    IRailConnection green = new RailConnection(new UnorderedPair<>(nyc, boston), 4, RailColor.GREEN);
+    rails.add(green);
+    map = new TrainMap(cities, rails);
+
+    assertEquals(green, map.getRailConnection(new UnorderedPair<>(boston, nyc), RailColor.GREEN).get());
+    assertFalse(map.getRailConnection(new UnorderedPair<>(boston, nyc), RailColor.RED).isPresent());
+    assertEquals(map.getRailConnections(), map.getRailConnectionsOf(nyc));
+    assertEquals(map.getRailConnections(), map.getRailConnectionsOf(boston));
+    assertTrue(map.getRailConnectionsOf(new City("Chicago", 0.1, 0.1)).isEmpty());
   }
 
   @Test
@@ -166,4 +189,38 @@ public class TestTrainMap {
         connectionList.stream().map(cityPairMaker).collect(Collectors.toSet()),
         map.getAllPossibleDestinations());
   }
+
+  @Test
+  public void TestDenseIds() {
+    ICity albany = new City("Albany", 0, 0);
+    cities.add(albany);
+    IRailConnection redAlbanyNyc =
+        new RailConnection(new UnorderedPair<>(nyc, albany), 4, RailColor.RED);
+    IRailConnection blueAlbanyNyc =
+        new RailConnection(new UnorderedPair<>(albany, nyc), 5, RailColor.BLUE);
+    rails.add(redAlbanyNyc);
+    rails.add(blueAlbanyNyc);
+    map = new TrainMap(cities, rails);
+
+    // Cities are ordered by name, connections by endpoint names and then color
+    assertEquals(3, map.getNumCities());
+    assertEquals(0, map.getCityId(albany));
+    assertEquals(1, map.getCityId(new City("Boston", 0.5, 0.5)));
+    assertEquals(nyc, map.getCityById(2));
+    assertEquals(-1, map.getCityId(new City("Chicago", 0, 0)));
+
+    assertEquals(3, map.getNumConnections());
+    assertEquals(0, map.getConnectionId(redAlbanyNyc));
+    assertEquals(1, map.getConnectionId(blueAlbanyNyc));
+    assertEquals(connection, map.getConnectionById(2));
+    assertEquals(-1, map.getConnectionId(
+        new RailConnection(new UnorderedPair<>(boston, albany), 3, RailColor.RED)));
+    assertThrows(IndexOutOfBoundsException.class, () -> map.getConnectionById(3));
+
+    // The same cities and connections always get the same ids
+    ITrainMap sameMap = new TrainMap(new HashSet<>(cities), new HashSet<>(rails));
+    for (int id = 0; id < map.getNumConnections(); id += 1) {
+      assertEquals(map.getConnectionById(id), sameMap.getConnectionById(id));
+    }
+  }
 }
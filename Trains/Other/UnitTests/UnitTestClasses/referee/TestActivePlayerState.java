@@ -0,0 +1,117 @@
+package referee;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import game_state.IPlayerGameState;
+import game_state.RailCard;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import map.City;
+import map.ICity;
+import map.IRailConnection;
+import map.ITrainMap;
+import map.RailColor;
+import map.RailConnection;
+import map.TrainMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import player.RefereePlayer;
+import strategy.Hold10;
+import utils.UnorderedPair;
+
+/** Tests for the player game state snapshots handed out by a RefereeGameState. */
+public class TestActivePlayerState {
+    IRailConnection blueAB;
+    IRailConnection redBC;
+    ITrainMap map;
+    RefereeGameState gameState;
+
+    @BeforeEach
+    public void setupGameState() {
+        ICity cityA = new City("A", 0.5, 0.5);
+        ICity cityB = new City("B", 0.2, 0.7);
+        ICity cityC = new City("C", 0.0, 0.0);
+        Set<ICity> cities = new HashSet<>(List.of(cityA, cityB, cityC));
+
+        this.blueAB = new RailConnection(new UnorderedPair<>(cityA, cityB), 4, RailColor.BLUE);
+        this.redBC = new RailConnection(new UnorderedPair<>(cityC, cityB), 3, RailColor.RED);
+        this.map = new TrainMap(cities, new HashSet<>(List.of(this.blueAB, this.redBC)));
+
+        Map<RailCard, Integer> cardsInHand = new HashMap<>();
+        cardsInHand.put(RailCard.BLUE, 4);
+        cardsInHand.put(RailCard.RED, 3);
+
+        List<PlayerInfoPair> playerInfo = new ArrayList<>();
+        playerInfo.add(new PlayerInfoPair(new RefereePlayer(new Hold10()),
+            new PlayerData(new TrainsPlayerHand(cardsInHand), 10, new HashSet<>(), new HashSet<>())));
+        playerInfo.add(new PlayerInfoPair(new RefereePlayer(new Hold10()),
+            new PlayerData(new TrainsPlayerHand(cardsInHand), 10, new HashSet<>(), new HashSet<>())));
+
+        List<RailCard> deck = List.of(RailCard.GREEN, RailCard.WHITE, RailCard.BLUE);
+        this.gameState = new RefereeGameState(playerInfo, new HashSet<>(), deck, map);
+    }
+
+    @Test
+    public void testSameSnapshotUntilStateChanges() {
+        IPlayerGameState first = this.gameState.getActivePlayerState();
+        assertSame(first, this.gameState.getActivePlayerState());
+
+        this.gameState.drawCardsForActivePlayer();
+        IPlayerGameState afterDraw = this.gameState.getActivePlayerState();
+        assertNotSame(first, afterDraw);
+        assertEquals(7, first.getTotalNumCards());
+        assertEquals(9, afterDraw.getTotalNumCards());
+    }
+
+    @Test
+    public void testSnapshotsDoNotChangeWithTheGame() {
+        IPlayerGameState before = this.gameState.getActivePlayerState();
+        assertTrue(this.gameState.acquireConnectionForActivePlayer(this.blueAB));
+        IPlayerGameState after = this.gameState.getActivePlayerState();
+
+        assertTrue(before.getOwnedConnections().isEmpty());
+        assertEquals(Set.of(this.blueAB), after.getOwnedConnections());
+        assertEquals(10, before.getNumRails());
+        assertEquals(6, after.getNumRails());
+
+        // The next player sees the acquired connection as an opponent's
+        this.gameState.advanceTurn(true);
+        IPlayerGameState next = this.gameState.getActivePlayerState();
+        assertEquals(Set.of(this.blueAB), next.getOpponentInfo().get(0).getOwnedConnections());
+        assertEquals(Set.of(this.redBC), next.calculateUnoccupiedConnections(this.map));
+    }
+
+    @Test
+    public void testNextPlayerPreview() {
+        IPlayerGameState preview = this.gameState.getNextPlayerStatePreview().get().get();
+        assertTrue(this.gameState.acquireConnectionForActivePlayer(this.blueAB));
+        this.gameState.advanceTurn(true);
+        IPlayerGameState next = this.gameState.getActivePlayerState();
+
+        // Only the connections of the player who just took their turn differ from the preview
+        assertSame(preview.getOwnedConnections(), next.getOwnedConnections());
+        assertTrue(preview.getOpponentInfo().get(0).getOwnedConnections().isEmpty());
+        assertEquals(Set.of(this.blueAB), next.getOpponentInfo().get(0).getOwnedConnections());
+        assertEquals(preview.getCardsInHand(), next.getCardsInHand());
+    }
+
+    @Test
+    public void testSnapshotsAreUnmodifiable() {
+        IPlayerGameState state = this.gameState.getActivePlayerState();
+        assertThrows(UnsupportedOperationException.class,
+            () -> state.getOwnedConnections().add(this.blueAB));
+        assertThrows(UnsupportedOperationException.class,
+            () -> state.getCardsInHand().put(RailCard.WHITE, 10));
+        assertThrows(UnsupportedOperationException.class, () -> state.getOpponentInfo().clear());
+        assertThrows(UnsupportedOperationException.class,
+            () -> state.getOpponentInfo().get(0).getOwnedConnections().add(this.redBC));
+    }
+}
@@ -0,0 +1,66 @@
+package referee;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import game_state.RailCard;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class TestDeck {
+
+    private static final List<RailCard> CARDS = List.of(RailCard.RED, RailCard.BLUE,
+        RailCard.GREEN, RailCard.WHITE, RailCard.RED);
+
+    @Test
+    public void testDrawInOrder() {
+        Deck deck = new Deck(CARDS);
+        assertEquals(5, deck.size());
+        assertEquals(RailCard.RED, deck.draw());
+        assertEquals(List.of(RailCard.BLUE, RailCard.GREEN), deck.draw(2));
+        assertEquals(List.of(RailCard.WHITE, RailCard.RED), deck.getRemainingCards());
+        assertEquals(List.of(RailCard.WHITE, RailCard.RED), deck.draw(3));
+        assertTrue(deck.isEmpty());
+        assertEquals(List.of(), deck.draw(2));
+        assertThrows(IllegalStateException.class, deck::draw);
+        assertThrows(IllegalArgumentException.class, () -> deck.draw(-1));
+    }
+
+    @Test
+    public void testCopiesCards() {
+        List<RailCard> cards = new ArrayList<>(CARDS);
+        Deck deck = new Deck(cards);
+        cards.clear();
+        assertEquals(CARDS, deck.getRemainingCards());
+    }
+
+    @Test
+    public void testRewind() {
+        Deck deck = new Deck(CARDS);
+        deck.draw();
+        int snapshot = deck.getPosition();
+        List<RailCard> drawn = deck.draw(3);
+        assertEquals(4, deck.getPosition());
+
+        deck.rewindTo(snapshot);
+        assertEquals(4, deck.size());
+        assertEquals(drawn, deck.draw(3));
+        assertThrows(IllegalArgumentException.class, () -> deck.rewindTo(5));
+        assertThrows(IllegalArgumentException.class, () -> deck.rewindTo(-1));
+    }
+
+    @Test
+    public void testLargeDeck() {
+        List<RailCard> cards = new ArrayList<>();
+        for (int ii = 0; ii < 100000; ii++) {
+            cards.add(RailCard.values()[ii % RailCard.values().length]);
+        }
+        Deck deck = new Deck(cards);
+        for (int ii = 0; ii < 50000; ii++) {
+            assertEquals(cards.subList(2 * ii, 2 * ii + 2), deck.draw(2));
+        }
+        assertTrue(deck.isEmpty());
+    }
+}
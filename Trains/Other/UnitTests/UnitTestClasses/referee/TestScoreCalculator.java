@@ -6,11 +6,15 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import map.City;
 import map.Destination;
 import map.ICity;
+import map.IRailConnection;
+import map.ITrainMap;
 import map.RailColor;
 import map.RailConnection;
+import map.TrainMap;
 import org.junit.jupiter.api.Test;
 import referee.IPlayerData;
 import referee.PlayerData;
@@ -112,5 +116,89 @@ public class TestScoreCalculator {
 
         assertEquals(List.of(-10, 42, 27),
             new ScoreCalculator().scorePlayers(List.of(data1, data2, data3)));
+        assertEquals(List.of(-10, 42, 27),
+            ScoreCalculator.scorePlayers(List.of(data1, data2, data3), true));
+    }
+
+    @Test
+    public void testParallelMatchesSequentialWithTies() {
+        ICity boston = new City("Boston", 0, 0);
+        ICity nyc = new City("NYC", 0, 0);
+        ICity texas = new City("Texas", 0, 0);
+
+        List<IPlayerData> players = new ArrayList<>();
+        for (int index = 0; index < TrainsReferee.MAX_PLAYERS_PER_GAME; index += 1) {
+            // Every other player ties for the longest path
+            RailColor color = index % 2 == 0 ? RailColor.BLUE : RailColor.RED;
+            int length = index % 2 == 0 ? 5 : 3;
+            players.add(new PlayerData(
+                new TrainsPlayerHand(new HashMap<>()),
+                5,
+                new HashSet<>(List.of(new Destination(boston, texas))),
+                new HashSet<>(List.of(
+                    new RailConnection(new UnorderedPair<>(boston, nyc), length, color),
+                    new RailConnection(new UnorderedPair<>(nyc, texas), length, color)))));
+        }
+
+        List<Integer> sequential = ScoreCalculator.scorePlayers(players, true);
+        assertEquals(List.of(40, 16, 40, 16, 40, 16, 40, 16), sequential);
+        assertEquals(sequential, ScoreCalculator.scorePlayers(players, false));
+    }
+
+    /**
+     * Creates a map of exactly the cities and connections that the given players use.
+     */
+    private static ITrainMap mapOf(List<IPlayerData> players) {
+        Set<ICity> cities = new HashSet<>();
+        Set<IRailConnection> rails = new HashSet<>();
+        for (IPlayerData player : players) {
+            for (Destination destination : player.getDestinations()) {
+                cities.add(destination.first);
+                cities.add(destination.second);
+            }
+            for (IRailConnection rail : player.getOwnedConnections()) {
+                cities.add(rail.getCities().first);
+                cities.add(rail.getCities().second);
+                rails.add(rail);
+            }
+        }
+        return new TrainMap(cities, rails);
+    }
+
+    @Test
+    public void testMapIdsScoreTheSameAsGraphs() {
+        ICity boston = new City("Boston", 0, 0);
+        ICity nyc = new City("NYC", 0, 0);
+        ICity texas = new City("Texas", 0, 0);
+        ICity chicago = new City("Chicago", 0, 0);
+
+        List<IPlayerData> players = List.of(
+            new PlayerData(
+                new TrainsPlayerHand(new HashMap<>()),
+                5,
+                new HashSet<>(List.of(new Destination(boston, nyc))),
+                new HashSet<>()),
+            new PlayerData(
+                new TrainsPlayerHand(new HashMap<>()),
+                3,
+                new HashSet<>(List.of(new Destination(texas, chicago))),
+                new HashSet<>(List.of(
+                    new RailConnection(new UnorderedPair<>(texas, nyc), 3, RailColor.BLUE),
+                    new RailConnection(new UnorderedPair<>(nyc, boston), 4, RailColor.BLUE),
+                    new RailConnection(new UnorderedPair<>(boston, chicago), 5, RailColor.BLUE)))),
+            new PlayerData(
+                new TrainsPlayerHand(new HashMap<>()),
+                3,
+                new HashSet<>(List.of(new Destination(nyc, chicago))),
+                new HashSet<>(List.of(
+                    // Two connections between the same cities, only the longer one counts
+                    new RailConnection(new UnorderedPair<>(chicago, nyc), 3, RailColor.RED),
+                    new RailConnection(new UnorderedPair<>(chicago, nyc), 5, RailColor.GREEN)))));
+        ITrainMap map = mapOf(players);
+
+        assertEquals(ScoreCalculator.scorePlayers(players),
+            ScoreCalculator.scorePlayers(players, map));
+        assertEquals(ScoreCalculator.scorePlayers(players, true),
+            ScoreCalculator.scorePlayers(players, map, true));
     }
 }
@@ -0,0 +1,63 @@
+package referee;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import game_state.RailCard;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class TestTrainsPlayerHand {
+
+    @Test
+    public void testCountsAndTotal() {
+        TrainsPlayerHand hand =
+            new TrainsPlayerHand(List.of(RailCard.RED, RailCard.BLUE, RailCard.RED));
+        assertEquals(2, hand.getNumCardsOfType(RailCard.RED));
+        assertEquals(0, hand.getNumCardsOfType(RailCard.WHITE));
+        assertEquals(3, hand.getTotalNumCards());
+
+        hand.addCardsToHand(RailCard.WHITE, 4);
+        hand.removeCardsFromHand(RailCard.RED, 2);
+        assertEquals(0, hand.getNumCardsOfType(RailCard.RED));
+        assertEquals(5, hand.getTotalNumCards());
+
+        assertThrows(IllegalStateException.class,
+            () -> hand.removeCardsFromHand(RailCard.GREEN, 1));
+        assertThrows(IllegalArgumentException.class, () -> hand.addCardsToHand(RailCard.RED, 0));
+        assertEquals(5, hand.getTotalNumCards());
+    }
+
+    @Test
+    public void testNegativeInitialHand() {
+        Map<RailCard, Integer> initial = new HashMap<>();
+        initial.put(RailCard.BLUE, -1);
+        assertThrows(IllegalArgumentException.class, () -> new TrainsPlayerHand(initial));
+    }
+
+    @Test
+    public void testGetHandAndViews() {
+        Map<RailCard, Integer> initial = new HashMap<>();
+        initial.put(RailCard.BLUE, 3);
+        TrainsPlayerHand hand = new TrainsPlayerHand(initial);
+
+        Map<RailCard, Integer> expected = new HashMap<>();
+        expected.put(RailCard.RED, 0);
+        expected.put(RailCard.BLUE, 3);
+        expected.put(RailCard.GREEN, 0);
+        expected.put(RailCard.WHITE, 0);
+        assertEquals(expected, hand.getHand());
+        assertEquals(expected, hand.asMapView());
+
+        // The view reflects the hand, the copies do not
+        Map<RailCard, Integer> view = hand.asMapView();
+        TrainsPlayerHand copy = TrainsPlayerHand.copyOf(hand);
+        hand.addCardsToHand(RailCard.GREEN, 1);
+        assertEquals(1, (int) view.get(RailCard.GREEN));
+        assertEquals(0, copy.getNumCardsOfType(RailCard.GREEN));
+        assertEquals(expected, copy.getHand());
+        assertThrows(UnsupportedOperationException.class, () -> view.put(RailCard.RED, 2));
+    }
+}
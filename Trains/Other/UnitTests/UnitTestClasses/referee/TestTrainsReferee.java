@@ -4,11 +4,13 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import game_state.IPlayerGameState;
 import game_state.RailCard;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import map.City;
 import map.Destination;
@@ -28,6 +30,9 @@ import referee.GameEndReport.PlayerScore;
 import referee.TrainsReferee.RefereeBuilder;
 import strategy.BuyNow;
 import strategy.Hold10;
+import strategy.TurnAction;
+import utils.InteractionScheduler;
+import utils.TimingPolicy.TimingPolicyBuilder;
 import utils.UnorderedPair;
 
 public class TestTrainsReferee {
@@ -121,6 +126,16 @@ public class TestTrainsReferee {
         return result;
     }
 
+    /** Three ten card decks, so that the hands dealt from each seat differ. */
+    public static List<RailCard> ThirtyCardDeckSupplier() {
+        List<RailCard> result = new ArrayList<>();
+        for (int ii = 0; ii < 3; ii++) {
+            result.addAll(TenCardDeckSupplier());
+        }
+
+        return result;
+    }
+
     public static List<RailCard> ThousandBlueCardDeckSupplier() {
         List<RailCard> result = new ArrayList<>();
         for (int ii = 0; ii < 1000; ii++) {
@@ -381,6 +396,235 @@ public class TestTrainsReferee {
         referee.playGame();
     }
 
+    @Test
+    public void testPlayersSetUpConcurrently() {
+        // Each player takes 1.5 seconds to set up, which is within the time out on its own, but
+        // four of them would take 6 seconds if set up one after another
+        List<IPlayer> playersInTurnOrder = new ArrayList<>();
+        for (int ii = 0; ii < 4; ii++) {
+            playersInTurnOrder.add(new RefereePlayer(new Hold10()) {
+                @Override
+                public void setup(ITrainMap map, int numRails, List<RailCard> cards) {
+                    try {
+                        Thread.sleep(1500);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    super.setup(map, numRails, cards);
+                }
+            });
+        }
+
+        IReferee referee = new RefereeBuilder(this.largeBlueMap, playersInTurnOrder)
+            .destinationProvider(TestTrainsReferee::destinationProvider)
+            .deckProvider(TestTrainsReferee::ThousandBlueCardDeckSupplier).build();
+
+        long start = System.nanoTime();
+        GameEndReport report = referee.playGame();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(report.removedPlayers.isEmpty());
+        assertTrue("Setup took " + elapsedMillis + "ms", elapsedMillis < 4000);
+    }
+
+    @Test
+    public void testPlayerOutOfTimeBankIsRemoved() {
+        // The slow player takes 300ms per turn against a bank of 1 second, so they run out of time
+        // during their fourth turn; the other player is never charged enough to run out
+        IPlayer slowPlayer = new RefereePlayer(new Hold10()) {
+            @Override
+            public TurnAction takeTurn(IPlayerGameState playerGameState) {
+                try {
+                    Thread.sleep(300);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.takeTurn(playerGameState);
+            }
+        };
+        List<IPlayer> playersInTurnOrder = new ArrayList<>();
+        playersInTurnOrder.add(slowPlayer);
+        playersInTurnOrder.add(new RefereePlayer(new Hold10()));
+
+        IReferee referee = new RefereeBuilder(this.largeBlueMap, playersInTurnOrder)
+            .destinationProvider(TestTrainsReferee::destinationProvider)
+            .deckProvider(TestTrainsReferee::ThousandBlueCardDeckSupplier)
+            .timingPolicy(new TimingPolicyBuilder(2, TimeUnit.SECONDS)
+                .timeBank(1, TimeUnit.SECONDS).build())
+            .build();
+
+        GameEndReport report = referee.playGame();
+        assertEquals(Set.of(slowPlayer), report.removedPlayers);
+        assertEquals(1, report.playerRanking.size());
+    }
+
+    @Test
+    public void testShortBankPlayersTimeOutWhileOthersPlayOn() {
+        // Each short bank player has far less time than a turn takes, so their calls time out
+        // while the referee goes on removing them and playing the others' turns. Their states must
+        // already be built by then, or both threads would update the game state at once.
+        for (int game = 0; game < 5; game++) {
+            Set<IPlayer> shortBankPlayers = new HashSet<>();
+            List<IPlayer> playersInTurnOrder = new ArrayList<>();
+            for (int ii = 0; ii < 4; ii++) {
+                IPlayer player = ii % 2 == 1 ? new RefereePlayer(new Hold10())
+                    : new RefereePlayer(new Hold10()) {
+                        @Override
+                        public TurnAction takeTurn(IPlayerGameState playerGameState) {
+                            try {
+                                Thread.sleep(30);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                            return super.takeTurn(playerGameState);
+                        }
+                    };
+                if (ii % 2 == 0) {
+                    shortBankPlayers.add(player);
+                }
+                playersInTurnOrder.add(player);
+            }
+
+            IReferee referee = new RefereeBuilder(this.largeBlueMap, playersInTurnOrder)
+                .destinationProvider(TestTrainsReferee::destinationProvider)
+                .deckProvider(TestTrainsReferee::ThousandBlueCardDeckSupplier)
+                .timingPolicy(new TimingPolicyBuilder(2, TimeUnit.SECONDS)
+                    .timeBank(50, TimeUnit.MILLISECONDS).build())
+                .build();
+
+            GameEndReport report = referee.playGame();
+            assertEquals(shortBankPlayers, report.removedPlayers);
+            assertEquals(2, report.playerRanking.size());
+        }
+    }
+
+    @Test
+    public void testGameDeadlineEndsGameWithoutRemoval() {
+        // Both players take 200ms per turn, so the game is cut off by its 1 second deadline long
+        // before either of them runs out of rails
+        List<IPlayer> playersInTurnOrder = new ArrayList<>();
+        for (int ii = 0; ii < 2; ii++) {
+            playersInTurnOrder.add(new RefereePlayer(new Hold10()) {
+                @Override
+                public TurnAction takeTurn(IPlayerGameState playerGameState) {
+                    try {
+                        Thread.sleep(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return super.takeTurn(playerGameState);
+                }
+            });
+        }
+
+        IReferee referee = new RefereeBuilder(this.largeBlueMap, playersInTurnOrder)
+            .destinationProvider(TestTrainsReferee::destinationProvider)
+            .deckProvider(TestTrainsReferee::ThousandBlueCardDeckSupplier)
+            .timingPolicy(new TimingPolicyBuilder(2, TimeUnit.SECONDS)
+                .gameDeadline(1, TimeUnit.SECONDS).build())
+            .build();
+
+        long start = System.nanoTime();
+        GameEndReport report = referee.playGame();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(report.removedPlayers.isEmpty());
+        assertEquals(2, report.playerRanking.size());
+        assertTrue("Game took " + elapsedMillis + "ms", elapsedMillis < 2000);
+    }
+
+    /** A player that counts the previews it is given, and only uses them if told to. */
+    private static class PreviewCountingPlayer extends RefereePlayer {
+        final boolean usesPreview;
+        int previews = 0;
+
+        PreviewCountingPlayer(boolean usesPreview) {
+            super(new Hold10());
+            this.usesPreview = usesPreview;
+        }
+
+        @Override
+        public void prepareTurn(IPlayerGameState upcomingState) {
+            this.previews += 1;
+        }
+
+        @Override
+        public boolean usesTurnPreview() {
+            return this.usesPreview;
+        }
+    }
+
+    @Test
+    public void testOnlyPlayersUsingPreviewsGetThem() {
+        PreviewCountingPlayer usesPreview = new PreviewCountingPlayer(true);
+        PreviewCountingPlayer ignoresPreview = new PreviewCountingPlayer(false);
+        List<IPlayer> playersInTurnOrder = List.of(usesPreview, ignoresPreview);
+
+        // Inline, so that every preview has been given once the game ends
+        new RefereeBuilder(this.simpleMap, new ArrayList<>(playersInTurnOrder))
+            .destinationProvider(TestTrainsReferee::destinationProvider)
+            .deckProvider(TestTrainsReferee::ThousandBlueCardDeckSupplier)
+            .interactionScheduler(InteractionScheduler.inline()).build().playGame();
+
+        assertTrue(usesPreview.previews > 0);
+        assertEquals(0, ignoresPreview.previews);
+    }
+
+    /** A player that remembers the cards of the last setup it was given. */
+    private static class SetupRecordingPlayer extends RefereePlayer {
+        List<RailCard> setupCards;
+
+        SetupRecordingPlayer() {
+            super(new Hold10());
+        }
+
+        @Override
+        public void setup(ITrainMap map, int numRails, List<RailCard> cards) {
+            this.setupCards = new ArrayList<>(cards);
+            super.setup(map, numRails, cards);
+        }
+    }
+
+    @Test
+    public void testPlayerRemovedInSetupLeavesGameAsIfAbsent() {
+        // In turn, a player removed in setup is never dealt cards, so the players after them
+        // play the same game as if that player had not signed up at all
+        IPlayer failsSetup = new RefereePlayer(new Hold10()) {
+            @Override
+            public void setup(ITrainMap map, int numRails, List<RailCard> cards) {
+                throw new IllegalStateException();
+            }
+        };
+        List<SetupRecordingPlayer> withFailure = List.of(new SetupRecordingPlayer(),
+            new SetupRecordingPlayer(), new SetupRecordingPlayer());
+        List<SetupRecordingPlayer> withoutFailure = List.of(new SetupRecordingPlayer(),
+            new SetupRecordingPlayer(), new SetupRecordingPlayer());
+        List<IPlayer> playersWithFailure = new ArrayList<>();
+        playersWithFailure.add(failsSetup);
+        playersWithFailure.addAll(withFailure);
+
+        GameEndReport reportWithFailure = new RefereeBuilder(this.simpleMap, playersWithFailure)
+            .destinationProvider(TestTrainsReferee::destinationProvider)
+            .deckProvider(TestTrainsReferee::ThirtyCardDeckSupplier).build().playGame();
+        GameEndReport reportWithoutFailure =
+            new RefereeBuilder(this.simpleMap, new ArrayList<>(withoutFailure))
+                .destinationProvider(TestTrainsReferee::destinationProvider)
+                .deckProvider(TestTrainsReferee::ThirtyCardDeckSupplier).build().playGame();
+
+        assertEquals(Set.of(failsSetup), reportWithFailure.removedPlayers);
+        for (int ii = 0; ii < withFailure.size(); ii++) {
+            assertEquals(withoutFailure.get(ii).setupCards, withFailure.get(ii).setupCards);
+        }
+        assertEquals(reportWithoutFailure.playerRanking.size(),
+            reportWithFailure.playerRanking.size());
+        for (int ii = 0; ii < reportWithFailure.playerRanking.size(); ii++) {
+            PlayerScore expected = reportWithoutFailure.playerRanking.get(ii);
+            PlayerScore actual = reportWithFailure.playerRanking.get(ii);
+            assertEquals(expected.score, actual.score);
+            assertEquals(withoutFailure.indexOf(expected.player), withFailure.indexOf(actual.player));
+        }
+    }
+
     private static void assertGameReportEquals(GameEndReport expected, GameEndReport actual) {
         for (int ii = 0; ii < expected.playerRanking.size(); ii++) {
             PlayerScore expectedPlayerScore = expected.playerRanking.get(ii);
@@ -0,0 +1,193 @@
+package remote;
+
+import game_state.IOpponentInfo;
+import game_state.IPlayerGameState;
+import game_state.OpponentInfo;
+import game_state.PlayerGameState;
+import game_state.RailCard;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import map.City;
+import map.Destination;
+import map.ICity;
+import map.IRailConnection;
+import map.ITrainMap;
+import map.MapDimensions;
+import map.RailColor;
+import map.RailConnection;
+import map.TrainMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import referee.PlayerData;
+import referee.TrainsPlayerHand;
+import strategy.Action;
+import strategy.TurnAction;
+import utils.UnorderedPair;
+
+public class TestBinaryWireCodec {
+    ICity boston = new City("Boston", 0, 0.5);
+    ICity seattle = new City("Seattle", 0, 0);
+    ICity texas = new City("Texas", 0.5, 0.25);
+    ICity austin = new City("Austin", 1, 1);
+
+    IRailConnection blue = new RailConnection(new UnorderedPair<>(boston, seattle), 4, RailColor.BLUE);
+    IRailConnection white = new RailConnection(new UnorderedPair<>(boston, texas), 5, RailColor.WHITE);
+    IRailConnection green = new RailConnection(new UnorderedPair<>(seattle, texas), 3, RailColor.GREEN);
+    IRailConnection red = new RailConnection(new UnorderedPair<>(austin, texas), 3, RailColor.RED);
+
+    ITrainMap map = new TrainMap(Set.of(boston, seattle, texas, austin),
+        Set.of(blue, white, green, red), new MapDimensions(800, 400));
+
+    /** An in-memory connection, from which everything written so far can be read. */
+    private static class Loopback {
+        final ByteArrayOutputStream written = new ByteArrayOutputStream();
+        int readPosition = 0;
+        final InputStream input = new InputStream() {
+            @Override
+            public int read() {
+                byte[] bytes = written.toByteArray();
+                return readPosition < bytes.length ? bytes[readPosition++] & 0xFF : -1;
+            }
+        };
+    }
+
+    BinaryWireCodec server;
+    BinaryWireCodec client;
+
+    @BeforeEach
+    public void connect() {
+        Loopback toClient = new Loopback();
+        Loopback toServer = new Loopback();
+        this.server = new BinaryWireCodec(toServer.input, toClient.written);
+        this.client = new BinaryWireCodec(toClient.input, toServer.written);
+    }
+
+    private IPlayerGameState state(List<RailCard> cards, int rails, Set<IRailConnection> owned,
+        List<IOpponentInfo> opponents) {
+        PlayerData data = new PlayerData(new TrainsPlayerHand(cards), rails,
+            new HashSet<>(List.of(new Destination(boston, seattle), new Destination(seattle, texas))),
+            new HashSet<>(owned));
+        return new PlayerGameState(data, opponents);
+    }
+
+    private WireMessage setUpGame(List<RailCard> cards) throws IOException {
+        this.server.writeSetup(this.map, 45, cards);
+        return this.client.readMessage();
+    }
+
+    @Test
+    public void testSetupRebuildsMap() throws IOException {
+        List<RailCard> cards = List.of(RailCard.WHITE, RailCard.RED, RailCard.BLUE, RailCard.GREEN,
+            RailCard.WHITE);
+        WireMessage setup = this.setUpGame(cards);
+
+        Assertions.assertEquals("setup", setup.name);
+        Assertions.assertEquals(45, (int) setup.numRails);
+        Assertions.assertEquals(cards, setup.cards);
+        Assertions.assertEquals(this.map.getRailConnections(), setup.map.getRailConnections());
+        Assertions.assertEquals(this.map.getMapDimension(), setup.map.getMapDimension());
+        for (int id = 0; id < this.map.getNumCities(); id += 1) {
+            ICity city = setup.map.getCityById(id);
+            Assertions.assertEquals(this.map.getCityById(id), city);
+            Assertions.assertEquals(this.map.getCityById(id).getRelativePosition(),
+                city.getRelativePosition());
+        }
+    }
+
+    @Test
+    public void testPlayMatchesJsonState() throws IOException {
+        this.setUpGame(List.of());
+        IPlayerGameState state = this.state(List.of(RailCard.RED, RailCard.RED, RailCard.WHITE), 7,
+            Set.of(this.blue), List.of(new OpponentInfo(Set.of(this.white, this.red)),
+                new OpponentInfo(Set.of())));
+        this.server.writePlay(state);
+        IPlayerGameState read = this.client.readMessage().state;
+
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        new JsonWireCodec(new JsonMessageCodec(InputStream.nullInputStream(), json))
+            .writePlay(state);
+        IPlayerGameState fromJson = new JsonWireCodec(new JsonMessageCodec(
+            new ByteArrayInputStream(json.toByteArray()), new ByteArrayOutputStream()))
+            .readMessage().state;
+
+        Assertions.assertEquals(fromJson.getNumRails(), read.getNumRails());
+        Assertions.assertEquals(fromJson.getCardsInHand(), read.getCardsInHand());
+        Assertions.assertEquals(fromJson.getOwnedConnections(), read.getOwnedConnections());
+    }
+
+    @Test
+    public void testResponsesRoundTrip() throws IOException {
+        this.setUpGame(List.of());
+        Set<Destination> rejected = Set.of(new Destination(austin, boston),
+            new Destination(texas, seattle));
+        this.client.writeDestinations(rejected);
+        Assertions.assertEquals(rejected, this.server.readDestinations());
+
+        this.client.writeTurnAction(TurnAction.createAcquireConnection(this.green));
+        TurnAction acquire = this.server.readTurnAction();
+        Assertions.assertEquals(Action.ACQUIRE_CONNECTION, acquire.getActionType());
+        Assertions.assertEquals(this.green, acquire.getRailConnection());
+
+        this.client.writeTurnAction(TurnAction.createDrawCards());
+        Assertions.assertEquals(Action.DRAW_CARDS, this.server.readTurnAction().getActionType());
+
+        this.client.writeVoid();
+        this.server.readVoid();
+    }
+
+    @Test
+    public void testStartHandshake() throws IOException {
+        this.server.writeStart(ProtocolExtensions.SUPPORTED);
+        WireMessage start = this.client.readMessage();
+        Assertions.assertEquals("start", start.name);
+        Assertions.assertEquals(ProtocolExtensions.SUPPORTED, start.extensions);
+
+        this.client.writeStartResponse(this.map, Set.of(ProtocolExtensions.BINARY_WIRE));
+        WireMessage response = this.server.readStartResponse();
+        Assertions.assertEquals(this.map.getRailConnections(), response.map.getRailConnections());
+        Assertions.assertEquals(Set.of(ProtocolExtensions.BINARY_WIRE), response.extensions);
+    }
+
+    @Test
+    public void testWrongLengthIsSentAsAsked() throws IOException {
+        this.setUpGame(List.of());
+        IRailConnection longerGreen =
+            new RailConnection(new UnorderedPair<>(seattle, texas), 5, RailColor.GREEN);
+        this.client.writeTurnAction(TurnAction.createAcquireConnection(longerGreen));
+        IRailConnection acquired = this.server.readTurnAction().getRailConnection();
+
+        // The referee sees the length the player asked for and rejects it, as with JSON
+        Assertions.assertEquals(5, acquired.getLength());
+        Assertions.assertEquals(this.green.getCities(), acquired.getCities());
+        Assertions.assertEquals(RailColor.GREEN, acquired.getColor());
+        Assertions.assertNotEquals(
+            this.map.getConnectionById(this.map.getConnectionId(acquired)).getLength(),
+            acquired.getLength());
+    }
+
+    @Test
+    public void testConnectionOutsideMapFailsToRead() throws IOException {
+        this.setUpGame(List.of());
+        ICity denver = new City("Denver", 0.5, 0.5);
+        IRailConnection unknown =
+            new RailConnection(new UnorderedPair<>(denver, texas), 3, RailColor.RED);
+        this.client.writeTurnAction(TurnAction.createAcquireConnection(unknown));
+        Assertions.assertThrows(IOException.class, () -> this.server.readTurnAction());
+
+        // Only that turn fails, the connection carries on
+        this.client.writeTurnAction(TurnAction.createDrawCards());
+        Assertions.assertEquals(Action.DRAW_CARDS, this.server.readTurnAction().getActionType());
+    }
+
+    @Test
+    public void testEndOfConnection() {
+        Assertions.assertThrows(NoSuchElementException.class, () -> this.client.readMessage());
+    }
+}
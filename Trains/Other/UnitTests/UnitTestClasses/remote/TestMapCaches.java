@@ -0,0 +1,92 @@
+package remote;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Set;
+import map.City;
+import map.ICity;
+import map.ITrainMap;
+import map.MapDimensions;
+import map.RailColor;
+import map.RailConnection;
+import map.TrainMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import utils.UnorderedPair;
+
+public class TestMapCaches {
+    private static ITrainMap map(double bostonX) {
+        ICity boston = new City("Boston", bostonX, 0.5);
+        ICity seattle = new City("Seattle", 0, 0);
+        ICity texas = new City("Texas", 0.5, 0.25);
+        return new TrainMap(Set.of(boston, seattle, texas),
+            Set.of(new RailConnection(new UnorderedPair<>(boston, seattle), 4, RailColor.BLUE),
+                new RailConnection(new UnorderedPair<>(seattle, texas), 3, RailColor.GREEN)),
+            new MapDimensions(800, 400));
+    }
+
+    @Test
+    public void testContentCacheEvictsLeastRecentlyUsed() {
+        ContentCache<String, Integer> cache = new ContentCache<>(2);
+        Assertions.assertEquals(1, (int) cache.get("a", (key) -> 1));
+        Assertions.assertEquals(2, (int) cache.get("b", (key) -> 2));
+        // Using "a" makes "b" the least recently used
+        Assertions.assertEquals(1, (int) cache.get("a", (key) -> -1));
+        cache.get("c", (key) -> 3);
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertEquals(1, (int) cache.get("a", (key) -> -1));
+        Assertions.assertEquals(-2, (int) cache.get("b", (key) -> -2));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ContentCache<>(0));
+    }
+
+    @Test
+    public void testMapContentKeyComparesPositions() {
+        MapContentKey key = new MapContentKey(map(0));
+        Assertions.assertEquals(key, new MapContentKey(map(0)));
+        Assertions.assertEquals(key.hashCode(), new MapContentKey(map(0)).hashCode());
+        // The maps' cities and connections are equal, only a position differs
+        Assertions.assertEquals(map(0).getRailConnections(), map(0.5).getRailConnections());
+        Assertions.assertNotEquals(key, new MapContentKey(map(0.5)));
+    }
+
+    @Test
+    public void testJsonSetupsShareOneParsedMap() throws IOException {
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        JsonWireCodec server =
+            new JsonWireCodec(new JsonMessageCodec(InputStream.nullInputStream(), written));
+        // Equal maps that are different objects, as from different tournaments
+        server.writeSetup(map(0), 45, List.of());
+        server.writeSetup(map(0), 45, List.of());
+        server.writeSetup(map(0.5), 45, List.of());
+
+        JsonWireCodec client = new JsonWireCodec(new JsonMessageCodec(
+            new ByteArrayInputStream(written.toByteArray()), new ByteArrayOutputStream()));
+        ITrainMap first = client.readMessage().map;
+        Assertions.assertSame(first, client.readMessage().map);
+        ITrainMap moved = client.readMessage().map;
+        Assertions.assertNotSame(first, moved);
+        Assertions.assertEquals(0.5,
+            (double) moved.getCityFromName("Boston").get().getRelativePosition().first);
+    }
+
+    @Test
+    public void testBinarySetupsShareOneDecodedMap() throws IOException {
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        BinaryWireCodec server = new BinaryWireCodec(InputStream.nullInputStream(), written);
+        server.writeSetup(map(0), 45, List.of());
+        server.writeSetup(map(0), 45, List.of());
+        server.writeSetup(map(0.5), 45, List.of());
+
+        BinaryWireCodec client = new BinaryWireCodec(
+            new ByteArrayInputStream(written.toByteArray()), new ByteArrayOutputStream());
+        ITrainMap first = client.readMessage().map;
+        Assertions.assertSame(first, client.readMessage().map);
+        ITrainMap moved = client.readMessage().map;
+        Assertions.assertNotSame(first, moved);
+        Assertions.assertEquals(0.5,
+            (double) moved.getCityFromName("Boston").get().getRelativePosition().first);
+    }
+}
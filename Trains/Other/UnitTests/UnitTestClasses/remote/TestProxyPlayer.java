@@ -15,6 +15,7 @@ import org.junit.jupiter.api.AfterEach;
 import remote.TrainsServer;
 import player.IPlayer;
 import player.MockRemotePlayer;
+import player.ProxyPlayer;
 import referee.IReferee;
 import referee.TrainsReferee;
 
@@ -22,14 +23,19 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.IntStream;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
@@ -37,6 +43,7 @@ import java.util.stream.Collectors;
 import com.google.gson.JsonParser;
 
 import json.MapJson;
+import utils.InteractionScheduler;
 
 /**
  * Tests for ProxyPlayer(s)
@@ -211,4 +218,46 @@ public class TestProxyPlayer {
             assertTrue(mock.numberOperations == 64 || mock.numberOperations == 68);
         }
     }
+
+    /**
+     * Calls tournamentStart on a ProxyPlayer whose client answers after the given delay, allowing
+     * the call the given time.
+     */
+    private Optional<ITrainMap> startWithSlowClient(long delayMillis, long timeOutMillis)
+        throws IOException {
+        try (ServerSocket server = new ServerSocket(0)) {
+            executor.submit(() -> {
+                try (Socket client = new Socket("localhost", server.getLocalPort())) {
+                    JsonWireCodec codec = new JsonWireCodec(new JsonMessageCodec(client));
+                    codec.readMessage();
+                    Thread.sleep(delayMillis);
+                    codec.writeStartResponse(map, Set.of());
+                    // Stay connected until the proxy is done with the response
+                    Thread.sleep(timeOutMillis);
+                }
+                return null;
+            });
+            IPlayer proxy = new ProxyPlayer(server.accept());
+            InteractionScheduler scheduler = new InteractionScheduler(1);
+            Optional<ITrainMap> response = scheduler.tryInteraction(
+                IPlayer::tournamentStart, proxy, timeOutMillis, TimeUnit.MILLISECONDS);
+            scheduler.shutdown();
+            return response;
+        }
+    }
+
+    @Test
+    public void testReadsLastAsLongAsTheCall() throws IOException {
+        // A call allowed 4 seconds gets all of them, past the 2 second default socket timeout
+        Optional<ITrainMap> response = this.startWithSlowClient(2500, 4000);
+        assertTrue(response.isPresent());
+        assertEquals(map.getRailConnections(), response.get().getRailConnections());
+    }
+
+    @Test
+    public void testReadsStopWhenTheCallTimesOut() throws IOException {
+        long start = System.nanoTime();
+        assertTrue(this.startWithSlowClient(2500, 500).isEmpty());
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(2000));
+    }
 }
@@ -0,0 +1,64 @@
+package remote;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for a TimerWheel.
+ */
+public class TestTimerWheel {
+    TimerWheel<String> wheel;
+
+    @BeforeEach
+    public void initWheel() {
+        wheel = new TimerWheel<>(10, 8, 1000);
+    }
+
+    @Test
+    public void testInvalidConstruction() {
+        assertThrows(IllegalArgumentException.class, () -> new TimerWheel<String>(0, 8, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TimerWheel<String>(10, 0, 0));
+    }
+
+    @Test
+    public void testExpiresOnlyPassedDeadlines() {
+        assertTrue(wheel.isEmpty());
+        wheel.schedule("a", 1030);
+        wheel.schedule("b", 1055);
+        assertFalse(wheel.isEmpty());
+
+        assertEquals(List.of(), wheel.expire(1029));
+        assertEquals(List.of("a"), wheel.expire(1030));
+        assertEquals(List.of(), wheel.expire(1055));
+        assertEquals(List.of("b"), wheel.expire(1060));
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    public void testDeadlinesBeyondOneRotation() {
+        // 8 slots of 10ms, so these land in the same slot on different rotations
+        wheel.schedule("soon", 1020);
+        wheel.schedule("later", 1100);
+        wheel.schedule("latest", 1500);
+
+        assertEquals(List.of("soon"), wheel.expire(1050));
+        assertEquals(List.of("later"), wheel.expire(1200));
+        assertEquals(List.of(), wheel.expire(1499));
+        assertEquals(List.of("latest"), wheel.expire(5000));
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    public void testPassedDeadlineExpiresNextTick() {
+        wheel.expire(1100);
+        wheel.schedule("late", 1000);
+        assertEquals(List.of("late"), wheel.expire(1110));
+    }
+}
@@ -0,0 +1,262 @@
+package remote;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+import manager.ITournamentManager;
+import manager.TournamentResult;
+import player.IPlayer;
+import player.Player;
+import strategy.Hold10;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Tests for a TournamentServer.
+ */
+public class TestTournamentServer {
+    public static final int PORT = 48755;
+
+    ExecutorService executor;
+    // The outcome of each finished tournament, in the order they finish
+    BlockingQueue<JsonElement> outcomes;
+    TournamentServer.ResultSink sink;
+
+    private static Runnable createNormalClient(int timeoutMilli, String name) {
+        return () -> {
+            new GivesNameAfterTimeoutClient("127.0.0.1", timeoutMilli, name);
+        };
+    }
+
+    private static void runClient(Runnable clientCreate) {
+        Thread thread = new Thread(clientCreate);
+        thread.start();
+    }
+
+    /**
+     * Creates a manager that makes every player a winner, after the given time.
+     */
+    private static Function<List<IPlayer>, ITournamentManager> everyoneWinsAfter(int millis) {
+        return (players) -> () -> {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new TournamentResult(new HashSet<>(players), new HashSet<>());
+        };
+    }
+
+    /**
+     * Creates a JSON outcome in which the given players win and nobody cheats.
+     */
+    private static JsonElement winners(String... names) {
+        StringBuilder outcome = new StringBuilder("[[");
+        for (int i = 0; i < names.length; i++) {
+            outcome.append(i == 0 ? "" : ",").append('"').append(names[i]).append('"');
+        }
+        return JsonParser.parseString(outcome.append("],[]]").toString());
+    }
+
+    /**
+     * One scripted call to startSignup.
+     */
+    @FunctionalInterface
+    private interface Signup {
+        List<IPlayer> signUp() throws IOException;
+    }
+
+    /**
+     * A sign up server that returns scripted batches of players instead of accepting connections.
+     * Once the script runs out, it waits for players that never come until it is shut down.
+     */
+    private static class ScriptedServer extends TrainsServer {
+        private final Queue<Signup> script = new LinkedList<>();
+        // Filled in on the serving thread, read by the tests
+        private final Map<IPlayer, String> names = new ConcurrentHashMap<>();
+
+        ScriptedServer() {
+            // Any free port, nothing connects to it
+            super(0, 100, 100);
+        }
+
+        /**
+         * Creates a batch of new players with the given names.
+         */
+        Signup batch(String... batchNames) {
+            return () -> {
+                List<IPlayer> players = new ArrayList<>();
+                for (String name : batchNames) {
+                    IPlayer player = new Player(new Hold10(), null);
+                    names.put(player, name);
+                    players.add(player);
+                }
+                return players;
+            };
+        }
+
+        @Override
+        public ArrayList<IPlayer> startSignup() throws IOException {
+            Signup next = script.poll();
+            if (next != null) {
+                return new ArrayList<>(next.signUp());
+            }
+            while (isOpen()) {
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            return new ArrayList<>();
+        }
+
+        @Override
+        public Map<IPlayer, String> getLookupTable() {
+            return names;
+        }
+    }
+
+    @BeforeEach
+    public void init() {
+        executor = Executors.newCachedThreadPool();
+        outcomes = new LinkedBlockingQueue<>();
+        sink = (tournament, outcome) -> outcomes.add(outcome);
+    }
+
+    @AfterEach
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testBatchesAndCarriedOverPlayers() throws InterruptedException {
+        TrainsServer signupServer = new TrainsServer(PORT, 500, 300);
+        TournamentServer server = new TournamentServer(signupServer, 2, everyoneWinsAfter(0), sink);
+        executor.submit(server::serve);
+
+        for (String name : List.of("Alice", "Bob", "Carol", "Dave", "Eve")) {
+            runClient(createNormalClient(50, name));
+        }
+        assertEquals(winners("Alice", "Bob", "Carol", "Dave", "Eve"),
+            outcomes.poll(5, TimeUnit.SECONDS));
+
+        // Too few to run on their own, so kept for the next sign up
+        runClient(createNormalClient(50, "Frank"));
+        Thread.sleep(1500);
+        assertTrue(outcomes.isEmpty());
+        runClient(createNormalClient(50, "Grace"));
+        assertEquals(winners("Frank", "Grace"), outcomes.poll(5, TimeUnit.SECONDS));
+
+        server.shutdown();
+    }
+
+    @Test
+    public void testConcurrentTournamentsAreLimited() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostRunning = new AtomicInteger();
+        ScriptedServer signupServer = new ScriptedServer();
+        for (int batch = 0; batch < 6; batch++) {
+            signupServer.script.add(signupServer.batch("Player"));
+        }
+        Function<List<IPlayer>, ITournamentManager> slowManager = (players) -> () -> {
+            mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            return new TournamentResult(new HashSet<>(players), new HashSet<>());
+        };
+        TournamentServer server = new TournamentServer(signupServer, 2, slowManager, sink);
+        executor.submit(server::serve);
+
+        for (int batch = 0; batch < 6; batch++) {
+            assertEquals(winners("Player"), outcomes.poll(5, TimeUnit.SECONDS));
+        }
+        assertEquals(2, mostRunning.get());
+        server.shutdown();
+    }
+
+    @Test
+    public void testFailedTournamentIsReportedAsError() throws InterruptedException {
+        ScriptedServer signupServer = new ScriptedServer();
+        signupServer.script.add(signupServer.batch("Alice"));
+        signupServer.script.add(signupServer.batch("Bob"));
+        Function<List<IPlayer>, ITournamentManager> failsForAlice = (players) -> {
+            if (signupServer.getLookupTable().get(players.get(0)).equals("Alice")) {
+                throw new IllegalArgumentException("not enough destinations");
+            }
+            return everyoneWinsAfter(0).apply(players);
+        };
+        TournamentServer server = new TournamentServer(signupServer, 1, failsForAlice, sink);
+        executor.submit(server::serve);
+
+        assertEquals(new JsonPrimitive("error: not enough destinations"),
+            outcomes.poll(5, TimeUnit.SECONDS));
+        // The failure does not stop the next tournament
+        assertEquals(winners("Bob"), outcomes.poll(5, TimeUnit.SECONDS));
+        server.shutdown();
+    }
+
+    @Test
+    public void testFailedSignupIsRetried() throws InterruptedException {
+        ScriptedServer signupServer = new ScriptedServer();
+        signupServer.script.add(() -> {
+            throw new IOException("Too many open files");
+        });
+        signupServer.script.add(signupServer.batch("Alice"));
+        TournamentServer server =
+            new TournamentServer(signupServer, 1, everyoneWinsAfter(0), sink, 10);
+        Future<?> serving = executor.submit(server::serve);
+
+        assertEquals(winners("Alice"), outcomes.poll(5, TimeUnit.SECONDS));
+        assertFalse(serving.isDone());
+        server.shutdown();
+    }
+
+    @Test
+    public void testShutdownLetsRunningTournamentsFinish() throws Exception {
+        ScriptedServer signupServer = new ScriptedServer();
+        signupServer.script.add(signupServer.batch("Alice"));
+        TournamentServer server = new TournamentServer(signupServer, 2, everyoneWinsAfter(500), sink);
+        Future<?> serving = executor.submit(server::serve);
+
+        Thread.sleep(100);
+        server.shutdown();
+        assertFalse(signupServer.isOpen());
+        assertNull(outcomes.peek());
+        // serve only returns once the running tournament has reported
+        serving.get(5, TimeUnit.SECONDS);
+        assertNotNull(outcomes.peek());
+        assertEquals(winners("Alice"), outcomes.poll());
+    }
+}
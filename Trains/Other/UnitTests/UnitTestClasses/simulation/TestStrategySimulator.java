@@ -0,0 +1,103 @@
+package simulation;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import map.City;
+import map.ICity;
+import map.IRailConnection;
+import map.ITrainMap;
+import map.RailColor;
+import map.RailConnection;
+import map.TrainMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import strategy.BuyNow;
+import strategy.Cheat;
+import strategy.Hold10;
+import strategy.IStrategy;
+import utils.UnorderedPair;
+
+/** A Set of unit tests for the StrategySimulator class. */
+public class TestStrategySimulator {
+  ITrainMap map;
+  LinkedHashMap<String, IStrategy> strategies;
+
+  @BeforeEach
+  public void init() {
+    ICity cityA = new City("A", 0.5, 0.5);
+    ICity cityB = new City("B", 0.2, 0.5);
+    ICity cityC = new City("C", 0.5, 0.8);
+    ICity cityD = new City("D", 0.2, 0.7);
+    ICity cityE = new City("E", 0.3, 0.7);
+    Set<ICity> cities = new HashSet<>();
+    cities.add(cityA);
+    cities.add(cityB);
+    cities.add(cityC);
+    cities.add(cityD);
+    cities.add(cityE);
+
+    Set<IRailConnection> rails = new HashSet<>();
+    rails.add(new RailConnection(new UnorderedPair<>(cityA, cityB), 4, RailColor.BLUE));
+    rails.add(new RailConnection(new UnorderedPair<>(cityA, cityB), 3, RailColor.RED));
+    rails.add(new RailConnection(new UnorderedPair<>(cityB, cityC), 3, RailColor.GREEN));
+    rails.add(new RailConnection(new UnorderedPair<>(cityA, cityD), 4, RailColor.WHITE));
+    rails.add(new RailConnection(new UnorderedPair<>(cityB, cityD), 5, RailColor.BLUE));
+    rails.add(new RailConnection(new UnorderedPair<>(cityD, cityC), 5, RailColor.BLUE));
+    rails.add(new RailConnection(new UnorderedPair<>(cityD, cityE), 4, RailColor.RED));
+    map = new TrainMap(cities, rails);
+
+    strategies = new LinkedHashMap<>();
+    strategies.put("Hold10", new Hold10());
+    strategies.put("BuyNow", new BuyNow());
+  }
+
+  @Test
+  public void testEveryStrategyPlaysEveryGame() {
+    SimulationReport report = new StrategySimulator(map, strategies, 2).simulate(20, 7);
+    Assertions.assertEquals(20, report.getNumGames());
+    for (StrategyStatistics statistics : report.getStatisticsByStrategy().values()) {
+      Assertions.assertEquals(20, statistics.getGamesPlayed());
+      Assertions.assertEquals(0, statistics.getRemovals());
+      Assertions.assertEquals(
+          20, statistics.getScoreDistribution().values().stream().mapToInt(n -> n).sum());
+    }
+    // Someone wins every game, possibly in a tie
+    int totalWins =
+        report.getStatisticsByStrategy().values().stream()
+            .mapToInt(StrategyStatistics::getWins)
+            .sum();
+    Assertions.assertTrue(totalWins >= 20);
+  }
+
+  @Test
+  public void testSameSeedSameReportRegardlessOfParallelism() {
+    SimulationReport sequential = new StrategySimulator(map, strategies, 1).simulate(12, 42);
+    SimulationReport parallel = new StrategySimulator(map, strategies, 4).simulate(12, 42);
+    for (String name : strategies.keySet()) {
+      StrategyStatistics expected = sequential.getStatisticsByStrategy().get(name);
+      StrategyStatistics actual = parallel.getStatisticsByStrategy().get(name);
+      Assertions.assertEquals(expected.getWins(), actual.getWins());
+      Assertions.assertEquals(expected.getScoreDistribution(), actual.getScoreDistribution());
+    }
+  }
+
+  @Test
+  public void testRemovedGamesHaveNoScore() {
+    strategies.put("Cheat", new Cheat());
+    SimulationReport report = new StrategySimulator(map, strategies, 2).simulate(5, 1);
+    StrategyStatistics cheat = report.getStatisticsByStrategy().get("Cheat");
+    Assertions.assertEquals(5, cheat.getGamesPlayed());
+    Assertions.assertEquals(
+        5 - cheat.getRemovals(),
+        cheat.getScoreDistribution().values().stream().mapToInt(n -> n).sum());
+  }
+
+  @Test
+  public void testInvalidNumberOfStrategies() {
+    strategies.remove("BuyNow");
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> new StrategySimulator(map, strategies));
+  }
+}
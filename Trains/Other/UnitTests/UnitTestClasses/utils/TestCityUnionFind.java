@@ -0,0 +1,65 @@
+package utils;
+
+import java.util.HashSet;
+import java.util.List;
+import map.City;
+import map.Destination;
+import map.ICity;
+import map.RailColor;
+import map.RailConnection;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import referee.PlayerData;
+import referee.TrainsPlayerHand;
+
+public class TestCityUnionFind {
+  private static ICity city(String name) {
+    return new City(name, 0, 0);
+  }
+
+  @Test
+  public void testUnionAndConnected() {
+    CityUnionFind cities = new CityUnionFind();
+    Assertions.assertTrue(cities.areConnected(city("A"), city("A")));
+    Assertions.assertFalse(cities.areConnected(city("A"), city("B")));
+
+    cities.union(city("A"), city("B"));
+    cities.union(city("C"), city("D"));
+    Assertions.assertTrue(cities.areConnected(city("B"), city("A")));
+    Assertions.assertFalse(cities.areConnected(city("A"), city("C")));
+
+    CityUnionFind copy = cities.copy();
+    cities.union(city("B"), city("C"));
+    Assertions.assertTrue(cities.areConnected(city("A"), city("D")));
+    Assertions.assertFalse(copy.areConnected(city("A"), city("D")));
+  }
+
+  @Test
+  public void testManyCities() {
+    // Enough cities to grow the backing arrays several times
+    CityUnionFind cities = new CityUnionFind();
+    for (int index = 1; index < 100; index += 1) {
+      cities.union(city("C" + (index - 1)), city("C" + index));
+    }
+    Assertions.assertTrue(cities.areConnected(city("C0"), city("C99")));
+    Assertions.assertFalse(cities.areConnected(city("C0"), city("C100")));
+  }
+
+  @Test
+  public void testPlayerDataTracksDestinations() {
+    Destination ac = new Destination(city("A"), city("C"));
+    Destination ad = new Destination(city("A"), city("D"));
+    PlayerData data = new PlayerData(new TrainsPlayerHand(List.of()), 10,
+        new HashSet<>(List.of(ac, ad)),
+        new HashSet<>(List.of(
+            new RailConnection(new UnorderedPair<>(city("A"), city("B")), 3, RailColor.RED))));
+    Assertions.assertEquals(0, data.getNumDestinationsConnected());
+
+    data.addOwnedConnection(
+        new RailConnection(new UnorderedPair<>(city("C"), city("B")), 4, RailColor.BLUE));
+    Assertions.assertTrue(data.isDestinationConnected(ac));
+    Assertions.assertFalse(data.isDestinationConnected(ad));
+    Assertions.assertEquals(1, data.getNumDestinationsConnected());
+    Assertions.assertEquals(2, data.getOwnedConnections().size());
+  }
+}
@@ -0,0 +1,248 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestInteractionScheduler {
+
+  @Test
+  public void testResponseIsReturned() {
+    InteractionScheduler scheduler = new InteractionScheduler(2);
+    Assertions.assertEquals(
+        Optional.of(4), scheduler.tryInteraction((n) -> n * 2, 2, 1, TimeUnit.SECONDS));
+    Assertions.assertEquals(1, scheduler.getCompletedCalls());
+    Assertions.assertEquals(0, scheduler.getFailedCalls());
+    scheduler.shutdown();
+  }
+
+  @Test
+  public void testExceptionIsEmpty() {
+    InteractionScheduler scheduler = new InteractionScheduler(2);
+    Assertions.assertEquals(
+        Optional.empty(),
+        scheduler.tryInteraction(
+            (n) -> {
+              throw new IllegalStateException();
+            },
+            2,
+            1,
+            TimeUnit.SECONDS));
+    Assertions.assertEquals(1, scheduler.getFailedCalls());
+    scheduler.shutdown();
+  }
+
+  @Test
+  public void testTimeOutInterruptsAndFreesThread() {
+    InteractionScheduler scheduler = new InteractionScheduler(1);
+    Assertions.assertEquals(
+        Optional.empty(),
+        scheduler.tryInteraction(
+            (n) -> {
+              try {
+                Thread.sleep(100000);
+              } catch (InterruptedException e) {
+                return -1;
+              }
+              return n;
+            },
+            2,
+            50,
+            TimeUnit.MILLISECONDS));
+    // The only worker was interrupted, so it is free for the next call
+    Assertions.assertEquals(
+        Optional.of(3), scheduler.tryInteraction((n) -> n + 1, 2, 1, TimeUnit.SECONDS));
+    Assertions.assertTrue(scheduler.getMaxLatencyNanos() >= TimeUnit.MILLISECONDS.toNanos(50));
+    scheduler.shutdown();
+  }
+
+  @Test
+  public void testThreadsAreReusedAndBounded() {
+    InteractionScheduler scheduler = new InteractionScheduler(3);
+    for (int call = 0; call < 100; call += 1) {
+      scheduler.tryInteraction((n) -> n, call, 1, TimeUnit.SECONDS);
+    }
+    Assertions.assertEquals(100, scheduler.getCompletedCalls());
+    Assertions.assertTrue(scheduler.getLiveThreads() <= 3);
+    scheduler.shutdown();
+  }
+
+  @Test
+  public void testInlineRunsOnCallingThread() {
+    InteractionScheduler scheduler = InteractionScheduler.inline();
+    Thread caller = Thread.currentThread();
+    Assertions.assertEquals(
+        Optional.of(true),
+        scheduler.tryInteraction((n) -> Thread.currentThread() == caller, 2, 1, TimeUnit.SECONDS));
+    Assertions.assertEquals(
+        Optional.empty(),
+        scheduler.tryInteraction(
+            (n) -> {
+              throw new IllegalStateException();
+            },
+            2,
+            1,
+            TimeUnit.SECONDS));
+    Assertions.assertEquals(1, scheduler.getCompletedCalls());
+    Assertions.assertEquals(1, scheduler.getFailedCalls());
+    Assertions.assertEquals(0, scheduler.getLiveThreads());
+  }
+
+  @Test
+  public void testManyInteractionsRunAtOnce() {
+    InteractionScheduler scheduler = new InteractionScheduler(4);
+    long start = System.nanoTime();
+    List<Optional<Integer>> results =
+        scheduler.tryInteractions(
+            (n) -> {
+              try {
+                // Each call takes most of the timeout, so calling them in turn would time out
+                Thread.sleep(n == 2 ? 100000 : 300);
+              } catch (InterruptedException e) {
+                return -1;
+              }
+              return n;
+            },
+            List.of(0, 1, 2, 3),
+            1,
+            TimeUnit.SECONDS);
+    Assertions.assertEquals(
+        List.of(Optional.of(0), Optional.of(1), Optional.empty(), Optional.of(3)), results);
+    Assertions.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+    Assertions.assertEquals(3, scheduler.getCompletedCalls());
+    Assertions.assertEquals(1, scheduler.getFailedCalls());
+    scheduler.shutdown();
+  }
+
+  /** Sleeps for the given time, ignoring interrupts the way a player blocked on a socket does. */
+  private static void sleepThroughInterrupts(long millis) {
+    long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+    while (System.nanoTime() < end) {
+      try {
+        Thread.sleep(Math.max(1, TimeUnit.NANOSECONDS.toMillis(end - System.nanoTime())));
+      } catch (InterruptedException e) {
+        // Keep going
+      }
+    }
+  }
+
+  @Test
+  public void testTimeOutStartsWhenCallStarts() throws InterruptedException, ExecutionException {
+    InteractionScheduler scheduler = new InteractionScheduler(1);
+    ExecutorService callers = Executors.newFixedThreadPool(3);
+    List<Future<Optional<Integer>>> results = new ArrayList<>();
+    for (int caller = 0; caller < 3; caller += 1) {
+      int n = caller;
+      // Each call takes most of its timeout, so the calls queued behind it would be late if their
+      // time in the queue counted
+      results.add(callers.submit(() -> scheduler.tryInteraction(
+          (m) -> {
+            sleepThroughInterrupts(200);
+            return m;
+          },
+          n,
+          400,
+          TimeUnit.MILLISECONDS)));
+    }
+    for (int caller = 0; caller < 3; caller += 1) {
+      Assertions.assertEquals(Optional.of(caller), results.get(caller).get());
+    }
+    Assertions.assertEquals(3, scheduler.getCompletedCalls());
+    callers.shutdown();
+    scheduler.shutdown();
+  }
+
+  @Test
+  public void testAbandonedCallIsReplaced() {
+    InteractionScheduler scheduler = new InteractionScheduler(1);
+    Assertions.assertEquals(
+        Optional.empty(),
+        scheduler.tryInteraction(
+            (n) -> {
+              sleepThroughInterrupts(1000);
+              return n;
+            },
+            2,
+            50,
+            TimeUnit.MILLISECONDS));
+    // The only worker is still held by the abandoned call, so the next call runs on a new one
+    long start = System.nanoTime();
+    Assertions.assertEquals(
+        Optional.of(3), scheduler.tryInteraction((n) -> n + 1, 2, 100, TimeUnit.MILLISECONDS));
+    Assertions.assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+    Assertions.assertEquals(2, scheduler.getLiveThreads());
+    scheduler.shutdown();
+  }
+
+  @Test
+  public void testMoreInteractionsThanWorkers() {
+    InteractionScheduler scheduler = new InteractionScheduler(2);
+    // Six calls on two workers run in three waves, the last starting well after its timeout would
+    // have passed if it were measured from the first call
+    List<Optional<Integer>> results =
+        scheduler.tryInteractions(
+            (n) -> {
+              sleepThroughInterrupts(200);
+              return n;
+            },
+            List.of(0, 1, 2, 3, 4, 5),
+            300,
+            TimeUnit.MILLISECONDS);
+    Assertions.assertEquals(
+        List.of(Optional.of(0), Optional.of(1), Optional.of(2), Optional.of(3), Optional.of(4),
+            Optional.of(5)),
+        results);
+    Assertions.assertEquals(6, scheduler.getCompletedCalls());
+    scheduler.shutdown();
+  }
+
+  @Test
+  public void testTimeLeftInCall() {
+    InteractionScheduler scheduler = new InteractionScheduler(1);
+    Assertions.assertEquals(Optional.empty(), InteractionScheduler.getTimeLeftInCallNanos());
+    Optional<Long> timeLeft =
+        scheduler.tryInteraction(
+            (n) -> InteractionScheduler.getTimeLeftInCallNanos().get(), 0, 3, TimeUnit.SECONDS);
+    Assertions.assertTrue(timeLeft.get() > 0);
+    Assertions.assertTrue(timeLeft.get() <= TimeUnit.SECONDS.toNanos(3));
+    scheduler.shutdown();
+  }
+
+  @Test
+  public void testStuckBackgroundCallIsAbandoned() {
+    InteractionScheduler scheduler = new InteractionScheduler(1);
+    scheduler.runInBackground((n) -> sleepThroughInterrupts(1000), 0, 50, TimeUnit.MILLISECONDS);
+    sleepThroughInterrupts(150);
+    // The background call still holds the only worker, but it was replaced once abandoned
+    long start = System.nanoTime();
+    Assertions.assertEquals(
+        Optional.of(3), scheduler.tryInteraction((n) -> n + 1, 2, 100, TimeUnit.MILLISECONDS));
+    Assertions.assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+    Assertions.assertEquals(2, scheduler.getLiveThreads());
+    // Background calls are not counted
+    Assertions.assertEquals(1, scheduler.getCompletedCalls());
+    Assertions.assertEquals(0, scheduler.getFailedCalls());
+    scheduler.shutdown();
+  }
+
+  @Test
+  public void testCancelledBackgroundCallNeverStarts() {
+    InteractionScheduler scheduler = new InteractionScheduler(1);
+    AtomicBoolean ran = new AtomicBoolean();
+    scheduler.runInBackground((n) -> sleepThroughInterrupts(200), 0, 1, TimeUnit.SECONDS);
+    Future<?> queued =
+        scheduler.runInBackground((n) -> ran.set(true), 0, 1, TimeUnit.SECONDS);
+    Assertions.assertTrue(queued.cancel(false));
+    sleepThroughInterrupts(400);
+    Assertions.assertFalse(ran.get());
+    scheduler.shutdown();
+  }
+}
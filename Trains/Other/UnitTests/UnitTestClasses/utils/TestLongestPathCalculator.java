@@ -0,0 +1,106 @@
+package utils;
+
+import com.google.common.collect.Iterators;
+import java.util.Iterator;
+import java.util.Random;
+import org.jgrapht.Graph;
+import org.jgrapht.GraphPath;
+import org.jgrapht.alg.shortestpath.YenShortestPathIterator;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleWeightedGraph;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestLongestPathCalculator {
+
+  @Test
+  public void testEmptyAndSingleEdge() {
+    Assertions.assertEquals(0, LongestPathCalculator.longestPathLength(graph(0)));
+    Assertions.assertEquals(0, LongestPathCalculator.longestPathLength(graph(3)));
+
+    Graph<String, DefaultWeightedEdge> single = graph(2);
+    edge(single, 0, 1, 4);
+    Assertions.assertEquals(4, LongestPathCalculator.longestPathLength(single));
+  }
+
+  @Test
+  public void testCycleCannotRepeatVertex() {
+    // A triangle 0-1-2 with a tail 2-3: the longest simple path goes around two sides of the
+    // triangle and down the tail
+    Graph<String, DefaultWeightedEdge> graph = graph(4);
+    edge(graph, 0, 1, 5);
+    edge(graph, 1, 2, 3);
+    edge(graph, 2, 0, 4);
+    edge(graph, 2, 3, 1);
+    Assertions.assertEquals(10, LongestPathCalculator.longestPathLength(graph));
+  }
+
+  @Test
+  public void testStarUsesTwoLongestArms() {
+    // A path can only pass through the center once, so it uses at most two arms
+    Graph<String, DefaultWeightedEdge> graph = graph(5);
+    edge(graph, 0, 1, 3);
+    edge(graph, 0, 2, 5);
+    edge(graph, 0, 3, 4);
+    edge(graph, 0, 4, 1);
+    Assertions.assertEquals(9, LongestPathCalculator.longestPathLength(graph));
+  }
+
+  @Test
+  public void testDisconnectedComponents() {
+    Graph<String, DefaultWeightedEdge> graph = graph(5);
+    edge(graph, 0, 1, 3);
+    edge(graph, 2, 3, 4);
+    edge(graph, 3, 4, 4);
+    Assertions.assertEquals(8, LongestPathCalculator.longestPathLength(graph));
+  }
+
+  @Test
+  public void testMatchesPathEnumerationOnRandomGraphs() {
+    Random random = new Random(1234);
+    for (int trial = 0; trial < 100; trial += 1) {
+      int numVertices = 2 + random.nextInt(7);
+      Graph<String, DefaultWeightedEdge> graph = graph(numVertices);
+      for (int first = 0; first < numVertices; first += 1) {
+        for (int second = first + 1; second < numVertices; second += 1) {
+          if (random.nextInt(3) == 0) {
+            edge(graph, first, second, 3 + random.nextInt(3));
+          }
+        }
+      }
+      Assertions.assertEquals(
+          enumeratedLongestPathLength(graph), LongestPathCalculator.longestPathLength(graph));
+    }
+  }
+
+  /** The brute-force enumeration of every path between every pair of vertices. */
+  private static int enumeratedLongestPathLength(Graph<String, DefaultWeightedEdge> graph) {
+    int best = 0;
+    for (String first : graph.vertexSet()) {
+      for (String second : graph.vertexSet()) {
+        if (first.compareTo(second) < 0) {
+          Iterator<GraphPath<String, DefaultWeightedEdge>> paths =
+              new YenShortestPathIterator<>(graph, first, second);
+          if (paths.hasNext()) {
+            best = Math.max(best, (int) Iterators.getLast(paths).getWeight());
+          }
+        }
+      }
+    }
+    return best;
+  }
+
+  private static Graph<String, DefaultWeightedEdge> graph(int numVertices) {
+    Graph<String, DefaultWeightedEdge> graph = new SimpleWeightedGraph<>(DefaultWeightedEdge.class);
+    for (int vertex = 0; vertex < numVertices; vertex += 1) {
+      graph.addVertex(Integer.toString(vertex));
+    }
+    return graph;
+  }
+
+  private static void edge(Graph<String, DefaultWeightedEdge> graph, int first, int second,
+      int weight) {
+    DefaultWeightedEdge edge = graph.addEdge(Integer.toString(first), Integer.toString(second));
+    graph.setEdgeWeight(edge, weight);
+  }
+}
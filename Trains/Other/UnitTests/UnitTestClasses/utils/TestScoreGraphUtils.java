@@ -12,8 +12,10 @@ import map.City;
 import map.Destination;
 import map.ICity;
 import map.IRailConnection;
+import map.ITrainMap;
 import map.RailColor;
 import map.RailConnection;
+import map.TrainMap;
 import org.jgrapht.Graph;
 import org.jgrapht.graph.DefaultWeightedEdge;
 import org.junit.jupiter.api.Assertions;
@@ -58,6 +60,36 @@ public class TestScoreGraphUtils {
                 ScoreGraphUtils.occupiedConnectionsToGraph(p1))));
   }
 
+  @Test
+  public void testCalculateLongestPathLengthOnMapIds() {
+    // A-B-C-D in a line, with a second, longer A-B connection, and E-F apart from the rest
+    Set<IRailConnection> owned =
+        new HashSet<>(
+            Arrays.asList(
+                rail("A", "B", 3, RailColor.RED),
+                rail("A", "B", 5, RailColor.BLUE),
+                rail("C", "B", 4, RailColor.RED),
+                rail("C", "D", 3, RailColor.GREEN),
+                rail("E", "F", 5, RailColor.WHITE)));
+    Set<ICity> cities =
+        Arrays.asList("A", "B", "C", "D", "E", "F", "G").stream()
+            .map(TestScoreGraphUtils::city)
+            .collect(Collectors.toSet());
+    ITrainMap map = new TrainMap(cities, owned);
+
+    Assertions.assertEquals(12, ScoreGraphUtils.calculateLongestPathLength(owned, map));
+    Assertions.assertEquals(
+        ScoreGraphUtils.calculateLongestPathLength(
+            ScoreGraphUtils.occupiedConnectionsToGraph(owned)),
+        ScoreGraphUtils.calculateLongestPathLength(owned, map));
+    Assertions.assertEquals(0, ScoreGraphUtils.calculateLongestPathLength(new HashSet<>(), map));
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            ScoreGraphUtils.calculateLongestPathLength(
+                Set.of(rail("A", "H", 3, RailColor.RED)), map));
+  }
+
   private static Graph<String, DefaultWeightedEdge> empty() {
     return ScoreGraphUtils.occupiedConnectionsToGraph(new HashSet<>());
   }
@@ -0,0 +1,69 @@
+package utils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestTimingPolicy {
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  @Test
+  public void testPerCallOnly() {
+    ITimingPolicy policy = TimingPolicy.perCall(2, TimeUnit.SECONDS);
+    IGameClock<String> clock = policy.startGame(List.of("a", "b"));
+    Assertions.assertEquals(2 * SECOND, policy.getCallLimitNanos());
+    Assertions.assertEquals(2 * SECOND, clock.getTimeAllowedNanos("a"));
+    // Without a time bank, no amount of time used runs a player out
+    Assertions.assertTrue(clock.charge("a", 1000 * SECOND));
+    Assertions.assertEquals(2 * SECOND, clock.getTimeAllowedNanos("a"));
+    Assertions.assertFalse(clock.isExpired());
+  }
+
+  @Test
+  public void testTimeBankWithIncrement() {
+    ITimingPolicy policy =
+        new TimingPolicy.TimingPolicyBuilder(2, TimeUnit.SECONDS)
+            .timeBank(3, TimeUnit.SECONDS)
+            .increment(500, TimeUnit.MILLISECONDS)
+            .build();
+    IGameClock<String> clock = policy.startGame(List.of("a", "b"));
+    Assertions.assertEquals(2 * SECOND, clock.getTimeAllowedNanos("a"));
+
+    // 3s - 2s + 0.5s leaves 1.5s, which is less than the per-call limit
+    Assertions.assertTrue(clock.charge("a", 2 * SECOND));
+    Assertions.assertEquals(3 * SECOND / 2, clock.getTimeAllowedNanos("a"));
+    Assertions.assertEquals(2 * SECOND, clock.getTimeAllowedNanos("b"));
+
+    Assertions.assertFalse(clock.charge("a", 3 * SECOND / 2));
+    Assertions.assertEquals(0, clock.getTimeAllowedNanos("a"));
+    Assertions.assertTrue(clock.charge("b", SECOND));
+  }
+
+  @Test
+  public void testGameDeadline() throws InterruptedException {
+    ITimingPolicy policy =
+        new TimingPolicy.TimingPolicyBuilder(2, TimeUnit.SECONDS)
+            .gameDeadline(100, TimeUnit.MILLISECONDS)
+            .build();
+    IGameClock<String> clock = policy.startGame(List.of("a", "b"));
+    Assertions.assertTrue(clock.getTimeAllowedNanos("a") <= TimeUnit.MILLISECONDS.toNanos(100));
+    Assertions.assertFalse(clock.isExpired());
+    Thread.sleep(150);
+    Assertions.assertTrue(clock.isExpired());
+    Assertions.assertEquals(0, clock.getTimeAllowedNanos("b"));
+  }
+
+  @Test
+  public void testInvalidUse() {
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> TimingPolicy.perCall(0, TimeUnit.SECONDS));
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () -> new TimingPolicy.TimingPolicyBuilder(1, TimeUnit.SECONDS)
+            .increment(-1, TimeUnit.SECONDS));
+    IGameClock<String> clock = TimingPolicy.perCall(1, TimeUnit.SECONDS).startGame(List.of("a"));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> clock.getTimeAllowedNanos("b"));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> clock.charge("a", -1));
+  }
+}
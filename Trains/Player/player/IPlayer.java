@@ -58,6 +58,28 @@ public interface IPlayer {
    */
   TurnAction takeTurn(IPlayerGameState playerGameState);
 
+  /**
+   * Gives the player a preview of the state they will receive on their next turn, so they can
+   * prepare for it while the player before them takes their turn. The preview is missing whatever
+   * that player changes during their turn. This may be called on a different thread than the other
+   * methods, at the same time as them; the player does not need to respond and does nothing by
+   * default.
+   * @param upcomingState the state of the game from this player's perspective before the turn of
+   *                      the player before them.
+   */
+  default void prepareTurn(IPlayerGameState upcomingState) {
+  }
+
+  /**
+   * Determines whether this player does anything with prepareTurn, so that a referee only builds
+   * and sends previews for players that use them. Players that override prepareTurn should
+   * override this to return true.
+   * @return whether this player uses the preview given to prepareTurn, false by default.
+   */
+  default boolean usesTurnPreview() {
+    return false;
+  }
+
   /**
    * Informs the player of the cards drawn as a result of drawing cards on takeTurn(). The cards do
    * not need to be stored since they will appear in the next game state for the next call on takeTurn().
@@ -2,12 +2,12 @@ package strategy;
 
 import game_state.IPlayerGameState;
 import game_state.RailCard;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import map.ConnectionIdSet;
 import map.Destination;
 import map.IRailConnection;
 import map.ITrainMap;
@@ -86,30 +86,30 @@ public abstract class AStrategy implements IStrategy {
   private static Set<IRailConnection> calculateAcquirableConnections(
       IPlayerGameState currentPlayerGameState, ITrainMap map) {
 
-    Predicate<IRailConnection> canAffordConnection =
-        (railConnection) ->
-            AStrategy.canAfford(
-                currentPlayerGameState.getCardsInHand(),
-                currentPlayerGameState.getNumRails(),
-                railConnection);
-    return currentPlayerGameState.calculateUnoccupiedConnections(map).stream()
-        .filter(canAffordConnection)
-        .collect(Collectors.toSet());
+    // Filtered by id, so that no connection is hashed to build the set
+    BitSet acquirable = currentPlayerGameState.calculateUnoccupiedConnectionIds(map);
+    for (int id = acquirable.nextSetBit(0); id >= 0; id = acquirable.nextSetBit(id + 1)) {
+      if (!AStrategy.canAfford(currentPlayerGameState, map.getConnectionById(id))) {
+        acquirable.clear(id);
+      }
+    }
+    return new ConnectionIdSet(map, acquirable);
   }
 
   /**
    * Determines if the given hand of cards can be used to purchase the given IRailConnection.
    *
-   * @param cardsInHand the hand of cards to query.
+   * @param currentPlayerGameState the state whose hand of cards and rails to query.
    * @param railConnection the connection in question.
    * @return true if connection can be acquired, false otherwise.
    */
   private static boolean canAfford(
-      Map<RailCard, Integer> cardsInHand, int numRails, IRailConnection railConnection) {
+      IPlayerGameState currentPlayerGameState, IRailConnection railConnection) {
     boolean enoughCards =
-        cardsInHand.get(RailCardUtils.railCardFromColor(railConnection.getColor()))
+        currentPlayerGameState.getNumCardsOfType(
+                RailCardUtils.railCardFromColor(railConnection.getColor()))
             >= railConnection.getLength();
-    boolean enoughRails = numRails >= railConnection.getLength();
+    boolean enoughRails = currentPlayerGameState.getNumRails() >= railConnection.getLength();
     return enoughCards && enoughRails;
   }
 
@@ -2,7 +2,6 @@ package strategy;
 
 import game_state.IPlayerGameState;
 import game_state.RailCard;
-import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -65,7 +64,6 @@ public class Hold10 extends AStrategy {
     protected boolean chooseDrawCards(
         Set<IRailConnection> affordableConnections, IPlayerGameState currentPlayerGameState,
         Set<Destination> chosenDestinations) {
-        Collection<Integer> cardCounts = currentPlayerGameState.getCardsInHand().values();
-        return cardCounts.stream().mapToInt(Integer::intValue).sum() <= 10;
+        return currentPlayerGameState.getTotalNumCards() <= 10;
     }
 }
@@ -2,22 +2,12 @@ package player;
 
 
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
 import java.net.Socket;
-import java.util.HashSet;
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.Set;
-import java.util.stream.Collectors;
 import java.util.Optional;
-
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonStreamParser;
-import com.google.gson.JsonElement;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import game_state.IPlayerGameState;
 import game_state.RailCard;
@@ -25,13 +15,13 @@ import map.Destination;
 import map.ITrainMap;
 import player.IPlayer;
 import strategy.TurnAction;
-import utils.CommunicationUtils;
-import remote.TrainsServer;
-import json.CardStarJson;
-import json.MapJson;
-import json.PlayerStateJson;
-import json.DestinationJson;
-import json.TurnActionJson;
+import remote.BinaryWireCodec;
+import remote.IWireCodec;
+import remote.JsonMessageCodec;
+import remote.JsonWireCodec;
+import remote.ProtocolExtensions;
+import remote.WireMessage;
+import utils.InteractionScheduler;
 
 /**
  * Represents a player proxy that contains a socket and implements the IPlayer interface.
@@ -39,43 +29,32 @@ import json.TurnActionJson;
 public class ProxyPlayer implements IPlayer {
 
     private static final int MAX_PLAYER_NAME_LENGTH = 50;
-    private static final int SOCKET_TIMEOUT = 2000;
+    // How long a read may block outside a call timed by an InteractionScheduler
+    private static final int DEFAULT_SOCKET_TIMEOUT = 2000;
     private Socket socket;
-    private OutputStreamWriter proxyOut;
-    private JsonStreamParser proxyIn;
-    private Gson gson;
-    private ITrainMap map;
+    // The JSON format every connection starts with
+    private JsonWireCodec jsonCodec;
+    // The format of every other message, which the handshake may switch to binary
+    private volatile IWireCodec codec;
     
     public ProxyPlayer(Socket socket) {
         this.socket = socket;
 
         try {
-            socket.setSoTimeout(SOCKET_TIMEOUT);
-            proxyOut = new OutputStreamWriter(socket.getOutputStream());
-            proxyIn = new JsonStreamParser(new InputStreamReader(socket.getInputStream()));
+            socket.setSoTimeout(DEFAULT_SOCKET_TIMEOUT);
+            jsonCodec = new JsonWireCodec(new JsonMessageCodec(socket));
+            codec = jsonCodec;
         } catch (IOException e) {
             e.printStackTrace();
         }
-
-        gson = (new GsonBuilder()).setPrettyPrinting().create();
-        map = null;
     }
 
     @Override
     public void setup(ITrainMap map, int numRails, List<RailCard> cards) {
-        this.map = map;
-        JsonArray wrapper = new JsonArray();
-        JsonArray args = new JsonArray();
-
-        args.add(MapJson.mapToJson(map));
-        args.add(numRails);
-        args.add(CardStarJson.cardsToJson(cards));
-        wrapper.add("setup");
-        wrapper.add(args);
         try {
-            proxyOut.write(gson.toJson(wrapper));
-            proxyOut.flush();
-            JsonElement response = proxyIn.next();
+            this.limitReadsToCall();
+            codec.writeSetup(map, numRails, cards);
+            codec.readVoid();
         } catch (NoSuchElementException e) {
             e.printStackTrace();
         } catch (IOException e) {
@@ -86,26 +65,10 @@ public class ProxyPlayer implements IPlayer {
 
     @Override
     public Set<Destination> chooseDestinations(Set<Destination> options) {
-        List<JsonArray> destinations = options.stream().map(DestinationJson::destinationToJson).collect(Collectors.toList());
-
-        JsonArray wrapper = new JsonArray();
-        JsonArray args = new JsonArray();
-        JsonArray destinationsPlus = new JsonArray();
-        destinations.forEach(destinationsPlus::add);
-        args.add(destinationsPlus);
-        wrapper.add("pick");
-        wrapper.add(args);
-
         try {
-            proxyOut.write(gson.toJson(wrapper));
-            proxyOut.flush();
-            JsonElement response = proxyIn.next();
-            JsonArray allDestinations = response.getAsJsonArray();
-            Set<Destination> returnedDestinations = new HashSet<Destination>();
-            for(JsonElement destination : allDestinations) {
-                returnedDestinations.add(DestinationJson.destinationFromJson(destination.getAsJsonArray(), map));
-            }
-            return returnedDestinations;
+            this.limitReadsToCall();
+            codec.writePick(options);
+            return codec.readDestinations();
         } catch (NoSuchElementException e) {
             //TIMEOUT
         } catch (IOException e) {
@@ -116,18 +79,10 @@ public class ProxyPlayer implements IPlayer {
 
     @Override
     public TurnAction takeTurn(IPlayerGameState playerGameState) {
-        
-        JsonObject message = PlayerStateJson.playerStateToJson(playerGameState);
-        JsonArray wrapper = new JsonArray();
-        JsonArray args = new JsonArray();
-        args.add(message);
-        wrapper.add("play");
-        wrapper.add(args);
         try {
-            proxyOut.write(gson.toJson(wrapper));
-            proxyOut.flush();
-            JsonElement response = proxyIn.next();
-            return TurnActionJson.turnActionFromJson(response, map);
+            this.limitReadsToCall();
+            codec.writePlay(playerGameState);
+            return codec.readTurnAction();
         } catch (NoSuchElementException e) {
             //TIMEOUT
         } catch (IOException e) {
@@ -136,19 +91,26 @@ public class ProxyPlayer implements IPlayer {
         throw new RuntimeException("take turn failed"); 
     }
 
+    /**
+     * Encodes the parts of the upcoming state ahead of time, so that sending the state of this
+     * player's turn only encodes what changed during the turn before it.
+     */
     @Override
-    public void receiveCards(List<RailCard> drawnCards) {
-        JsonArray message = CardStarJson.cardsToJson(drawnCards);
-        JsonArray wrapper = new JsonArray();
-        JsonArray args = new JsonArray();
-        args.add(message);
-        wrapper.add("more");
-        wrapper.add(args);
+    public void prepareTurn(IPlayerGameState upcomingState) {
+        codec.preparePlay(upcomingState);
+    }
 
+    @Override
+    public boolean usesTurnPreview() {
+        return true;
+    }
+
+    @Override
+    public void receiveCards(List<RailCard> drawnCards) {
         try {
-            proxyOut.write(gson.toJson(wrapper));
-            proxyOut.flush();
-            JsonElement response = proxyIn.next();
+            this.limitReadsToCall();
+            codec.writeMore(drawnCards);
+            codec.readVoid();
         } catch (NoSuchElementException e) {
             //TIMEOUT
         } catch (IOException e) {
@@ -159,16 +121,10 @@ public class ProxyPlayer implements IPlayer {
 
     @Override
     public void winNotification(boolean thisPlayerWon) {
-        JsonArray wrapper = new JsonArray();
-        JsonArray args = new JsonArray();
-        args.add(thisPlayerWon);
-        wrapper.add("win");
-        wrapper.add(args);
-
         try {
-            proxyOut.write(gson.toJson(wrapper));
-            proxyOut.flush();
-            JsonElement response = proxyIn.next();
+            this.limitReadsToCall();
+            codec.writeResult("win", thisPlayerWon);
+            codec.readVoid();
         } catch (NoSuchElementException e) {
             //TIMEOUT            
         } catch (IOException e) {
@@ -179,18 +135,20 @@ public class ProxyPlayer implements IPlayer {
 
     @Override
     public ITrainMap tournamentStart() {
-        JsonArray wrapper = new JsonArray();
-        JsonArray args = new JsonArray();
-        wrapper.add("start");
-        //Satisfy message spec, earlier in course boolean arg of start was declared optional
-        args.add(true);
-        wrapper.add(args);
-
         try {
-            proxyOut.write(gson.toJson(wrapper));
-            proxyOut.flush();
-            JsonElement response = proxyIn.next();
-            return MapJson.mapFromJson(response);
+            this.limitReadsToCall();
+            //The optional second argument offers protocol extensions, see ProtocolExtensions
+            codec.writeStart(ProtocolExtensions.SUPPORTED);
+            WireMessage response = codec.readStartResponse();
+            // Only the first handshake switches formats, later ones stay in the negotiated one
+            if (codec == jsonCodec) {
+                if (response.extensions.contains(ProtocolExtensions.BINARY_WIRE)) {
+                    codec = new BinaryWireCodec(socket);
+                } else if (response.extensions.contains(ProtocolExtensions.DELTA_PLAY)) {
+                    jsonCodec.enableDeltaPlay();
+                }
+            }
+            return response.map;
         } catch (NoSuchElementException e) {
             //TIMEOUT
         } catch (IOException e) {
@@ -201,16 +159,10 @@ public class ProxyPlayer implements IPlayer {
 
     @Override
     public void tournamentResult(boolean winner) {
-        JsonArray wrapper = new JsonArray();
-        JsonArray args = new JsonArray();
-        args.add(winner);
-        wrapper.add("end");
-        wrapper.add(args);
-
         try {
-            proxyOut.write(gson.toJson(wrapper));
-            proxyOut.flush();
-            JsonElement response = proxyIn.next();
+            this.limitReadsToCall();
+            codec.writeResult("end", winner);
+            codec.readVoid();
         } catch (NoSuchElementException e) {
             //TIMEOUT
         } catch (IOException e) {
@@ -218,4 +170,20 @@ public class ProxyPlayer implements IPlayer {
         }
         throw new RuntimeException("tournament result failed"); 
     }
+
+    /**
+     * Lets reads block for as long as the current call has left, so that the player gets all of the
+     * time their clock allows, however long that is, and a read stops when the call times out
+     * instead of holding its worker.
+     */
+    private void limitReadsToCall() throws IOException {
+        Optional<Long> timeLeft = InteractionScheduler.getTimeLeftInCallNanos();
+        if (timeLeft.isPresent()) {
+            // A timeout of 0 would block forever, so a call out of time gets the shortest one
+            long millis = TimeUnit.NANOSECONDS.toMillis(timeLeft.get()) + 1;
+            socket.setSoTimeout((int) Math.max(1, Math.min(Integer.MAX_VALUE, millis)));
+        } else {
+            socket.setSoTimeout(DEFAULT_SOCKET_TIMEOUT);
+        }
+    }
 }
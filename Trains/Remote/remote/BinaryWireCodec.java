@@ -0,0 +1,674 @@
+package remote;
+
+import game_state.IOpponentInfo;
+import game_state.IPlayerGameState;
+import game_state.RailCard;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import json.PlayerStateJson;
+import map.City;
+import map.Destination;
+import map.ICity;
+import map.IRailConnection;
+import map.ITrainMap;
+import map.MapDimensions;
+import map.RailColor;
+import map.RailConnection;
+import map.TrainMap;
+import strategy.Action;
+import strategy.TurnAction;
+import utils.UnorderedPair;
+
+/**
+ * A compact binary format of the remote protocol, used on connections that negotiated the
+ * "binary-wire" extension.
+ *
+ * <p>Every message and response is a frame: a 4-byte big-endian length followed by that many
+ * bytes. A message starts with one byte for its type; responses have none, since the expected
+ * response is always known. Numbers are unsigned varints, 7 bits per byte, and strings are a
+ * varint length followed by UTF-8.
+ *
+ * <p>"setup" carries the map once per game as a length-prefixed dictionary: the dimensions, every
+ * city's name and pixel position in order of its id, then every connection in order of its id as
+ * the ids of its two cities, its color and its length. Each distinct map is encoded once and each
+ * distinct dictionary is decoded once per process, so every game of a tournament after the first
+ * reuses them. TrainMap gives cities and connections dense ids that only
+ * depend on the map's contents, so the map rebuilt from the dictionary numbers them the same way,
+ * and every later message refers to cities and connections by id. Lists of cards are packed four
+ * to a byte and hands are sent as one count per color.
+ *
+ * <p>Writing "play" states reuses the encoding of every set of acquired connections that is shared
+ * with the last state written or prepared, and may be prepared on another thread. Preparing
+ * encodes without holding this codec's lock, so writing a state never waits for it, and a
+ * preparation that a setup or state written overlaps is dropped.
+ */
+public class BinaryWireCodec implements IWireCodec {
+    // A bound on the length of a frame, to reject a corrupt length before allocating for it
+    private static final int MAX_FRAME_LENGTH = 1 << 24;
+
+    private static final byte SETUP = 1;
+    private static final byte PICK = 2;
+    private static final byte PLAY = 3;
+    private static final byte MORE = 4;
+    private static final byte WIN = 5;
+    private static final byte END = 6;
+    private static final byte START = 7;
+
+    // The kinds of turn action
+    private static final byte DRAW_CARDS = 0;
+    private static final byte ACQUIRE = 1;
+    private static final byte ACQUIRE_OFF_MAP = 2;
+
+    // The most distinct maps whose encoding or decoding is kept
+    private static final int MAP_CACHE_CAPACITY = 8;
+    // Shared by every connection, since a tournament sends the same map to every player
+    private static final ContentCache<MapContentKey, byte[]> ENCODED_MAPS =
+        new ContentCache<>(MAP_CACHE_CAPACITY);
+    private static final ContentCache<ByteBuffer, ITrainMap> DECODED_MAPS =
+        new ContentCache<>(MAP_CACHE_CAPACITY);
+
+    private static final RailCard[] CARDS = RailCard.values();
+    private static final RailColor[] COLORS = RailColor.values();
+
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final ByteArrayOutputStream frame = new ByteArrayOutputStream();
+    private ITrainMap map;
+    // The encoding of each set of connections in the last state written or prepared, by identity.
+    // Replaced rather than changed, so a preparation can read it once and encode without the lock
+    private Map<Set<IRailConnection>, byte[]> encodedConnections = new IdentityHashMap<>();
+    // The number of setups and states written, so that a preparation can tell whether one
+    // overlapped it
+    private int playsWritten = 0;
+
+    /**
+     * Constructs this codec over the streams of the given socket.
+     * @param socket the connection to the other side
+     * @throws IOException if the socket's streams cannot be opened
+     */
+    public BinaryWireCodec(Socket socket) throws IOException {
+        this(socket.getInputStream(), socket.getOutputStream());
+    }
+
+    /**
+     * Constructs this codec over the given streams.
+     * @param input the stream frames are read from
+     * @param output the stream frames are written to
+     */
+    public BinaryWireCodec(InputStream input, OutputStream output) {
+        this.in = new DataInputStream(new BufferedInputStream(input));
+        this.out = new DataOutputStream(new BufferedOutputStream(output));
+    }
+
+    @Override
+    public void writeStart(Set<String> offeredExtensions) throws IOException {
+        this.beginFrame(START);
+        writeStrings(this.frame, offeredExtensions);
+        this.sendFrame();
+    }
+
+    @Override
+    public WireMessage readStartResponse() throws IOException {
+        ByteBuffer response = this.readFrame();
+        return this.parse(() -> {
+            ITrainMap map = readMap(response);
+            return WireMessage.startResponse(map, readStrings(response));
+        });
+    }
+
+    @Override
+    public synchronized void writeSetup(ITrainMap map, int numRails, List<RailCard> cards)
+        throws IOException {
+        this.map = map;
+        this.encodedConnections = new IdentityHashMap<>();
+        this.playsWritten += 1;
+        this.beginFrame(SETUP);
+        writeMap(this.frame, map);
+        writeVarInt(this.frame, numRails);
+        writeCards(this.frame, cards);
+        this.sendFrame();
+    }
+
+    @Override
+    public void writePick(Set<Destination> options) throws IOException {
+        this.beginFrame(PICK);
+        this.writeDestinationList(options);
+        this.sendFrame();
+    }
+
+    @Override
+    public synchronized void writePlay(IPlayerGameState state) throws IOException {
+        this.playsWritten += 1;
+        Map<Set<IRailConnection>, byte[]> previous = this.encodedConnections;
+        Map<Set<IRailConnection>, byte[]> encoded = new IdentityHashMap<>();
+        this.beginFrame(PLAY);
+        writeVarInt(this.frame, state.getNumRails());
+        for (RailCard card : CARDS) {
+            writeVarInt(this.frame, state.getNumCardsOfType(card));
+        }
+        this.writeDestinationList(state.getDestinations());
+        this.frame.writeBytes(encodeOnce(this.map, previous, encoded, state.getOwnedConnections()));
+        List<IOpponentInfo> opponents = state.getOpponentInfo();
+        writeVarInt(this.frame, opponents.size());
+        for (IOpponentInfo opponent : opponents) {
+            this.frame.writeBytes(encodeOnce(this.map, previous, encoded, opponent.getOwnedConnections()));
+        }
+        this.sendFrame();
+        this.encodedConnections = encoded;
+    }
+
+    /**
+     * Encodes the sets of acquired connections of the given state, so that the state of the
+     * player's turn only encodes the sets that changed since, as PlayerStateEncoder does for JSON.
+     */
+    @Override
+    public void preparePlay(IPlayerGameState upcomingState) {
+        ITrainMap map;
+        Map<Set<IRailConnection>, byte[]> previous;
+        int writtenBefore;
+        synchronized (this) {
+            map = this.map;
+            previous = this.encodedConnections;
+            writtenBefore = this.playsWritten;
+        }
+        Map<Set<IRailConnection>, byte[]> encoded = new IdentityHashMap<>();
+        encodeOnce(map, previous, encoded, upcomingState.getOwnedConnections());
+        for (IOpponentInfo opponent : upcomingState.getOpponentInfo()) {
+            encodeOnce(map, previous, encoded, opponent.getOwnedConnections());
+        }
+        synchronized (this) {
+            if (this.playsWritten == writtenBefore) {
+                this.encodedConnections = encoded;
+            }
+        }
+    }
+
+    @Override
+    public void writeMore(List<RailCard> cards) throws IOException {
+        this.beginFrame(MORE);
+        writeCards(this.frame, cards);
+        this.sendFrame();
+    }
+
+    @Override
+    public void writeResult(String name, boolean won) throws IOException {
+        this.beginFrame(name.equals("win") ? WIN : END);
+        this.frame.write(won ? 1 : 0);
+        this.sendFrame();
+    }
+
+    @Override
+    public void readVoid() throws IOException {
+        this.readFrame();
+    }
+
+    @Override
+    public Set<Destination> readDestinations() throws IOException {
+        ByteBuffer response = this.readFrame();
+        return this.parse(() -> this.readDestinationList(response));
+    }
+
+    @Override
+    public TurnAction readTurnAction() throws IOException {
+        ByteBuffer response = this.readFrame();
+        return this.parse(() -> {
+            switch (response.get()) {
+                case DRAW_CARDS:
+                    return TurnAction.createDrawCards();
+                case ACQUIRE:
+                    ICity first = this.map.getCityById(readVarInt(response));
+                    ICity second = this.map.getCityById(readVarInt(response));
+                    RailColor color = COLORS[response.get()];
+                    int length = readVarInt(response);
+                    return TurnAction.createAcquireConnection(
+                        new RailConnection(new UnorderedPair<>(first, second), length, color));
+                case ACQUIRE_OFF_MAP:
+                    // The JSON format fails to read such a connection the same way
+                    throw new IOException("The acquired connection is not in the map.");
+                default:
+                    throw new IOException("Unknown turn action.");
+            }
+        });
+    }
+
+    @Override
+    public WireMessage readMessage() throws IOException {
+        ByteBuffer message = this.readFrame();
+        return this.parse(() -> {
+            byte type = message.get();
+            switch (type) {
+                case START:
+                    return WireMessage.start(readStrings(message));
+                case SETUP:
+                    this.map = readMap(message);
+                    int numRails = readVarInt(message);
+                    return WireMessage.setup(this.map, numRails, readCards(message));
+                case PICK:
+                    return WireMessage.pick(this.readDestinationList(message));
+                case PLAY:
+                    return WireMessage.play(this.readPlayerState(message));
+                case MORE:
+                    return WireMessage.more(readCards(message));
+                case WIN:
+                    return WireMessage.result("win", message.get() != 0);
+                case END:
+                    return WireMessage.result("end", message.get() != 0);
+                default:
+                    return WireMessage.unknown(Byte.toString(type));
+            }
+        });
+    }
+
+    @Override
+    public void writeStartResponse(ITrainMap map, Set<String> acceptedExtensions)
+        throws IOException {
+        this.frame.reset();
+        writeMap(this.frame, map);
+        writeStrings(this.frame, acceptedExtensions);
+        this.sendFrame();
+    }
+
+    @Override
+    public void writeVoid() throws IOException {
+        this.frame.reset();
+        this.sendFrame();
+    }
+
+    @Override
+    public void writeDestinations(Set<Destination> rejected) throws IOException {
+        this.frame.reset();
+        this.writeDestinationList(rejected);
+        this.sendFrame();
+    }
+
+    /**
+     * Writes the given action as one byte for its kind, followed for an acquisition by the ids of
+     * the connection's cities, its color and its length. The connection is written as the player
+     * gave it rather than as the id of a connection in the map, so that the referee checks exactly
+     * what the player asked for, as it does with the JSON format. An acquisition between cities
+     * that are not in the map is written as such, and fails to read.
+     */
+    @Override
+    public void writeTurnAction(TurnAction action) throws IOException {
+        this.frame.reset();
+        if (action.getActionType() == Action.DRAW_CARDS) {
+            this.frame.write(DRAW_CARDS);
+        } else {
+            IRailConnection connection = action.getRailConnection();
+            int first = this.map.getCityId(connection.getCities().first);
+            int second = this.map.getCityId(connection.getCities().second);
+            if (first < 0 || second < 0) {
+                this.frame.write(ACQUIRE_OFF_MAP);
+            } else {
+                this.frame.write(ACQUIRE);
+                writeVarInt(this.frame, first);
+                writeVarInt(this.frame, second);
+                this.frame.write(connection.getColor().ordinal());
+                writeVarInt(this.frame, connection.getLength());
+            }
+        }
+        this.sendFrame();
+    }
+
+    /** Parses part of a frame, which is a malformed frame if it runs out of bytes. */
+    @FunctionalInterface
+    private interface FrameParser<T> {
+        T parse() throws IOException;
+    }
+
+    /**
+     * Runs the given parser, reporting a frame that is too short or refers to cities or
+     * connections that are not in the map as an IOException.
+     */
+    private <T> T parse(FrameParser<T> parser) throws IOException {
+        try {
+            return parser.parse();
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Malformed frame.", e);
+        }
+    }
+
+    /**
+     * Starts a message of the given type, discarding anything left of a frame that failed.
+     */
+    private void beginFrame(byte type) {
+        this.frame.reset();
+        this.frame.write(type);
+    }
+
+    /**
+     * Writes the frame built so far.
+     */
+    private void sendFrame() throws IOException {
+        this.out.writeInt(this.frame.size());
+        this.frame.writeTo(this.out);
+        this.out.flush();
+    }
+
+    /**
+     * Reads the next frame, blocking until it arrives.
+     * @throws NoSuchElementException if the connection has ended
+     * @throws IOException if reading fails or times out, or the frame is too long
+     */
+    private ByteBuffer readFrame() throws IOException {
+        int length;
+        try {
+            length = this.in.readInt();
+        } catch (EOFException e) {
+            throw new NoSuchElementException("The connection has ended.");
+        }
+        if (length < 0 || length > MAX_FRAME_LENGTH) {
+            throw new IOException("Invalid frame length " + length + ".");
+        }
+        byte[] payload = new byte[length];
+        this.in.readFully(payload);
+        return ByteBuffer.wrap(payload);
+    }
+
+    /**
+     * Gets the id of the given connection in the given map.
+     */
+    private static int connectionId(ITrainMap map, IRailConnection connection)
+        throws IllegalArgumentException {
+        int id = map.getConnectionId(connection);
+        if (id < 0) {
+            throw new IllegalArgumentException("The connection is not in the map.");
+        }
+        return id;
+    }
+
+    /**
+     * Gets the id of the given city in the current map.
+     */
+    private int cityId(ICity city) throws IllegalArgumentException {
+        int id = this.map.getCityId(city);
+        if (id < 0) {
+            throw new IllegalArgumentException("The city is not in the map.");
+        }
+        return id;
+    }
+
+    /**
+     * Gets the encoding of the given connections in the given map, reusing the one in the previous
+     * encodings for the same set if there is one, and records it in the given encodings.
+     */
+    private static byte[] encodeOnce(ITrainMap map, Map<Set<IRailConnection>, byte[]> previous,
+        Map<Set<IRailConnection>, byte[]> encoded, Set<IRailConnection> connections) {
+        byte[] bytes = previous.get(connections);
+        if (bytes == null) {
+            bytes = encodeConnectionList(map, connections);
+        }
+        encoded.put(connections, bytes);
+        return bytes;
+    }
+
+    /**
+     * Encodes a set of connections as its size followed by the ids in increasing order, each
+     * written as its gap from the one before, which keeps most of them to one byte.
+     */
+    private static byte[] encodeConnectionList(ITrainMap map, Set<IRailConnection> connections) {
+        int[] ids = new int[connections.size()];
+        int index = 0;
+        for (IRailConnection connection : connections) {
+            ids[index] = connectionId(map, connection);
+            index += 1;
+        }
+        Arrays.sort(ids);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        writeVarInt(buffer, ids.length);
+        int previous = -1;
+        for (int id : ids) {
+            writeVarInt(buffer, id - previous - 1);
+            previous = id;
+        }
+        return buffer.toByteArray();
+    }
+
+    private Set<IRailConnection> readConnectionList(ByteBuffer buffer) {
+        int size = readVarInt(buffer);
+        Set<IRailConnection> connections = new HashSet<>();
+        int id = -1;
+        for (int i = 0; i < size; i += 1) {
+            id += readVarInt(buffer) + 1;
+            connections.add(this.map.getConnectionById(id));
+        }
+        return connections;
+    }
+
+    private void writeDestinationList(Set<Destination> destinations) {
+        writeVarInt(this.frame, destinations.size());
+        for (Destination destination : destinations) {
+            writeVarInt(this.frame, this.cityId(destination.first));
+            writeVarInt(this.frame, this.cityId(destination.second));
+        }
+    }
+
+    private Set<Destination> readDestinationList(ByteBuffer buffer) {
+        int size = readVarInt(buffer);
+        Set<Destination> destinations = new HashSet<>();
+        for (int i = 0; i < size; i += 1) {
+            ICity first = this.map.getCityById(readVarInt(buffer));
+            ICity second = this.map.getCityById(readVarInt(buffer));
+            destinations.add(new Destination(first, second));
+        }
+        return destinations;
+    }
+
+    /**
+     * Reads a "play" state, built the same as PlayerStateJson.playerStateFromJson builds it.
+     */
+    private IPlayerGameState readPlayerState(ByteBuffer buffer) {
+        int numRails = readVarInt(buffer);
+        Map<RailCard, Integer> cardsInHand = new EnumMap<>(RailCard.class);
+        for (RailCard card : CARDS) {
+            cardsInHand.put(card, readVarInt(buffer));
+        }
+        // Destinations are part of the message but not of the state a player receives
+        this.readDestinationList(buffer);
+        Set<IRailConnection> occupiedConnections = this.readConnectionList(buffer);
+        int numOpponents = readVarInt(buffer);
+        for (int i = 0; i < numOpponents; i += 1) {
+            occupiedConnections.addAll(this.readConnectionList(buffer));
+        }
+        return PlayerStateJson.playerStateFromParts(cardsInHand, numRails, occupiedConnections);
+    }
+
+    /**
+     * Writes the dictionary of the given map, preceded by its length so that a reader can find the
+     * map it already rebuilt from the same bytes. Each distinct map is only encoded once.
+     */
+    private static void writeMap(ByteArrayOutputStream buffer, ITrainMap map) {
+        byte[] dictionary =
+            ENCODED_MAPS.get(new MapContentKey(map), (key) -> encodeMap(key.getMap()));
+        writeVarInt(buffer, dictionary.length);
+        buffer.writeBytes(dictionary);
+    }
+
+    /**
+     * Reads the dictionary of a map, returning the map already rebuilt from the same bytes if there
+     * is one.
+     */
+    private static ITrainMap readMap(ByteBuffer buffer) {
+        int length = readVarInt(buffer);
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        int start = buffer.arrayOffset() + buffer.position();
+        ByteBuffer dictionary =
+            ByteBuffer.wrap(Arrays.copyOfRange(buffer.array(), start, start + length));
+        buffer.position(buffer.position() + length);
+        return DECODED_MAPS.get(dictionary, (key) -> decodeMap(key.duplicate()));
+    }
+
+    /**
+     * Encodes the dictionary of the given map. Positions are written in pixels, as in the JSON
+     * format, so that both formats rebuild the same map.
+     */
+    private static byte[] encodeMap(ITrainMap map) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        MapDimensions dimensions = map.getMapDimension();
+        writeVarInt(buffer, dimensions.getWidth());
+        writeVarInt(buffer, dimensions.getHeight());
+
+        writeVarInt(buffer, map.getNumCities());
+        for (int id = 0; id < map.getNumCities(); id += 1) {
+            ICity city = map.getCityById(id);
+            writeString(buffer, city.getName());
+            writeVarInt(buffer, (int) (city.getRelativePosition().first * dimensions.getWidth()));
+            writeVarInt(buffer, (int) (city.getRelativePosition().second * dimensions.getHeight()));
+        }
+
+        writeVarInt(buffer, map.getNumConnections());
+        for (int id = 0; id < map.getNumConnections(); id += 1) {
+            IRailConnection connection = map.getConnectionById(id);
+            writeVarInt(buffer, map.getCityId(connection.getCities().first));
+            writeVarInt(buffer, map.getCityId(connection.getCities().second));
+            buffer.write(connection.getColor().ordinal());
+            writeVarInt(buffer, connection.getLength());
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Rebuilds a map from its dictionary.
+     */
+    private static ITrainMap decodeMap(ByteBuffer buffer) {
+        int width = readVarInt(buffer);
+        int height = readVarInt(buffer);
+
+        List<ICity> cities = new ArrayList<>();
+        int numCities = readVarInt(buffer);
+        for (int id = 0; id < numCities; id += 1) {
+            String name = readString(buffer);
+            int x = readVarInt(buffer);
+            int y = readVarInt(buffer);
+            cities.add(new City(name, ((double) x) / ((double) width),
+                ((double) y) / ((double) height)));
+        }
+
+        Set<IRailConnection> connections = new HashSet<>();
+        int numConnections = readVarInt(buffer);
+        for (int id = 0; id < numConnections; id += 1) {
+            ICity first = cities.get(readVarInt(buffer));
+            ICity second = cities.get(readVarInt(buffer));
+            RailColor color = COLORS[buffer.get()];
+            int length = readVarInt(buffer);
+            connections.add(new RailConnection(new UnorderedPair<>(first, second), length, color));
+        }
+
+        return new TrainMap(new HashSet<>(cities), connections, new MapDimensions(width, height));
+    }
+
+    /**
+     * Writes a list of cards as its size followed by the cards in order, 2 bits each.
+     */
+    private static void writeCards(ByteArrayOutputStream buffer, List<RailCard> cards) {
+        writeVarInt(buffer, cards.size());
+        int packed = 0;
+        for (int i = 0; i < cards.size(); i += 1) {
+            packed |= cards.get(i).ordinal() << (2 * (i % 4));
+            if (i % 4 == 3) {
+                buffer.write(packed);
+                packed = 0;
+            }
+        }
+        if (cards.size() % 4 != 0) {
+            buffer.write(packed);
+        }
+    }
+
+    private static List<RailCard> readCards(ByteBuffer buffer) {
+        int size = readVarInt(buffer);
+        List<RailCard> cards = new ArrayList<>(size);
+        int packed = 0;
+        for (int i = 0; i < size; i += 1) {
+            if (i % 4 == 0) {
+                packed = buffer.get();
+            }
+            cards.add(CARDS[(packed >> (2 * (i % 4))) & 3]);
+        }
+        return cards;
+    }
+
+    private static void writeStrings(ByteArrayOutputStream buffer, Set<String> values) {
+        writeVarInt(buffer, values.size());
+        for (String value : values) {
+            writeString(buffer, value);
+        }
+    }
+
+    private static Set<String> readStrings(ByteBuffer buffer) {
+        int size = readVarInt(buffer);
+        Set<String> values = new HashSet<>();
+        for (int i = 0; i < size; i += 1) {
+            values.add(readString(buffer));
+        }
+        return values;
+    }
+
+    private static void writeString(ByteArrayOutputStream buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(buffer, bytes.length);
+        buffer.write(bytes, 0, bytes.length);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = readVarInt(buffer);
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value = new String(
+            buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    /**
+     * Writes a non-negative number as an unsigned varint.
+     */
+    private static void writeVarInt(ByteArrayOutputStream buffer, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Cannot write a negative number.");
+        }
+        while (value >= 0x80) {
+            buffer.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer.write(value);
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte next = buffer.get();
+            value |= (next & 0x7F) << shift;
+            if (next >= 0) {
+                if (value < 0) {
+                    break;
+                }
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint.");
+    }
+}
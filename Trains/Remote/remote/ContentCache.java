@@ -0,0 +1,58 @@
+package remote;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A bounded cache of values computed from keys that are compared by content, shared by every
+ * connection in the process. Once full, the least recently used entry is evicted, so a
+ * long-running server that sees many different maps keeps only the recent ones.
+ *
+ * @param <K> the type of keys, whose equals and hashCode compare content
+ * @param <V> the type of cached values, which must be immutable since they are shared
+ */
+public class ContentCache<K, V> {
+    private final Map<K, V> entries;
+
+    /**
+     * Constructs an empty cache.
+     * @param capacity the most entries kept at once
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public ContentCache(int capacity) throws IllegalArgumentException {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be positive.");
+        }
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return this.size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Gets the value cached for the given key, computing and caching it first if there is none.
+     * A value that fails to compute is not cached.
+     * @param key the key
+     * @param compute computes the value of a key that is not cached
+     * @return the value for the key
+     */
+    public synchronized V get(K key, Function<? super K, ? extends V> compute) {
+        V value = this.entries.get(key);
+        if (value == null) {
+            value = compute.apply(key);
+            this.entries.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Gets the number of entries cached.
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+}
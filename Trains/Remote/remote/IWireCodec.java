@@ -0,0 +1,80 @@
+package remote;
+
+import game_state.IPlayerGameState;
+import game_state.RailCard;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import map.Destination;
+import map.ITrainMap;
+import strategy.TurnAction;
+
+/**
+ * Encodes and decodes the messages exchanged over one connection between a ProxyPlayer, which
+ * writes the admin's calls and reads the player's responses, and a ProxyAdmin, which reads the
+ * calls and writes the responses.
+ *
+ * <p>A codec tracks the map of the current game from the "setup" message it writes or reads, so
+ * that later messages can refer to the map's cities and connections. Every connection starts out
+ * speaking JSON, and the first "start" handshake may switch it to another format, which then
+ * carries every later message including any later "start".
+ */
+public interface IWireCodec {
+
+    /** Writes a "start" message, offering the given protocol extensions. */
+    void writeStart(Set<String> offeredExtensions) throws IOException;
+
+    /** Reads the response to "start" as a message with the map and the extensions accepted. */
+    WireMessage readStartResponse() throws IOException;
+
+    /** Writes a "setup" message, remembering the map for the rest of the game. */
+    void writeSetup(ITrainMap map, int numRails, List<RailCard> cards) throws IOException;
+
+    /** Writes a "pick" message offering the given destinations. */
+    void writePick(Set<Destination> options) throws IOException;
+
+    /** Writes a "play" message with the given state. */
+    void writePlay(IPlayerGameState state) throws IOException;
+
+    /** Writes a "more" message with the given drawn cards. */
+    void writeMore(List<RailCard> cards) throws IOException;
+
+    /** Writes a "win" or "end" message, whose name is given, with whether the player won. */
+    void writeResult(String name, boolean won) throws IOException;
+
+    /** Reads the response to a message that expects nothing back. */
+    void readVoid() throws IOException;
+
+    /** Reads the destinations rejected in response to "pick". */
+    Set<Destination> readDestinations() throws IOException;
+
+    /** Reads the turn action in response to "play". */
+    TurnAction readTurnAction() throws IOException;
+
+    /**
+     * Reads the next message sent by the admin side.
+     * @return the decoded message
+     * @throws IOException if reading fails or the message is malformed
+     */
+    WireMessage readMessage() throws IOException;
+
+    /** Writes the response to "start", with the extensions accepted from the offer. */
+    void writeStartResponse(ITrainMap map, Set<String> acceptedExtensions) throws IOException;
+
+    /** Writes the response to a message that expects nothing back. */
+    void writeVoid() throws IOException;
+
+    /** Writes the destinations rejected in response to "pick". */
+    void writeDestinations(Set<Destination> rejected) throws IOException;
+
+    /** Writes the turn action in response to "play". */
+    void writeTurnAction(TurnAction action) throws IOException;
+
+    /**
+     * Does any work for writing the given state that can be done before the player's turn, such as
+     * encoding the parts of it that will not change. Does nothing by default.
+     * @param upcomingState a preview of the next state to write
+     */
+    default void preparePlay(IPlayerGameState upcomingState) {
+    }
+}
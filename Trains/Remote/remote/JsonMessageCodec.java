@@ -0,0 +1,107 @@
+package remote;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads and writes the JSON values exchanged over one connection between a ProxyPlayer and a
+ * ProxyAdmin.
+ *
+ * <p>Values are written as compact JSON straight to a buffered stream, without building a tree of
+ * JsonElements first, and the stream is flushed once per value. Values are read one at a time from
+ * a single buffered reader that lives as long as the connection.
+ */
+public class JsonMessageCodec {
+
+    /** Writes one JSON value to a JsonWriter. */
+    @FunctionalInterface
+    public interface ValueWriter {
+        void write(JsonWriter out) throws IOException;
+    }
+
+    private final JsonWriter out;
+    private final JsonReader in;
+
+    /**
+     * Constructs this codec over the streams of the given socket.
+     *
+     * @param socket the connection to the other side.
+     * @throws IOException if the socket's streams cannot be opened.
+     */
+    public JsonMessageCodec(Socket socket) throws IOException {
+        this(socket.getInputStream(), socket.getOutputStream());
+    }
+
+    /**
+     * Constructs this codec over the given streams.
+     *
+     * @param input the stream values are read from.
+     * @param output the stream values are written to.
+     */
+    public JsonMessageCodec(InputStream input, OutputStream output) {
+        this.out = new JsonWriter(
+            new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8)));
+        // Lenient so that one connection can carry many top-level values
+        this.out.setLenient(true);
+        this.in = new JsonReader(
+            new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+        this.in.setLenient(true);
+    }
+
+    /**
+     * Writes a message of the form [name, [arg, ...]] and flushes it.
+     *
+     * @param name the name of the message.
+     * @param args writers for each of the message's arguments, in order.
+     * @throws IOException if writing to the connection fails.
+     */
+    public void writeMessage(String name, ValueWriter... args) throws IOException {
+        this.out.beginArray();
+        this.out.value(name);
+        this.out.beginArray();
+        for (ValueWriter arg : args) {
+            arg.write(this.out);
+        }
+        this.out.endArray();
+        this.out.endArray();
+        this.out.flush();
+    }
+
+    /**
+     * Writes a single value and flushes it.
+     *
+     * @param value the writer for the value.
+     * @throws IOException if writing to the connection fails.
+     */
+    public void writeValue(ValueWriter value) throws IOException {
+        value.write(this.out);
+        this.out.flush();
+    }
+
+    /**
+     * Reads the next value from the connection, blocking until one arrives.
+     *
+     * @return the next value.
+     * @throws NoSuchElementException if the connection has ended.
+     * @throws IOException if reading from the connection fails or times out.
+     */
+    public JsonElement readValue() throws IOException {
+        if (this.in.peek() == JsonToken.END_DOCUMENT) {
+            throw new NoSuchElementException("The connection has ended.");
+        }
+        return JsonParser.parseReader(this.in);
+    }
+}
@@ -0,0 +1,280 @@
+package remote;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonWriter;
+import game_state.IPlayerGameState;
+import game_state.RailCard;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import json.CardStarJson;
+import json.DestinationJson;
+import json.MapJson;
+import json.PlayerStateDeltaReader;
+import json.PlayerStateDeltaWriter;
+import json.PlayerStateEncoder;
+import json.PlayerStateJson;
+import json.TurnActionJson;
+import map.Destination;
+import map.ITrainMap;
+import strategy.TurnAction;
+
+/**
+ * The JSON format of the remote protocol, in which every message is a JSON array of the form
+ * [name, [arg, ...]] and every response is a single JSON value.
+ *
+ * <p>Every connection starts out in this format, so this codec also carries the "start" handshake
+ * that negotiates the protocol extensions, see ProtocolExtensions. Once the delta "play" extension
+ * has been negotiated, {@link #enableDeltaPlay()} switches "play" messages to deltas.
+ *
+ * <p>Maps are encoded once per distinct map and parsed once per distinct JSON, in caches shared by
+ * every connection of the process, so the games of a tournament after the first only pay for a
+ * lookup. The JSON text itself is still parsed into a tree for every message.
+ */
+public class JsonWireCodec implements IWireCodec {
+    private static final JsonMessageCodec.ValueWriter VOID = out -> out.value("void");
+    // The most distinct maps whose encoding or parse is kept
+    private static final int MAP_CACHE_CAPACITY = 8;
+    // Shared by every connection, since a tournament sends the same map to every player
+    private static final ContentCache<MapContentKey, String> ENCODED_MAPS =
+        new ContentCache<>(MAP_CACHE_CAPACITY);
+    private static final ContentCache<JsonElement, ITrainMap> PARSED_MAPS =
+        new ContentCache<>(MAP_CACHE_CAPACITY);
+
+    private final JsonMessageCodec messages;
+    private ITrainMap map;
+    // Reuses the encoding of connections that have not changed since the player's last state
+    private final PlayerStateEncoder stateEncoder = new PlayerStateEncoder();
+    private final PlayerStateDeltaWriter deltaWriter = new PlayerStateDeltaWriter(stateEncoder);
+    private final PlayerStateDeltaReader deltaReader = new PlayerStateDeltaReader();
+    private volatile boolean deltaPlay = false;
+
+    /**
+     * Constructs this codec over the given connection.
+     * @param messages the JSON values exchanged over the connection
+     */
+    public JsonWireCodec(JsonMessageCodec messages) {
+        this.messages = messages;
+    }
+
+    /**
+     * Writes and reads "play" states as deltas from the previous state, for the rest of the
+     * connection. Both sides must enable it.
+     */
+    public void enableDeltaPlay() {
+        this.deltaPlay = true;
+    }
+
+    @Override
+    public void writeStart(Set<String> offeredExtensions) throws IOException {
+        //Satisfy message spec, earlier in course boolean arg of start was declared optional
+        this.messages.writeMessage("start", out -> out.value(true),
+            out -> ProtocolExtensions.writeExtensions(out, offeredExtensions));
+    }
+
+    /**
+     * Reads the response to "start", which is the bare map from a client that does not negotiate
+     * or [map, [accepted extensions]] from one that does.
+     */
+    @Override
+    public WireMessage readStartResponse() throws IOException {
+        JsonElement response = this.messages.readValue();
+        if (!response.isJsonArray()) {
+            return WireMessage.startResponse(readMap(response), Set.of());
+        }
+        JsonArray mapAndExtensions = response.getAsJsonArray();
+        Set<String> accepted = new HashSet<>();
+        for (String extension : ProtocolExtensions.SUPPORTED) {
+            if (ProtocolExtensions.lists(mapAndExtensions.get(1), extension)) {
+                accepted.add(extension);
+            }
+        }
+        return WireMessage.startResponse(readMap(mapAndExtensions.get(0)), accepted);
+    }
+
+    /**
+     * Writes the response to "start", with the accepted extensions only if there are any.
+     */
+    @Override
+    public void writeStartResponse(ITrainMap map, Set<String> acceptedExtensions)
+        throws IOException {
+        if (acceptedExtensions.isEmpty()) {
+            this.messages.writeValue(out -> writeMap(out, map));
+            return;
+        }
+        this.messages.writeValue(out -> {
+            out.beginArray();
+            writeMap(out, map);
+            ProtocolExtensions.writeExtensions(out, acceptedExtensions);
+            out.endArray();
+        });
+    }
+
+    @Override
+    public void writeSetup(ITrainMap map, int numRails, List<RailCard> cards) throws IOException {
+        this.map = map;
+        this.deltaWriter.reset();
+        this.messages.writeMessage("setup",
+            out -> writeMap(out, map),
+            out -> out.value(numRails),
+            out -> CardStarJson.writeCards(out, cards));
+    }
+
+    @Override
+    public void writePick(Set<Destination> options) throws IOException {
+        this.messages.writeMessage("pick", out -> {
+            out.beginArray();
+            for (Destination destination : options) {
+                DestinationJson.writeDestination(out, destination);
+            }
+            out.endArray();
+        });
+    }
+
+    @Override
+    public void writePlay(IPlayerGameState state) throws IOException {
+        if (this.deltaPlay) {
+            this.messages.writeMessage("play", out -> this.deltaWriter.writePlayerState(out, state));
+        } else {
+            this.messages.writeMessage("play", out -> this.stateEncoder.writePlayerState(out, state));
+        }
+    }
+
+    @Override
+    public void writeMore(List<RailCard> cards) throws IOException {
+        this.messages.writeMessage("more", out -> CardStarJson.writeCards(out, cards));
+    }
+
+    @Override
+    public void writeResult(String name, boolean won) throws IOException {
+        this.messages.writeMessage(name, out -> out.value(won));
+    }
+
+    @Override
+    public void readVoid() throws IOException {
+        this.messages.readValue();
+    }
+
+    @Override
+    public Set<Destination> readDestinations() throws IOException {
+        return this.destinationsFromJson(this.messages.readValue().getAsJsonArray());
+    }
+
+    @Override
+    public TurnAction readTurnAction() throws IOException {
+        return TurnActionJson.turnActionFromJson(this.messages.readValue(), this.map);
+    }
+
+    @Override
+    public WireMessage readMessage() throws IOException {
+        JsonArray message = this.messages.readValue().getAsJsonArray();
+        String name = message.get(0).getAsString();
+        JsonArray args = message.get(1).getAsJsonArray();
+        switch (name) {
+            case "start":
+                return WireMessage.start(this.offeredExtensions(args));
+            case "setup":
+                this.map = readMap(args.get(0));
+                this.deltaReader.reset();
+                return WireMessage.setup(
+                    this.map, args.get(1).getAsInt(), CardStarJson.cardsFromJson(args.get(2)));
+            case "pick":
+                return WireMessage.pick(this.destinationsFromJson(args.get(0).getAsJsonArray()));
+            case "play":
+                return WireMessage.play(this.deltaPlay
+                    ? this.deltaReader.readPlayerState(args.get(0))
+                    : PlayerStateJson.playerStateFromJson(args.get(0)));
+            case "more":
+                return WireMessage.more(CardStarJson.cardsFromJson(args.get(0)));
+            case "win":
+            case "end":
+                return WireMessage.result(name, args.get(0).getAsBoolean());
+            default:
+                return WireMessage.unknown(name);
+        }
+    }
+
+    @Override
+    public void writeVoid() throws IOException {
+        this.messages.writeValue(VOID);
+    }
+
+    @Override
+    public void writeDestinations(Set<Destination> rejected) throws IOException {
+        this.messages.writeValue(out -> {
+            out.beginArray();
+            for (Destination destination : rejected) {
+                DestinationJson.writeDestination(out, destination);
+            }
+            out.endArray();
+        });
+    }
+
+    @Override
+    public void writeTurnAction(TurnAction action) throws IOException {
+        this.messages.writeValue(out -> TurnActionJson.writeTurnAction(out, action));
+    }
+
+    @Override
+    public void preparePlay(IPlayerGameState upcomingState) {
+        this.stateEncoder.prepare(upcomingState);
+    }
+
+    /**
+     * Writes the given map as JSON, encoding each distinct map only once.
+     */
+    private static void writeMap(JsonWriter out, ITrainMap map) throws IOException {
+        out.jsonValue(ENCODED_MAPS.get(new MapContentKey(map), (key) -> encodeMap(key.getMap())));
+    }
+
+    /** Encodes the given map as JSON, the same as MapJson.writeMap. */
+    private static String encodeMap(ITrainMap map) {
+        StringWriter buffer = new StringWriter();
+        try {
+            JsonWriter out = new JsonWriter(buffer);
+            MapJson.writeMap(out, map);
+            out.flush();
+        } catch (IOException e) {
+            // A StringWriter never fails
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Parses the given JSON map, returning the map already parsed from equal JSON if there is one.
+     */
+    private static ITrainMap readMap(JsonElement json) {
+        return PARSED_MAPS.get(json, MapJson::mapFromJson);
+    }
+
+    /**
+     * Parses a JSON array of destinations on the current map.
+     */
+    private Set<Destination> destinationsFromJson(JsonArray destinations) {
+        Set<Destination> result = new HashSet<>();
+        for (JsonElement destination : destinations) {
+            result.add(DestinationJson.destinationFromJson(destination.getAsJsonArray(), this.map));
+        }
+        return result;
+    }
+
+    /**
+     * Gets the supported extensions offered in the optional second argument of "start".
+     */
+    private Set<String> offeredExtensions(JsonArray args) {
+        Set<String> offered = new HashSet<>();
+        if (args.size() > 1) {
+            for (String extension : ProtocolExtensions.SUPPORTED) {
+                if (ProtocolExtensions.lists(args.get(1), extension)) {
+                    offered.add(extension);
+                }
+            }
+        }
+        return offered;
+    }
+}
@@ -0,0 +1,100 @@
+package remote;
+
+import map.ICity;
+import map.IRailConnection;
+import map.ITrainMap;
+
+/**
+ * A cache key for a map that compares maps by their full content: the dimensions, every city's
+ * name and position, and every connection's cities, color and length. Cities alone compare by
+ * name and connections ignore positions, so two maps that only differ in where their cities are
+ * would otherwise look the same while encoding differently.
+ *
+ * <p>Both the hash and the comparison walk the map in order of its dense ids, which only depend on
+ * its content, so they cost one pass over the map without allocating. Comparing a map with itself
+ * returns at once.
+ */
+public final class MapContentKey {
+    private final ITrainMap map;
+    private final int hash;
+
+    /**
+     * Constructs the key of the given map.
+     * @param map the map, which must not change while it is a key
+     */
+    public MapContentKey(ITrainMap map) {
+        this.map = map;
+        this.hash = contentHash(map);
+    }
+
+    /**
+     * Gets the map of this key.
+     * @return the map
+     */
+    public ITrainMap getMap() {
+        return this.map;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof MapContentKey)) {
+            return false;
+        }
+        MapContentKey other = (MapContentKey) obj;
+        return this.hash == other.hash
+            && (this.map == other.map || sameContent(this.map, other.map));
+    }
+
+    private static int contentHash(ITrainMap map) {
+        int hash = map.getMapDimension().hashCode();
+        for (int id = 0; id < map.getNumCities(); id += 1) {
+            ICity city = map.getCityById(id);
+            hash = 31 * hash + city.getName().hashCode();
+            hash = 31 * hash + city.getRelativePosition().hashCode();
+        }
+        for (int id = 0; id < map.getNumConnections(); id += 1) {
+            IRailConnection connection = map.getConnectionById(id);
+            // Cities by id and in either order, as the connection is unordered
+            hash = 31 * hash + (map.getCityId(connection.getCities().first)
+                ^ map.getCityId(connection.getCities().second));
+            hash = 31 * hash + connection.getColor().hashCode();
+            hash = 31 * hash + connection.getLength();
+        }
+        return hash;
+    }
+
+    private static boolean sameContent(ITrainMap map, ITrainMap other) {
+        if (!map.getMapDimension().equals(other.getMapDimension())
+            || map.getNumCities() != other.getNumCities()
+            || map.getNumConnections() != other.getNumConnections()) {
+            return false;
+        }
+        for (int id = 0; id < map.getNumCities(); id += 1) {
+            ICity city = map.getCityById(id);
+            ICity otherCity = other.getCityById(id);
+            if (!city.getName().equals(otherCity.getName())
+                || !city.getRelativePosition().equals(otherCity.getRelativePosition())) {
+                return false;
+            }
+        }
+        for (int id = 0; id < map.getNumConnections(); id += 1) {
+            IRailConnection connection = map.getConnectionById(id);
+            IRailConnection otherConnection = other.getConnectionById(id);
+            // Cities have the same names by id, so comparing the unordered pairs compares ids
+            if (!connection.getCities().equals(otherConnection.getCities())
+                || connection.getColor() != otherConnection.getColor()
+                || connection.getLength() != otherConnection.getLength()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,67 @@
+package remote;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * The optional extensions to the remote protocol, negotiated once per connection when the
+ * tournament starts.
+ *
+ * <p>The server offers the extensions it supports as an optional second argument of "start":
+ * ["start", [true, ["delta-play"]]]. A client that supports some of them answers with
+ * [map, [accepted extensions]] instead of the bare map. A client that ignores the offer answers
+ * with the map as before, and a server that makes no offer never receives anything but the map, so
+ * peers that do not negotiate keep the original protocol.
+ *
+ * <p>The first handshake of a connection is always JSON. When "binary-wire" is accepted, both sides
+ * switch to BinaryWireCodec right after it, for every later message including any later "start",
+ * and "delta-play" no longer applies since the binary format sends whole states by connection id.
+ */
+public final class ProtocolExtensions {
+    /** "play" messages carry deltas from the player's previous state, see PlayerStateDeltaWriter. */
+    public static final String DELTA_PLAY = "delta-play";
+
+    /** Every message after "start" uses the compact binary format of BinaryWireCodec. */
+    public static final String BINARY_WIRE = "binary-wire";
+
+    /** Every extension this implementation supports, on either side. */
+    public static final Set<String> SUPPORTED = Set.of(DELTA_PLAY, BINARY_WIRE);
+
+    private ProtocolExtensions() {
+    }
+
+    /**
+     * Writes the given extensions as a JSON array.
+     * @param out the writer to write to
+     * @param extensions the names of the extensions
+     * @throws IOException if writing fails
+     */
+    public static void writeExtensions(JsonWriter out, Set<String> extensions) throws IOException {
+        out.beginArray();
+        for (String extension : extensions) {
+            out.value(extension);
+        }
+        out.endArray();
+    }
+
+    /**
+     * Determines whether the given JSON array of extension names contains the given extension.
+     * @param extensions a JSON array of extension names
+     * @param extension the extension to look for
+     * @return true if the extension is listed, false otherwise
+     */
+    public static boolean lists(JsonElement extensions, String extension) {
+        if (!extensions.isJsonArray()) {
+            return false;
+        }
+        for (JsonElement element : (JsonArray) extensions) {
+            if (element.isJsonPrimitive() && element.getAsString().equals(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,26 +1,13 @@
 package remote;
 
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
 import java.net.Socket;
 import java.net.UnknownHostException;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonStreamParser;
-
-import game_state.IPlayerGameState;
-import game_state.RailCard;
 import player.IPlayer;
 import strategy.TurnAction;
-import json.*;
 import map.ITrainMap;
 import map.Destination;
 
@@ -31,11 +18,10 @@ public class ProxyAdmin {
     private Socket socket;
     private String name;
     private IPlayer player; 
-    private OutputStreamWriter proxyOut;
-    private JsonStreamParser proxyIn;
-    private ITrainMap map;
-
-    private Gson gson;
+    // The JSON format every connection starts with
+    private JsonWireCodec jsonCodec;
+    // The format of every other message, which the handshake may switch to binary
+    private IWireCodec codec;
 
     private final static String domain = "127.0.0.1";
     
@@ -46,8 +32,10 @@ public class ProxyAdmin {
     public ProxyAdmin(String domain, int port, String name, IPlayer player) {
         try {
             socket = new Socket(domain, port);
-            proxyOut = new OutputStreamWriter(socket.getOutputStream());
-            proxyIn = new JsonStreamParser(new InputStreamReader(socket.getInputStream()));
+            JsonMessageCodec messages = new JsonMessageCodec(socket);
+            messages.writeValue(out -> out.value(name));
+            jsonCodec = new JsonWireCodec(messages);
+            codec = jsonCodec;
         } catch (UnknownHostException e) {
             e.printStackTrace();
         } catch (IOException e) {
@@ -56,50 +44,44 @@ public class ProxyAdmin {
 
         this.name = name;
         this.player = player;
-        this.gson = new GsonBuilder().setPrettyPrinting().create();
-        try {
-            proxyOut.write("\"" + name + "\"");
-            proxyOut.flush();
-
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
     }
 
     /**
      * Handle a single operation from a remote player
      */
     public void handleOp() {
-        JsonArray nextOp = proxyIn.next().getAsJsonArray();
-        String response;
-        switch(nextOp.get(0).getAsString()) {
-            case "setup":
-                response = handleSetup(nextOp.get(1).getAsJsonArray());
-                break;
-            case "pick":
-                response = handleChooseDestinations(nextOp.get(1).getAsJsonArray());
-                break;
-            case "play":
-                response = handleTakeTurn(nextOp.get(1).getAsJsonArray());
-                break;
-            case "more":
-                response = handleReceiveCards(nextOp.get(1).getAsJsonArray());
-                break;
-            case "win":
-                response = handleWinNotification(nextOp.get(1).getAsJsonArray());
-                break;
-            case "start":
-                response = handleTournamentStart(nextOp.get(1).getAsJsonArray());
-                break;
-            case "end":
-                response = handleTournamentResult(nextOp.get(1).getAsJsonArray());
-                break;
-            default:
-                return;
+        WireMessage nextOp;
+        try {
+            nextOp = codec.readMessage();
+        } catch(IOException e) {
+            throw new RuntimeException(e);
         }
         try {
-            proxyOut.write(response);
-            proxyOut.flush();
+            switch(nextOp.name) {
+                case "setup":
+                    handleSetup(nextOp);
+                    break;
+                case "pick":
+                    handleChooseDestinations(nextOp);
+                    break;
+                case "play":
+                    handleTakeTurn(nextOp);
+                    break;
+                case "more":
+                    handleReceiveCards(nextOp);
+                    break;
+                case "win":
+                    handleWinNotification(nextOp);
+                    break;
+                case "start":
+                    handleTournamentStart(nextOp);
+                    break;
+                case "end":
+                    handleTournamentResult(nextOp);
+                    break;
+                default:
+                    return;
+            }
         } catch(IOException e) {
             e.printStackTrace();
         }
@@ -112,82 +94,75 @@ public class ProxyAdmin {
     }
 
     /**
-     * Parses a JsonArray with a map, rails and cards, and calls setup on the player
-     * @param args the JsonObject containing the arguments to call setup.
+     * Calls setup on the player with the map, rails and cards of the given message.
+     * @param args the "setup" message containing the arguments to call setup.
      */
-    public String handleSetup(JsonArray args) {
-        ITrainMap map = MapJson.mapFromJson(args.get(0));
-        this.map = map;
-        List<RailCard> cards = CardStarJson.cardsFromJson(args.get(2));
-        int rails = args.get(1).getAsInt();
-
-        player.setup(map, rails, cards);
-        return "\"void\"";
+    public void handleSetup(WireMessage args) throws IOException {
+        player.setup(args.map, args.numRails, args.cards);
+        codec.writeVoid();
     }
 
     /**
-     * Parses the given Json, and returns the result of calling chooseDestinations on the player to output stream.
-     * @param args the JsonArray containing the arguments to chooseDestinations.
+     * Writes the result of calling chooseDestinations on the player to output stream.
+     * @param args the "pick" message containing the arguments to chooseDestinations.
      */
-    public String handleChooseDestinations(JsonArray args) {
-        Set<Destination> destinations = new HashSet<>();
-        args.get(0).getAsJsonArray().forEach((element) -> {
-            JsonArray destinationJson = element.getAsJsonArray();
-            destinations.add(DestinationJson.destinationFromJson(destinationJson, map));
-        });
-
-        Set<Destination> unchosen = player.chooseDestinations(destinations);
-
-        JsonArray unchosenJson = new JsonArray();
-        unchosen.forEach((dest) -> { unchosenJson.add(DestinationJson.destinationToJson(dest)); });
-        return gson.toJson(unchosenJson);
+    public void handleChooseDestinations(WireMessage args) throws IOException {
+        Set<Destination> unchosen = player.chooseDestinations(new HashSet<>(args.destinations));
+        codec.writeDestinations(unchosen);
     }
 
     /**
-     * Parses the given Json, and returns the result of calling takeTurn on the player to output stream.
-     * @param args the JsonArray containing the arguments to call takeTurn.
+     * Writes the result of calling takeTurn on the player to output stream.
+     * @param args the "play" message containing the arguments to call takeTurn.
      */
-    public String handleTakeTurn(JsonArray args) {
-        IPlayerGameState state = PlayerStateJson.playerStateFromJson(args.get(0));
-        TurnAction action = player.takeTurn(state);
-        JsonElement actionJson = TurnActionJson.turnActionToJSON(action);
-        return gson.toJson(actionJson);
+    public void handleTakeTurn(WireMessage args) throws IOException {
+        TurnAction action = player.takeTurn(args.state);
+        codec.writeTurnAction(action);
     }
 
     /**
-     * Parses the given Json, and calls receiveCards on the player
-     * @param args the JsonArray containing the arguments to call receiveCards.
+     * Calls receiveCards on the player with the cards of the given message.
+     * @param args the "more" message containing the arguments to call receiveCards.
      */
-    public String handleReceiveCards(JsonArray args) {
-        List<RailCard> cards = CardStarJson.cardsFromJson(args.get(0));
-        player.receiveCards(cards);
-        return "\"void\"";
+    public void handleReceiveCards(WireMessage args) throws IOException {
+        player.receiveCards(args.cards);
+        codec.writeVoid();
     }
 
     /**
-     * Parses the given Json, and calls winNotification on the player
-     * @param args the JsonArray containing the arguments to call winNotification.
+     * Calls winNotification on the player with the result of the given message.
+     * @param args the "win" message containing the arguments to call winNotification.
      */
-    public String handleWinNotification(JsonArray args) {
-        player.winNotification(args.get(0).getAsBoolean());
-        return "\"void\"";
+    public void handleWinNotification(WireMessage args) throws IOException {
+        player.winNotification(args.flag);
+        codec.writeVoid();
     }
 
     /**
-     * Calls winNotification on the player and returns the resulting ITrainMap as Json
-     * @param args the JsonArray containing the arguments to call tournamentStart.
+     * Calls tournamentStart on the player and writes the resulting ITrainMap, along with the
+     * protocol extensions this side accepts if the server offered any. Switches to the binary
+     * format if it was accepted.
+     * @param args the "start" message containing the offered extensions.
      */
-    public String handleTournamentStart(JsonArray args) {
+    public void handleTournamentStart(WireMessage args) throws IOException {
         ITrainMap map = player.tournamentStart();
-        JsonObject mapJson = MapJson.mapToJson(map);
-        return gson.toJson(mapJson);
+        codec.writeStartResponse(map, args.extensions);
+        // Only the first handshake switches formats, later ones stay in the negotiated one
+        if (codec == jsonCodec) {
+            if (args.extensions.contains(ProtocolExtensions.BINARY_WIRE)) {
+                codec = new BinaryWireCodec(socket);
+            } else if (args.extensions.contains(ProtocolExtensions.DELTA_PLAY)) {
+                jsonCodec.enableDeltaPlay();
+            }
+        }
     }
+
     /**
-     * Parses the given Json, and calls tournamentResult on the player
-     * @param args the JsonArray containing the arguments to call tournamentResult.
+     * Calls tournamentResult on the player with the result of the given message.
+     * @param args the "end" message containing the arguments to call tournamentResult.
      */
-    public String handleTournamentResult(JsonArray args) {
-        player.tournamentResult(args.get(0).getAsBoolean());
-        return "\"void\"";
+    public void handleTournamentResult(WireMessage args) throws IOException {
+        player.tournamentResult(args.flag);
+        codec.writeVoid();
     }
 }
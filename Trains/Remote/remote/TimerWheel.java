@@ -0,0 +1,112 @@
+package remote;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A hashed timer wheel that tracks deadlines for many items at a fixed granularity (one tick).
+ * Scheduling an item is constant time, and expiring items only looks at the slots of the ticks that
+ * have passed, rather than at every item being tracked.
+ *
+ * @param <T> the type of the items given deadlines
+ */
+public class TimerWheel<T> {
+
+    /**
+     * An item and the tick at which it expires.
+     */
+    private static class Timer<T> {
+        private final T item;
+        private final long deadlineTick;
+
+        private Timer(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final List<List<Timer<T>>> slots;
+    private long currentTick;
+    private int size;
+
+    /**
+     * Constructs an empty TimerWheel.
+     * @param tickMillis the granularity of deadlines in milliseconds
+     * @param numSlots the number of slots in the wheel
+     * @param startMillis the time at which the wheel starts, in milliseconds
+     * @throws IllegalArgumentException if the tick or number of slots is not positive
+     */
+    public TimerWheel(long tickMillis, int numSlots, long startMillis) {
+        if (tickMillis < 1 || numSlots < 1) {
+            throw new IllegalArgumentException("Tick length and number of slots must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.slots = new ArrayList<>(numSlots);
+        for (int slot = 0; slot < numSlots; slot += 1) {
+            this.slots.add(new ArrayList<>());
+        }
+        this.currentTick = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Schedules the given item to expire at the first tick at or after the given deadline. Deadlines
+     * that have already passed expire on the next call to expire.
+     * @param item the item to expire
+     * @param deadlineMillis the time at which the item expires, in milliseconds
+     */
+    public void schedule(T item, long deadlineMillis) {
+        long deadlineTick = Math.max(this.currentTick + 1,
+            Math.floorDiv(deadlineMillis - this.startMillis + this.tickMillis - 1, this.tickMillis));
+        this.slots.get(this.slotOf(deadlineTick)).add(new Timer<>(item, deadlineTick));
+        this.size += 1;
+    }
+
+    /**
+     * Advances the wheel to the given time and removes every item whose deadline has passed.
+     * @param nowMillis the current time in milliseconds
+     * @return the expired items, in the order of their deadlines' slots
+     */
+    public List<T> expire(long nowMillis) {
+        long nowTick = Math.floorDiv(nowMillis - this.startMillis, this.tickMillis);
+        List<T> expired = new ArrayList<>();
+        long lastTick = Math.min(nowTick, this.currentTick + this.slots.size());
+        for (long tick = this.currentTick + 1; tick <= lastTick; tick += 1) {
+            Iterator<Timer<T>> timers = this.slots.get(this.slotOf(tick)).iterator();
+            while (timers.hasNext()) {
+                Timer<T> timer = timers.next();
+                if (timer.deadlineTick <= nowTick) {
+                    expired.add(timer.item);
+                    timers.remove();
+                }
+            }
+        }
+        this.currentTick = Math.max(this.currentTick, nowTick);
+        this.size -= expired.size();
+        return expired;
+    }
+
+    /**
+     * Determines whether any items are waiting to expire.
+     * @return true if no items are scheduled
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Gets the length of one tick of this wheel.
+     * @return the tick length in milliseconds
+     */
+    public long getTickMillis() {
+        return this.tickMillis;
+    }
+
+    private int slotOf(long tick) {
+        return (int) Math.floorMod(tick, (long) this.slots.size());
+    }
+}
@@ -0,0 +1,172 @@
+package remote;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+
+import json.OutcomesJson;
+import manager.ITournamentManager;
+import manager.TournamentResult;
+import player.IPlayer;
+
+/**
+ * A long-running server that keeps signing players up through a TrainsServer, and runs a
+ * tournament for each batch of players that signs up. Up to a fixed number of tournaments run at
+ * the same time, each on its own worker thread; while all workers are busy, no new batch is signed
+ * up.
+ */
+public class TournamentServer {
+
+    /**
+     * Receives the outcome of each tournament as it finishes. Calls are never made concurrently.
+     */
+    @FunctionalInterface
+    public interface ResultSink {
+        /**
+         * Handles the outcome of one finished tournament.
+         * @param tournament the number of the tournament, counting up from 0 in sign up order
+         * @param outcome the outcome as given by OutcomesJson, or a JSON string starting with
+         *                "error: " if the tournament could not be run
+         */
+        void tournamentFinished(int tournament, JsonElement outcome);
+    }
+
+    private static final long RETRY_DELAY_MILLIS_DEFAULT = 1000;
+
+    private final TrainsServer signupServer;
+    private final Function<List<IPlayer>, ITournamentManager> managerFactory;
+    private final ResultSink sink;
+    private final ExecutorService tournaments;
+    private final Semaphore idleWorkers;
+    private final long retryDelayMillis;
+
+    /**
+     * Constructs a TournamentServer.
+     * @param signupServer the server players sign up through
+     * @param maxConcurrentTournaments the most tournaments that may run at the same time
+     * @param managerFactory creates the manager for the tournament of a batch of players
+     * @param sink receives the outcome of each tournament
+     * @throws IllegalArgumentException if maxConcurrentTournaments is less than 1
+     */
+    public TournamentServer(TrainsServer signupServer, int maxConcurrentTournaments,
+        Function<List<IPlayer>, ITournamentManager> managerFactory, ResultSink sink) {
+        this(signupServer, maxConcurrentTournaments, managerFactory, sink, RETRY_DELAY_MILLIS_DEFAULT);
+    }
+
+    /**
+     * Constructs a TournamentServer that waits the given time before retrying a failed sign up.
+     * @param signupServer the server players sign up through
+     * @param maxConcurrentTournaments the most tournaments that may run at the same time
+     * @param managerFactory creates the manager for the tournament of a batch of players
+     * @param sink receives the outcome of each tournament
+     * @param retryDelayMillis the time to wait after a sign up fails, in milliseconds
+     * @throws IllegalArgumentException if maxConcurrentTournaments is less than 1
+     */
+    public TournamentServer(TrainsServer signupServer, int maxConcurrentTournaments,
+        Function<List<IPlayer>, ITournamentManager> managerFactory, ResultSink sink,
+        long retryDelayMillis) {
+        if (maxConcurrentTournaments < 1) {
+            throw new IllegalArgumentException("At least one tournament must be able to run");
+        }
+        this.signupServer = Objects.requireNonNull(signupServer);
+        this.managerFactory = Objects.requireNonNull(managerFactory);
+        this.sink = Objects.requireNonNull(sink);
+        this.tournaments = Executors.newFixedThreadPool(maxConcurrentTournaments);
+        this.idleWorkers = new Semaphore(maxConcurrentTournaments);
+        this.retryDelayMillis = retryDelayMillis;
+    }
+
+    /**
+     * Creates a ResultSink that prints each outcome on its own line.
+     * @param output the stream to print outcomes to
+     * @return the sink
+     */
+    public static ResultSink printTo(PrintStream output) {
+        return (tournament, outcome) -> {
+            output.println(outcome);
+            output.flush();
+        };
+    }
+
+    /**
+     * Signs up batches of players and starts their tournaments until the sign up server is shut
+     * down, then waits for the running tournaments to finish. A sign up that fails is retried after
+     * a pause, keeping the players who had signed up.
+     */
+    public void serve() {
+        int tournamentNumber = 0;
+        try {
+            while (signupServer.isOpen()) {
+                // Only sign up players once there is a worker to run their tournament
+                idleWorkers.acquire();
+                List<IPlayer> players;
+                try {
+                    players = signupServer.startSignup();
+                } catch (IOException e) {
+                    // Such as running out of file descriptors, which the running tournaments give
+                    // back as they finish, so sign up again after a pause
+                    System.err.println("Sign up failed, retrying: " + e.getMessage());
+                    idleWorkers.release();
+                    Thread.sleep(retryDelayMillis);
+                    continue;
+                }
+                if (players.isEmpty()) {
+                    idleWorkers.release();
+                    continue;
+                }
+                Map<IPlayer, String> names = signupServer.getLookupTable();
+                int tournament = tournamentNumber;
+                tournamentNumber += 1;
+                tournaments.submit(() -> {
+                    try {
+                        runTournament(tournament, players, names);
+                    } finally {
+                        idleWorkers.release();
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        tournaments.shutdown();
+        try {
+            tournaments.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            tournaments.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs one tournament and reports its outcome to the sink.
+     */
+    private void runTournament(int tournament, List<IPlayer> players, Map<IPlayer, String> names) {
+        JsonElement outcome;
+        try {
+            TournamentResult report = managerFactory.apply(players).runTournament();
+            outcome = OutcomesJson.tournamentOutcomeToJson(report, names);
+        } catch (RuntimeException e) {
+            outcome = new JsonPrimitive("error: " + e.getMessage());
+        }
+        synchronized (sink) {
+            sink.tournamentFinished(tournament, outcome);
+        }
+    }
+
+    /**
+     * Stops signing up players. Tournaments that are already running are allowed to finish.
+     */
+    public void shutdown() {
+        signupServer.shutdown();
+    }
+}
@@ -1,35 +1,35 @@
 package remote;
 
 import java.io.IOException;
-import java.net.Socket;
-import java.net.SocketException;
-import java.net.SocketTimeoutException;
-import java.net.ServerSocket;
-import java.net.UnknownHostException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeoutException;
-import java.util.regex.Pattern;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.Future;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.lang.InterruptedException;
-import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.List;
-import java.util.NoSuchElementException;
-import java.util.Scanner;
-import java.util.Optional;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
 import player.IPlayer;
 import player.ProxyPlayer;
 
 /**
  * A class representing a server for Trains.
+ *
+ * Sign-up runs on a single thread: a selector accepts connections and reads each client's name
+ * without blocking, and a timer wheel closes the connections of clients that do not supply a name
+ * in time.
  */
-public class TrainsServer 
+public class TrainsServer
 {
     private static final int SIGNUP_TIMEOUT_DEFAULT = 20000;
     private static final int NAME_TIMEOUT_DEFAULT = 3000;
@@ -37,15 +37,21 @@ public class TrainsServer
     private static final int RELAXED_ROUND_MIN = 2;
     private static final int ROUND_MAX = 50;
 
-    private ServerSocket server;
-    private ArrayList<Socket> clients;
+    private static final Pattern VALID_NAME = Pattern.compile("\"[A-Za-z]{1,50}\"");
+    // A valid name is at most 50 letters in quotes; allow some room for surrounding whitespace
+    private static final int MAX_NAME_FRAME = 64;
+    private static final int NAME_TIMER_TICK = 10;
+    private static final int NAME_TIMER_SLOTS = 512;
+
+    private ServerSocketChannel server;
+    private Selector selector;
+    private SelectionKey acceptKey;
 
     private ArrayList<IPlayer> players;
     private Map<IPlayer, String> nameLookup;
-    private List<Future<Optional<ProxyPlayer>>> waitingForNames;
-    private ExecutorService executorNames; //Executor for waiting for names
-    private ExecutorService executor; //Executor for allowing signups
-    private Future acceptSocketConncetions;
+    private Map<IPlayer, String> signedUpLookup;
+    private Set<SocketChannel> waitingForNames;
+    private TimerWheel<SocketChannel> nameDeadlines;
 
     private int timeout;
     private int nameTimeout;
@@ -57,22 +63,22 @@ public class TrainsServer
      */
     public TrainsServer(int port, int signUpTime, int nameTimeout) {
         try {
-            server = new ServerSocket(port);
-            server.setSoTimeout(10);   
-            if(server.isClosed()) {
-                throw new SocketException("Couldn't open server socket");
-            }
+            selector = Selector.open();
+            server = ServerSocketChannel.open();
+            server.bind(new InetSocketAddress(port));
+            server.configureBlocking(false);
+            acceptKey = server.register(selector, SelectionKey.OP_ACCEPT);
         } catch(IOException e) {
             e.printStackTrace();
         }
-        clients = new ArrayList<Socket>();
         players = new ArrayList<IPlayer>();
-        waitingForNames = new ArrayList<Future<Optional<ProxyPlayer>>>();
-        executorNames = Executors.newCachedThreadPool();
+        waitingForNames = new HashSet<SocketChannel>();
 
         this.nameTimeout = nameTimeout;
         this.timeout = signUpTime;
         this.nameLookup = new HashMap<IPlayer, String>();
+        this.signedUpLookup = new HashMap<IPlayer, String>();
+        this.nameDeadlines = new TimerWheel<>(NAME_TIMER_TICK, NAME_TIMER_SLOTS, System.currentTimeMillis());
     };
 
     /**
@@ -84,168 +90,239 @@ public class TrainsServer
     }
 
     /**
-     * Listens for players signing up for a tournament and returns a ProxyPlayer with the given socket.
-     * @param playersSocket a Socket for the interested player.
-     * @return the ProxyPlayer if successful (the given name is valid and there is no timeout)
+     * Reads whatever part of a player's name has arrived on the given key's channel. Once the whole
+     * name has arrived and is valid, the key is cancelled and the name is returned. Closes the channel
+     * if the client disconnects or sends an invalid name.
+     * @param key the selection key of a player that has not supplied a name yet.
+     * @return the player's name (without quotes) if it is complete and valid
      */
-    private Optional<ProxyPlayer> waitForName(Socket playersSocket) {
+    private Optional<String> readName(SelectionKey key) {
+        SocketChannel channel = (SocketChannel) key.channel();
+        ByteBuffer nameFrame = (ByteBuffer) key.attachment();
+        int read;
         try {
-            playersSocket.setSoTimeout(nameTimeout);
-            Scanner nameInputStream = new Scanner(new InputStreamReader(playersSocket.getInputStream())).useDelimiter("\n");
-            String name = nameInputStream.next();
-            if(Pattern.matches("\"[A-Za-z]{1,50}\"", name)) {
-                
-                ProxyPlayer player = new ProxyPlayer(playersSocket);
-                nameLookup.put(player, name.substring(1, name.length() - 1));
-                return Optional.of(player);
-            } else {
-                //INVALID NAME
-                playersSocket.close();
-                clients.remove(playersSocket);        
-            }
-        } catch (NoSuchElementException timeout) {
-            try {
-                playersSocket.close();
-            } catch (IOException io) {
-                //IF PLAYER SOCKET CLOSE FAILS CONTINUE
+            read = channel.read(nameFrame);
+        } catch(IOException closedByClient) {
+            read = -1;
+        }
+
+        int end = endOfName(nameFrame);
+        if(end < 0) {
+            if(read < 0 || !nameFrame.hasRemaining()) {
+                //CLOSED OR SENT TOO MUCH WITHOUT A NAME
+                rejectWaiting(channel);
             }
-            clients.remove(playersSocket);
-        } catch (SocketException s) {
-            //Server was closed by shutdown (or something else unrecoverable)
-        } catch (IOException io) {
-            io.printStackTrace();
-            System.exit(1);
+            return Optional.empty();
         }
-        return Optional.empty();
 
+        String name = new String(nameFrame.array(), 0, end, StandardCharsets.UTF_8);
+        if(!VALID_NAME.matcher(name).matches()) {
+            //INVALID NAME
+            rejectWaiting(channel);
+            return Optional.empty();
+        }
+        key.cancel();
+        return Optional.of(name.substring(1, name.length() - 1));
     }
 
     /**
-     * Accepts all waiting players and adds them to the list of clients (if their name is valid) until there's a timeout
-     * or if the client size reaches the round max.
-     * @return true if successful
+     * Creates ProxyPlayers for the given clients, whose keys have been cancelled, and adds them to
+     * the players.
+     * @param named the channels of clients that supplied a valid name, and their names
+     * @throws IOException if a channel cannot be switched back to blocking mode.
      */
-    private boolean acceptAllWaiting() {
-        Callable<Optional<ProxyPlayer>>  waitNameTask = null;
-        try {
-            do {
-                final Socket newPotentialPlayer = server.accept();
-                if(newPotentialPlayer != null) {                    
-                    clients.add(newPotentialPlayer);
-                    waitNameTask = () -> { return waitForName(newPotentialPlayer);};
-                    waitingForNames.add(executorNames.submit(waitNameTask));
+    private void addNamedPlayers(Map<SocketChannel, String> named) throws IOException {
+        // Flush the cancelled keys so that the channels can use blocking streams again
+        selector.selectNow();
+        for(Map.Entry<SocketChannel, String> client : named.entrySet()) {
+            waitingForNames.remove(client.getKey());
+            client.getKey().configureBlocking(true);
+            ProxyPlayer player = new ProxyPlayer(client.getKey().socket());
+            nameLookup.put(player, client.getValue());
+            players.add(player);
+        }
+    }
+
+    /**
+     * Finds the end of a name frame: the index just after the second quote read so far.
+     * @return the end of the name, or -1 if the name has not fully arrived yet
+     */
+    private static int endOfName(ByteBuffer nameFrame) {
+        int quotes = 0;
+        for(int i = 0; i < nameFrame.position(); i++) {
+            if(nameFrame.get(i) == '"') {
+                quotes += 1;
+                if(quotes == 2) {
+                    return i + 1;
                 }
-            } while(clients.size() < ROUND_MAX);
-        } catch (SocketException e) {
-            //Server was closed by shutdown (or something else unrecoverable)
-            return false;
-        } catch (SocketTimeoutException e) {
-        } catch (IOException e) {
-            //FATAL SOCKET EXCEPTION
-            e.printStackTrace();
-            System.exit(1);
-        } 
-        return true;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Closes the connection of a client that is still waiting to supply a name.
+     */
+    private void rejectWaiting(SocketChannel channel) {
+        waitingForNames.remove(channel);
+        try {
+            channel.close();
+        } catch (IOException io) {
+            //IF PLAYER SOCKET CLOSE FAILS CONTINUE
+        }
+        updateAcceptInterest();
     }
 
     /**
-     * Waits for players to sign up while the size is less than the maximum amount and the thread
-     * isn't interrupted by a timeout.
+     * Accepts all waiting clients and starts waiting for their names, until there are no more waiting
+     * or the number of players and clients waiting on names reaches the round max.
+     * @throws IOException if accepting fails
      */
-    private void allowSignUps() {
-        while(players.size() < ROUND_MAX && !Thread.currentThread().isInterrupted()) {
-            if(!acceptAllWaiting()) {
-                return;
+    private void acceptAllWaiting() throws IOException {
+        while(players.size() + waitingForNames.size() < ROUND_MAX) {
+            SocketChannel newPotentialPlayer = server.accept();
+            if(newPotentialPlayer == null) {
+                break;
             }
-            ArrayList<Future<Optional<ProxyPlayer>>> newWaitingForNames = new ArrayList<Future<Optional<ProxyPlayer>>>(waitingForNames);
-            for(Future<Optional<ProxyPlayer>> waitingOnName : waitingForNames) {
-                if(Thread.currentThread().isInterrupted()) {
-                    break;
+            newPotentialPlayer.configureBlocking(false);
+            newPotentialPlayer.register(selector, SelectionKey.OP_READ,
+                ByteBuffer.allocate(MAX_NAME_FRAME));
+            waitingForNames.add(newPotentialPlayer);
+            nameDeadlines.schedule(newPotentialPlayer, System.currentTimeMillis() + nameTimeout);
+        }
+        updateAcceptInterest();
+    }
+
+    /**
+     * Only listens for new connections while there is room for them in the round.
+     */
+    private void updateAcceptInterest() {
+        if(acceptKey.isValid()) {
+            acceptKey.interestOps(players.size() + waitingForNames.size() < ROUND_MAX
+                ? SelectionKey.OP_ACCEPT : 0);
+        }
+    }
+
+    /**
+     * Waits for players to sign up while the size is less than the maximum amount and the sign up
+     * window has not ended.
+     * @param endMillis the time at which the sign up window ends
+     * @return false if the server was shut down, true otherwise
+     * @throws IOException if accepting or selecting fails for another reason, such as running out
+     *                     of file descriptors
+     */
+    private boolean allowSignUps(long endMillis) throws IOException {
+        try {
+            while(players.size() < ROUND_MAX) {
+                long now = System.currentTimeMillis();
+                if(now >= endMillis) {
+                    return true;
+                }
+                long wait = endMillis - now;
+                if(!nameDeadlines.isEmpty()) {
+                    wait = Math.min(wait, nameDeadlines.getTickMillis());
                 }
-                if(waitingOnName.isDone()) {
-                    try {
-                        Optional<ProxyPlayer> playerMaybe = waitingOnName.get();
-                        if(playerMaybe.isPresent() && !Thread.currentThread().isInterrupted()) {
-                            players.add(playerMaybe.get());
-                        }
-                    } catch(InterruptedException | ExecutionException fatalException) {
-                        //WAITING FOR NAME CRASH
-                        fatalException.printStackTrace();
-                        System.exit(1);
+                selector.select(wait);
+
+                Map<SocketChannel, String> named = new LinkedHashMap<SocketChannel, String>();
+                Iterator<SelectionKey> selected = selector.selectedKeys().iterator();
+                while(selected.hasNext()) {
+                    SelectionKey key = selected.next();
+                    selected.remove();
+                    if(!key.isValid()) {
+                        continue;
                     }
-                    newWaitingForNames.remove(waitingOnName);
-                    if(players.size() == ROUND_MAX) {
-                        break;
+                    if(key.isAcceptable()) {
+                        acceptAllWaiting();
+                    } else if(key.isReadable()) {
+                        readName(key).ifPresent((name) -> named.put((SocketChannel) key.channel(), name));
+                    }
+                }
+                if(!named.isEmpty()) {
+                    addNamedPlayers(named);
+                }
+
+                for(SocketChannel expired : nameDeadlines.expire(System.currentTimeMillis())) {
+                    if(waitingForNames.contains(expired)) {
+                        //NAME TIMEOUT
+                        rejectWaiting(expired);
                     }
                 }
             }
-            waitingForNames = newWaitingForNames;
+        } catch (ClosedSelectorException | ClosedChannelException e) {
+            //Server was closed by shutdown (or something else unrecoverable)
+            return false;
         }
+        return true;
     }
-    
+
     /**
      * Start accepting signups, and if enough do signup, return a list of players.
-     * If it fails it returns an empty list
+     * If it fails it returns an empty list, and the players who did sign up are kept for the next call.
+     * This can be called again once it returns, to sign up the players for another tournament.
      * @return The list of players who signed up
+     * @throws IOException if the server fails to accept or select, such as when it runs out of file
+     *                     descriptors. The players who did sign up are kept for the next call, which
+     *                     may succeed once the cause has passed.
      */
-    public ArrayList<IPlayer> startSignup() {
+    public ArrayList<IPlayer> startSignup() throws IOException {
         int signUpRound = 0;
-        executor = Executors.newSingleThreadExecutor();
         int minPlayers = FIRST_ROUND_MIN;
 
         do {
             signUpRound += 1;
-            acceptSocketConncetions = executor.submit(this::allowSignUps);
-            
-            try {
-                acceptSocketConncetions.get(timeout, TimeUnit.MILLISECONDS);
+            boolean open = allowSignUps(System.currentTimeMillis() + timeout);
 
-                //FULL ROUND
-                shutdownExecutors();
-                return new ArrayList<IPlayer>(players);
-            } catch(TimeoutException timeout) {
-                //TIMEOUT
-                if(players.size() >= minPlayers) {
-                    //ENOUGH PLAYERS TO RUN
-                    shutdownExecutors();
-                    return new ArrayList<IPlayer>(players);
-                } else {
-                    //NOT ENOUGH WAIT ONE MORE TIMEOUT
-                    acceptSocketConncetions.cancel(true);
-                    minPlayers = RELAXED_ROUND_MIN;
-                }
-            } catch(InterruptedException | ExecutionException fatalException) {
-                //SIGNUP SERVER CRASH
-                fatalException.printStackTrace();
-                System.exit(1);
+            if(!open || players.size() == ROUND_MAX || players.size() >= minPlayers) {
+                //FULL ROUND OR ENOUGH PLAYERS TO RUN
+                closeWaiting();
+                return handOffPlayers();
             }
+            //NOT ENOUGH WAIT ONE MORE TIMEOUT
+            minPlayers = RELAXED_ROUND_MIN;
         } while(signUpRound < 2);
 
-        //DONE WITH SIGNUP, NOT ENOUGH PLAYERS, SHUT DOWN THREADS
-        shutdownExecutors();
+        //DONE WITH SIGNUP, NOT ENOUGH PLAYERS, CLOSE WAITING CONNECTIONS
+        closeWaiting();
 
         //Should return default [ [], [] ] tourney result
         return new ArrayList<IPlayer>();
     }
 
     /**
-     * Shutdowns the executors.
+     * Hands off the players who have signed up so far, so that the next sign up starts with none.
+     * @return the players who signed up
      */
-    private void shutdownExecutors() {
-        waitingForNames.forEach((f) -> {
-            f.cancel(true);
-        });
-        acceptSocketConncetions.cancel(true);
-        executor.shutdownNow();
-        executorNames.shutdownNow();
+    private ArrayList<IPlayer> handOffPlayers() {
+        ArrayList<IPlayer> signedUp = players;
+        signedUpLookup = nameLookup;
+        players = new ArrayList<IPlayer>();
+        nameLookup = new HashMap<IPlayer, String>();
+        return signedUp;
     }
 
     /**
-     * Return the name lookup table for converting from IPlayer references to their names
+     * Closes the connections of all clients that have not supplied a name.
+     */
+    private void closeWaiting() {
+        new ArrayList<SocketChannel>(waitingForNames).forEach(this::rejectWaiting);
+    }
+
+    /**
+     * Return the name lookup table for converting from IPlayer references to their names, for the
+     * players returned by the last call to startSignup
      * @return The lookup table
      */
     public Map<IPlayer, String> getLookupTable() {
-        return nameLookup;
+        return signedUpLookup;
+    }
+
+    /**
+     * Determines whether the server is still accepting connections
+     * @return false once the server has been shut down
+     */
+    public boolean isOpen() {
+        return server.isOpen() && selector.isOpen();
     }
 
     /**
@@ -254,6 +331,7 @@ public class TrainsServer
     public void shutdown() {
         try {
             server.close();
+            selector.close();
         } catch(IOException e) {
             e.printStackTrace();
         }
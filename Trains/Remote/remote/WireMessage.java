@@ -0,0 +1,77 @@
+package remote;
+
+import game_state.IPlayerGameState;
+import game_state.RailCard;
+import java.util.List;
+import java.util.Set;
+import map.Destination;
+import map.ITrainMap;
+
+/**
+ * A message received from the other side of a connection, decoded by an IWireCodec. The name is
+ * the message's name in the protocol ("start", "setup", "pick", "play", "more", "win" or "end"),
+ * and only the fields that message carries are set; the rest are null.
+ */
+public class WireMessage {
+    public final String name;
+    public final ITrainMap map;
+    public final Integer numRails;
+    public final List<RailCard> cards;
+    public final Set<Destination> destinations;
+    public final IPlayerGameState state;
+    public final Boolean flag;
+    public final Set<String> extensions;
+
+    private WireMessage(String name, ITrainMap map, Integer numRails, List<RailCard> cards,
+        Set<Destination> destinations, IPlayerGameState state, Boolean flag,
+        Set<String> extensions) {
+        this.name = name;
+        this.map = map;
+        this.numRails = numRails;
+        this.cards = cards;
+        this.destinations = destinations;
+        this.state = state;
+        this.flag = flag;
+        this.extensions = extensions;
+    }
+
+    /** A "start" message offering the given protocol extensions. */
+    public static WireMessage start(Set<String> offeredExtensions) {
+        return new WireMessage("start", null, null, null, null, null, true, offeredExtensions);
+    }
+
+    /** The answer to "start": the submitted map and the protocol extensions accepted. */
+    public static WireMessage startResponse(ITrainMap map, Set<String> acceptedExtensions) {
+        return new WireMessage("start", map, null, null, null, null, null, acceptedExtensions);
+    }
+
+    /** A "setup" message. */
+    public static WireMessage setup(ITrainMap map, int numRails, List<RailCard> cards) {
+        return new WireMessage("setup", map, numRails, cards, null, null, null, null);
+    }
+
+    /** A "pick" message offering the given destinations. */
+    public static WireMessage pick(Set<Destination> options) {
+        return new WireMessage("pick", null, null, null, options, null, null, null);
+    }
+
+    /** A "play" message with the player's state. */
+    public static WireMessage play(IPlayerGameState state) {
+        return new WireMessage("play", null, null, null, null, state, null, null);
+    }
+
+    /** A "more" message with the drawn cards. */
+    public static WireMessage more(List<RailCard> cards) {
+        return new WireMessage("more", null, null, cards, null, null, null, null);
+    }
+
+    /** A "win" or "end" message with whether the player won. */
+    public static WireMessage result(String name, boolean won) {
+        return new WireMessage(name, null, null, null, null, null, won, null);
+    }
+
+    /** A message this side does not know, which is ignored. */
+    public static WireMessage unknown(String name) {
+        return new WireMessage(name, null, null, null, null, null, null, null);
+    }
+}